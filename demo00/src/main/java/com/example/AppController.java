@@ -14,25 +14,38 @@
 package com.example;
 import com.example.blog.Blog;
 import com.example.blog.BlogService;
+import com.example.cache.FragmentCache;
+import com.example.cache.FragmentKey;
+import com.example.cache.FragmentRenderer;
+import com.example.cache.TableVersions;
 import com.example.client.Client;
 import com.example.client.ClientService;
 import com.example.config.UserInfo;
 import com.example.config.UserService;
+import com.example.config.UsernameTakenException;
+import com.example.queue.WalkInQueueService;
+import com.example.tenant.TenantContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.repository.query.Param;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/")
@@ -41,11 +54,19 @@ public class AppController {
 
     private final ClientService clientService;
     private final BlogService blogService;
+    private final TableVersions tableVersions;
+    private final FragmentCache fragmentCache;
+    private final FragmentRenderer fragmentRenderer;
     @Autowired
     private UserService userService;
+    @Autowired
+    private WalkInQueueService walkInQueueService;
 
     /**
      Handles GET requests to the "/blog" path. Searches for blog posts based on the provided criteria.
+     If the browser already has the page for the current version of the blog table, the same criteria and
+     the same user, it is answered with 304 Not Modified before any query or rendering is done.
+     The posts table and the post cards come from the FragmentCache; posts are only queried when they are missing there.
      @param model the model object to add attributes to for rendering the view
      @param keywordId the ID keyword to search for
      @param keywordPostName the post name keyword to search for
@@ -53,7 +74,8 @@ public class AppController {
      @param keywordText the text keyword to search for
      @param keywordClientName the client name keyword to search for
      @param keyword the keyword to search for
-     @return the name of the view to render
+     @param request the current request, used to check the If-None-Match and If-Modified-Since headers
+     @return the name of the view to render, or null if the response is 304 Not Modified
      */
     @GetMapping("/blog")
     public String searchBlog(Model model, @Param("keywordId") String keywordId,
@@ -61,13 +83,25 @@ public class AppController {
                             @Param("keywordDate") String keywordDate,
                             @Param("keywordText") String keywordText,
                             @Param("keywordClientName") String keywordClientName,
-                            @Param("keyword") String keyword) {
-        List<Blog> listPostsByCriteria = blogService.listByPostCriteria(keywordId, keywordPostName,
+                            @Param("keyword") String keyword, NativeWebRequest request) {
+        long location = TenantContext.currentOrDefault();
+        String etag = tableVersions.etag(TableVersions.BLOG, location, currentUserTag(),
+                keywordId, keywordPostName, keywordDate, keywordText, keywordClientName, keyword);
+        if (notModified(request, etag, TableVersions.BLOG, location)) {
+            return null;
+        }
+        BlogService.PostCriterion criterion = BlogService.criterionOf(keywordId, keywordPostName,
                 keywordDate, keywordText, keywordClientName, keyword);
-        model.addAttribute("listPosts", listPostsByCriteria);
-        String postKeywordName = blogService.getPostKeywordName();
-        if (postKeywordName != null) {
-            model.addAttribute(postKeywordName, blogService.getPostKeyword());
+        Map<String, String> fragments = fragmentCache.getOrRender(
+                new FragmentKey(TableVersions.BLOG, location, criterion.name(), criterion.keyword(), currentRoles()),
+                () -> fragmentRenderer.render("fragments/blog_posts",
+                        Map.of("listPosts", blogService.listByPostCriteria(keywordId, keywordPostName,
+                                keywordDate, keywordText, keywordClientName, keyword)),
+                        request, "rows", "cards"));
+        model.addAttribute("postRows", fragments.get("rows"));
+        model.addAttribute("postCards", fragments.get("cards"));
+        if (criterion.name() != null) {
+            model.addAttribute(criterion.name(), criterion.keyword());
         }
         return "blog";
     }
@@ -96,16 +130,20 @@ public class AppController {
     }
     /**
      Handles POST requests to the "/auth/register" path. Adds a new user to the system.
+     If the name is already taken, the register page is shown again with a message.
      @param userInfo the user information to add
      @param name the username of the user
      @param roles the roles of the user
      @param session the HttpSession object to add attributes to
-     @return a redirect to the root path
+     @return a redirect to the root path, or back to the register page if the name is taken
      */
     @PostMapping("/auth/register")
     public String addNewUser(@ModelAttribute UserInfo userInfo, @RequestParam String name, @RequestParam String roles, HttpSession session) {
-        System.out.println("UserInfo object is: " + userInfo); // Debugging code
-        userService.addUser(userInfo);
+        try {
+            userService.addUser(userInfo);
+        } catch (UsernameTakenException e) {
+            return "redirect:/auth/register?taken";
+        }
         session.setAttribute("username", name);
         session.setAttribute("roles", roles);
         return "redirect:/";
@@ -124,16 +162,33 @@ public class AppController {
     }
     /**
      The {@code viewHomePage} method retrieves a list of clients from the {@link ClientService} and displays them on the home page.
-     @param model The {@link Model} object to be populated with the client list and keyword search term.
+     Like the blog page, it is answered with 304 Not Modified when the browser's copy is still current,
+     and the rows of the client table come from the FragmentCache.
+     @param model The {@link Model} object to be populated with the client rows and keyword search term.
      @param keyword The search term entered by the user to filter the client list.
-     @return The name of the view to be rendered, in this case, the home page.
+     @param history Whether to include the archived visits ("include history").
+     @param request The current request, used to check the If-None-Match and If-Modified-Since headers.
+     @return The name of the view to be rendered, in this case, the home page, or null if the response is 304 Not Modified.
      */
     @GetMapping("/")
-    public String viewHomePage(Model model, @Param("keyword") String keyword) { // , Long post_id
-        List<Client> listClients = clientService.listAll(keyword);
+    public String viewHomePage(Model model, @Param("keyword") String keyword,
+                               @RequestParam(name = "history", defaultValue = "false") boolean history,
+                               NativeWebRequest request) { // , Long post_id
+        long location = TenantContext.currentOrDefault();
+        String etag = tableVersions.etag(TableVersions.CLIENT, location, currentUserTag(), keyword, String.valueOf(history));
+        if (notModified(request, etag, TableVersions.CLIENT, location)) {
+            return null;
+        }
+        String roles = currentRoles();
+        Map<String, String> fragments = fragmentCache.getOrRender(
+                new FragmentKey(TableVersions.CLIENT, location, history ? "history" : "keyword", keyword, roles),
+                () -> fragmentRenderer.render("fragments/client_rows",
+                        Map.of("listClients", clientService.listAll(keyword, history), "admin", roles.contains("ROLE_ADMIN")),
+                        request, "rows"));
 //        Blog blog = blogService.get(post_id);
-        model.addAttribute("listClients", listClients);
+        model.addAttribute("clientRows", fragments.get("rows"));
         model.addAttribute("keyword", keyword);
+        model.addAttribute("history", history);
 //        model.addAttribute("Blog", blog);
         return "index";
     }
@@ -202,6 +257,28 @@ public class AppController {
         clientService.delete(id);
         return "redirect:/";
     }
+    /**
+     Shows the live walk-in queues of all masters; the page follows them over Server-Sent Events.
+     @param model the model to add the master names and the admin flag to
+     @return the name of the walk-in queue page
+     */
+    @GetMapping("/walk_in")
+    public String showWalkInQueue(Model model) {
+        model.addAttribute("masters", walkInQueueService.masters());
+        model.addAttribute("admin", currentRoles().contains("ROLE_ADMIN"));
+        return "walk_in";
+    }
+    /**
+     Checks a client in when they arrive for their visit, so they are not marked as a no-show.
+     @param id the ID of the client
+     @return a redirect to the main page
+     */
+    @GetMapping("/check_in/{id}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public String checkInClient(@PathVariable(name = "id") Long id) {
+        clientService.checkIn(id);
+        return "redirect:/";
+    }
     /**
      Deletes a post from the list.
      @param post_id the ID of the post to be deleted
@@ -212,6 +289,56 @@ public class AppController {
         blogService.delete(post_id);
         return "redirect:/blog";
     }
+    /**
+     Deletes the clients selected on the main page with one statement.
+     @param ids the IDs of the selected clients
+     @return a redirect to the main page
+     */
+    @PostMapping("/delete_selected")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public String deleteSelectedClients(@RequestParam(name = "ids", required = false) List<Long> ids) {
+        if (ids != null) {
+            clientService.deleteAll(ids);
+        }
+        return "redirect:/";
+    }
+    /**
+     Deletes the posts selected on the blog page with one statement.
+     @param ids the IDs of the selected posts
+     @return a redirect to the blog page
+     */
+    @PostMapping("/delete_selected_posts")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public String deleteSelectedPosts(@RequestParam(name = "post_ids", required = false) List<Long> ids) {
+        if (ids != null) {
+            blogService.deleteAll(ids);
+        }
+        return "redirect:/blog";
+    }
+    /**
+     Moves all future visits of one master to another master.
+     @param from the name of the master whose schedule is closed
+     @param to the name of the master who takes over the visits
+     @return a redirect to the main page
+     */
+    @PostMapping("/reassign_master")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public String reassignMaster(@RequestParam String from, @RequestParam String to) {
+        clientService.reassignMaster(from, to);
+        return "redirect:/";
+    }
+    /**
+     Renames a service in all visits.
+     @param from the current name of the service
+     @param to the new name of the service
+     @return a redirect to the main page
+     */
+    @PostMapping("/rename_service")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public String renameService(@RequestParam String from, @RequestParam String to) {
+        clientService.renameService(from, to);
+        return "redirect:/";
+    }
 
     /**
      Controller method for showing the "about us" page.
@@ -251,6 +378,55 @@ public class AppController {
     public String AccessDeniedError() {
         return "403";
     }
+
+    /**
+     Checks a conditional GET against the ETag and last write time of a table at a location. The pages show the user name
+     and role-dependent buttons, so the user is part of the ETag. "no-cache" lets the browser keep the page
+     but makes it revalidate on every refresh (Spring Security would otherwise send "no-store").
+     @param request the current request
+     @param etag the weak ETag of the page
+     @param table the table the page is built from
+     @param location the location the page shows
+     @return true if 304 Not Modified has been set on the response and nothing else should be done
+     */
+    private boolean notModified(NativeWebRequest request, String etag, String table, long location) {
+        if (request.checkNotModified(etag, tableVersions.lastModified(table, location))) {
+            return true;
+        }
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return false;
+    }
+
+    /**
+     Describes the current user for ETags: the user name followed by the sorted authorities.
+     @return the user description, or an empty string for anonymous requests
+     */
+    private static String currentUserTag() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "";
+        }
+        return authentication.getName() + currentRoles();
+    }
+
+    /**
+     Describes the roles of the current user: the sorted authorities, e.g. "[ROLE_ADMIN]".
+     Rows of the cached tables differ only by role, so this is part of their FragmentCache key.
+     @return the roles, or "[]" for anonymous requests
+     */
+    private static String currentRoles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "[]";
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(",", "[", "]"));
+    }
 }
 
 
@@ -0,0 +1,99 @@
+/**
+ The AnalyticsController class exposes the approximate visit analytics of VisitAnalyticsService as JSON.
+ Months are passed as "yyyy-MM"; leaving out the master asks about all masters together.
+ Only administrators have access, like the other pages that change or summarise client data.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import com.example.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AnalyticsController {
+
+    private final VisitAnalyticsService analyticsService;
+
+    /**
+     Estimates the number of distinct clients of a master (or of all masters) in a range of months.
+     @param master the master name, optional
+     @param from the first month, inclusive
+     @param to the last month, inclusive
+     @return the estimate
+     */
+    @GetMapping("/unique_clients")
+    public Map<String, Object> uniqueClients(@RequestParam(required = false) String master,
+                                             @RequestParam YearMonth from, @RequestParam YearMonth to) {
+        return Map.of("uniqueClients", analyticsService.uniqueClients(master, from, to));
+    }
+
+    /**
+     Returns the most popular services in a range of months.
+     @param master the master name, optional
+     @param from the first month, inclusive
+     @param to the last month, inclusive
+     @param limit the number of services to return
+     @return service names with their estimated number of visits, most popular first
+     */
+    @GetMapping("/top_services")
+    public Map<String, Long> topServices(@RequestParam(required = false) String master,
+                                         @RequestParam YearMonth from, @RequestParam YearMonth to,
+                                         @RequestParam(defaultValue = "5") int limit) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : analyticsService.topServices(master, from, to, limit)) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     Returns the median and other percentiles of the time of day of visits in a range of months.
+     @param master the master name, optional
+     @param from the first month, inclusive
+     @param to the last month, inclusive
+     @return percentile name to time of day, empty if there were no visits
+     */
+    @GetMapping("/visit_times")
+    public Map<String, LocalTime> visitTimes(@RequestParam(required = false) String master,
+                                             @RequestParam YearMonth from, @RequestParam YearMonth to) {
+        Map<String, LocalTime> result = new LinkedHashMap<>();
+        for (double quantile : List.of(0.1, 0.5, 0.9)) {
+            LocalTime time = analyticsService.visitTimePercentile(master, from, to, quantile);
+            if (time != null) {
+                result.put("p" + Math.round(quantile * 100), time);
+            }
+        }
+        return result;
+    }
+
+    /**
+     Recomputes all sketches from the client table. The sketches count the visits of all locations, so the
+     rebuild reads the table without the location of the request.
+     @return a confirmation message
+     */
+    @PostMapping("/rebuild")
+    public Map<String, String> rebuild() {
+        TenantContext.callAt(null, () -> {
+            analyticsService.rebuild();
+            return null;
+        });
+        return Map.of("status", "rebuilt");
+    }
+}
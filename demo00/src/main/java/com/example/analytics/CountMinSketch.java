@@ -0,0 +1,172 @@
+/**
+ The CountMinSketch class estimates how often each value occurs in a stream using a fixed amount of memory.
+ Counts are kept in a DEPTH x WIDTH table of counters; a value's estimate is the minimum of its counters,
+ so it never under-counts and over-counts by at most about 1% of the total with high probability.
+ To answer "top N" questions the sketch also keeps a small set of heavy-hitter candidates, the values
+ with the highest estimates seen so far. Sketches with the same dimensions are merged by adding counters.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CountMinSketch {
+    static final int DEPTH = 4;
+    static final int WIDTH = 272;
+    static final int MAX_CANDIDATES = 32;
+
+    private final int[][] counters = new int[DEPTH][WIDTH];
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long total;
+
+    /**
+     * Adds one occurrence of a value.
+     * @param value the value to count, e.g. a service name
+     */
+    public void add(String value) {
+        long hash = Hashing.hash64(value);
+        for (int row = 0; row < DEPTH; row++) {
+            counters[row][bucket(hash, row)]++;
+        }
+        total++;
+        offerCandidate(value, estimate(value));
+    }
+
+    /**
+     * Returns the estimated number of occurrences of a value.
+     * @param value the value to look up
+     * @return an estimate that is never lower than the real count
+     */
+    public long estimate(String value) {
+        long hash = Hashing.hash64(value);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[row][bucket(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Merges another sketch into this one and recomputes the heavy-hitter candidates.
+     * @param other the sketch to merge, it is not modified
+     */
+    public void merge(CountMinSketch other) {
+        for (int row = 0; row < DEPTH; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                counters[row][column] += other.counters[row][column];
+            }
+        }
+        total += other.total;
+        List<String> keys = new ArrayList<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        for (String key : keys) {
+            offerCandidate(key, estimate(key));
+        }
+    }
+
+    /**
+     * Returns the most frequent values with their estimated counts, most frequent first.
+     * @param limit the maximum number of values to return
+     * @return a list of value/estimate pairs
+     */
+    public List<Map.Entry<String, Long>> top(int limit) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(e -> Map.entry(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * Returns the total number of values added to the sketch.
+     * @return the total count
+     */
+    public long total() {
+        return total;
+    }
+
+    private void offerCandidate(String value, long estimate) {
+        if (candidates.containsKey(value) || candidates.size() < MAX_CANDIDATES) {
+            candidates.put(value, estimate);
+            return;
+        }
+        Map.Entry<String, Long> smallest = candidates.entrySet().stream()
+                .min(Comparator.comparingLong(Map.Entry::getValue))
+                .orElseThrow();
+        if (estimate > smallest.getValue()) {
+            candidates.remove(smallest.getKey());
+            candidates.put(value, estimate);
+        }
+    }
+
+    private static int bucket(long hash, int row) {
+        // derives DEPTH independent hashes from one 64-bit hash (Kirsch-Mitzenmacher)
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, WIDTH);
+    }
+
+    /**
+     * Serializes the counters and candidates, used to store the sketch in the database.
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(DEPTH * WIDTH * 4 + 512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(total);
+            for (int[] row : counters) {
+                for (int counter : row) {
+                    out.writeInt(counter);
+                }
+            }
+            out.writeShort(candidates.size());
+            for (String candidate : candidates.keySet()) {
+                out.writeUTF(candidate);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a sketch from bytes produced by {@link #toBytes()}.
+     * @param bytes the stored sketch, null or empty gives an empty sketch
+     * @return the restored sketch
+     */
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        CountMinSketch sketch = new CountMinSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            sketch.total = in.readLong();
+            for (int row = 0; row < DEPTH; row++) {
+                for (int column = 0; column < WIDTH; column++) {
+                    sketch.counters[row][column] = in.readInt();
+                }
+            }
+            int size = in.readUnsignedShort();
+            for (int i = 0; i < size; i++) {
+                String candidate = in.readUTF();
+                sketch.candidates.put(candidate, sketch.estimate(candidate));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sketch;
+    }
+}
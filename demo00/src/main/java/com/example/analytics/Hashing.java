@@ -0,0 +1,50 @@
+/**
+ The Hashing class provides a small, dependency-free 64-bit hash for strings.
+ It is used by the probabilistic structures (HyperLogLog, Count-Min sketch) that need well mixed bits,
+ which String.hashCode alone does not give: FNV-1a over the UTF-8 bytes is finished with the
+ MurmurHash3 64-bit finalizer so that every output bit depends on every input bit.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import java.nio.charset.StandardCharsets;
+
+public final class Hashing {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * Computes a 64-bit hash of the given string.
+     * @param value the string to hash, null is treated as an empty string
+     * @return a well mixed 64-bit hash
+     */
+    public static long hash64(String value) {
+        long h = FNV_OFFSET;
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= (b & 0xff);
+                h *= FNV_PRIME;
+            }
+        }
+        return fmix64(h);
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreads the entropy of the input over all 64 bits.
+     * @param k the value to mix
+     * @return the mixed value
+     */
+    public static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
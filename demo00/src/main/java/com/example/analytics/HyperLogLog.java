@@ -0,0 +1,94 @@
+/**
+ The HyperLogLog class estimates the number of distinct values seen without keeping the values themselves.
+ It uses 2^12 one-byte registers (4 KB), which gives a standard error of about 1.6% regardless of how many
+ values were added. Two sketches are merged by taking the register-wise maximum, so monthly sketches
+ can be combined into an estimate for any range of months.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+public class HyperLogLog {
+    static final int PRECISION = 12;
+    static final int REGISTERS = 1 << PRECISION;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     * @param value the value to count, e.g. a client name
+     */
+    public void add(String value) {
+        long hash = Hashing.hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // position of the first 1-bit in the remaining bits, the sentinel bit bounds it by 64 - PRECISION + 1
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges another sketch into this one.
+     * @param other the sketch to merge, it is not modified
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct values added to the sketch.
+     * @return the cardinality estimate
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        // small range correction: linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns the raw registers, used to store the sketch in the database.
+     * @return a copy of the registers
+     */
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /**
+     * Restores a sketch from bytes produced by {@link #toBytes()}.
+     * @param bytes the stored registers, null or empty gives an empty sketch
+     * @return the restored sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS) {
+            return new HyperLogLog();
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+}
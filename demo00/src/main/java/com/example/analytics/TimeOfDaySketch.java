@@ -0,0 +1,100 @@
+/**
+ The TimeOfDaySketch class answers percentile questions about the time of day visits are booked for.
+ Visit times are counted in fixed five-minute bins, so the sketch always takes 288 counters no matter
+ how many visits it has seen, a percentile is accurate to within one bin (five minutes), and two
+ sketches are merged by adding their bins.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+
+public class TimeOfDaySketch {
+    static final int BIN_MINUTES = 5;
+    static final int BINS = 24 * 60 / BIN_MINUTES;
+
+    private final int[] bins = new int[BINS];
+    private long count;
+
+    /**
+     * Adds a visit time to the sketch.
+     * @param time the time of day of the visit
+     */
+    public void add(LocalTime time) {
+        bins[(time.getHour() * 60 + time.getMinute()) / BIN_MINUTES]++;
+        count++;
+    }
+
+    /**
+     * Merges another sketch into this one.
+     * @param other the sketch to merge, it is not modified
+     */
+    public void merge(TimeOfDaySketch other) {
+        for (int i = 0; i < BINS; i++) {
+            bins[i] += other.bins[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * Returns the time of day below which the given fraction of visits fall.
+     * @param quantile a value between 0 and 1, e.g. 0.5 for the median or 0.9 for the 90th percentile
+     * @return the middle of the bin holding the quantile, or null if the sketch is empty
+     */
+    public LocalTime quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(quantile, 0.0), 1.0) * count);
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen >= Math.max(rank, 1)) {
+                return LocalTime.of(0, 0).plusMinutes((long) i * BIN_MINUTES + BIN_MINUTES / 2);
+            }
+        }
+        return LocalTime.of(23, 59);
+    }
+
+    /**
+     * Returns the number of visit times added to the sketch.
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Serializes the bins, used to store the sketch in the database.
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + BINS * 4);
+        buffer.putLong(count);
+        for (int bin : bins) {
+            buffer.putInt(bin);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a sketch from bytes produced by {@link #toBytes()}.
+     * @param bytes the stored sketch, null or empty gives an empty sketch
+     * @return the restored sketch
+     */
+    public static TimeOfDaySketch fromBytes(byte[] bytes) {
+        TimeOfDaySketch sketch = new TimeOfDaySketch();
+        if (bytes == null || bytes.length != 8 + BINS * 4) {
+            return sketch;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        sketch.count = buffer.getLong();
+        for (int i = 0; i < BINS; i++) {
+            sketch.bins[i] = buffer.getInt();
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ The VisitAnalyticsService class answers long-range questions about visits from per-master, per-month sketches
+ instead of scanning the client table: how many distinct clients a master had, which services are the most
+ popular and at what time of day visits usually take place.
+ Sketches are updated from the committed inserts of clients, which the service receives as a durable
+ ChangeConsumer, and stored in the visit_sketch table together with the consumer's position in the change outbox.
+ A query merges the sketches of the requested months, so its cost depends on the number of months and masters
+ in the range and not on the number of visits. The answers are approximate: distinct counts are within a few
+ percent, service counts never under-count, and visit-time percentiles are accurate to five minutes.
+ Sketches only grow, edits and deletes of existing visits are not subtracted; {@link #rebuild()} recomputes
+ them from the client table when exact history matters.
+ Concurrent updates of one sketch are serialized by its row lock, which is held until the updating transaction
+ commits; a JVM monitor would be released before the commit and let two updates overwrite each other.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.VisitDates;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeConsumer;
+import com.example.events.ChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class VisitAnalyticsService implements ChangeConsumer {
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private VisitSketchRepository sketchRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Override
+    public String consumerName() {
+        return "visit-analytics";
+    }
+
+    @Override
+    public boolean durable() {
+        return true;
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event.table().equals(TableVersions.CLIENT) && event.type() == ChangeEvent.Type.INSERT) {
+                record(event.after(Client.class));
+            }
+        }
+    }
+
+    /**
+     * Records a new visit in the sketch of its master and month.
+     * Visits without a master or with a visit date that cannot be parsed are skipped.
+     * The sketch row is created if it is missing and locked before it is read, so a concurrent update of the
+     * same master and month waits for this one to commit and then reads its result.
+     * @param client the visit that has just been saved
+     */
+    @Transactional
+    public void record(Client client) {
+        LocalDateTime visit = VisitDates.parse(client.getVisit_date());
+        if (visit == null || client.getMaster_name() == null) {
+            return;
+        }
+        String period = YearMonth.from(visit).toString();
+        sketchRepository.insertIfAbsent(client.getMaster_name(), period);
+        VisitSketch stored = sketchRepository.findForUpdate(client.getMaster_name(), period).orElseThrow();
+        sketchRepository.save(update(stored, client, visit));
+    }
+
+    /**
+     * Estimates the number of distinct clients in a range of months.
+     * @param masterName the master to ask about, or null for all masters
+     * @param from the first month, inclusive
+     * @param to the last month, inclusive
+     * @return the estimated number of distinct clients
+     */
+    @Transactional(readOnly = true)
+    public long uniqueClients(String masterName, YearMonth from, YearMonth to) {
+        HyperLogLog merged = new HyperLogLog();
+        for (VisitSketch sketch : load(masterName, from, to)) {
+            merged.merge(HyperLogLog.fromBytes(sketch.getClients()));
+        }
+        return merged.estimate();
+    }
+
+    /**
+     * Returns the most popular services in a range of months with their estimated number of visits.
+     * @param masterName the master to ask about, or null for all masters
+     * @param from the first month, inclusive
+     * @param to the last month, inclusive
+     * @param limit the maximum number of services to return
+     * @return service/visit count pairs, most popular first
+     */
+    @Transactional(readOnly = true)
+    public List<Map.Entry<String, Long>> topServices(String masterName, YearMonth from, YearMonth to, int limit) {
+        CountMinSketch merged = new CountMinSketch();
+        for (VisitSketch sketch : load(masterName, from, to)) {
+            merged.merge(CountMinSketch.fromBytes(sketch.getServices()));
+        }
+        return merged.top(limit);
+    }
+
+    /**
+     * Returns the time of day below which the given fraction of visits in a range of months fall.
+     * @param masterName the master to ask about, or null for all masters
+     * @param from the first month, inclusive
+     * @param to the last month, inclusive
+     * @param quantile a value between 0 and 1, e.g. 0.5 for the median
+     * @return the estimated visit time, or null if there were no visits
+     */
+    @Transactional(readOnly = true)
+    public LocalTime visitTimePercentile(String masterName, YearMonth from, YearMonth to, double quantile) {
+        TimeOfDaySketch merged = new TimeOfDaySketch();
+        for (VisitSketch sketch : load(masterName, from, to)) {
+            merged.merge(TimeOfDaySketch.fromBytes(sketch.getVisit_times()));
+        }
+        return merged.quantile(quantile);
+    }
+
+    /**
+     * Recomputes all sketches from the client table, reading it page by page.
+     * This is the only operation that scans the client table, it is meant for the first start and
+     * for correcting the drift caused by edited or deleted visits. Pages are read in id order, so no client is
+     * skipped or counted twice; a rebuild running at the same time fails on the unique key and is rolled back.
+     */
+    @Transactional
+    public void rebuild() {
+        Map<String, VisitSketch> sketches = new HashMap<>();
+        Page<Client> page = clientRepository.findAll(PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+        while (true) {
+            for (Client client : page) {
+                LocalDateTime visit = VisitDates.parse(client.getVisit_date());
+                if (visit == null || client.getMaster_name() == null) {
+                    continue;
+                }
+                String period = YearMonth.from(visit).toString();
+                VisitSketch sketch = sketches.computeIfAbsent(client.getMaster_name() + '|' + period,
+                        key -> new VisitSketch(null, client.getMaster_name(), period, null, null, null));
+                update(sketch, client, visit);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = clientRepository.findAll(page.nextPageable());
+        }
+        sketchRepository.deleteAllInBatch();
+        sketchRepository.saveAll(sketches.values());
+    }
+
+    private List<VisitSketch> load(String masterName, YearMonth from, YearMonth to) {
+        if (masterName == null || masterName.isBlank()) {
+            return sketchRepository.findInRange(from.toString(), to.toString());
+        }
+        return sketchRepository.findInRangeByMaster(masterName, from.toString(), to.toString());
+    }
+
+    private static VisitSketch update(VisitSketch sketch, Client client, LocalDateTime visit) {
+        HyperLogLog clients = HyperLogLog.fromBytes(sketch.getClients());
+        CountMinSketch services = CountMinSketch.fromBytes(sketch.getServices());
+        TimeOfDaySketch visitTimes = TimeOfDaySketch.fromBytes(sketch.getVisit_times());
+        if (client.getFull_name() != null) {
+            clients.add(client.getFull_name().trim().toLowerCase());
+        }
+        if (client.getService() != null) {
+            services.add(client.getService().trim());
+        }
+        visitTimes.add(visit.toLocalTime());
+        sketch.setClients(clients.toBytes());
+        sketch.setServices(services.toBytes());
+        sketch.setVisit_times(visitTimes.toBytes());
+        return sketch;
+    }
+}
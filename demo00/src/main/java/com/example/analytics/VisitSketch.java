@@ -0,0 +1,43 @@
+/**
+ The VisitSketch class stores the analytics sketches of one master for one calendar month.
+ @Entity annotation is used to indicate that this class represents a table in a database.
+ @Data generates the getters and setters, @AllArgsConstructor and @NoArgsConstructor the constructors.
+ The period column holds the month as "yyyy-MM", so sorting it as a string also sorts it by time.
+ The three byte columns hold a HyperLogLog over client names, a Count-Min sketch over services and
+ a time-of-day sketch over visit times, each a few kilobytes whatever the number of visits.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "visit_sketch", uniqueConstraints = @UniqueConstraint(name = "uk_visit_sketch_master_period",
+        columnNames = {"master_name", "period"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VisitSketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String master_name;
+    private String period;
+    @Lob
+    private byte[] clients;
+    @Lob
+    private byte[] services;
+    @Lob
+    private byte[] visit_times;
+}
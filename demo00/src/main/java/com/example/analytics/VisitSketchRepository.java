@@ -0,0 +1,65 @@
+/**
+ The VisitSketchRepository interface is a Spring Data JPA repository for VisitSketch entities.
+ Besides the CRUD operations inherited from JpaRepository it finds the sketches of one month and
+ master, and all sketches of a range of months, optionally restricted to one master.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.analytics;
+
+import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface VisitSketchRepository extends JpaRepository<VisitSketch, Long> {
+    /**
+     * Finds the sketch of one master for one month.
+     * @param masterName the name of the master
+     * @param period the month as "yyyy-MM"
+     * @return the sketch, or an empty Optional if the master had no visits recorded that month
+     */
+    @Query("select s from VisitSketch s where s.master_name = ?1 and s.period = ?2")
+    Optional<VisitSketch> findByMasterAndPeriod(String masterName, String period);
+    /**
+     * Finds the sketch of one master for one month and locks its row until the transaction ends,
+     * so that concurrent updates of the same sketch are applied one after the other.
+     * @param masterName the name of the master
+     * @param period the month as "yyyy-MM"
+     * @return the locked sketch, or an empty Optional if there is no row for the master and month
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from VisitSketch s where s.master_name = ?1 and s.period = ?2")
+    Optional<VisitSketch> findForUpdate(String masterName, String period);
+    /**
+     * Creates an empty sketch row for a master and month unless one exists, so that there is a row to lock.
+     * A concurrent insert of the same row is ignored by the unique key instead of failing.
+     * @param masterName the name of the master
+     * @param period the month as "yyyy-MM"
+     * @return 1 if the row was created, 0 if it existed
+     */
+    @Modifying
+    @Query(value = "insert ignore into visit_sketch (master_name, period) values (?1, ?2)", nativeQuery = true)
+    int insertIfAbsent(String masterName, String period);
+    /**
+     * Finds the sketches of all masters for a range of months.
+     * @param from the first month as "yyyy-MM", inclusive
+     * @param to the last month as "yyyy-MM", inclusive
+     * @return the sketches in the range
+     */
+    @Query("select s from VisitSketch s where s.period between ?1 and ?2")
+    List<VisitSketch> findInRange(String from, String to);
+    /**
+     * Finds the sketches of one master for a range of months.
+     * @param masterName the name of the master
+     * @param from the first month as "yyyy-MM", inclusive
+     * @param to the last month as "yyyy-MM", inclusive
+     * @return the sketches in the range
+     */
+    @Query("select s from VisitSketch s where s.master_name = ?1 and s.period between ?2 and ?3")
+    List<VisitSketch> findInRangeByMaster(String masterName, String from, String to);
+}
@@ -0,0 +1,48 @@
+/**
+ The ApiResource enum lists the tables served by the JSON API: the entity and id property a query selects
+ from, the projection record that gives the default columns, and the further columns ?fields= may ask for.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public enum ApiResource {
+    CLIENTS("Client", "id", ClientSummary.class),
+    POSTS("Blog", "post_id", PostSummary.class, "text");
+
+    private final String entity;
+    private final String idField;
+    private final List<String> defaultFields;
+    private final List<String> allowedFields;
+
+    ApiResource(String entity, String idField, Class<? extends Record> projection, String... extraFields) {
+        this.entity = entity;
+        this.idField = idField;
+        this.defaultFields = Arrays.stream(projection.getRecordComponents()).map(RecordComponent::getName).toList();
+        List<String> allowed = new ArrayList<>(defaultFields);
+        allowed.addAll(List.of(extraFields));
+        this.allowedFields = List.copyOf(allowed);
+    }
+
+    public String entity() {
+        return entity;
+    }
+
+    public String idField() {
+        return idField;
+    }
+
+    public List<String> defaultFields() {
+        return defaultFields;
+    }
+
+    public List<String> allowedFields() {
+        return allowedFields;
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ The ClientSummary record is the JSON shape of a client in the /api/clients endpoints. Its components are the
+ columns the API selects when no ?fields= is given; they are named like the Client properties.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+public record ClientSummary(Long id, String full_name, String visit_date, String service, String master_name) {
+}
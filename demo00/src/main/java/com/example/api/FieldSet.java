@@ -0,0 +1,40 @@
+/**
+ The FieldSet record holds the columns one JSON API request returns, in the order they are written.
+ It is parsed from the comma-separated ?fields= parameter; every name must be one of the allowed fields of the
+ resource, which also keeps the names safe to put into a JPQL select clause.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public record FieldSet(List<String> names) {
+
+    /**
+     * Parses the ?fields= parameter of a request.
+     * @param resource the requested resource
+     * @param fields comma-separated field names, or null/empty for the default fields of the resource
+     * @return the fields to return
+     * @throws UnknownFieldException if a name is not a field of the resource
+     */
+    public static FieldSet parse(ApiResource resource, String fields) {
+        if (!StringUtils.hasLength(fields)) {
+            return new FieldSet(resource.defaultFields());
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!resource.allowedFields().contains(name)) {
+                throw new UnknownFieldException(name, resource);
+            }
+            names.add(name);
+        }
+        return new FieldSet(List.copyOf(names));
+    }
+}
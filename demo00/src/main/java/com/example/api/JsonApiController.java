@@ -0,0 +1,84 @@
+/**
+ The JsonApiController class serves clients and posts as plain JSON under /api, as a lean alternative to the
+ HAL documents Spring Data REST exports for the repositories: no links, no entity serialization, and only the
+ columns of the projection records, or the ones listed in ?fields=, e.g. /api/posts?fields=post_id,post_name.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api")
+public class JsonApiController {
+
+    @Autowired
+    private JsonApiService apiService;
+
+    /**
+     * Lists all clients.
+     * @param fields comma-separated fields to return, the ClientSummary fields if left out
+     */
+    @GetMapping("/clients")
+    public void clients(@RequestParam(required = false) String fields, HttpServletResponse response) throws IOException {
+        writeAll(ApiResource.CLIENTS, fields, response);
+    }
+
+    /**
+     * Returns one client.
+     * @param id the id of the client
+     * @param fields comma-separated fields to return, the ClientSummary fields if left out
+     */
+    @GetMapping("/clients/{id}")
+    public void client(@PathVariable long id, @RequestParam(required = false) String fields,
+                       HttpServletResponse response) throws IOException {
+        writeOne(ApiResource.CLIENTS, id, fields, response);
+    }
+
+    /**
+     * Lists all posts, without their text unless it is asked for.
+     * @param fields comma-separated fields to return, the PostSummary fields if left out
+     */
+    @GetMapping("/posts")
+    public void posts(@RequestParam(required = false) String fields, HttpServletResponse response) throws IOException {
+        writeAll(ApiResource.POSTS, fields, response);
+    }
+
+    /**
+     * Returns one post.
+     * @param id the id of the post
+     * @param fields comma-separated fields to return, the PostSummary fields if left out
+     */
+    @GetMapping("/posts/{id}")
+    public void post(@PathVariable long id, @RequestParam(required = false) String fields,
+                     HttpServletResponse response) throws IOException {
+        writeOne(ApiResource.POSTS, id, fields, response);
+    }
+
+    private void writeAll(ApiResource resource, String fields, HttpServletResponse response) throws IOException {
+        FieldSet fieldSet = FieldSet.parse(resource, fields);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        apiService.writeAll(resource, fieldSet, response.getOutputStream());
+    }
+
+    private void writeOne(ApiResource resource, long id, String fields, HttpServletResponse response) throws IOException {
+        FieldSet fieldSet = FieldSet.parse(resource, fields);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (!apiService.writeOne(resource, id, fieldSet, response.getOutputStream())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ The JsonApiService class writes API resources as JSON straight from projection queries.
+ Only the requested columns are selected, as a Tuple per row, so no entity is loaded, put into the persistence
+ context or the second-level cache, and long columns such as Blog.text are not read unless asked for.
+ Lists are read as a stream with a JDBC fetch size and written row by row with Jackson's JsonGenerator,
+ so the whole array is never held in memory, neither as rows nor as JSON.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class JsonApiService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${barbershop.api.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${barbershop.api.flush-rows:200}")
+    private int flushRows;
+
+    /**
+     * Writes every row of a resource as a JSON array, ordered by id.
+     * @param resource the resource to list
+     * @param fields the columns to write
+     * @param out the response body
+     * @throws IOException if the response cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void writeAll(ApiResource resource, FieldSet fields, OutputStream out) throws IOException {
+        TypedQuery<Tuple> query = query(resource, fields, "order by e." + resource.idField())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        try (Stream<Tuple> rows = query.getResultStream(); JsonGenerator generator = generator(out)) {
+            generator.writeStartArray();
+            int written = 0;
+            for (Iterator<Tuple> it = rows.iterator(); it.hasNext(); ) {
+                writeRow(generator, fields, it.next());
+                if (++written % flushRows == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes one row of a resource as a JSON object.
+     * @param resource the resource
+     * @param id the id of the row
+     * @param fields the columns to write
+     * @param out the response body
+     * @return false, with nothing written, if there is no row with that id
+     * @throws IOException if the response cannot be written
+     */
+    @Transactional(readOnly = true)
+    public boolean writeOne(ApiResource resource, long id, FieldSet fields, OutputStream out) throws IOException {
+        List<Tuple> rows = query(resource, fields, "where e." + resource.idField() + " = :id")
+                .setParameter("id", id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return false;
+        }
+        try (JsonGenerator generator = generator(out)) {
+            writeRow(generator, fields, rows.get(0));
+        }
+        return true;
+    }
+
+    private TypedQuery<Tuple> query(ApiResource resource, FieldSet fields, String clause) {
+        String select = fields.names().stream().map(name -> "e." + name).collect(Collectors.joining(", "));
+        return entityManager.createQuery("select " + select + " from " + resource.entity() + " e " + clause, Tuple.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        // the servlet container closes the response stream itself
+        return objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void writeRow(JsonGenerator generator, FieldSet fields, Tuple row) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fields.names().size(); i++) {
+            generator.writeObjectField(fields.names().get(i), row.get(i));
+        }
+        generator.writeEndObject();
+    }
+}
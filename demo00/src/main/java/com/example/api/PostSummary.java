@@ -0,0 +1,13 @@
+/**
+ The PostSummary record is the JSON shape of a post in the /api/posts endpoints. Its components are the
+ columns the API selects when no ?fields= is given; the text of the post is left out of the list view and
+ returned only when asked for with ?fields=...,text.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+public record PostSummary(Long post_id, String post_name, String publish_date, String client_name,
+                          String vk_link, String link) {
+}
@@ -0,0 +1,17 @@
+/**
+ The UnknownFieldException is thrown when ?fields= names a column the requested API resource does not have.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownFieldException extends RuntimeException {
+    public UnknownFieldException(String field, ApiResource resource) {
+        super("unknown field " + field + ", expected one of " + resource.allowedFields());
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ The ArchivedVisit class is one row of the client_archive table: a visit that VisitArchiver moved out of the client
+ table once it became older than the archive horizon. Archived visits are read-only history; they keep the id they
+ had as clients, are shown by ClientService.listAll with "include history", and are not kept in the second-level cache.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.archive;
+
+import com.example.client.Client;
+import com.example.client.VisitStatus;
+import com.example.tenant.TenantContext;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "client_archive")
+@Filter(name = TenantContext.FILTER, condition = "location_id = :" + TenantContext.FILTER_PARAMETER) // defined on Client
+@Data
+@NoArgsConstructor
+public class ArchivedVisit {
+    @Id
+    private Long id;
+    private String full_name;
+    private String visit_date;
+    private String service;
+    private String master_name;
+    @Enumerated(EnumType.STRING)
+    private VisitStatus visit_status;
+    private Instant updated_at;
+    private Long row_version;
+    private Long location_id;
+    private Instant archived_at;
+
+    /**
+     * Converts the archived visit to a detached client, so that it can be listed next to the current visits.
+     * @return a client that is not managed by any persistence context, with archived_at set
+     */
+    public Client toClient() {
+        Client client = new Client();
+        client.setId(id);
+        client.setFull_name(full_name);
+        client.setVisit_date(visit_date);
+        client.setService(service);
+        client.setMaster_name(master_name);
+        client.setVisit_status(visit_status);
+        client.setUpdated_at(updated_at);
+        client.setRow_version(row_version);
+        client.setLocation_id(location_id);
+        client.setArchived_at(archived_at);
+        return client;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ The ArchivedVisitRepository interface is a Spring Data JPA repository for the client_archive table.
+ It searches the history of a location, and moves visits from the client table into the archive: a native
+ INSERT ... SELECT copies a batch of rows, then a bulk DELETE on Client removes them, which also drops them from the
+ second-level cache and invalidates the cached client queries. The archive is cold storage, so its queries are
+ not cacheable and return at most one page, newest visits first.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.archive;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedVisitRepository extends JpaRepository<ArchivedVisit, Long> {
+    /**
+     * Searches the archived visits of a location with the same concatenation as ClientRepository.search.
+     * @param location the location of the visits
+     * @param keyword the keyword to search for
+     * @param pageable the number of visits to return
+     * @return the matching visits, newest first
+     */
+    @Query("select a from ArchivedVisit a where a.location_id = ?1 "
+            + "and concat(a.id, '', a.full_name, '', a.visit_date, '', a.service, '', a.master_name) like %?2% "
+            + "order by a.visit_date desc, a.id desc")
+    List<ArchivedVisit> search(long location, String keyword, Pageable pageable);
+    /**
+     * Returns the newest archived visits of a location.
+     * @param location the location of the visits
+     * @param pageable the number of visits to return
+     * @return the visits, newest first
+     */
+    @Query("select a from ArchivedVisit a where a.location_id = ?1 order by a.visit_date desc, a.id desc")
+    List<ArchivedVisit> findLatestAt(long location, Pageable pageable);
+    /**
+     * Returns the ids of the oldest visits still in the client table that are older than a visit date,
+     * read from the visit date index.
+     * @param before the visit date, "yyyy-MM-dd HH:mm", exclusive
+     * @param pageable the batch size
+     * @return the ids, oldest visit first
+     */
+    @Query("select c.id from Client c where c.visit_date < ?1 order by c.visit_date, c.id")
+    List<Long> findArchivableIds(String before, Pageable pageable);
+    /**
+     * Returns the locations of some clients.
+     * @param ids the ids of the clients
+     * @return the distinct locations
+     */
+    @Query("select distinct c.location_id from Client c where c.id in ?1")
+    List<Long> findLocationsOf(Collection<Long> ids);
+    /**
+     * Copies visits from the client table into the archive. Only the archive is declared as changed, so the
+     * cached client queries are not invalidated by this statement but by the following delete.
+     * @param ids the ids of the visits
+     * @param archivedAt the time of the move
+     * @return the number of copied visits
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "client_archive"))
+    @Query(value = "insert into client_archive (id, full_name, visit_date, service, master_name, visit_status, "
+            + "updated_at, row_version, location_id, archived_at) "
+            + "select id, full_name, visit_date, service, master_name, visit_status, "
+            + "updated_at, row_version, location_id, ?2 from client where id in ?1", nativeQuery = true)
+    int copyFromClients(Collection<Long> ids, Instant archivedAt);
+    /**
+     * Deletes archived visits from the client table with one statement.
+     * @param ids the ids of the visits
+     * @return the number of deleted clients
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Client c where c.id in ?1")
+    int deleteClients(Collection<Long> ids);
+}
@@ -0,0 +1,126 @@
+/**
+ The VisitArchiver class keeps the client table small: at night (barbershop.archive.cron) it moves the visits older
+ than barbershop.archive.horizon into the client_archive table, batch-size visits per transaction, oldest first.
+ Every batch commits on its own and the next batch starts again from the oldest visit left, so a run that is cut
+ short by max-run-time, a deploy or a crash simply resumes where it stopped the next night.
+ A batch first locks the sync versions of all locations, as every other writer of the client table takes its
+ location's version first (see SyncVersions), so it never moves a visit that a request is changing at the same
+ time. Archived visits get no tombstones, as they are not deleted, only moved out of the hot table; every batch
+ publishes one ARCHIVE change event instead of one per visit, so the search indexes, the reminders and the caches
+ of the other nodes drop the visits too. The table versions and cached fragments of the locations of a batch are
+ invalidated on this node once it commits.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.archive;
+
+import com.example.cache.FragmentCache;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeEventPublisher;
+import com.example.sync.SyncVersions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Slf4j
+@Component
+public class VisitArchiver {
+    private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private ArchivedVisitRepository archive;
+
+    @Autowired
+    private SyncVersions syncVersions;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private ChangeEventPublisher changeEvents;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${barbershop.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${barbershop.archive.horizon:365d}")
+    private Duration horizon;
+
+    @Value("${barbershop.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${barbershop.archive.max-run-time:PT50M}")
+    private Duration maxRunTime;
+
+    @Scheduled(cron = "${barbershop.archive.cron:0 0 2 * * *}")
+    public void archiveOldVisits() {
+        if (!enabled) {
+            return;
+        }
+        String before = LocalDateTime.now().minus(horizon).format(VISIT_DATE_FORMAT);
+        int moved = archive(before, Instant.now().plus(maxRunTime));
+        if (moved > 0) {
+            log.info("Archived {} visits before {}", moved, before);
+        }
+    }
+
+    /**
+     * Moves the visits before a visit date into the archive, one batch at a time, until none are left or the
+     * deadline passes. At least one batch is moved.
+     * @param before the visit date, "yyyy-MM-dd HH:mm", exclusive
+     * @param deadline the time after which no new batch is started
+     * @return the number of archived visits
+     */
+    public int archive(String before, Instant deadline) {
+        int moved = 0;
+        while (true) {
+            int batch = archiveBatch(before);
+            moved += batch;
+            if (batch < batchSize || !Instant.now().isBefore(deadline)) {
+                return moved;
+            }
+        }
+    }
+
+    /**
+     * Moves the oldest batch of visits before a visit date into the archive in one transaction.
+     * @param before the visit date, "yyyy-MM-dd HH:mm", exclusive
+     * @return the number of archived visits
+     */
+    private int archiveBatch(String before) {
+        Integer moved = new TransactionTemplate(transactionManager).execute(status -> {
+            syncVersions.lockAll();
+            List<Long> ids = archive.findArchivableIds(before, Pageable.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            List<Long> locations = archive.findLocationsOf(ids);
+            archive.copyFromClients(ids, Instant.now());
+            int deleted = archive.deleteClients(ids);
+            changeEvents.publishArchived(TableVersions.CLIENT, ids, locations);
+            ChangeEventPublisher.afterCommit(() -> locations.forEach(location -> {
+                tableVersions.bump(TableVersions.CLIENT, location);
+                fragmentCache.invalidateAll(TableVersions.CLIENT, location);
+            }));
+            return deleted;
+        });
+        return moved == null ? 0 : moved;
+    }
+}
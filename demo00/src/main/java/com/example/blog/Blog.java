@@ -24,12 +24,25 @@ package com.example.blog;
 // Object Relational Mapping (ORM) is concept/process of converting the data from Object oriented language to relational DB and vice versa
 // Hibernate: Its the implementation of above concept.
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.example.sync.SyncTracked;
+import com.example.sync.SyncVersions;
+import com.example.tenant.LocationGuard;
+import com.example.tenant.LocationScoped;
+import com.example.tenant.TenantContext;
+import org.hibernate.annotations.Filter;
+import java.time.Instant;
 // By marking the @Id field with @GeneratedValue we are now enabling id generation.
 // Which means that the persistence layer will generate an Id value for us and handle the auto incrementing
 
 @Entity
+@Cacheable // rows are kept in the second-level cache, region "com.example.blog.Blog" in ehcache.xml
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "blog")// позволяет Джава-класс представлять, как объект базы данных. defines that a class can be mapped to a table.
-public class Blog {
+@EntityListeners({SyncVersions.class, LocationGuard.class}) // stamps row_version and updated_at for the delta-sync API, and the location
+@Filter(name = TenantContext.FILTER, condition = "location_id = :" + TenantContext.FILTER_PARAMETER) // declared on Client, enabled per request by TenantJpaDialect
+public class Blog implements SyncTracked, LocationScoped {
     private Long post_id;
     private String post_name;
     private String publish_date;
@@ -37,6 +50,9 @@ public class Blog {
     private String client_name;
     private String vk_link;
     private String link;
+    private Instant updated_at;
+    private Long row_version;
+    private Long location_id;
 
     public String getVk_link() {
         return vk_link;
@@ -54,6 +70,34 @@ public class Blog {
         this.link = link;
     }
 
+    public Instant getUpdated_at() {
+        return updated_at;
+    }
+
+    @Override
+    public void setUpdated_at(Instant updated_at) {
+        this.updated_at = updated_at;
+    }
+
+    @Override
+    public Long getLocation_id() {
+        return location_id;
+    }
+
+    @Override
+    public void setLocation_id(Long location_id) {
+        this.location_id = location_id;
+    }
+
+    public Long getRow_version() {
+        return row_version;
+    }
+
+    @Override
+    public void setRow_version(Long row_version) {
+        this.row_version = row_version;
+    }
+
     public Blog() {
     }
 
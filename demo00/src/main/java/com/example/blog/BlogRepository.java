@@ -6,6 +6,10 @@
  @Query annotation is used to define a JPQL query that searches for posts of the blog that match a given keyword.
  This interface is a crucial part of the Spring Data JPA framework, and it is responsible for providing an abstraction
  layer between the application and the database.
+ All search queries are marked cacheable with @QueryHints, so repeated searches are answered from the
+ Hibernate query cache until the blog table is written to.
+ The searches match the keyword anywhere in the value, as users expect from the search box, so they cannot use an
+ index on the searched column and read all posts of the location; QueryPlanTest lists them as expected scans.
  @author Matthew Suprunov
  @version 1.0
  @since 20/04/2023
@@ -13,54 +17,113 @@
 
 package com.example.blog;
 
+import java.util.Collection;
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import com.example.client.Client;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query; // JPQL is just an object-oriented way of defining queries based on entity attributes.
 // JPQL uses the entity object model instead of database tables to define a query
 
 public interface BlogRepository extends JpaRepository<Blog, Long> {
     /**
-     * Searches for posts by id that match a given keyword using JPQL.
+     * Searches for posts of a location by id that match a given keyword using JPQL.
+     * The cached searches take the location as a parameter, see ClientRepository.search.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("select p from Blog p where concat('',p.post_id) like %?1%") // the concatted method parameter will be assigned to the query parameter with index 1.
-    List<Blog> searchPostById(String keyword);
+    @Query("select p from Blog p where p.location_id = ?1 and concat('',p.post_id) like %?2%") // the concatted method parameter will be assigned to the query parameter with index 2.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostById(long location, String keyword);
     /**
-     * Searches for posts by their names that match a given keyword using JPQL.
+     * Searches for posts of a location by their names that match a given keyword using JPQL.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("SELECT p FROM Blog p WHERE p.post_name LIKE %?1%")
-    List<Blog> searchPostByName(String keyword);
+    @Query("SELECT p FROM Blog p WHERE p.location_id = ?1 AND p.post_name LIKE %?2%")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostByName(long location, String keyword);
     /**
-     * Searches for posts by the date they were published that match a given keyword using JPQL.
+     * Searches for posts of a location by the date they were published that match a given keyword using JPQL.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("SELECT p FROM Blog p WHERE p.publish_date LIKE %?1%")
-    List<Blog> searchPostByDate(String keyword);
+    @Query("SELECT p FROM Blog p WHERE p.location_id = ?1 AND p.publish_date LIKE %?2%")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostByDate(long location, String keyword);
     /**
-     * Searches for posts by text that match a given keyword using JPQL.
+     * Searches for posts of a location by text that match a given keyword using JPQL.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("SELECT p FROM Blog p WHERE p.text LIKE %?1%")
-    List<Blog> searchPostByText(String keyword);
+    @Query("SELECT p FROM Blog p WHERE p.location_id = ?1 AND p.text LIKE %?2%")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostByText(long location, String keyword);
     /**
-     * Searches for posts by a person who wrote them that match a given keyword using JPQL.
+     * Searches for posts of a location by a person who wrote them that match a given keyword using JPQL.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("SELECT p FROM Blog p WHERE p.client_name LIKE %?1%")
-    List<Blog> searchPostByClient_name(String keyword);
+    @Query("SELECT p FROM Blog p WHERE p.location_id = ?1 AND p.client_name LIKE %?2%")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostByClient_name(long location, String keyword);
     /**
-     * Searches for posts by all the parameters that match a given keyword using JPQL.
+     * Searches for posts of a location by all the parameters that match a given keyword using JPQL.
+     * @param location The location of the posts.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of posts that match the given keyword.
      */
-    @Query("select p from Blog p where concat(p.post_id, '', p.post_name, '', p.publish_date, '', p.text, '', p.client_name) like %?1%") // the concatted method parameter will be assigned to the query parameter with index 1.
-    List<Blog> searchPostByKeyword(String keyword);
+    @Query("select p from Blog p where p.location_id = ?1 and concat(p.post_id, '', p.post_name, '', p.publish_date, '', p.text, '', p.client_name) like %?2%") // the concatted method parameter will be assigned to the query parameter with index 2.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> searchPostByKeyword(long location, String keyword);
+    /**
+     * Finds the posts written by several clients at once, used to load the posts of many GraphQL parents
+     * with one query.
+     * @param names the names of the clients
+     * @return their posts, ordered by id
+     */
+    @Query("select p from Blog p where p.client_name in ?1 order by p.post_id")
+    List<Blog> findByClientNames(Collection<String> names);
+    /**
+     * Returns a page of posts in id order, starting after a given id.
+     * @param after the id of the last post of the previous page, 0 for the first page
+     * @param pageable the number of posts to return
+     * @return the posts
+     */
+    @Query("select p from Blog p where p.post_id > ?1 order by p.post_id")
+    List<Blog> findPageAfter(long after, Pageable pageable);
+    /**
+     * Returns the sync versions of the posts changed after a watermark, used to size a delta-sync batch.
+     * @param since the watermark
+     * @param pageable the number of versions to return
+     * @return the versions, in increasing order
+     */
+    @Query("select p.row_version from Blog p where p.row_version > ?1 order by p.row_version")
+    List<Long> findVersionsAfter(long since, Pageable pageable);
+    /**
+     * Finds the posts changed in a range of sync versions.
+     * @param since the lower bound, exclusive
+     * @param upTo the upper bound, inclusive
+     * @return the posts, ordered by version
+     */
+    @Query("select p from Blog p where p.row_version > ?1 and p.row_version <= ?2 order by p.row_version, p.post_id")
+    List<Blog> findChanged(long since, long upTo);
+    /**
+     * Returns all posts of a location, the result is served from the query cache while the table is unchanged.
+     * @param location The location of the posts.
+     * @return A list of all posts of the location.
+     */
+    @Query("select p from Blog p where p.location_id = ?1")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Blog> findAllAt(long location);
 }
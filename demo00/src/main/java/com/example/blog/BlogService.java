@@ -6,19 +6,36 @@
  saving, retrieving by id and deleting posts.
  It has a dependency on the BlogRepository interface and uses its methods to interact with the database.
  The listAll method returns a list of all posts, and the search method returns a list of posts matching a keyword.
+ Writes take the sync version of their transaction first (see SyncVersions); deleted posts leave tombstones.
+ Identical searches that run at the same time share one query (see SingleFlight).
  */
 
 package com.example.blog;
 
 // в этом классе хранится бизнес-логика
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.List; // ordered collection (sequence) односоставная. the elements of the list are of the same data type.
 // Each element has an index and can be manipulated based on their position.
 // The sequential nature of List allows the use of iteration methods (listIterator).
 import com.example.client.Client;
 import com.example.client.ClientRepository;
+import com.example.cache.FragmentCache;
+import com.example.cache.SingleFlight;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeEvent;
+import com.example.events.ChangeEventPublisher;
+import com.example.sync.SyncVersions;
+import com.example.tenant.TenantContext;
 import io.netty.util.internal.StringUtil;
 import org.springframework.beans.factory.annotation.Autowired; // для связи зависимостей из всех классов.
 // Tells the application context to inject an instance of CarRepository here
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service; // аннотация для обнаружения всех зависимостей, указывает, что класс CarService принадлежит серверу SpringBoot
 // We specify a class with @Service to indicate that they’re holding the business logic.
 // Besides being used in the service layer, there isn’t any other special use for this annotation.
@@ -28,36 +45,47 @@ public class BlogService {
     @Autowired
     private BlogRepository repo;
 
-    private String postKeywordName;
-    private String postKeyword;
+    @Autowired
+    private TableVersions tableVersions;
 
-    /**
-     * Retrieves keyword name of the post
-     * @return A String value that depicts keyword name of the post
-     */
-    public String getPostKeywordName() {
-        return postKeywordName;
-    }
-    /**
-     * Retrieves keyword of the post
-     * @return A String value that depicts keyword of the post
-     */
-    public String getPostKeyword() {
-        return postKeyword;
-    }
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private ChangeEventPublisher changeEvents;
+
+    @Autowired
+    private SyncVersions syncVersions;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     /**
      * Saves a new or updates an existing post to the system.
+     * The change is recorded in the change outbox; the table version and the cached fragments
+     * are updated once the transaction commits. A post stays at the location it was written at.
      @param blog The post to save.
      */
+    @Transactional
     public void save(Blog blog) {
-        repo.save(blog);
+        syncVersions.next();
+        Blog previous = blog.getPost_id() == null ? null : repo.findById(blog.getPost_id()).orElse(null);
+        if (previous != null) {
+            blog.setLocation_id(previous.getLocation_id());
+        }
+        String before = changeEvents.snapshot(previous);
+        Blog saved = repo.save(blog);
+        afterChanges(List.of(changeEvents.publish(TableVersions.BLOG, saved.getPost_id(), before, saved)));
     }
     /**
      Retrieves a post by its ID.
      @param id The ID of the post to retrieve.
      @return The post with the given ID, or null if not found.
      */
+    @Transactional(readOnly = true)
     public Blog get(Long id) {
         return repo.findById(id).get();
     }
@@ -65,52 +93,169 @@ public class BlogService {
      Deletes a post by its ID.
      @param id The ID of the post to delete.
      */
+    @Transactional
     public void delete(Long id) {
+        syncVersions.next();
+        Blog previous = repo.findById(id).orElse(null);
+        if (previous == null) {
+            return;
+        }
+        String before = changeEvents.snapshot(previous);
         repo.deleteById(id);
+        syncVersions.tombstone(TableVersions.BLOG, previous.getLocation_id(), List.of(id));
+        afterChanges(List.of(changeEvents.publish(TableVersions.BLOG, id, before, null)));
+    }
+    /**
+     Deletes several posts of the current location with one DELETE statement, without loading them one by one.
+     Ids of other locations are left alone.
+     @param ids The IDs of the posts to delete.
+     */
+    @Transactional
+    public void deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        syncVersions.next();
+        // the query is filtered by location, the DELETE statement is not
+        List<Blog> previous = repo.findAllById(ids);
+        if (previous.isEmpty()) {
+            return;
+        }
+        List<String> before = previous.stream().map(changeEvents::snapshot).toList();
+        repo.deleteAllByIdInBatch(previous.stream().map(Blog::getPost_id).toList());
+        previous.stream()
+                .collect(Collectors.groupingBy(Blog::getLocation_id, Collectors.mapping(Blog::getPost_id, Collectors.toList())))
+                .forEach((location, deleted) -> syncVersions.tombstone(TableVersions.BLOG, location, deleted));
+        List<ChangeEvent> events = new ArrayList<>(previous.size());
+        for (int i = 0; i < previous.size(); i++) {
+            events.add(changeEvents.publish(TableVersions.BLOG, previous.get(i).getPost_id(), before.get(i), null));
+        }
+        afterChanges(events);
     }
+
     /**
-     * This public method retrieves from BlogRepository the posts that match with the given keywords.
+     Bumps the table version and invalidates the cached fragments of the changed posts once the transaction commits,
+     for each location the posts belong to.
+     @param events The recorded changes.
+     */
+    private void afterChanges(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        ChangeEventPublisher.afterCommit(() -> {
+            Map<Long, List<Blog>> rows = new HashMap<>();
+            for (ChangeEvent event : events) {
+                for (Blog row : new Blog[]{event.before(Blog.class), event.after(Blog.class)}) {
+                    if (row != null) {
+                        rows.computeIfAbsent(row.getLocation_id(), location -> new ArrayList<>()).add(row);
+                    }
+                }
+            }
+            rows.forEach((location, changed) -> {
+                tableVersions.bump(TableVersions.BLOG, location);
+                invalidateFragments(location, changed.toArray(new Blog[0]));
+            });
+        });
+    }
+
+    /**
+     * Describes which search criterion a request uses, in the same order of precedence as listByPostCriteria.
+     * @param name the name of the request parameter, e.g. "keywordPostName", or null if no keyword was given
+     * @param keyword the value of the parameter
+     */
+    public record PostCriterion(String name, String keyword) {
+    }
+
+    /**
+     * Picks the search criterion of a request: the first non-empty keyword, in the order listByPostCriteria checks them.
+     * @return the criterion, with null name and keyword when all keywords are empty
+     */
+    public static PostCriterion criterionOf(String keywordId, String keywordPostName, String keywordDate,
+                                            String keywordText, String keywordClientName, String keyword) {
+        String[] names = {"keywordId", "keywordPostName", "keywordDate", "keywordText", "keywordClientName", "keyword"};
+        String[] values = {keywordId, keywordPostName, keywordDate, keywordText, keywordClientName, keyword};
+        for (int i = 0; i < names.length; i++) {
+            if (!StringUtil.isNullOrEmpty(values[i])) {
+                return new PostCriterion(names[i], values[i]);
+            }
+        }
+        return new PostCriterion(null, null);
+    }
+
+    /**
+     * Invalidates the cached blog fragments of a location whose search matches one of the given rows.
+     * @param location the location of the posts
+     * @param rows the old and/or new versions of the changed post, nulls are skipped
+     */
+    private void invalidateFragments(long location, Blog... rows) {
+        fragmentCache.invalidate(TableVersions.BLOG, location, (criterion, keyword) -> {
+            for (Blog row : rows) {
+                if (row != null && FragmentCache.matches(searchText(row, criterion), keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Returns the text a search criterion matches a post against, mirroring the BlogRepository queries.
+     * @param blog the post
+     * @param criterion the search criterion
+     * @return the searchable text of the post for that criterion
+     */
+    static String searchText(Blog blog, String criterion) {
+        return switch (criterion) {
+            case "keywordId" -> String.valueOf(blog.getPost_id());
+            case "keywordPostName" -> blog.getPost_name();
+            case "keywordDate" -> blog.getPublish_date();
+            case "keywordText" -> blog.getText();
+            case "keywordClientName" -> blog.getClient_name();
+            default -> "" + blog.getPost_id() + blog.getPost_name() + blog.getPublish_date()
+                    + blog.getText() + blog.getClient_name();
+        };
+    }
+    /**
+     * This public method retrieves from BlogRepository the posts of the current location that match with the given keywords.
      * @param keywordId A String type parameter that defines a post_id to search by.
      * @param keywordPostName A String type parameter that defines a post_name to search by.
      * @param keywordDate A String type parameter that defines a publish_date to search by.
      * @param keywordText A String type parameter that defines a text to search by.
      * @param keywordClientName A String type parameter that defines a client_name to search by.
      * @param keyword A String type parameter that defines a general keyword to search by all fields.
-     * @return List of Posts that were found based on the given criteria (keywords)
+     * Requests searching by the same criterion (see criterionOf) as a request already querying it wait for that
+     * query's result; the query runs in a read-only transaction of its own, so the waiting requests hold no connection.
+     * @return A read-only list of Posts that were found based on the given criteria (keywords)
      */
     public List<Blog> listByPostCriteria(String keywordId, String keywordPostName,
                                        String keywordDate, String keywordText,
                                        String keywordClientName, String keyword) {
-        if (!StringUtil.isNullOrEmpty(keywordId)) {
-            this.postKeywordName = "keywordId";
-            this.postKeyword = keywordId;
-            return repo.searchPostById(keywordId);
-        }
-        else if (!StringUtil.isNullOrEmpty(keywordPostName)) {
-            this.postKeywordName = "keywordPostName";
-            this.postKeyword = keywordPostName;
-            return repo.searchPostByName(keywordPostName);
-        }
-        else if (!StringUtil.isNullOrEmpty(keywordDate)){
-            this.postKeywordName = "keywordDate";
-            this.postKeyword = keywordDate;
-            return repo.searchPostByDate(keywordDate);
-        }
-        else if (!StringUtil.isNullOrEmpty(keywordText)){
-            this.postKeywordName = "keywordText";
-            this.postKeyword = keywordText;
-            return repo.searchPostByText(keywordText);
-        }
-        else if (!StringUtil.isNullOrEmpty(keywordClientName)){
-            this.postKeywordName = "keywordClientName";
-            this.postKeyword = keywordClientName;
-            return repo.searchPostByClient_name(keywordClientName);
-        }
-        else if (!StringUtil.isNullOrEmpty(keyword)) {
-            this.postKeywordName = "keyword";
-            this.postKeyword = keyword;
-            return repo.searchPostByKeyword(keyword);
+        long location = TenantContext.currentOrDefault();
+        PostCriterion criterion = criterionOf(keywordId, keywordPostName, keywordDate, keywordText, keywordClientName, keyword);
+        return singleFlight.call(TableVersions.BLOG, location, Arrays.asList(criterion.name(), criterion.keyword()), () -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            return transaction.execute(status -> search(location, criterion));
+        });
+    }
+
+    /**
+     * Runs the query of a search criterion.
+     * @param location the location of the posts
+     * @param criterion the search criterion
+     * @return the matching posts, or all posts of the location when the criterion has no keyword
+     */
+    private List<Blog> search(long location, PostCriterion criterion) {
+        if (criterion.name() == null) {
+            return repo.findAllAt(location);
         }
-        else return repo.findAll();
+        return switch (criterion.name()) {
+            case "keywordId" -> repo.searchPostById(location, criterion.keyword());
+            case "keywordPostName" -> repo.searchPostByName(location, criterion.keyword());
+            case "keywordDate" -> repo.searchPostByDate(location, criterion.keyword());
+            case "keywordText" -> repo.searchPostByText(location, criterion.keyword());
+            case "keywordClientName" -> repo.searchPostByClient_name(location, criterion.keyword());
+            default -> repo.searchPostByKeyword(location, criterion.keyword());
+        };
     }
 }
@@ -0,0 +1,136 @@
+/**
+ The AdaptiveLimit class is the concurrency limit of one bulkhead: at most limit requests run at once, and further
+ requests are turned away at once instead of queueing for a thread or a connection.
+ The limit follows the latency of the requests it lets through. After every window of completed requests the
+ window's average latency is compared with the baseline, the lowest window average seen recently: when it is more
+ than tolerance times the baseline, requests are queueing somewhere below (usually for a database connection) and
+ the limit is cut by backoffRatio; otherwise, if the window used at least half of the limit, the limit grows by one.
+ The baseline is re-measured every BASELINE_WINDOWS windows, so that a database that became slower for good is
+ taken as the new normal instead of keeping the limit at its minimum.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.bulkhead;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdaptiveLimit {
+    private static final int BASELINE_WINDOWS = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int window;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+    private volatile long lastAverageNanos;
+
+    // the current window, guarded by this
+    private int samples;
+    private long sumNanos;
+    private int peakInFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private int windowsSinceBaseline;
+
+    /**
+     * Creates the limit.
+     * @param initialLimit the limit until the first window completes
+     * @param minLimit the lowest the limit is cut to
+     * @param maxLimit the highest the limit grows to
+     * @param tolerance how many times the baseline latency a window may average before the limit is cut
+     * @param backoffRatio the factor the limit is multiplied by when it is cut
+     * @param window the number of completed requests per adjustment
+     */
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio, int window) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance <= 1 || backoffRatio <= 0 || backoffRatio >= 1 || window < 1) {
+            throw new IllegalArgumentException("Invalid adaptive limit settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.window = window;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a place if fewer than limit requests are running.
+     * @return true if the request may run, and must call release
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int running = inFlight.get();
+            if (running >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives a place back and counts the latency of the request that held it.
+     * @param latencyNanos the time the request took
+     */
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        synchronized (this) {
+            samples++;
+            sumNanos += latencyNanos;
+            peakInFlight = Math.max(peakInFlight, running);
+            if (samples >= window) {
+                adjust(sumNanos / samples);
+            }
+        }
+    }
+
+    /**
+     * Gives a place back without a latency, for a request that went on asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void adjust(long averageNanos) {
+        lastAverageNanos = averageNanos;
+        if (++windowsSinceBaseline >= BASELINE_WINDOWS || averageNanos < baselineNanos) {
+            baselineNanos = averageNanos;
+            windowsSinceBaseline = 0;
+        }
+        if (averageNanos > baselineNanos * tolerance) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (peakInFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        samples = 0;
+        sumNanos = 0;
+        peakInFlight = 0;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the average latency of the last completed window.
+     * @return the latency in nanoseconds, 0 before the first window completes
+     */
+    public long lastAverageNanos() {
+        return lastAverageNanos;
+    }
+}
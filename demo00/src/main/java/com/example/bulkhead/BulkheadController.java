@@ -0,0 +1,32 @@
+/**
+ The BulkheadController class shows administrators the bulkheads of BulkheadFilter: the current limit of every
+ endpoint class, the requests running in it, the requests it turned away and its last average latency.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.bulkhead;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class BulkheadController {
+
+    @Autowired
+    private BulkheadFilter bulkheadFilter;
+
+    /**
+     * Returns the state of every bulkhead.
+     * @return endpoint class to limit, requests in flight, rejected requests and last average latency
+     */
+    @GetMapping("/admin/bulkheads")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Map<String, Map<String, Long>> stats() {
+        return bulkheadFilter.stats();
+    }
+}
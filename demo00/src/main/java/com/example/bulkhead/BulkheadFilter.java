@@ -0,0 +1,153 @@
+/**
+ The BulkheadFilter class keeps a slow database from taking every request thread down with it.
+ Requests are divided into endpoint classes (reads, writes, auth and static, see EndpointClass), and each class may
+ only run as many requests at once as its AdaptiveLimit allows; a request over the limit is answered at once with
+ 503 Service Unavailable and a Retry-After header, without waiting for a thread or a connection. When the
+ database slows down the read and write limits shrink with the rising latency, so the threads and pooled
+ connections they would have held stay free for logins and the static pages (about_us, the photos), which go on
+ being served. The filter runs before the session and security filters, which read the session from the database,
+ and tells them the class of the running request (see current()): the session of a static request is looked up
+ with a short timeout of its own (see BoundedSessionRepository), so a saturated connection pool cannot hold it.
+ A request that goes on asynchronously (the walk-in queue event streams) gives its place back once its first
+ dispatch returns. Administrators can see every bulkhead's limit and load at /admin/bulkheads.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.bulkhead;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadFilter extends OncePerRequestFilter {
+    private static final ThreadLocal<EndpointClass> CURRENT = new ThreadLocal<>();
+
+    private final BulkheadProperties properties;
+    private final Map<EndpointClass, AdaptiveLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper pathHelper = new UrlPathHelper();
+
+    public BulkheadFilter(BulkheadProperties properties) {
+        this.properties = properties;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            BulkheadProperties.Limits configured = properties.limits(endpointClass);
+            limits.put(endpointClass, new AdaptiveLimit(configured.getInitial(), configured.getMin(), configured.getMax(),
+                    properties.getTolerance(), properties.getBackoffRatio(), properties.getWindow()));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || matches(properties.getExemptPaths(), pathHelper.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        AdaptiveLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            reject(endpointClass, limit, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        CURRENT.set(endpointClass);
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            CURRENT.remove();
+            if (async) {
+                limit.release();
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Decides the endpoint class of a request from its method and path.
+     * @param request the request
+     * @return the class
+     */
+    EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = pathHelper.getPathWithinApplication(request);
+        boolean safe = "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+        if (path.startsWith("/auth/") || path.equals("/logout") || (!safe && path.equals("/login_page"))) {
+            return EndpointClass.AUTH;
+        }
+        if (!safe || matches(properties.getWritePaths(), path)) {
+            return EndpointClass.WRITES;
+        }
+        if (matches(properties.getStaticPaths(), path)) {
+            return EndpointClass.STATIC;
+        }
+        return EndpointClass.READS;
+    }
+
+    /**
+     * Returns the endpoint class of the request the current thread is serving.
+     * @return the class, or null outside a request or for a request no bulkhead limits
+     */
+    public static EndpointClass current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the state of every bulkhead.
+     * @return endpoint class to its limit, requests in flight, rejected requests and last average latency
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        limits.forEach((endpointClass, limit) -> stats.put(endpointClass.name(), Map.of(
+                "limit", (long) limit.limit(),
+                "inFlight", (long) limit.inFlight(),
+                "rejected", limit.rejected(),
+                "latencyMillis", TimeUnit.NANOSECONDS.toMillis(limit.lastAverageNanos()))));
+        return stats;
+    }
+
+    private void reject(EndpointClass endpointClass, AdaptiveLimit limit, HttpServletResponse response) throws IOException {
+        long retryAfter = Math.max(properties.getMinRetryAfter().toSeconds(),
+                TimeUnit.NANOSECONDS.toSeconds(limit.lastAverageNanos()) + 1);
+        log.debug("Bulkhead {} is full at {} requests", endpointClass, limit.limit());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("The server is busy, please try again shortly.");
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
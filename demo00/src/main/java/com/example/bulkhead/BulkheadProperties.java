@@ -0,0 +1,63 @@
+/**
+ The BulkheadProperties class binds the barbershop.bulkheads.* properties: the limits of every endpoint class,
+ how the limits adapt to latency (see AdaptiveLimit), and the paths that decide the class of a request.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.bulkhead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("barbershop.bulkheads")
+public class BulkheadProperties {
+    private boolean enabled = true;
+    private Limits reads = new Limits(20, 2, 60);
+    private Limits writes = new Limits(5, 1, 15);
+    private Limits auth = new Limits(5, 1, 15);
+    private Limits staticContent = new Limits(50, 10, 100);
+    // a window averaging more than tolerance times the baseline latency cuts the limit by backoff-ratio
+    private double tolerance = 2.0;
+    private double backoffRatio = 0.9;
+    private int window = 50;
+    // the Retry-After of a rejected request is the last average latency of its bulkhead, at least this
+    private Duration minRetryAfter = Duration.ofSeconds(1);
+    // GET requests that are served without the database
+    private List<String> staticPaths = new ArrayList<>(List.of("/about_us", "/login_page", "/403", "/**/*.css",
+            "/**/*.js", "/**/*.jpg", "/**/*.png", "/**/*.svg", "/**/*.ico", "/**/*.woff2"));
+    // GET requests that change data
+    private List<String> writePaths = new ArrayList<>(List.of("/delete/**", "/delete_post/**", "/check_in/**"));
+    // requests no bulkhead limits, e.g. the readiness probe
+    private List<String> exemptPaths = new ArrayList<>(List.of("/ready"));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+        private int initial;
+        private int min;
+        private int max;
+    }
+
+    /**
+     * Returns the limits of an endpoint class.
+     * @param endpointClass the class
+     * @return its limits
+     */
+    public Limits limits(EndpointClass endpointClass) {
+        return switch (endpointClass) {
+            case READS -> reads;
+            case WRITES -> writes;
+            case AUTH -> auth;
+            case STATIC -> staticContent;
+        };
+    }
+}
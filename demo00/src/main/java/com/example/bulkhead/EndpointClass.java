@@ -0,0 +1,13 @@
+/**
+ The EndpointClass enum names the bulkheads requests are divided into (see BulkheadFilter): page and API reads,
+ writes, logins and registrations, and static content (static resources and the prerendered pages of
+ StaticPageFilter), which needs no database and so keeps being served while the database is slow.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.bulkhead;
+
+public enum EndpointClass {
+    READS, WRITES, AUTH, STATIC
+}
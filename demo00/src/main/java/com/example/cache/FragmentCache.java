@@ -0,0 +1,169 @@
+/**
+ The FragmentCache class keeps the rendered HTML of the client and blog tables, so that unchanged data is not
+ rendered row by row through Thymeleaf on every request. Only the parts built from the rows are cached; the
+ rest of the page is rendered per request as before, so user-dependent parts (sec: attributes, user name)
+ stay correct.
+ The cache is partitioned by location: each location is bounded by the size of the HTML it holds and evicts its own
+ least recently used fragments, so a busy shop cannot push a small shop's pages out, nor hold its lock.
+ Writes invalidate precisely: a saved or deleted row removes the full listing of its table and only those
+ searches whose keyword matches the old or new values of the row.
+ A fragment is only stored if the version of its table did not change while it was being rendered, so a
+ render that raced with a write can never put stale rows back after they were invalidated.
+ For the same reason renders read from the primary database, never from a replica that may lag the version.
+ Each node caches its own fragments; RemoteChangeInvalidator drops those of the tables and locations written
+ on other nodes.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import com.example.datasource.DataSourceRouting;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+@Component
+public class FragmentCache {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Value("${barbershop.fragment-cache.max-bytes-per-location:8388608}")
+    private long maxBytes;
+
+    private final ConcurrentMap<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * The fragments of one location, with their own size limit and lock.
+     */
+    private static final class Partition {
+        // access order makes the first entry the least recently used one
+        private final LinkedHashMap<FragmentKey, Map<String, String>> fragments = new LinkedHashMap<>(64, 0.75f, true);
+        private long usedBytes;
+    }
+
+    /**
+     * Returns the cached fragments for a key, rendering and caching them if they are missing.
+     * @param key the table, location, search and role the fragments belong to
+     * @param render renders the fragments, called without holding any lock; returns fragment name to HTML
+     * @return fragment name to HTML
+     */
+    public Map<String, String> getOrRender(FragmentKey key, Supplier<Map<String, String>> render) {
+        Partition partition = partitions.computeIfAbsent(key.location(), location -> new Partition());
+        synchronized (partition) {
+            Map<String, String> cached = partition.fragments.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long version = tableVersions.version(key.table(), key.location());
+        Map<String, String> rendered = Map.copyOf(DataSourceRouting.onPrimary(render));
+        long size = sizeOf(rendered);
+        synchronized (partition) {
+            if (size <= maxBytes && tableVersions.version(key.table(), key.location()) == version) {
+                Map<String, String> previous = partition.fragments.put(key, rendered);
+                partition.usedBytes += size - (previous == null ? 0 : sizeOf(previous));
+                evict(partition);
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * Removes the fragments of a table at a location that may show a changed row.
+     * The full listing is always removed; searches are removed when {@code affected} says the row matches them.
+     * @param table the table that was written to
+     * @param location the location of the written rows
+     * @param affected tells, for a search criterion and keyword, whether the old or new row matches the search
+     */
+    public void invalidate(String table, long location, BiPredicate<String, String> affected) {
+        Partition partition = partitions.get(location);
+        if (partition == null) {
+            return;
+        }
+        synchronized (partition) {
+            Iterator<Map.Entry<FragmentKey, Map<String, String>>> entries = partition.fragments.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<FragmentKey, Map<String, String>> entry = entries.next();
+                FragmentKey key = entry.getKey();
+                if (key.table().equals(table)
+                        && (key.isListing() || affected.test(key.criterion(), key.keyword()))) {
+                    partition.usedBytes -= sizeOf(entry.getValue());
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all fragments of a table at a location, for writes whose rows are not known one by one.
+     * @param table the table that was written to
+     * @param location the location of the written rows
+     */
+    public void invalidateAll(String table, long location) {
+        invalidate(table, location, (criterion, keyword) -> true);
+    }
+
+    /**
+     * Returns the total size of the cached HTML of all locations.
+     * @return the size in bytes, counting two bytes per character
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (Long location : partitions.keySet()) {
+            used += usedBytes(location);
+        }
+        return used;
+    }
+
+    /**
+     * Returns the size of the cached HTML of a location.
+     * @param location the location id
+     * @return the size in bytes, counting two bytes per character
+     */
+    public long usedBytes(long location) {
+        Partition partition = partitions.get(location);
+        if (partition == null) {
+            return 0;
+        }
+        synchronized (partition) {
+            return partition.usedBytes;
+        }
+    }
+
+    private void evict(Partition partition) {
+        Iterator<Map.Entry<FragmentKey, Map<String, String>>> eldest = partition.fragments.entrySet().iterator();
+        while (partition.usedBytes > maxBytes && eldest.hasNext()) {
+            partition.usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    private static long sizeOf(Map<String, String> fragments) {
+        long size = 0;
+        for (String html : fragments.values()) {
+            size += 2L * html.length();
+        }
+        return size;
+    }
+
+    /**
+     * Checks a row value against a search keyword the way the repositories' LIKE '%keyword%' queries do,
+     * ignoring case like the default MySQL collation. Matching too much only costs an extra render.
+     * @param value the row value, or the concatenation of row values for "all fields" searches
+     * @param keyword the search keyword
+     * @return true if the value may match the keyword
+     */
+    public static boolean matches(String value, String keyword) {
+        return value != null && value.toLowerCase().contains(keyword.toLowerCase());
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ The FragmentKey record identifies a rendered fragment in the FragmentCache.
+ @param table the table the fragment is built from, one of the TableVersions constants
+ @param location the location whose rows the fragment shows
+ @param criterion the search criterion, e.g. "keyword" or "keywordPostName", null for the full listing
+ @param keyword the search keyword, null for the full listing
+ @param role the authorities of the user, which decide what buttons the rows have
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+public record FragmentKey(String table, long location, String criterion, String keyword, String role) {
+
+    /**
+     * Tells whether the fragment is the full, unfiltered listing of its table.
+     * @return true if no keyword was given
+     */
+    public boolean isListing() {
+        return keyword == null || keyword.isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ The FragmentRenderer class renders templates, or named th:fragment parts of them, outside of a Spring MVC view.
+ It runs the application's Thymeleaf engine with a web context built from the current request and the same
+ Spring variables ThymeleafView adds (request context, evaluation context), so link expressions (@{...}),
+ form actions and sec: attributes resolve the same way they do when the page is rendered as a view.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.support.RequestContext;
+import org.springframework.web.servlet.view.AbstractTemplateView;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.context.webmvc.SpringWebMvcThymeleafRequestContext;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring6.naming.SpringContextVariableNames;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class FragmentRenderer {
+
+    private final ITemplateEngine templateEngine;
+    private final ApplicationContext applicationContext;
+
+    /**
+     * Renders fragments of a template.
+     * @param template the template name, e.g. "fragments/client_rows"
+     * @param variables the variables the fragments use
+     * @param request the current request
+     * @param fragmentNames the th:fragment names to render
+     * @return fragment name to rendered HTML, in the order the names were given
+     */
+    public Map<String, String> render(String template, Map<String, Object> variables,
+                                      NativeWebRequest request, String... fragmentNames) {
+        WebContext context = webContext(variables, request.getNativeRequest(HttpServletRequest.class),
+                request.getNativeResponse(HttpServletResponse.class));
+        Map<String, String> rendered = new LinkedHashMap<>();
+        for (String name : fragmentNames) {
+            rendered.put(name, templateEngine.process(template, Set.of(name), context));
+        }
+        return rendered;
+    }
+
+    /**
+     * Renders a whole template.
+     * @param template the template name, e.g. "about_us"
+     * @param variables the variables the template uses
+     * @param request the current request
+     * @param response the current response, only used for URL encoding
+     * @return the rendered HTML
+     */
+    public String renderPage(String template, Map<String, Object> variables,
+                             HttpServletRequest request, HttpServletResponse response) {
+        return templateEngine.process(template, webContext(variables, request, response));
+    }
+
+    private WebContext webContext(Map<String, Object> variables, HttpServletRequest request, HttpServletResponse response) {
+        Map<String, Object> model = new HashMap<>(variables);
+        RequestContext requestContext = new RequestContext(request, response, request.getServletContext(), model);
+        model.put(AbstractTemplateView.SPRING_MACRO_REQUEST_CONTEXT_ATTRIBUTE, requestContext);
+        model.put(SpringContextVariableNames.SPRING_REQUEST_CONTEXT, requestContext);
+        model.put(SpringContextVariableNames.THYMELEAF_REQUEST_CONTEXT,
+                new SpringWebMvcThymeleafRequestContext(requestContext, request));
+        model.put(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+        return new WebContext(JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, response), LocaleContextHolder.getLocale(), model);
+    }
+}
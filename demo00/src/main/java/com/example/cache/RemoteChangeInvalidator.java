@@ -0,0 +1,109 @@
+/**
+ The RemoteChangeInvalidator class brings this node's caches up to date with the writes committed on other nodes.
+ The committing node bumps its TableVersions and invalidates its FragmentCache and second-level cache itself
+ (see ClientService and BlogService); every other node reads the change from the outbox within
+ barbershop.events.catch-up-interval-millis and does the same here: it evicts the changed row from the entity cache
+ and the cached query results, then bumps the version of the row's table at its location and drops that location's
+ fragments of the table. Evicting before bumping means that a page rendered under the new version never reads the
+ old query results.
+ A batch of the nightly archive (VisitArchiver) is one event for all its visits and locations; a bulk update is one
+ event for a location whose changed rows are unknown, so all cached rows of the table are evicted.
+ Not covered: cached UserInfo (roles, passwords) is only evicted on the node that changed it and expires after
+ 10 minutes on the others.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import com.example.blog.Blog;
+import com.example.client.Client;
+import com.example.events.ChangeConsumer;
+import com.example.events.ChangeEvent;
+import com.example.tenant.LocationScoped;
+import com.example.tenant.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class RemoteChangeInvalidator implements ChangeConsumer {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public String consumerName() {
+        return "cache-invalidation";
+    }
+
+    @Override
+    public boolean remoteOnly() {
+        return true;
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        boolean evicted = false;
+        for (ChangeEvent event : events) {
+            Class<? extends LocationScoped> entityClass = entityClass(event.table());
+            if (entityClass == null) {
+                continue;
+            }
+            if (event.type() == ChangeEvent.Type.ARCHIVE) {
+                event.archived().ids().forEach(id -> cache.evictEntityData(entityClass, id));
+            } else if (event.type() == ChangeEvent.Type.BULK_UPDATE) {
+                cache.evictEntityData(entityClass);
+            } else {
+                cache.evictEntityData(entityClass, event.entityId());
+            }
+            evicted = true;
+        }
+        if (!evicted) {
+            return;
+        }
+        cache.evictQueryRegions();
+        for (ChangeEvent event : events) {
+            Class<? extends LocationScoped> entityClass = entityClass(event.table());
+            if (entityClass == null) {
+                continue;
+            }
+            List<Long> locations = switch (event.type()) {
+                case ARCHIVE -> event.archived().locations();
+                case BULK_UPDATE -> List.of(event.bulkUpdate().location());
+                default -> List.of(locationOf(event, entityClass));
+            };
+            for (long location : locations) {
+                tableVersions.bump(event.table(), location);
+                fragmentCache.invalidateAll(event.table(), location);
+            }
+        }
+    }
+
+    private static Class<? extends LocationScoped> entityClass(String table) {
+        return switch (table) {
+            case TableVersions.CLIENT -> Client.class;
+            case TableVersions.BLOG -> Blog.class;
+            default -> null;
+        };
+    }
+
+    private static long locationOf(ChangeEvent event, Class<? extends LocationScoped> entityClass) {
+        LocationScoped row = event.after(entityClass);
+        if (row == null) {
+            row = event.before(entityClass);
+        }
+        return row == null || row.getLocation_id() == null ? TenantContext.DEFAULT_LOCATION : row.getLocation_id();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ The SingleFlight class coalesces identical searches that run at the same time. At a shift change many staff open
+ the same listing at once; the first request for a table, location and search criteria runs the query, and the
+ requests that arrive while it is running wait for it and get the same result instead of running it again.
+ Nothing is kept once the query has finished: the next request runs a new one (or hits the query cache).
+ The table version (see TableVersions) is part of the key, so a request that starts after a write has been
+ committed never joins a query that started before it.
+ The shared result is the same list of entities for every caller, so it is returned read-only.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class SingleFlight {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    private record Key(String table, long location, long version, List<Object> criteria) {
+    }
+
+    private static class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+    }
+
+    /**
+     * Runs a search, or waits for the identical search that is already running and returns its result.
+     * A failure of the running search is thrown to every caller waiting for it.
+     * @param table the table searched, as in TableVersions
+     * @param location the location searched
+     * @param criteria the normalized search criteria; nulls are allowed
+     * @param search the query to run when no identical one is running
+     * @return the result of the search, read-only
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> call(String table, long location, List<?> criteria, Supplier<List<T>> search) {
+        Counters tableCounters = counters.computeIfAbsent(table, ignored -> new Counters());
+        tableCounters.calls.increment();
+        Key key = new Key(table, location, tableVersions.version(table, location), Arrays.asList(criteria.toArray()));
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            tableCounters.coalesced.increment();
+            return (List<T>) await(running);
+        }
+        try {
+            List<T> result = List.copyOf(search.get());
+            flights.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns how many searches of every table were made and how many of them were coalesced.
+     * @return table name to calls, queries run, coalesced calls and queries running now
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        counters.forEach((table, tableCounters) -> {
+            long calls = tableCounters.calls.sum();
+            long coalesced = tableCounters.coalesced.sum();
+            long running = flights.keySet().stream().filter(key -> key.table().equals(table)).count();
+            stats.put(table, Map.of("calls", calls, "queries", calls - coalesced, "coalesced", coalesced,
+                    "in_flight", running));
+        });
+        return stats;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ The SingleFlightController class shows administrators how many searches were coalesced (see SingleFlight):
+ the searches made on every table, the queries that actually ran and the searches that waited for one of them.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class SingleFlightController {
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    /**
+     * Returns the coalescing counters of every table.
+     * @return table name to calls, queries run, coalesced calls and queries running now
+     */
+    @GetMapping("/admin/coalescing")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Map<String, Map<String, Long>> stats() {
+        return singleFlight.stats();
+    }
+}
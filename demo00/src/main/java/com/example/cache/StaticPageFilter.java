@@ -0,0 +1,139 @@
+/**
+ The StaticPageFilter class serves the effectively static pages (about_us, login_page, register and 403) from
+ memory instead of dispatching them to AppController and rendering their templates on every request.
+ Each page is rendered once on its first request through FragmentRenderer, then kept as identity and
+ gzip-compressed bytes with an ETag, so later requests are answered by copying bytes (or with 304 Not Modified).
+ The filter runs after the Spring Security filter chain, so access rules are unchanged. The only per-request
+ parts are handled by the variant of a page: about_us shows the user name and role, so it is kept per user;
+ login_page has a separate variant for "?error" and register one for "?taken". A user whose name or roles change
+ gets a new about_us variant; at most barbershop.static-pages.max-variants of them are kept, and the about_us of
+ users beyond that is rendered by AppController. CSRF protection is disabled in SecurityConfig, so no token
+ needs to be injected; if it is enabled, the pages with forms must be left to AppController again.
+ Brotli is not offered because the JDK has no Brotli encoder; gzip is used for every client that accepts it.
+ The mode is switched on with barbershop.static-pages.enabled=true.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.cache;
+
+import com.example.analytics.Hashing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "barbershop.static-pages.enabled", havingValue = "true")
+public class StaticPageFilter extends OncePerRequestFilter {
+
+    private static final Map<String, String> TEMPLATES = Map.of(
+            "/about_us", "about_us",
+            "/login_page", "login_page",
+            "/auth/register", "register",
+            "/403", "403");
+
+    private final FragmentRenderer renderer;
+    private final ConcurrentMap<String, PrerenderedPage> pages = new ConcurrentHashMap<>();
+
+    // about_us is kept per user, this bounds the memory it can take
+    @Value("${barbershop.static-pages.max-variants:512}")
+    private int maxVariants;
+
+    private record PrerenderedPage(byte[] identity, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !TEMPLATES.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getServletPath();
+        if (path.equals("/auth/register")) {
+            // same as AppController.register: opening the register page logs the current user out
+            new SecurityContextLogoutHandler().logout(request, response, SecurityContextHolder.getContext().getAuthentication());
+        }
+        String key = path + '|' + variant(path, request);
+        PrerenderedPage page = pages.get(key);
+        if (page == null) {
+            // the other pages have a handful of variants and are always kept
+            if (path.equals("/about_us") && pages.size() >= maxVariants) {
+                chain.doFilter(request, response);
+                return;
+            }
+            page = prerender(renderer.renderPage(TEMPLATES.get(path), Map.of(), request, response));
+            pages.putIfAbsent(key, page);
+        }
+        write(page, request, response);
+    }
+
+    private static String variant(String path, HttpServletRequest request) {
+        if (path.equals("/login_page")) {
+            return request.getParameter("error") != null ? "error" : "";
+        }
+        if (path.equals("/auth/register")) {
+            return request.getParameter("taken") != null ? "taken" : "";
+        }
+        if (path.equals("/about_us")) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication == null ? "" : authentication.getName() + authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority).sorted().collect(Collectors.joining(",", "[", "]"));
+        }
+        return "";
+    }
+
+    private static PrerenderedPage prerender(String html) throws IOException {
+        byte[] identity = html.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(identity);
+        }
+        String hash = Long.toHexString(Hashing.hash64(html));
+        return new PrerenderedPage(identity, compressed.toByteArray(), '"' + hash + '"', "\"" + hash + "-gz\"");
+    }
+
+    private static void write(PrerenderedPage page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? page.gzipEtag() : page.etag();
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] body = gzip ? page.gzip() : page.identity();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType("text/html;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
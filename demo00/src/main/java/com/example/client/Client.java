@@ -2,17 +2,39 @@ package com.example.client;
 // Object Relational Mapping (ORM) is concept/process of converting the data from Object oriented language to relational DB and vice versa
 // Hibernate: Its the implementation of above concept.
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.sync.SyncTracked;
+import com.example.sync.SyncVersions;
+import com.example.tenant.LocationGuard;
+import com.example.tenant.LocationScoped;
+import com.example.tenant.TenantContext;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+import java.time.Instant;
 // By marking the @Id field with @GeneratedValue we are now enabling id generation.
 // Which means that the persistence layer will generate an Id value for us and handle the auto incrementing
 
 @Entity
+@Cacheable // rows are kept in the second-level cache, region "com.example.client.Client" in ehcache.xml
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "client")// позволяет Джава-класс представлять, как объект базы данных. defines that a class can be mapped to a table.
-public class Client {
+@EntityListeners({SyncVersions.class, LocationGuard.class}) // stamps row_version and updated_at for the delta-sync API, and the location
+@FilterDef(name = TenantContext.FILTER, parameters = @ParamDef(name = TenantContext.FILTER_PARAMETER, type = Long.class)) // also used by Blog
+@Filter(name = TenantContext.FILTER, condition = "location_id = :" + TenantContext.FILTER_PARAMETER) // enabled per request by TenantJpaDialect
+public class Client implements SyncTracked, LocationScoped {
     private Long id;
     private String full_name;
     private String visit_date;
     private String service;
     private String master_name;
+    private Instant updated_at;
+    private Long row_version;
+    private VisitStatus visit_status;
+    private Long location_id;
+    private Instant archived_at;
 
     public Client() {
     }
@@ -59,6 +81,53 @@ public class Client {
         this.master_name = master_name;
     }
 
+    public Instant getUpdated_at() {
+        return updated_at;
+    }
+
+    @Override
+    public void setUpdated_at(Instant updated_at) {
+        this.updated_at = updated_at;
+    }
+
+    public Long getRow_version() {
+        return row_version;
+    }
+
+    @Override
+    public void setRow_version(Long row_version) {
+        this.row_version = row_version;
+    }
+
+    @Enumerated(EnumType.STRING) // null while the visit is booked, see VisitStatus
+    public VisitStatus getVisit_status() {
+        return visit_status;
+    }
+
+    public void setVisit_status(VisitStatus visit_status) {
+        this.visit_status = visit_status;
+    }
+
+    @Override
+    public Long getLocation_id() {
+        return location_id;
+    }
+
+    @Override
+    public void setLocation_id(Long location_id) {
+        this.location_id = location_id;
+    }
+
+    @Transient // set on the clients made from the archive, see ArchivedVisit
+    @JsonIgnore
+    public Instant getArchived_at() {
+        return archived_at;
+    }
+
+    public void setArchived_at(Instant archived_at) {
+        this.archived_at = archived_at;
+    }
+
     @Override
     public String toString() {
         return "performance [id=" + id + ", full name=" + full_name + ", visit_date=" + visit_date + ", service=" + service + ", master=" + master_name + "]";
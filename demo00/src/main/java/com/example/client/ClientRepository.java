@@ -6,6 +6,10 @@
  @Query annotation is used to define a JPQL query that searches for clients that match a given keyword.
  The query searches for clients where the concatenation of their ID, full name, visit date,
  service, and master name matches the keyword.
+ @QueryHints marks the listing and search queries as cacheable: their results are kept in the Hibernate
+ query cache until a write to the client table invalidates them.
+ The @Modifying queries change many rows with one statement; Hibernate drops the cached clients and
+ cached query results when they run.
  This interface is a crucial part of the Spring Data JPA framework, and it is responsible for providing an abstraction
  layer between the application and the database.
  @author Matthew Suprunov
@@ -15,17 +19,127 @@
 
 package com.example.client;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query; // JPQL is just an object-oriented way of defining queries based on entity attributes.
 // JPQL uses the entity object model instead of database tables to define a query
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
     /**
-     * Searches for clients that match a given keyword using JPQL.
+     * Searches for clients of a location that match a given keyword using JPQL.
+     * The location is a query parameter, not only the request's filter, because the query cache keys results
+     * by the parameters and the names of the enabled filters, not by the filters' values.
+     * @param location The location of the clients.
      * @param keyword A string that represents the keyword to search for.
      * @return A list of clients that match the given keyword.
      */
-    @Query("select p from Client p where concat(p.id, '', p.full_name, '', p.visit_date, '', p.service, '', p.master_name) like %?1%") // the concatted method parameter will be assigned to the query parameter with index 1.
-    List<Client> search(String keyword);
+    @Query("select p from Client p where p.location_id = ?1 and concat(p.id, '', p.full_name, '', p.visit_date, '', p.service, '', p.master_name) like %?2%") // the concatted method parameter will be assigned to the query parameter with index 2.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Client> search(long location, String keyword);
+    /**
+     * Returns all clients of a location, the result is served from the query cache while the table is unchanged.
+     * @param location The location of the clients.
+     * @return A list of all clients of the location.
+     */
+    @Query("select c from Client c where c.location_id = ?1")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Client> findAllAt(long location);
+    /**
+     * Finds the visits of several clients at once, used to load the visits of many GraphQL parents with one query.
+     * @param names the full names of the clients
+     * @return their visits, ordered by visit date
+     */
+    @Query("select c from Client c where c.full_name in ?1 order by c.visit_date")
+    List<Client> findByFullNames(Collection<String> names);
+    /**
+     * Finds a page of the visits of a master at or after a given time, without locking them.
+     * @param masterName the name of the master
+     * @param since the earliest visit date, "yyyy-MM-dd HH:mm"
+     * @param pageable the number of visits to return
+     * @return the visits, ordered by visit date
+     */
+    @Query("select c from Client c where c.master_name = ?1 and c.visit_date >= ?2 order by c.visit_date")
+    List<Client> findVisitsOfMaster(String masterName, String since, Pageable pageable);
+    /**
+     * Returns the ids and visit dates of the visits at or after a given time, read from the visit date index alone.
+     * @param since the earliest visit date, "yyyy-MM-dd HH:mm"
+     * @return the visits, ordered by visit date
+     */
+    @Query("select new com.example.client.VisitTime(c.id, c.visit_date) from Client c "
+            + "where c.visit_date >= ?1 order by c.visit_date")
+    List<VisitTime> findVisitTimesFrom(String since);
+    /**
+     * Returns the names of all masters, read from the master index.
+     * @return the distinct master names, in alphabetical order
+     */
+    @Query("select distinct c.master_name from Client c where c.master_name is not null order by c.master_name")
+    List<String> findMasterNames();
+    /**
+     * Counts the visits of a master, used to check that a master exists.
+     * @param masterName the name of the master
+     * @return the number of visits
+     */
+    @Query("select count(c) from Client c where c.master_name = ?1")
+    long countByMaster(String masterName);
+    /**
+     * Returns the sync versions of the clients changed after a watermark, used to size a delta-sync batch.
+     * @param since the watermark
+     * @param pageable the number of versions to return
+     * @return the versions, in increasing order
+     */
+    @Query("select c.row_version from Client c where c.row_version > ?1 order by c.row_version")
+    List<Long> findVersionsAfter(long since, Pageable pageable);
+    /**
+     * Returns the location of a client without loading it.
+     * @param id the client id
+     * @return the location id, or null if there is no such client
+     */
+    @Query("select c.location_id from Client c where c.id = ?1")
+    Long findLocationOf(Long id);
+    /**
+     * Finds the clients changed in a range of sync versions.
+     * @param since the lower bound, exclusive
+     * @param upTo the upper bound, inclusive
+     * @return the clients, ordered by version
+     */
+    @Query("select c from Client c where c.row_version > ?1 and c.row_version <= ?2 order by c.row_version, c.id")
+    List<Client> findChanged(long since, long upTo);
+    /**
+     * Moves the visits of a master at or after a given time to another master with one UPDATE statement.
+     * Bulk updates are not filtered by location, so the location is part of the statement.
+     * @param location the location of the visits
+     * @param from the name of the current master
+     * @param to the name of the new master
+     * @param since the earliest visit date to move, "yyyy-MM-dd HH:mm"
+     * @param version the sync version of the transaction, see SyncVersions
+     * @param updatedAt the time of the change
+     * @return the number of updated clients
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Client c set c.master_name = ?3, c.row_version = ?5, c.updated_at = ?6 "
+            + "where c.location_id = ?1 and c.master_name = ?2 and c.visit_date >= ?4")
+    int reassignMaster(long location, String from, String to, String since, long version, Instant updatedAt);
+    /**
+     * Renames a service in every visit of a location with one UPDATE statement.
+     * @param location the location of the visits
+     * @param from the current name of the service
+     * @param to the new name of the service
+     * @param version the sync version of the transaction, see SyncVersions
+     * @param updatedAt the time of the change
+     * @return the number of updated clients
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Client c set c.service = ?3, c.row_version = ?4, c.updated_at = ?5 "
+            + "where c.location_id = ?1 and c.service = ?2")
+    int renameService(long location, String from, String to, long version, Instant updatedAt);
 }
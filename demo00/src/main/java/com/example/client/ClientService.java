@@ -6,46 +6,219 @@
  saving, retrieving by id and deleting clients.
  It has a dependency on the ClientRepository interface and uses its methods to interact with the database.
  The listAll method returns a list of all clients, and the search method returns a list of clients matching a keyword.
+ The reading methods are read-only transactions, so they are served by a replica when one is configured.
+ Identical listings that run at the same time share one query (see SingleFlight); listAll therefore starts its
+ read-only transaction only when it runs the query, so the requests waiting for it hold no connection.
+ Every writing method takes the sync version of its transaction first (see SyncVersions), which orders it
+ after other writers before it locks any client row; deleted clients leave tombstones for the delta-sync API.
+ A visit's status (see VisitStatus) is changed by checkIn and markNoShow; saving the edit form keeps it unless
+ the visit is moved to another date, which books it again.
+ Visits older than the archive horizon are moved out of the client table by VisitArchiver; listAll can include them.
  */
 
 package com.example.client;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.List; // ordered collection (sequence). The elements of the list are of the same data type.
 // Each element has an index and can be manipulated based on their position.
 // The sequential nature of List allows the use of iteration methods (listIterator).
+import com.example.archive.ArchivedVisit;
+import com.example.archive.ArchivedVisitRepository;
+import com.example.cache.FragmentCache;
+import com.example.cache.SingleFlight;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeEvent;
+import com.example.events.ChangeEventPublisher;
+import com.example.search.TrigramIndex;
+import com.example.sync.SyncVersions;
+import com.example.tenant.TenantContext;
+import org.springframework.data.domain.Pageable;
 import org.springframework.beans.factory.annotation.Autowired; // для связи зависимостей из всех классов.
 // Tells the application context to inject an instance of CarRepository here
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service; // аннотация для обнаружения всех зависимостей, указывает, что класс CarService принадлежит серверу SpringBoot
 // We specify a class with @Service to indicate that they’re holding the business logic.
 // Besides being used in the service layer, there isn’t any other special use for this annotation.
 // The utility classes can be marked as Service classes.
 @Service
 public class ClientService {
+    private static final int FUZZY_SEARCH_LIMIT = 50;
+    private static final int HISTORY_LIMIT = 500;
+    private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     @Autowired
     private ClientRepository repo;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private TrigramIndex trigramIndex;
+
+    @Autowired
+    private ChangeEventPublisher changeEvents;
+
+    @Autowired
+    private SyncVersions syncVersions;
+
+    @Autowired
+    private ArchivedVisitRepository archive;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     /**
-     Returns a list of all clients in the system.
+     Returns a list of all clients of the current location.
+     A request that asks for the same listing as a request already querying it waits for that query's result.
      @param keyword A keyword to filter the results by. If null, returns all clients.
-     @return A list of clients matching the search criteria.
+     @return A read-only list of clients matching the search criteria.
      */
     public List<Client> listAll(String keyword) { // коллекция и метод, отвечающий за поиск и фильтр в нашей системе
-        if (keyword!=null) {
-            return repo.search(keyword);
+        long location = TenantContext.currentOrDefault();
+        return singleFlight.call(TableVersions.CLIENT, location, Arrays.asList("keyword", keyword), () -> readOnly(() ->
+                keyword != null ? repo.search(location, keyword) : repo.findAllAt(location)));
+    }
+    /**
+     Returns the clients of the current location, optionally followed by their archived visits (see VisitArchiver).
+     The archive is not cached and may be large, so at most HISTORY_LIMIT archived visits are added, newest first;
+     they are detached copies with archived_at set and cannot be edited.
+     @param keyword A keyword to filter the results by. If null, returns all clients.
+     @param includeHistory Whether to search the archived visits too.
+     @return The matching clients, then the matching archived visits.
+     */
+    public List<Client> listAll(String keyword, boolean includeHistory) {
+        List<Client> current = listAll(keyword);
+        if (!includeHistory) {
+            return current;
+        }
+        long location = TenantContext.currentOrDefault();
+        List<ArchivedVisit> history = readOnly(() -> keyword != null
+                ? archive.search(location, keyword, Pageable.ofSize(HISTORY_LIMIT))
+                : archive.findLatestAt(location, Pageable.ofSize(HISTORY_LIMIT)));
+        List<Client> clients = new ArrayList<>(current.size() + history.size());
+        clients.addAll(current);
+        history.forEach(visit -> clients.add(visit.toClient()));
+        return clients;
+    }
+
+    /**
+     Runs a query in a read-only transaction of its own, as @Transactional(readOnly = true) would.
+     @param query The query.
+     @return The result of the query.
+     */
+    private <T> List<T> readOnly(Supplier<List<T>> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> query.get());
+    }
+
+    /**
+     Finds the clients of the current location by a name that may be misspelt, using the in-memory trigram index.
+     @param name The name as typed.
+     @param maxEdits The edit distance cutoff, or null for the configured default.
+     @return The matching clients, closest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Client> fuzzySearch(String name, Integer maxEdits) {
+        long location = TenantContext.currentOrDefault();
+        List<TrigramIndex.Match> matches = maxEdits == null
+                ? trigramIndex.search(location, name, FUZZY_SEARCH_LIMIT)
+                : trigramIndex.search(location, name, maxEdits, FUZZY_SEARCH_LIMIT);
+        Map<Long, Client> clients = new HashMap<>();
+        for (Client client : repo.findAllById(matches.stream().map(TrigramIndex.Match::id).toList())) {
+            clients.put(client.getId(), client);
         }
-        return repo.findAll();
+        return matches.stream().map(match -> clients.get(match.id())).filter(Objects::nonNull).toList();
     }
 
     /**
      * Saves a new or updates an existing client to the system.
+     * The change is recorded in the change outbox in the same transaction; after the commit the table version
+     * is bumped and the cached table fragments that showed the old values or would show the new ones are
+     * invalidated, while the search indexes and analytics are updated from the change event in the background.
+     * A client stays at the location it was created at.
      @param client The client to save.
      */
+    @Transactional
     public void save(Client client) {
-        repo.save(client);
+        syncVersions.next();
+        Client previous = client.getId() == null ? null : repo.findById(client.getId()).orElse(null);
+        if (previous != null) {
+            client.setLocation_id(previous.getLocation_id());
+        }
+        if (previous != null && client.getVisit_status() == null
+                && Objects.equals(previous.getVisit_date(), client.getVisit_date())) {
+            client.setVisit_status(previous.getVisit_status());
+        }
+        String before = changeEvents.snapshot(previous);
+        Client saved = repo.save(client);
+        ChangeEvent event = changeEvents.publish(TableVersions.CLIENT, saved.getId(), before, saved);
+        long location = saved.getLocation_id();
+        ChangeEventPublisher.afterCommit(() -> {
+            tableVersions.bump(TableVersions.CLIENT, location);
+            invalidateFragments(location, event.before(Client.class), event.after(Client.class));
+        });
+    }
+    /**
+     Checks a client in for their visit, also after the visit was marked as a no-show.
+     @param id The ID of the client.
+     @return Whether the client exists.
+     */
+    @Transactional
+    public boolean checkIn(Long id) {
+        syncVersions.next();
+        Client client = repo.findById(id).orElse(null);
+        if (client == null) {
+            return false;
+        }
+        changeVisitStatus(client, VisitStatus.ARRIVED);
+        return true;
+    }
+    /**
+     Marks a visit nobody checked in as a no-show. Writers of a location run one after another (see SyncVersions),
+     so a client checked in by a transaction that committed first is seen here and not marked.
+     ReminderScheduler calls this without a location, so the version is taken at the location of the visit; at
+     read committed the visit is read again after the version's lock is held and shows that commit.
+     @param id The ID of the client.
+     @param visitDate The visit date the no-show was detected for; a visit moved since then is left alone.
+     @return Whether the visit was marked.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean markNoShow(Long id, String visitDate) {
+        Long location = repo.findLocationOf(id);
+        if (location == null) {
+            return false;
+        }
+        syncVersions.next(location);
+        Client client = repo.findById(id).orElse(null);
+        if (client == null || client.getVisit_status() != null || !Objects.equals(client.getVisit_date(), visitDate)) {
+            return false;
+        }
+        changeVisitStatus(client, VisitStatus.NO_SHOW);
+        return true;
     }
     /**
      Retrieves a client by its ID.
      @param id The ID of the client to retrieve.
      @return The client with the given ID, or null if not found.
      */
+    @Transactional(readOnly = true)
     public Client get(Long id) {
         return repo.findById(id).get();
     }
@@ -53,8 +226,173 @@ public class ClientService {
      Deletes a client by its ID.
      @param id The ID of the client to delete.
      */
+    @Transactional
     public void delete(Long id) {
+        syncVersions.next();
+        Client previous = repo.findById(id).orElse(null);
+        if (previous == null) {
+            return;
+        }
+        String before = changeEvents.snapshot(previous);
         repo.deleteById(id);
+        syncVersions.tombstone(TableVersions.CLIENT, previous.getLocation_id(), List.of(id));
+        afterChanges(recordDeletes(List.of(previous), List.of(before)));
+    }
+    /**
+     Deletes several clients of the current location with one DELETE statement, without loading them one by one.
+     Ids of other locations are left alone.
+     @param ids The IDs of the clients to delete.
+     */
+    @Transactional
+    public void deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        syncVersions.next();
+        // the query is filtered by location, the DELETE statement is not
+        List<Client> previous = repo.findAllById(ids);
+        if (previous.isEmpty()) {
+            return;
+        }
+        List<Long> found = previous.stream().map(Client::getId).toList();
+        List<String> before = previous.stream().map(changeEvents::snapshot).toList();
+        repo.deleteAllByIdInBatch(found);
+        previous.stream()
+                .collect(Collectors.groupingBy(Client::getLocation_id, Collectors.mapping(Client::getId, Collectors.toList())))
+                .forEach((location, deleted) -> syncVersions.tombstone(TableVersions.CLIENT, location, deleted));
+        afterChanges(recordDeletes(previous, before));
+    }
+    /**
+     Moves all future visits of a master of the current location to another master with one UPDATE statement,
+     e.g. when the first master's schedule is closed down.
+     The visits are not read: one change event records the condition and the new master (see recordBulkUpdate).
+     The analytics sketches keep counting these visits for the first master until they are rebuilt.
+     @param from The name of the current master.
+     @param to The name of the new master.
+     @return The number of moved visits.
+     */
+    @Transactional
+    public int reassignMaster(String from, String to) {
+        long version = syncVersions.next();
+        long location = TenantContext.currentOrDefault();
+        String now = LocalDateTime.now().format(VISIT_DATE_FORMAT);
+        int updated = repo.reassignMaster(location, from, to, now, version, Instant.now());
+        recordBulkUpdate(new ChangeEvent.BulkUpdate(location, "master_name", from, to, now), updated);
+        return updated;
+    }
+    /**
+     Renames a service in all visits of the current location with one UPDATE statement.
+     The visits are not read: one change event records the old and the new name (see recordBulkUpdate).
+     @param from The current name of the service.
+     @param to The new name of the service.
+     @return The number of renamed visits.
+     */
+    @Transactional
+    public int renameService(String from, String to) {
+        long version = syncVersions.next();
+        long location = TenantContext.currentOrDefault();
+        int updated = repo.renameService(location, from, to, version, Instant.now());
+        recordBulkUpdate(new ChangeEvent.BulkUpdate(location, "service", from, to, null), updated);
+        return updated;
+    }
+
+    /**
+     Sets the status of a loaded visit and records the change like save does.
+     @param client The client, managed by the current transaction.
+     @param status The new status.
+     */
+    private void changeVisitStatus(Client client, VisitStatus status) {
+        String before = changeEvents.snapshot(client);
+        client.setVisit_status(status);
+        ChangeEvent event = changeEvents.publish(TableVersions.CLIENT, client.getId(), before, client);
+        long location = client.getLocation_id();
+        ChangeEventPublisher.afterCommit(() -> {
+            tableVersions.bump(TableVersions.CLIENT, location);
+            invalidateFragments(location, event.after(Client.class));
+        });
+    }
+
+    /**
+     Records one change event for all the rows changed by a bulk update, however many there are, and bumps the
+     table version and drops all cached fragments of the location once the transaction commits: which listings
+     showed the changed rows is not known without reading them. The sync API finds the rows by their row version.
+     @param change The condition and new value of the update.
+     @param updated The number of changed rows; nothing is recorded if it is 0.
+     */
+    private void recordBulkUpdate(ChangeEvent.BulkUpdate change, int updated) {
+        if (updated == 0) {
+            return;
+        }
+        changeEvents.publishBulkUpdate(TableVersions.CLIENT, change);
+        ChangeEventPublisher.afterCommit(() -> {
+            tableVersions.bump(TableVersions.CLIENT, change.location());
+            fragmentCache.invalidateAll(TableVersions.CLIENT, change.location());
+        });
+    }
+
+    /**
+     Records a change event for every deleted row.
+     @param rows The deleted rows.
+     @param before The snapshots of the rows before the delete, in the same order.
+     @return The recorded events.
+     */
+    private List<ChangeEvent> recordDeletes(List<Client> rows, List<String> before) {
+        List<ChangeEvent> events = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            events.add(changeEvents.publish(TableVersions.CLIENT, rows.get(i).getId(), before.get(i), null));
+        }
+        return events;
+    }
+
+    /**
+     Bumps the table version and invalidates the cached fragments of the changed rows once the transaction commits,
+     for each location the rows belong to.
+     @param events The recorded changes.
+     */
+    private void afterChanges(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        ChangeEventPublisher.afterCommit(() -> {
+            Map<Long, List<Client>> rows = new HashMap<>();
+            for (ChangeEvent event : events) {
+                for (Client row : new Client[]{event.before(Client.class), event.after(Client.class)}) {
+                    if (row != null) {
+                        rows.computeIfAbsent(row.getLocation_id(), location -> new ArrayList<>()).add(row);
+                    }
+                }
+            }
+            rows.forEach((location, changed) -> {
+                tableVersions.bump(TableVersions.CLIENT, location);
+                invalidateFragments(location, changed.toArray(new Client[0]));
+            });
+        });
+    }
+
+    /**
+     Invalidates the cached client table fragments of a location whose search matches one of the given rows.
+     @param location The location of the rows.
+     @param rows The old and/or new versions of the changed row, nulls are skipped.
+     */
+    private void invalidateFragments(long location, Client... rows) {
+        fragmentCache.invalidate(TableVersions.CLIENT, location, (criterion, keyword) -> {
+            for (Client row : rows) {
+                if (row != null && FragmentCache.matches(searchText(row), keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     Returns the text the search query matches a client against: the concatenation of all its columns.
+     @param client The client.
+     @return The searchable text of the client.
+     */
+    static String searchText(Client client) {
+        return "" + client.getId() + client.getFull_name() + client.getVisit_date()
+                + client.getService() + client.getMaster_name();
     }
 
 }
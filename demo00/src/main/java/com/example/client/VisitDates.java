@@ -0,0 +1,42 @@
+/**
+ The VisitDates class parses the free-text visit_date column of the client table.
+ Visit dates are entered by hand in the "yyyy-mm-dd hh:mm" format suggested by the new_client form,
+ but older rows may have only a date or use a "T" separator, so parsing is lenient and returns
+ null instead of throwing when a value cannot be understood.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.client;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+public final class VisitDates {
+
+    private VisitDates() {
+    }
+
+    /**
+     * Parses the date and time of a visit.
+     * @param visitDate the value of the visit_date column
+     * @return the visit date and time, midnight if only a date is given, or null if it cannot be parsed
+     */
+    public static LocalDateTime parse(String visitDate) {
+        if (visitDate == null || visitDate.isBlank()) {
+            return null;
+        }
+        String value = visitDate.trim().replace('T', ' ');
+        try {
+            LocalDate date = LocalDate.parse(value.substring(0, Math.min(10, value.length())));
+            if (value.length() <= 10) {
+                return date.atStartOfDay();
+            }
+            return date.atTime(LocalTime.parse(value.substring(11).trim()));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ The VisitStatus enum records what became of a booked visit. A visit nobody has checked in yet has no status;
+ the front desk checks a client in when they arrive, and ReminderScheduler marks the visits nobody checked in
+ as no-shows shortly after they were due to start.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.client;
+
+public enum VisitStatus {
+    ARRIVED,
+    NO_SHOW
+}
@@ -0,0 +1,11 @@
+/**
+ The VisitTime record holds the id and visit date of a client, all ReminderScheduler needs to rebuild its
+ timing wheel; both columns are in the idx_client_visit_date index, so the rows themselves are not read.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.client;
+
+public record VisitTime(Long id, String visit_date) {
+}
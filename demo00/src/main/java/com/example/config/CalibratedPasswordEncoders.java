@@ -0,0 +1,101 @@
+/**
+ The CalibratedPasswordEncoders class builds the DelegatingPasswordEncoder used by SecurityConfig.
+ New hashes are written with the configured algorithm ("argon2" by default, "bcrypt" also supported) and a
+ {id} prefix; hashes stored before the prefix existed are plain BCrypt and are still matched by the BCrypt
+ encoder. The cost of the encoding algorithm is calibrated once at startup: it is the highest cost whose
+ measured hashing time stays within the target latency, and never lower than the built-in minimum.
+ Because the encoder reports upgradeEncoding for hashes with another algorithm or a lower cost,
+ DaoAuthenticationProvider rehashes such passwords on the next successful login.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+@Slf4j
+public final class CalibratedPasswordEncoders {
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int ARGON2_MEMORY_KIB = 19 * 1024;
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+    private static final int MAX_ARGON2_ITERATIONS = 10;
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private CalibratedPasswordEncoders() {
+    }
+
+    /**
+     * Creates the delegating encoder with the cost of the chosen algorithm calibrated to the target latency.
+     * @param algorithm the id of the algorithm used for new hashes, "argon2" or "bcrypt"
+     * @param targetMillis the hashing time that a single encode should not exceed
+     * @return the delegating password encoder
+     */
+    public static PasswordEncoder create(String algorithm, long targetMillis) {
+        int bcryptStrength = MIN_BCRYPT_STRENGTH;
+        int argon2Iterations = MIN_ARGON2_ITERATIONS;
+        if (BCRYPT.equals(algorithm)) {
+            bcryptStrength = calibrate(BCRYPT, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH, targetMillis,
+                    BCryptPasswordEncoder::new);
+        } else if (ARGON2.equals(algorithm)) {
+            argon2Iterations = calibrate(ARGON2, MIN_ARGON2_ITERATIONS, MAX_ARGON2_ITERATIONS, targetMillis,
+                    CalibratedPasswordEncoders::argon2);
+        } else {
+            throw new IllegalArgumentException("unsupported password algorithm " + algorithm);
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, argon2(argon2Iterations));
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    private static PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+                ARGON2_MEMORY_KIB, iterations);
+    }
+
+    /**
+     * Raises the cost one step at a time while a single encode stays within the target.
+     * Each cost is hashed once without measuring to warm up the JIT.
+     */
+    private static int calibrate(String algorithm, int minCost, int maxCost, long targetMillis,
+                                 IntFunction<PasswordEncoder> factory) {
+        int cost = minCost;
+        long millis = measure(factory.apply(cost));
+        while (cost < maxCost) {
+            long next = measure(factory.apply(cost + 1));
+            if (next > targetMillis) {
+                break;
+            }
+            cost++;
+            millis = next;
+        }
+        log.info("Calibrated {} cost to {} ({} ms per hash, target {} ms)", algorithm, cost, millis, targetMillis);
+        return cost;
+    }
+
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
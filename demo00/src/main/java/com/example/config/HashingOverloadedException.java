@@ -0,0 +1,18 @@
+/**
+ The HashingOverloadedException is thrown when a password cannot be hashed because the PasswordHashingExecutor
+ is saturated. It is answered with 503 Service Unavailable so that clients retry later.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class HashingOverloadedException extends RuntimeException {
+    public HashingOverloadedException(String message) {
+        super(message);
+    }
+}
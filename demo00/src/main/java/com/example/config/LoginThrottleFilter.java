@@ -0,0 +1,75 @@
+/**
+ The LoginThrottleFilter class limits the login (POST /login_page) and registration (POST /auth/register) attempts
+ per client IP and per username with TokenBucketLimiter. It is ordered before the Spring Security filter chain,
+ so an attempt over the limit is answered with 429 Too Many Requests and a Retry-After header before the
+ form login or UserService gets to hash a password.
+ Both buckets must have a token; the IP bucket is checked first so that requests with random usernames from
+ one address cannot fill the username buckets.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class LoginThrottleFilter extends OncePerRequestFilter {
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter usernameLimiter;
+
+    public LoginThrottleFilter(@Value("${barbershop.throttle.ip.capacity:20}") int ipCapacity,
+                               @Value("${barbershop.throttle.ip.refill-tokens:20}") int ipRefillTokens,
+                               @Value("${barbershop.throttle.username.capacity:5}") int usernameCapacity,
+                               @Value("${barbershop.throttle.username.refill-tokens:5}") int usernameRefillTokens,
+                               @Value("${barbershop.throttle.refill-period:PT1M}") Duration refillPeriod,
+                               @Value("${barbershop.throttle.max-keys:10000}") int maxKeys,
+                               @Value("${barbershop.throttle.stripes:16}") int stripes) {
+        this.ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillTokens, refillPeriod, maxKeys, stripes);
+        this.usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernameRefillTokens, refillPeriod, maxKeys, stripes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod()) || !(path.equals("/login_page") || path.equals("/auth/register"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos == 0) {
+            // the login form posts "username", the register form posts "name"
+            String username = request.getServletPath().equals("/login_page")
+                    ? request.getParameter("username") : request.getParameter("name");
+            if (username != null) {
+                waitNanos = usernameLimiter.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many attempts, please try again later.");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ The PasswordHashingController class exposes the queue depth and counters of the PasswordHashingExecutor to
+ administrators, so that rejected or timed out hashing can be noticed before users report failed logins.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class PasswordHashingController {
+
+    @Autowired
+    private PasswordHashingExecutor executor;
+
+    /**
+     * Returns the current state of the password hashing pool.
+     * @return queue depth, active threads and counters of the pool
+     */
+    @GetMapping("/admin/password_hashing")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Map<String, Long> stats() {
+        return executor.stats();
+    }
+}
@@ -20,6 +20,7 @@
 
 package com.example.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -27,8 +28,6 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -38,19 +37,26 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
     /**
      Creates and returns a new instance of the UserInfoUserDetailsService class.
+     It also stores rehashed passwords when a login upgrades an outdated hash.
      @return A UserDetailsService object that is used to retrieve user information.
      */
   @Bean
-  public UserDetailsService userDetailsService() {
+  public UserInfoUserDetailsService userDetailsService() {
       return new UserInfoUserDetailsService();
   }
   /**
-   Creates and returns a new instance of the BCryptPasswordEncoder class.
+   Creates the password encoder: a delegating encoder whose cost is calibrated at startup, run on the
+   bounded PasswordHashingExecutor instead of the request thread.
+   @param executor the pool that runs all password hashing
+   @param algorithm the algorithm used for new hashes, "argon2" or "bcrypt"
+   @param targetMillis the target time of a single hash
    @return A PasswordEncoder object that is used to encode user passwords.
   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-      return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(PasswordHashingExecutor executor,
+                                         @Value("${barbershop.password.algorithm:argon2}") String algorithm,
+                                         @Value("${barbershop.password.target-millis:250}") long targetMillis) {
+      return new BoundedPasswordEncoder(CalibratedPasswordEncoders.create(algorithm, targetMillis), executor);
   }
   /**
     Configures the security filter chain for the application.
@@ -71,6 +77,8 @@ public class SecurityConfig {
             // Configures the authorization rules for the application
             .authorizeHttpRequests()
             .requestMatchers("/auth/**").permitAll()
+            // readiness probe of load balancers, see WarmupController
+            .requestMatchers("/ready").permitAll()
             .and()
             .authorizeHttpRequests().requestMatchers("/**").authenticated()
             .and()
@@ -96,13 +104,16 @@ public class SecurityConfig {
 
   /**
    Creates and returns a new instance of the DaoAuthenticationProvider class.
+   Passwords whose stored hash is outdated are rehashed through the UserDetailsPasswordService on login.
+   @param passwordEncoder the encoder created by passwordEncoder()
    @return An AuthenticationProvider object that is used to provide authentication for the application.
   */
   @Bean
-  public AuthenticationProvider authenticationProvider(){
+  public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder){
       DaoAuthenticationProvider authenticationProvider=new DaoAuthenticationProvider();
       authenticationProvider.setUserDetailsService(userDetailsService());
-      authenticationProvider.setPasswordEncoder(passwordEncoder());
+      authenticationProvider.setUserDetailsPasswordService(userDetailsService());
+      authenticationProvider.setPasswordEncoder(passwordEncoder);
       return authenticationProvider;
   }
 }
@@ -0,0 +1,119 @@
+/**
+ The TokenBucketLimiter class keeps one token bucket per key (a username or a client IP) and answers whether the
+ next attempt for that key is allowed. A bucket holds up to capacity tokens and regains refillTokens every
+ refillPeriod; every attempt takes one token.
+ Buckets are spread over independently locked stripes, so attempts for different keys rarely wait for each other.
+ Each stripe is a small LRU map with a fixed maximum size, so the memory is bounded however many keys arrive;
+ a bucket that has been idle long enough to be full again is the same as a missing one and is dropped first.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TokenBucketLimiter {
+    private final Stripe[] stripes;
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private static final class Bucket {
+        double tokens;
+        long updatedNanos;
+
+        Bucket(double tokens, long updatedNanos) {
+            this.tokens = tokens;
+            this.updatedNanos = updatedNanos;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+
+    /**
+     * Creates the limiter.
+     * @param capacity the number of attempts a key may make in a burst
+     * @param refillTokens the number of attempts regained every refill period
+     * @param refillPeriod the period in which refillTokens attempts are regained
+     * @param maxKeys the maximum number of keys kept in memory
+     * @param stripeCount the number of independently locked stripes
+     */
+    public TokenBucketLimiter(int capacity, int refillTokens, Duration refillPeriod, int maxKeys, int stripeCount) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) refillTokens / refillPeriod.toNanos();
+        this.stripes = new Stripe[stripeCount];
+        int maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the key if one is available.
+     * @param key the username or client IP
+     * @return 0 if the attempt is allowed, otherwise the nanoseconds until the next token
+     */
+    public long tryAcquire(String key) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            evictIdle(stripe, now);
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                stripe.put(key, new Bucket(capacity - 1, now));
+                return 0;
+            }
+            refill(bucket, now);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    /**
+     * Returns the number of keys currently held.
+     * @return the number of buckets over all stripes
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private void refill(Bucket bucket, long now) {
+        bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedNanos) * tokensPerNano);
+        bucket.updatedNanos = now;
+    }
+
+    // the least recently used bucket is checked on every call, so idle keys leave without a sweeper thread
+    private void evictIdle(Stripe stripe, long now) {
+        Iterator<Bucket> eldest = stripe.values().iterator();
+        if (eldest.hasNext()) {
+            Bucket bucket = eldest.next();
+            if (bucket.tokens + (now - bucket.updatedNanos) * tokensPerNano >= capacity) {
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -11,20 +11,31 @@
  the user's credentials and the roles field represents the user's roles in the system.
  The class provides two public methods, getPassword and getName, which return the password
  and name fields, respectively.
+ @Cacheable and @Cache keep the rows in the Hibernate second-level cache, so that
+ loading a user on every login does not have to go to the database.
+ The unique constraint on name keeps two users from registering the same name at the same time.
  @author Matthew Suprunov
  @version 1.0
  @since 20/04/2023
  */
 package com.example.config;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_info_name", columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -35,6 +46,8 @@ public class UserInfo {
     private String name;
     private String password;
     private String roles;
+    // the location (shop) the user registered at; users other than admins only see its clients and posts
+    private Long location_id;
     /**
      * Returns the password field value of the UserInfo object.
      * @return A string representing the user's password.
@@ -5,12 +5,18 @@
  It provides methods to find, save, delete, and update UserInfo entities in the database.
  The findByName method is a custom query method that retrieves the UserInfo instance by its name.
  It returns an Optional object that contains the entity if it exists, or an empty Optional if it doesn't.
+ Its result is cached in the Hibernate query cache, as it runs on every login.
  @author com.example.config
  @version 1.0
  @since 20/04/2023
  */
 package com.example.config;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserInfoRepository extends JpaRepository<UserInfo, Integer> {
@@ -19,5 +25,18 @@ public interface UserInfoRepository extends JpaRepository<UserInfo, Integer> {
     @param username the name of the UserInfo to retrieve
     @return an Optional object containing the UserInfo, or an empty Optional if it doesn't exist
     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<UserInfo> findByName(String username);
+    /**
+    Checks whether a user with the given name exists.
+    @param username the name to look for
+    @return true if a UserInfo with that name exists
+    */
+    boolean existsByName(String username);
+    /**
+    Retrieves the names of all users, used to fill the UsernameBloomFilter.
+    @return the list of all user names
+    */
+    @Query("select u.name from UserInfo u")
+    List<String> findAllNames();
 }
\ No newline at end of file
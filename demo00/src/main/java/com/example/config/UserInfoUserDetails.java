@@ -23,9 +23,10 @@ public class UserInfoUserDetails implements UserDetails {
     private final String name;
     private final String password;
     private final List<GrantedAuthority> authorities;
+    private final Long locationId;
     /**
      * Constructor to create a new instance of UserInfoUserDetails using the provided userInfo.
-     * It sets the user's name, password, and authorities (roles) based on the values from the given UserInfo object.
+     * It sets the user's name, password, authorities (roles) and home location based on the values from the given UserInfo object.
      * @param userInfo an object of the UserInfo class representing user information
      */
     public UserInfoUserDetails(UserInfo userInfo) {
@@ -34,6 +35,14 @@ public class UserInfoUserDetails implements UserDetails {
         authorities= Arrays.stream(userInfo.getRoles().split(","))
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
+        locationId=userInfo.getLocation_id();
+    }
+    /**
+     * Returns the location (shop) the user registered at, see TenantResolver.
+     * @return the location id, or null if unknown
+     */
+    public Long getLocationId() {
+        return locationId;
     }
     /**
      * Returns the authorities (roles) granted to the user.
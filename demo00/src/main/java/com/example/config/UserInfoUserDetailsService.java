@@ -3,6 +3,8 @@
  based on the provided username. It uses the UserInfoRepository to retrieve the user's details from the database.
  If the user is found, it creates a new instance of UserInfoUserDetails using the retrieved user's information and
  returns it. If the user is not found, it throws a UsernameNotFoundException.
+ It also implements UserDetailsPasswordService, so that DaoAuthenticationProvider can store a rehashed password
+ when a user logs in with a hash made by an older algorithm or a lower cost.
 
  @author Matthew Suprunov
  @version 1.0
@@ -12,14 +14,16 @@ package com.example.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Component
-public class UserInfoUserDetailsService implements UserDetailsService {
+public class UserInfoUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserInfoRepository repository;
@@ -30,9 +34,23 @@ public class UserInfoUserDetailsService implements UserDetailsService {
      @throws UsernameNotFoundException if the user is not found
      */
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<UserInfo> userInfo = repository.findByName(username);
         return userInfo.map(UserInfoUserDetails::new)
                 .orElseThrow(() -> new UsernameNotFoundException("user not found " + username));
     }
+    /**
+     Replaces the stored password hash of the user with a freshly encoded one.
+     @param user the authenticated user whose hash is outdated
+     @param newPassword the password encoded with the current algorithm and cost
+     @return the user's details with the new password hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserInfo userInfo = repository.findByName(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("user not found " + user.getUsername()));
+        userInfo.setPassword(newPassword);
+        return new UserInfoUserDetails(repository.save(userInfo));
+    }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 /**
  The UserService class provides methods for managing user information, including adding new users to the system.
  This class is responsible for encrypting the user's password and saving the user information to the
- database via the UserInfoRepository.
+ database via the UserInfoRepository. Names that are already taken are rejected before the password is
+ hashed; the UsernameBloomFilter spares the database lookup for names that were never registered.
  @Service identifies a service component in the Spring framework. As a service component, it can
  be injected into other Spring-managed components using the @Autowired
  annotation.
@@ -11,7 +12,9 @@
  */
 package com.example.config;
 
+import com.example.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -23,12 +26,37 @@ public class UserService {
 
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UsernameBloomFilter usernameFilter;
     /**
      * Adds a new user to the UserInfoRepository. The user's password is encoded using the PasswordEncoder.
+     * The user belongs to the location of the request they registered with.
      * @param userInfo The UserInfo object representing the user to be added.
+     * @throws UsernameTakenException if a user with the same name already exists
      */
     public void addUser(UserInfo userInfo) {
+        if (isNameTaken(userInfo.getName())) {
+            throw new UsernameTakenException(userInfo.getName());
+        }
         userInfo.setPassword(passwordEncoder.encode(userInfo.getPassword()));
-        repository.save(userInfo);
+        userInfo.setLocation_id(TenantContext.currentOrDefault());
+        try {
+            repository.saveAndFlush(userInfo);
+        } catch (DataIntegrityViolationException e) {
+            // registered by a concurrent request, or on another instance whose additions this filter never saw
+            usernameFilter.add(userInfo.getName());
+            throw new UsernameTakenException(userInfo.getName());
+        }
+        usernameFilter.add(userInfo.getName());
+    }
+    /**
+     * Checks whether a username already belongs to a user. The database is only queried when the
+     * UsernameBloomFilter reports a possible hit.
+     * @param name the username to check
+     * @return true if the name is taken
+     */
+    public boolean isNameTaken(String name) {
+        return usernameFilter.mightContain(name) && repository.existsByName(name);
     }
 }
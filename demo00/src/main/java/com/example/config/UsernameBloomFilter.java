@@ -0,0 +1,90 @@
+/**
+ The UsernameBloomFilter class answers "might this username be taken?" from memory. It is a Bloom filter over
+ every UserInfo.name, filled once when the application is ready and then on every UserService.addUser.
+ A negative answer is certain, so UserService only asks the database when the filter reports a possible hit.
+ The bit array is sized at startup for barbershop.users.expected-count names at barbershop.users.false-positive-rate
+ and is never resized: names added during the build go into the same bits, so nothing is lost in between.
+ Until the build has finished every name is reported as a possible hit. Bits are set with a CAS on an
+ AtomicLongArray, so lookups and additions never lock.
+ Each instance has its own filter, so a name registered on another instance since the build is missing from it;
+ the unique index on user_info.name still refuses it, and UserService then adds the name here.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import com.example.analytics.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class UsernameBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    @Autowired
+    private UserInfoRepository repository;
+
+    public UsernameBloomFilter(@Value("${barbershop.users.expected-count:100000}") int expectedCount,
+                               @Value("${barbershop.users.false-positive-rate:0.01}") double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedCount * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedCount * Math.log(2)));
+    }
+
+    /**
+     * Adds every stored username once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        for (String name : repository.findAllNames()) {
+            add(name);
+        }
+        ready = true;
+    }
+
+    /**
+     * Adds a username to the filter.
+     * @param name the username
+     */
+    public void add(String name) {
+        long hash = Hashing.hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            long mask = 1L << bit;
+            bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    /**
+     * Checks whether a username may have been added.
+     * @param name the username
+     * @return false if the name is certainly not taken, true if it may be
+     */
+    public boolean mightContain(String name) {
+        if (!ready) {
+            return true;
+        }
+        long hash = Hashing.hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ The UsernameController class lets the register page check whether a username is still free while it is typed.
+ It lives under /auth/**, so it is open to anonymous users, and is answered from UsernameBloomFilter
+ unless the filter reports a possible hit.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class UsernameController {
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Checks whether a username can still be registered.
+     * @param name the username
+     * @return the name and whether it is available
+     */
+    @GetMapping("/auth/username_available")
+    public Map<String, Object> available(@RequestParam String name) {
+        return Map.of("name", name, "available", !userService.isNameTaken(name));
+    }
+}
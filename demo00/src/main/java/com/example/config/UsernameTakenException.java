@@ -0,0 +1,18 @@
+/**
+ The UsernameTakenException is thrown by UserService.addUser when the chosen username already belongs to
+ another user.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UsernameTakenException extends RuntimeException {
+    public UsernameTakenException(String name) {
+        super("username is already taken: " + name);
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ The DataSourceRouting class lets a piece of code read from the primary database even inside a read-only
+ transaction, which ReplicaRoutingDataSource would otherwise send to a replica. It is used where a replica
+ that lags behind would do harm, such as rendering the fragments that FragmentCache keeps under the current
+ table version.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.datasource;
+
+import java.util.function.Supplier;
+
+public final class DataSourceRouting {
+    private static final ThreadLocal<Boolean> PINNED = ThreadLocal.withInitial(() -> false);
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Runs the action with every connection it opens taken from the primary.
+     * @param action the action to run
+     * @return the result of the action
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean pinned = PINNED.get();
+        PINNED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PINNED.set(pinned);
+        }
+    }
+
+    /**
+     * Tells whether the current thread runs inside onPrimary.
+     * @return true if connections must come from the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get();
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ The ReplicaProperties class binds the barbershop.datasource.* properties: the read replicas and how their
+ replication lag is measured. The primary is still configured with spring.datasource.*.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("barbershop.datasource")
+public class ReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+    // MySQL 8.0.22+; older servers use SHOW SLAVE STATUS and Seconds_Behind_Master
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+    private Duration maxLag = Duration.ofSeconds(5);
+    private long lagCheckIntervalMillis = 5000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ The ReplicaRoutingDataSource class sends the connections of read-only transactions to the replicas and all others
+ to the primary. Replicas are taken in turn (round robin); a replica whose lag, as last measured by
+ refreshReplicaLag, is above maxLag or cannot be measured is skipped, and when no replica is usable the primary
+ serves the reads. The lookup only works when the connection is fetched after the transaction has started,
+ so RoutingDataSourceConfig wraps it in a LazyConnectionDataSourceProxy.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Set<String> lagging = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the routing data source and its lookup map.
+     * @param primary the primary database, used for writes and as the fallback for reads
+     * @param replicas the replicas by name
+     * @param lagQuery the query that reports the replication lag on a replica
+     * @param lagColumn the column of the first row of lagQuery holding the lag in seconds
+     * @param maxLag the lag above which a replica gets no reads
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    String lagQuery, String lagColumn, Duration maxLag) {
+        this.replicas = replicas;
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLag = maxLag;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || DataSourceRouting.isPinnedToPrimary()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            if (!lagging.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures the lag of every replica and takes the lagging ones out of the rotation.
+     * A replica that returns no row, a null lag or an error counts as lagging.
+     */
+    public void refreshReplicaLag() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            Long lagSeconds = null;
+            try {
+                List<Map<String, Object>> rows = new JdbcTemplate(replica.getValue()).queryForList(lagQuery);
+                if (!rows.isEmpty() && rows.get(0).get(lagColumn) instanceof Number lag) {
+                    lagSeconds = lag.longValue();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not measure the lag of replica {}: {}", replica.getKey(), e.getMessage());
+            }
+            boolean isLagging = lagSeconds == null || Duration.ofSeconds(lagSeconds).compareTo(maxLag) > 0;
+            if (isLagging ? lagging.add(replica.getKey()) : lagging.remove(replica.getKey())) {
+                log.info("Replica {} {} (lag {} s)", replica.getKey(), isLagging ? "taken out of rotation" : "back in rotation", lagSeconds);
+            }
+        }
+    }
+
+    /**
+     * Returns the replicas that currently get no reads.
+     * @return the names of the lagging replicas
+     */
+    public Set<String> laggingReplicas() {
+        return Set.copyOf(lagging);
+    }
+}
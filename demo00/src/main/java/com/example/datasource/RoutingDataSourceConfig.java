@@ -0,0 +1,59 @@
+/**
+ The RoutingDataSourceConfig class replaces the single DataSource of Spring Boot by a ReplicaRoutingDataSource
+ when at least one replica is configured (barbershop.datasource.replicas[0].url). Without replicas it does
+ nothing and every query goes to spring.datasource as before.
+ The routing data source is wrapped in a LazyConnectionDataSourceProxy, so that the JPA transaction manager
+ fetches the real connection only at the first statement, when the read-only flag of the transaction is known.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "barbershop.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class RoutingDataSourceConfig {
+    private ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Creates the data source used by JPA: the primary from spring.datasource and the configured replicas.
+     * @param primaryProperties the spring.datasource properties
+     * @param replicaProperties the barbershop.datasource properties
+     * @return the lazily connecting routing data source
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties) {
+        DataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = replicaProperties.getReplicas().get(i);
+            replicas.put("replica-" + i, DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(replica.getUrl()).username(replica.getUsername()).password(replica.getPassword()).build());
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getLagQuery(),
+                replicaProperties.getLagColumn(), replicaProperties.getMaxLag());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${barbershop.datasource.lag-check-interval-millis:5000}")
+    public void refreshReplicaLag() {
+        if (routingDataSource != null) {
+            routingDataSource.refreshReplicaLag();
+        }
+    }
+}
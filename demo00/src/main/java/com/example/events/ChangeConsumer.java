@@ -0,0 +1,55 @@
+/**
+ The ChangeConsumer interface is implemented by the components that keep data derived from clients and posts.
+ ChangeEventDispatcher finds every bean implementing it and hands it the committed changes in batches, on a
+ thread of its own, in sequence order as far as the commits allow.
+ A durable consumer keeps its state in the database; its position is stored with its writes, so it is replayed
+ from the outbox after a restart, and it runs on one node at a time, each event exactly once. An in-memory
+ consumer runs on every node: it rebuilds itself on startup and then gets the changes of the last grace period
+ and all later ones, so it may see a change more than once or older changes after newer ones, and must apply
+ them idempotently (see AutocompleteIndex).
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import java.util.List;
+
+public interface ChangeConsumer {
+    /**
+     * Returns the name the consumer's position is stored under.
+     * @return a unique, stable name
+     */
+    String consumerName();
+
+    /**
+     * Tells whether the consumer is replayed from the outbox after a restart.
+     * @return true for consumers that keep their state in the database
+     */
+    default boolean durable() {
+        return false;
+    }
+
+    /**
+     * Tells whether an in-memory consumer only needs the changes committed on other nodes, because the
+     * committing thread already applies this node's own changes.
+     * @return true for consumers that mirror changes made elsewhere
+     */
+    default boolean remoteOnly() {
+        return false;
+    }
+
+    /**
+     * Builds an in-memory consumer's state from the tables. Called once at startup, after the dispatcher has
+     * recorded the position the consumer is replayed from, so no change can fall between the two.
+     */
+    default void initialize() {
+    }
+
+    /**
+     * Applies a batch of committed changes. A durable consumer runs inside the transaction that stores its position,
+     * so its writes are rolled back with the position when it fails; an in-memory consumer gets the batch again.
+     * @param events the changes, oldest first
+     */
+    void accept(List<ChangeEvent> events);
+}
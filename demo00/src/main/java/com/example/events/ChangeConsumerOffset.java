@@ -0,0 +1,34 @@
+/**
+ The ChangeConsumerOffset class stores how far a ChangeConsumer has read the change_outbox: every event up
+ to and including last_sequence has been delivered to it.
+ The row of a durable consumer has no node_id; it is locked and updated in the same transaction as the
+ consumer's own writes, so whichever node delivers the next batch continues exactly where the last one stopped.
+ An in-memory consumer has one row per node ("name@node"), written every heartbeat, so that the outbox is only
+ pruned below what every live node has read; rows of nodes not heard from for a while are removed.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "change_consumer_offset")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeConsumerOffset {
+    @Id
+    private String consumer_name;
+    private long last_sequence;
+    private String node_id;
+    private Instant updated_at;
+}
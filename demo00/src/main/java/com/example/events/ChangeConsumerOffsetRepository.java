@@ -0,0 +1,68 @@
+/**
+ The ChangeConsumerOffsetRepository interface is a Spring Data JPA repository for the positions of the change
+ consumers, keyed by consumer name. It locks the position of a durable consumer while a batch is delivered, and
+ finds the lowest position of all durable consumers and of the in-memory consumers of all live nodes.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ChangeConsumerOffsetRepository extends JpaRepository<ChangeConsumerOffset, String> {
+    /**
+     * Finds the position of a consumer and locks its row until the transaction ends, so that only one node at a
+     * time delivers events to a durable consumer.
+     * @param consumerName the name of the consumer
+     * @return the locked position, or an empty Optional if none is stored
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from ChangeConsumerOffset o where o.consumer_name = ?1")
+    Optional<ChangeConsumerOffset> findForUpdate(String consumerName);
+    /**
+     * Stores the first position of a durable consumer unless another node has stored one already.
+     * @param consumerName the name of the consumer
+     * @param sequence the position to start from
+     * @return 1 if the position was stored, 0 if it existed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into change_consumer_offset (consumer_name, last_sequence) values (?1, ?2)",
+            nativeQuery = true)
+    int insertIfAbsent(String consumerName, long sequence);
+    /**
+     * Returns the lowest position of the durable consumers and of the in-memory consumers of the nodes that were
+     * heard from since the given time.
+     * @param liveSince the oldest heartbeat of a node that is still counted
+     * @return the lowest position, or null if there is none
+     */
+    @Query("select min(o.last_sequence) from ChangeConsumerOffset o where o.node_id is null or o.updated_at >= ?1")
+    Long findLowestPosition(Instant liveSince);
+    /**
+     * Deletes the positions of the nodes that were not heard from since the given time.
+     * @param liveSince the oldest heartbeat of a node that is kept
+     * @return the number of deleted positions
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ChangeConsumerOffset o where o.node_id is not null and o.updated_at < ?1")
+    int deleteExpiredNodes(Instant liveSince);
+    /**
+     * Deletes the positions of one node, when it shuts down.
+     * @param nodeId the id of the node
+     * @return the number of deleted positions
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ChangeConsumerOffset o where o.node_id = ?1")
+    int deleteNode(String nodeId);
+}
@@ -0,0 +1,106 @@
+/**
+ The ChangeEvent record describes one committed change of a client or a post: the table, the row id and the
+ row as JSON before and after the change (null before an insert and after a delete). Carrying whole snapshots
+ lets consumers update derived data without reading the row again.
+ An ARCHIVE event stands for a whole batch of rows moved out of the table by VisitArchiver: it has no row id and
+ no snapshots, only the ids and locations of the batch (see archived), so consumers drop the rows without a
+ DELETE event per row. A BULK_UPDATE event likewise stands for all the rows one UPDATE statement changed: it
+ carries the statement's condition and new value (see bulkUpdate) rather than the rows, which are neither read
+ nor locked to record it; consumers apply it to the rows they hold or ignore the column.
+ The sequence is the id of the change_outbox row the event was stored in.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ChangeEvent(long sequence, String table, Type type, Long entityId,
+                          String before, String after, Instant createdAt) {
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public enum Type {
+        INSERT, UPDATE, DELETE, ARCHIVE, BULK_UPDATE;
+
+        /**
+         * Tells whether an event of this type stands for a set of rows rather than one row.
+         * @return true for ARCHIVE and BULK_UPDATE
+         */
+        public boolean setLevel() {
+            return this == ARCHIVE || this == BULK_UPDATE;
+        }
+    }
+
+    /**
+     * The rows of an ARCHIVE event.
+     * @param ids the ids of the archived rows
+     * @param locations the locations the rows belonged to
+     */
+    public record Archived(List<Long> ids, List<Long> locations) {
+    }
+
+    /**
+     * The change of a BULK_UPDATE event: one column of every row of a location that held a value is set to another.
+     * @param location the location of the changed rows
+     * @param column the changed column, as named by the entity
+     * @param from the value the rows had
+     * @param to the value the rows have now
+     * @param since the earliest visit date of the changed rows, "yyyy-MM-dd HH:mm", or null for rows of any date
+     */
+    public record BulkUpdate(long location, String column, String from, String to, String since) {
+    }
+
+    /**
+     * Reads the row as it was before the change.
+     * @param entityClass the entity class of the table
+     * @return the old row, or null for an insert
+     */
+    public <T> T before(Class<T> entityClass) {
+        return read(before, entityClass);
+    }
+
+    /**
+     * Reads the row as it is after the change.
+     * @param entityClass the entity class of the table
+     * @return the new row, or null for a delete or a set of rows
+     */
+    public <T> T after(Class<T> entityClass) {
+        return type.setLevel() ? null : read(after, entityClass);
+    }
+
+    /**
+     * Reads the rows of an ARCHIVE event.
+     * @return the archived rows, or null for any other event
+     */
+    public Archived archived() {
+        return type == Type.ARCHIVE ? read(after, Archived.class) : null;
+    }
+
+    /**
+     * Reads the change of a BULK_UPDATE event.
+     * @return the change, or null for any other event
+     */
+    public BulkUpdate bulkUpdate() {
+        return type == Type.BULK_UPDATE ? read(after, BulkUpdate.class) : null;
+    }
+
+    private static <T> T read(String json, Class<T> entityClass) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, entityClass);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read " + entityClass.getSimpleName() + " from change event", e);
+        }
+    }
+}
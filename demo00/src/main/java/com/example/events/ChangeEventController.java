@@ -0,0 +1,32 @@
+/**
+ The ChangeEventController class shows administrators how far every change consumer has got: its position in
+ the change outbox, the events waiting in its queue and the events it had to fetch from the outbox instead.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class ChangeEventController {
+
+    @Autowired
+    private ChangeEventDispatcher dispatcher;
+
+    /**
+     * Returns the state of every change consumer.
+     * @return consumer name to position, queue depth and dropped event count
+     */
+    @GetMapping("/admin/change_events")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Map<String, Map<String, Long>> stats() {
+        return dispatcher.stats();
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ The ChangeEventDispatcher class delivers committed ChangeEvents to every ChangeConsumer bean.
+ Each consumer has a bounded queue and a worker thread that takes up to batch-size events at a time, so a slow
+ consumer neither delays the committing request nor the other consumers. A full queue does not block: the event
+ is left out and the worker fetches it from the change_outbox on its next catch-up.
+ Catch-up also closes the gaps that the in-memory path cannot see: transactions that commit out of id order, ids
+ lost to rollbacks and the changes committed on other nodes. A worker's position is the highest sequence up to
+ which every event was delivered; an id that is still missing after grace-millis, while a later event exists,
+ belongs to a rolled back transaction and is skipped.
+ Durable consumers are only fed from the outbox, in id order: a batch is read after the stored position, applied
+ and the new position stored in one transaction that holds the position's row lock, so with several nodes each
+ batch is delivered by exactly one of them, exactly once. The queue only wakes their worker up.
+ In-memory consumers run on every node. Their position is recorded before they build themselves from the tables
+ and starts grace-millis back, so no change committed around the build is missed; they apply changes
+ idempotently, as a failed batch is delivered again. Each node stores their positions every heartbeat, and events
+ are only pruned below the lowest position of the durable consumers and of every live node, and after the grace
+ period, so a node that starts later can still replay it.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class ChangeEventDispatcher {
+
+    @Autowired
+    private List<ChangeConsumer> consumers;
+
+    @Autowired
+    private ChangeOutboxRepository outbox;
+
+    @Autowired
+    private ChangeConsumerOffsetRepository offsets;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${barbershop.events.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${barbershop.events.batch-size:100}")
+    private int batchSize;
+
+    @Value("${barbershop.events.catch-up-interval-millis:1000}")
+    private long catchUpIntervalMillis;
+
+    @Value("${barbershop.events.grace-millis:60000}")
+    private long graceMillis;
+
+    @Value("${barbershop.events.heartbeat-millis:30000}")
+    private long heartbeatMillis;
+
+    @Value("${barbershop.events.node-expiry-millis:600000}")
+    private long nodeExpiryMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Worker> workers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    /**
+     * Builds the in-memory consumers and starts one worker per consumer once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // recorded before the in-memory consumers read the tables, so every change they may have missed is replayed
+        long replayFrom = replayPosition(Instant.now());
+        Long last = outbox.findLastSequence();
+        long head = last == null ? 0 : last;
+        for (ChangeConsumer consumer : consumers) {
+            if (!consumer.durable()) {
+                consumer.initialize();
+            }
+        }
+        running = true;
+        for (ChangeConsumer consumer : consumers) {
+            Worker worker;
+            if (consumer.durable()) {
+                offsets.insertIfAbsent(consumer.consumerName(), head);
+                worker = new DurableWorker(consumer, offsets.findById(consumer.consumerName())
+                        .map(ChangeConsumerOffset::getLast_sequence).orElse(head));
+            } else {
+                worker = new NodeWorker(consumer, replayFrom);
+            }
+            workers.put(consumer.consumerName(), worker);
+            Thread thread = new Thread(worker, "change-events-" + consumer.consumerName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the position an in-memory consumer starting now is replayed from: the last event older than the
+     * grace period, as newer ids may belong to transactions that were still committing while it was built.
+     * @param now the current time
+     * @return the sequence after which events are delivered
+     */
+    long replayPosition(Instant now) {
+        Long before = outbox.findLastSequenceBefore(now.minusMillis(graceMillis));
+        if (before != null) {
+            return before;
+        }
+        Long first = outbox.findFirstSequence();
+        return first == null ? 0 : first - 1;
+    }
+
+    /**
+     * Hands a committed event to every worker without blocking.
+     * @param event the event published by ChangeEventPublisher
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommitted(ChangeEvent event) {
+        for (Worker worker : workers.values()) {
+            worker.offer(event);
+        }
+    }
+
+    /**
+     * Deletes the outbox events that every consumer on every live node has passed and that are older than the
+     * grace period. The newest event is always kept, so that a node starting later knows where the outbox ends.
+     */
+    @Scheduled(fixedDelayString = "${barbershop.events.prune-interval-millis:3600000}")
+    public void prune() {
+        Instant now = Instant.now();
+        for (Worker worker : workers.values()) {
+            if (worker instanceof NodeWorker nodeWorker) {
+                nodeWorker.heartbeat(now);
+            }
+        }
+        Instant liveSince = now.minusMillis(nodeExpiryMillis);
+        offsets.deleteExpiredNodes(liveSince);
+        Long lowest = offsets.findLowestPosition(liveSince);
+        Long last = outbox.findLastSequence();
+        if (lowest == null || last == null) {
+            return;
+        }
+        long upTo = Math.min(lowest, last - 1);
+        if (upTo > 0) {
+            int deleted = outbox.deleteUpTo(upTo, now.minusMillis(graceMillis));
+            log.debug("Pruned {} change events up to {}", deleted, upTo);
+        }
+    }
+
+    /**
+     * Returns the position and queue depth of every consumer.
+     * @return consumer name to its last delivered sequence, queue depth and dropped event count
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new ConcurrentHashMap<>();
+        workers.forEach((name, worker) -> stats.put(name, Map.of(
+                "position", worker.position.get(),
+                "queueDepth", (long) worker.queue.size(),
+                "dropped", worker.dropped.get())));
+        return stats;
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            offsets.deleteNode(nodeId);
+        } catch (DataAccessException e) {
+            log.debug("Could not remove the consumer positions of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private abstract class Worker implements Runnable {
+        protected final ChangeConsumer consumer;
+        protected final BlockingQueue<ChangeEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        protected final AtomicLong position;
+        protected final AtomicLong dropped = new AtomicLong();
+
+        Worker(ChangeConsumer consumer, long position) {
+            this.consumer = consumer;
+            this.position = new AtomicLong(position);
+        }
+
+        void offer(ChangeEvent event) {
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    step();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    // the events stay undelivered and are read again from the outbox on the next catch-up
+                    log.warn("Change consumer {} failed: {}", consumer.consumerName(), e.getMessage(), e);
+                }
+            }
+        }
+
+        abstract void step() throws InterruptedException;
+    }
+
+    /**
+     * Delivers to a durable consumer from the outbox only, under the lock of its stored position.
+     */
+    private final class DurableWorker extends Worker {
+
+        private record Pulled(long position, boolean more) {
+        }
+
+        DurableWorker(ChangeConsumer consumer, long position) {
+            super(consumer, position);
+        }
+
+        @Override
+        void step() throws InterruptedException {
+            // committed events only wake the worker up, they are read from the outbox like those of other nodes
+            queue.poll(catchUpIntervalMillis, TimeUnit.MILLISECONDS);
+            queue.clear();
+            Pulled pulled;
+            do {
+                pulled = new TransactionTemplate(transactionManager).execute(status -> pull());
+                position.set(pulled.position());
+            } while (pulled.more() && running);
+        }
+
+        /**
+         * Locks the stored position, applies the events after it up to the first gap that may still be filled
+         * and stores the new position, all in the current transaction.
+         */
+        private Pulled pull() {
+            ChangeConsumerOffset offset = offsets.findForUpdate(consumer.consumerName()).orElseThrow();
+            long stored = offset.getLast_sequence();
+            List<ChangeOutboxEntry> entries = outbox.findAfter(stored, PageRequest.of(0, batchSize));
+            Instant graceLimit = Instant.now().minusMillis(graceMillis);
+            List<ChangeEvent> events = new ArrayList<>(entries.size());
+            long next = stored;
+            for (ChangeOutboxEntry entry : entries) {
+                if (entry.getId() > next + 1 && entry.getCreated_at().isAfter(graceLimit)) {
+                    break; // the missing ids may still commit
+                }
+                events.add(entry.toEvent());
+                next = entry.getId();
+            }
+            if (next == stored) {
+                return new Pulled(stored, false);
+            }
+            consumer.accept(events);
+            offset.setLast_sequence(next);
+            return new Pulled(next, entries.size() == batchSize && events.size() == entries.size());
+        }
+    }
+
+    /**
+     * Delivers to an in-memory consumer of this node, from the queue and by catching up with the outbox.
+     */
+    private final class NodeWorker extends Worker {
+        // sequences delivered out of order, above the position; only touched by the worker thread
+        private final TreeSet<Long> deliveredAbove = new TreeSet<>();
+        private volatile boolean overflowed;
+        private long lastCatchUp;
+        private long lastHeartbeat;
+
+        NodeWorker(ChangeConsumer consumer, long position) {
+            super(consumer, position);
+        }
+
+        @Override
+        void offer(ChangeEvent event) {
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+                overflowed = true;
+            }
+        }
+
+        @Override
+        void step() throws InterruptedException {
+            List<ChangeEvent> batch = new ArrayList<>(batchSize);
+            ChangeEvent first = queue.poll(catchUpIntervalMillis, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batch.removeIf(event -> event.sequence() <= position.get() || deliveredAbove.contains(event.sequence()));
+                List<Long> sequences = batch.stream().map(ChangeEvent::sequence).toList();
+                long next = contiguousFrom(position.get(), sequences);
+                // a consumer of remote changes skips this node's own, the committing thread has applied them
+                if (!consumer.remoteOnly()) {
+                    deliver(batch);
+                }
+                deliveredAbove.addAll(sequences);
+                moveTo(next);
+            }
+            long now = System.currentTimeMillis();
+            if (overflowed || now - lastCatchUp >= catchUpIntervalMillis) {
+                catchUp();
+            }
+            if (now - lastHeartbeat >= heartbeatMillis) {
+                heartbeat(Instant.ofEpochMilli(now));
+            }
+        }
+
+        /**
+         * Stores the position of this node's consumer, so that pruning keeps the events it has not read yet.
+         */
+        void heartbeat(Instant now) {
+            lastHeartbeat = now.toEpochMilli();
+            offsets.save(new ChangeConsumerOffset(consumer.consumerName() + '@' + nodeId, position.get(), nodeId, now));
+        }
+
+        /**
+         * Reads the events after the position from the outbox and delivers those not delivered yet,
+         * moving the position over ids that are missing for longer than the grace period.
+         */
+        private void catchUp() {
+            overflowed = false;
+            lastCatchUp = System.currentTimeMillis();
+            Instant graceLimit = Instant.now().minusMillis(graceMillis);
+            while (true) {
+                List<ChangeOutboxEntry> entries = outbox.findAfter(position.get(), PageRequest.of(0, batchSize));
+                List<ChangeEvent> missed = new ArrayList<>();
+                long next = position.get();
+                for (ChangeOutboxEntry entry : entries) {
+                    if (entry.getId() > next + 1 && entry.getCreated_at().isAfter(graceLimit)) {
+                        break; // the missing ids may still commit
+                    }
+                    if (!deliveredAbove.contains(entry.getId())) {
+                        missed.add(entry.toEvent());
+                    }
+                    next = entry.getId();
+                }
+                if (next == position.get()) {
+                    return;
+                }
+                next = contiguousFrom(next, List.of());
+                deliver(missed);
+                moveTo(next);
+                if (entries.size() < batchSize) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the highest sequence up to which every event is delivered once the given ones are.
+         */
+        private long contiguousFrom(long start, List<Long> delivering) {
+            long next = start;
+            while (deliveredAbove.contains(next + 1) || delivering.contains(next + 1)) {
+                next++;
+            }
+            return next;
+        }
+
+        private void moveTo(long next) {
+            position.set(next);
+            deliveredAbove.headSet(next, true).clear();
+        }
+
+        private void deliver(List<ChangeEvent> events) {
+            if (!events.isEmpty()) {
+                consumer.accept(events);
+            }
+        }
+    }
+}
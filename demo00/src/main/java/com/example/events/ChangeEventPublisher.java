@@ -0,0 +1,113 @@
+/**
+ The ChangeEventPublisher class captures changes of clients and posts inside the transaction that makes them.
+ publish stores the change in the change_outbox table and publishes it as an application event; the
+ ChangeEventDispatcher only receives it once the transaction has committed, so a rolled back change never
+ reaches a consumer. afterCommit runs work that must follow the commit on the committing thread itself.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+public class ChangeEventPublisher {
+
+    @Autowired
+    private ChangeOutboxRepository outbox;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Takes a snapshot of an entity before it is changed. Entities loaded in a transaction are updated in place
+     * when a detached copy is saved, so the old state has to be captured first.
+     * @param entity the entity, or null
+     * @return the entity as JSON, or null
+     */
+    public String snapshot(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        try {
+            return ChangeEvent.MAPPER.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write " + entity.getClass().getSimpleName() + " to a change event", e);
+        }
+    }
+
+    /**
+     * Records a change in the outbox and publishes it after the current transaction commits.
+     * @param table the table of the changed row, see TableVersions
+     * @param entityId the id of the changed row
+     * @param before the snapshot taken before the change, or null for an insert
+     * @param after the entity after the change, or null for a delete
+     * @return the recorded event
+     */
+    public ChangeEvent publish(String table, Long entityId, String before, Object after) {
+        ChangeEvent.Type type = before == null ? ChangeEvent.Type.INSERT
+                : after == null ? ChangeEvent.Type.DELETE : ChangeEvent.Type.UPDATE;
+        ChangeOutboxEntry entry = outbox.save(new ChangeOutboxEntry(null, table, type.name(), entityId,
+                before, snapshot(after), Instant.now()));
+        ChangeEvent event = entry.toEvent();
+        applicationEventPublisher.publishEvent(event);
+        return event;
+    }
+
+    /**
+     * Records in the outbox that a batch of rows was archived, as one event, and publishes it after the current
+     * transaction commits.
+     * @param table the table the rows were moved out of, see TableVersions
+     * @param ids the ids of the archived rows
+     * @param locations the locations the rows belonged to
+     * @return the recorded event
+     */
+    public ChangeEvent publishArchived(String table, List<Long> ids, List<Long> locations) {
+        return publishSet(table, ChangeEvent.Type.ARCHIVE, new ChangeEvent.Archived(ids, locations));
+    }
+
+    /**
+     * Records a bulk update in the outbox, as one event for all the rows it changed, and publishes it after the
+     * current transaction commits.
+     * @param table the table of the changed rows, see TableVersions
+     * @param change the condition and new value of the update
+     * @return the recorded event
+     */
+    public ChangeEvent publishBulkUpdate(String table, ChangeEvent.BulkUpdate change) {
+        return publishSet(table, ChangeEvent.Type.BULK_UPDATE, change);
+    }
+
+    private ChangeEvent publishSet(String table, ChangeEvent.Type type, Object change) {
+        ChangeOutboxEntry entry = outbox.save(new ChangeOutboxEntry(null, table, type.name(), null,
+                null, snapshot(change), Instant.now()));
+        ChangeEvent event = entry.toEvent();
+        applicationEventPublisher.publishEvent(event);
+        return event;
+    }
+
+    /**
+     * Runs an action after the current transaction commits, or at once if there is no transaction.
+     * @param action the action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
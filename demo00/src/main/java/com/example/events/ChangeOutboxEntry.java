@@ -0,0 +1,49 @@
+/**
+ The ChangeOutboxEntry class is one row of the change_outbox table: a ChangeEvent written in the same transaction
+ as the change itself, so that an event exists exactly when its change was committed. Consumers that missed
+ events (after a restart or when their queue was full) read them back from here.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "change_outbox")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String table_name;
+    private String change_type;
+    private Long entity_id;
+    @Lob
+    private String before_state;
+    @Lob
+    private String after_state;
+    private Instant created_at;
+
+    /**
+     * Converts the row back to the event it stores.
+     * @return the change event
+     */
+    public ChangeEvent toEvent() {
+        return new ChangeEvent(id, table_name, ChangeEvent.Type.valueOf(change_type), entity_id,
+                before_state, after_state, created_at);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ The ChangeOutboxRepository interface is a Spring Data JPA repository for the change_outbox table.
+ It reads events in sequence order after a consumer's position and deletes the events every consumer has seen.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.events;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeOutboxRepository extends JpaRepository<ChangeOutboxEntry, Long> {
+    /**
+     * Finds the events after a sequence number, oldest first.
+     * @param sequence the last sequence number already seen
+     * @param pageable the maximum number of events to return
+     * @return the following events
+     */
+    @Query("select e from ChangeOutboxEntry e where e.id > ?1 order by e.id")
+    List<ChangeOutboxEntry> findAfter(long sequence, Pageable pageable);
+    /**
+     * Returns the sequence number of the newest event.
+     * @return the highest id, or null if the outbox is empty
+     */
+    @Query("select max(e.id) from ChangeOutboxEntry e")
+    Long findLastSequence();
+    /**
+     * Returns the sequence number of the newest event created before a time.
+     * @param time the time
+     * @return the highest id of the older events, or null if there is none
+     */
+    @Query("select max(e.id) from ChangeOutboxEntry e where e.created_at < ?1")
+    Long findLastSequenceBefore(Instant time);
+    /**
+     * Returns the sequence number of the oldest event.
+     * @return the lowest id, or null if the outbox is empty
+     */
+    @Query("select min(e.id) from ChangeOutboxEntry e")
+    Long findFirstSequence();
+    /**
+     * Deletes the events up to a sequence number that were created before a time, with one statement.
+     * @param sequence the last sequence number to delete
+     * @param createdBefore events created at or after this time are kept
+     * @return the number of deleted events
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ChangeOutboxEntry e where e.id <= ?1 and e.created_at < ?2")
+    int deleteUpTo(long sequence, Instant createdBefore);
+}
@@ -0,0 +1,146 @@
+/**
+ The BarbershopGraphQlController class resolves the GraphQL schema in graphql/schema.graphqls.
+ The root queries read one page each. The nested lists, Client.visits and Client.posts, are @BatchMapping
+ methods: graphql-java collects the clients of a whole level of the result and they are loaded with one
+ IN query, so a request runs a fixed number of SQL statements however many posts or clients it returns.
+ Post.author and Visit.client need no query, the client is known by the name stored in the row.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.graphql;
+
+import com.example.blog.Blog;
+import com.example.blog.BlogRepository;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class BarbershopGraphQlController {
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Value("${barbershop.graphql.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Returns a page of posts.
+     * @param first the page size, capped at max-page-size
+     * @param after the id of the last post of the previous page, null for the first page
+     * @return the posts, ordered by id
+     */
+    @QueryMapping
+    public List<Blog> posts(@Argument int first, @Argument Long after) {
+        return blogRepository.findPageAfter(after == null ? 0 : after, page(first));
+    }
+
+    /**
+     * Returns one post.
+     * @param postId the id of the post
+     * @return the post, or null if there is none
+     */
+    @QueryMapping
+    public Blog post(@Argument("post_id") long postId) {
+        return blogRepository.findById(postId).orElse(null);
+    }
+
+    /**
+     * Returns a page of the visits of a master.
+     * @param masterName the name of the master
+     * @param since the earliest visit date, "yyyy-MM-dd HH:mm"
+     * @param first the page size, capped at max-page-size
+     * @return the visits, ordered by visit date
+     */
+    @QueryMapping
+    public List<Client> visits(@Argument("master_name") String masterName, @Argument String since, @Argument int first) {
+        return clientRepository.findVisitsOfMaster(masterName, since, page(first));
+    }
+
+    /**
+     * Returns the client with a given name; its visits and posts are loaded when asked for.
+     * @param name the full name of the client
+     * @return the client
+     */
+    @QueryMapping
+    public ClientProfile client(@Argument String name) {
+        return new ClientProfile(name);
+    }
+
+    @SchemaMapping(typeName = "Post", field = "author")
+    public ClientProfile author(Blog post) {
+        return post.getClient_name() == null ? null : new ClientProfile(post.getClient_name());
+    }
+
+    @SchemaMapping(typeName = "Visit", field = "client")
+    public ClientProfile client(Client visit) {
+        return new ClientProfile(visit.getFull_name());
+    }
+
+    /**
+     * Loads the visits of all clients of one level of the result with one query.
+     * @param clients the clients whose visits were asked for
+     * @return the visits of every client, ordered by visit date
+     */
+    @BatchMapping(typeName = "Client", field = "visits")
+    public Map<ClientProfile, List<Client>> visits(List<ClientProfile> clients) {
+        Map<ClientProfile, List<Client>> visits = byClient(clients);
+        for (Client visit : clientRepository.findByFullNames(names(clients))) {
+            // the database may compare names ignoring case, rows that match no parent exactly are left out
+            List<Client> list = visits.get(new ClientProfile(visit.getFull_name()));
+            if (list != null) {
+                list.add(visit);
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * Loads the posts of all clients of one level of the result with one query.
+     * @param clients the clients whose posts were asked for
+     * @return the posts of every client, ordered by id
+     */
+    @BatchMapping(typeName = "Client", field = "posts")
+    public Map<ClientProfile, List<Blog>> posts(List<ClientProfile> clients) {
+        Map<ClientProfile, List<Blog>> posts = byClient(clients);
+        for (Blog post : blogRepository.findByClientNames(names(clients))) {
+            List<Blog> list = posts.get(new ClientProfile(post.getClient_name()));
+            if (list != null) {
+                list.add(post);
+            }
+        }
+        return posts;
+    }
+
+    private PageRequest page(int first) {
+        return PageRequest.of(0, Math.max(1, Math.min(first, maxPageSize)));
+    }
+
+    private static <T> Map<ClientProfile, List<T>> byClient(List<ClientProfile> clients) {
+        Map<ClientProfile, List<T>> map = new LinkedHashMap<>();
+        for (ClientProfile client : clients) {
+            map.put(client, new ArrayList<>());
+        }
+        return map;
+    }
+
+    private static List<String> names(List<ClientProfile> clients) {
+        return clients.stream().map(ClientProfile::name).toList();
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ The ClientProfile record is the GraphQL Client type: a person known by name, whose visits are the client
+ rows with that full name and whose posts are the blog posts with that client name.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.graphql;
+
+public record ClientProfile(String name) {
+}
@@ -0,0 +1,53 @@
+/**
+ The GraphQlLimitsConfig class rejects GraphQL queries that would cost the database too much before they run.
+ A query deeper than max-depth is refused, and so is one whose complexity is above max-complexity.
+ The complexity of a field is one plus that of its selection; a list field multiplies it by the number of
+ items it may return: its "first" argument, or list-weight for the nested lists that have no such argument.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphQlLimitsConfig {
+
+    @Bean
+    public Instrumentation maxQueryDepthInstrumentation(@Value("${barbershop.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public Instrumentation maxQueryComplexityInstrumentation(
+            @Value("${barbershop.graphql.max-complexity:1000}") int maxComplexity,
+            @Value("${barbershop.graphql.max-page-size:100}") int maxPageSize,
+            @Value("${barbershop.graphql.list-weight:10}") int listWeight) {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            if (!isList(environment.getFieldDefinition().getType())) {
+                return 1 + childComplexity;
+            }
+            Object first = environment.getArguments().get("first");
+            int items = first instanceof Integer count ? Math.max(1, Math.min(count, maxPageSize)) : listWeight;
+            return items * (1 + childComplexity);
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    private static boolean isList(GraphQLType type) {
+        if (type instanceof GraphQLNonNull nonNull) {
+            return isList(nonNull.getWrappedType());
+        }
+        return type instanceof GraphQLList;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ The MasterQueue class is the walk-in queue of one master. Its whole state (the customer in the chair and the
+ waiting line) is an immutable State behind an AtomicReference; every operation builds the next state from the
+ current one and installs it with compareAndSet, retrying if another request changed the queue first. Readers
+ never wait and always see a consistent queue, and a queue is a few dozen tickets at most, so copying it on
+ every change costs less than any lock.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+public class MasterQueue {
+    private final String master;
+    private final AtomicReference<State> state = new AtomicReference<>(new State(0, null, null, List.of()));
+
+    /**
+     * A snapshot of the queue.
+     * @param version the number of changes so far
+     * @param inChair the customer being served, or null
+     * @param chairSince when the customer in the chair was called
+     * @param waiting the waiting customers, first in line first
+     */
+    public record State(long version, Ticket inChair, Instant chairSince, List<Ticket> waiting) {
+
+        State next(Ticket inChair, Instant chairSince, List<Ticket> waiting) {
+            return new State(version + 1, inChair, chairSince, List.copyOf(waiting));
+        }
+
+        int indexOf(long ticket) {
+            for (int i = 0; i < waiting.size(); i++) {
+                if (waiting.get(i).id() == ticket) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The states before and after an operation; both are the same state when the operation changed nothing.
+     */
+    public record Change(State before, State after) {
+
+        public boolean changed() {
+            return before != after;
+        }
+    }
+
+    public MasterQueue(String master) {
+        this.master = master;
+    }
+
+    public String master() {
+        return master;
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * Adds a customer at the end of the line, unless the line already holds maxWaiting customers.
+     * @param ticket the new ticket
+     * @param maxWaiting the longest line allowed
+     * @return the change, unchanged if the line is full
+     */
+    public Change join(Ticket ticket, int maxWaiting) {
+        return update(current -> {
+            if (current.waiting().size() >= maxWaiting) {
+                return current;
+            }
+            List<Ticket> waiting = new ArrayList<>(current.waiting());
+            waiting.add(ticket);
+            return current.next(current.inChair(), current.chairSince(), waiting);
+        });
+    }
+
+    /**
+     * Frees the chair and calls the first customer in line into it, if any.
+     * @param now the time of the call
+     * @return the change, unchanged if the chair and the line were empty
+     */
+    public Change serveNext(Instant now) {
+        return update(current -> {
+            if (current.waiting().isEmpty()) {
+                return current.inChair() == null ? current : current.next(null, null, List.of());
+            }
+            List<Ticket> waiting = current.waiting();
+            return current.next(waiting.get(0), now, waiting.subList(1, waiting.size()));
+        });
+    }
+
+    /**
+     * Moves a customer who did not answer the call behind the next customer in line.
+     * @param ticket the ticket number
+     * @return the change, unchanged if the ticket is not waiting or already last
+     */
+    public Change skip(long ticket) {
+        return update(current -> {
+            int index = current.indexOf(ticket);
+            if (index < 0 || index == current.waiting().size() - 1) {
+                return current;
+            }
+            List<Ticket> waiting = new ArrayList<>(current.waiting());
+            waiting.add(index + 1, waiting.remove(index));
+            return current.next(current.inChair(), current.chairSince(), waiting);
+        });
+    }
+
+    /**
+     * Removes a customer who left without being served.
+     * @param ticket the ticket number
+     * @return the change, unchanged if the ticket is not waiting
+     */
+    public Change leave(long ticket) {
+        return update(current -> {
+            int index = current.indexOf(ticket);
+            if (index < 0) {
+                return current;
+            }
+            List<Ticket> waiting = new ArrayList<>(current.waiting());
+            waiting.remove(index);
+            return current.next(current.inChair(), current.chairSince(), waiting);
+        });
+    }
+
+    /**
+     * Applies an operation with a compare-and-set loop. The operation may run more than once and must not have
+     * side effects; returning the current state means no change.
+     */
+    private Change update(UnaryOperator<State> operation) {
+        while (true) {
+            State before = state.get();
+            State after = operation.apply(before);
+            if (after == before || state.compareAndSet(before, after)) {
+                return new Change(before, after);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ The QueueFullException is thrown when a customer joins a walk-in queue that already holds barbershop.queue.max-waiting customers.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class QueueFullException extends RuntimeException {
+    public QueueFullException(String master, int maxWaiting) {
+        super("the queue of " + master + " is full (" + maxWaiting + " waiting)");
+    }
+}
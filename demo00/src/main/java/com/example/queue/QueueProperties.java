@@ -0,0 +1,28 @@
+/**
+ The QueueProperties class binds the barbershop.queue.* properties of the walk-in queues: the expected length of
+ every service, which the queues refine from the visits they see, and the limits of a queue and of its screens.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("barbershop.queue")
+public class QueueProperties {
+    // expected length of a service, by service name; services not listed take default-service-duration
+    private Map<String, Duration> serviceDurations = new HashMap<>();
+    private Duration defaultServiceDuration = Duration.ofMinutes(30);
+    // weight of the last measured service length in the running average that replaces the configured one
+    private double learningRate = 0.2;
+    private int maxWaiting = 50;
+    // comment line sent to idle screens so that proxies do not close the connection
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
@@ -0,0 +1,17 @@
+/**
+ The QueueView record is what the waiting-room screens show for one master: the customer in the chair and the
+ customers waiting, each with their position and estimated wait in minutes. The version grows with every change
+ of the queue, so a screen can ignore a view older than the one it shows.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import java.util.List;
+
+public record QueueView(String master, long version, Entry inChair, List<Entry> waiting) {
+
+    public record Entry(long ticket, String name, String service, int position, long waitMinutes) {
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ The Ticket record is a walk-in customer in the queue of a master: a number, the name they gave, the service
+ they asked for and when they joined.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import java.time.Instant;
+
+public record Ticket(long id, String name, String service, Instant joinedAt) {
+}
@@ -0,0 +1,17 @@
+/**
+ The UnknownMasterException is thrown when a walk-in queue is asked for a master who has no visits in the client table.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UnknownMasterException extends RuntimeException {
+    public UnknownMasterException(String master) {
+        super("unknown master " + master);
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ The WalkInQueueController class serves the walk-in queues: the front desk adds customers, the masters call them,
+ and the waiting-room screens follow the queues over Server-Sent Events.
+ The event streams are Reactor Fluxes; Spring MVC serves them as asynchronous requests, so an open screen holds a
+ connection but no servlet thread, which is only borrowed for the moment an event is written. A comment line is
+ sent every barbershop.queue.heartbeat so that idle connections are not closed by proxies; EventSource reconnects
+ by itself when spring.mvc.async.request-timeout ends a stream, and gets the current queue first.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/queue")
+public class WalkInQueueController {
+
+    @Autowired
+    private WalkInQueueService queueService;
+
+    @Autowired
+    private QueueProperties properties;
+
+    /**
+     * Returns the queues of all masters that have one.
+     * @return the queues, by master name
+     */
+    @GetMapping
+    public List<QueueView> board() {
+        return queueService.board();
+    }
+
+    /**
+     * Streams the queues of all masters, for the waiting-room screen: the board at once and after every change.
+     * @return "board" events with the list of queues
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<QueueView>>> boardEvents() {
+        return withHeartbeat(queueService.boardUpdates()
+                .map(board -> ServerSentEvent.builder(board).event("board").build()));
+    }
+
+    /**
+     * Returns the queue of a master.
+     * @param master the name of the master
+     * @return the queue with estimated waits
+     */
+    @GetMapping("/{master}")
+    public QueueView queue(@PathVariable String master) {
+        return queueService.view(master);
+    }
+
+    /**
+     * Streams the queue of a master, for the master's own screen.
+     * @param master the name of the master
+     * @return "queue" events, with the queue version as event id
+     */
+    @GetMapping(path = "/{master}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<QueueView>> queueEvents(@PathVariable String master) {
+        return withHeartbeat(queueService.updates(master)
+                .map(view -> ServerSentEvent.builder(view).id(Long.toString(view.version())).event("queue").build()));
+    }
+
+    /**
+     * Adds a walk-in customer to a master's queue.
+     * @param master the name of the master
+     * @param name the name of the customer
+     * @param service the service asked for
+     * @return the ticket number, position and estimated wait
+     */
+    @PostMapping("/{master}/join")
+    public QueueView.Entry join(@PathVariable String master, @RequestParam String name, @RequestParam String service) {
+        return queueService.join(master, name, service);
+    }
+
+    /**
+     * Calls the next customer into a master's chair.
+     * @param master the name of the master
+     * @return the queue after the call
+     */
+    @PostMapping("/{master}/serve")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public QueueView serve(@PathVariable String master) {
+        return queueService.serveNext(master);
+    }
+
+    /**
+     * Moves a customer who did not answer the call behind the next one.
+     * @param master the name of the master
+     * @param ticket the ticket number
+     * @return the queue after the change
+     */
+    @PostMapping("/{master}/tickets/{ticket}/skip")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public QueueView skip(@PathVariable String master, @PathVariable long ticket) {
+        return queueService.skip(master, ticket);
+    }
+
+    /**
+     * Removes a customer who left.
+     * @param master the name of the master
+     * @param ticket the ticket number
+     * @return the queue after the change
+     */
+    @DeleteMapping("/{master}/tickets/{ticket}")
+    public QueueView leave(@PathVariable String master, @PathVariable long ticket) {
+        return queueService.leave(master, ticket);
+    }
+
+    private <T> Flux<ServerSentEvent<T>> withHeartbeat(Flux<ServerSentEvent<T>> events) {
+        return Flux.merge(events, Flux.interval(properties.getHeartbeat())
+                .map(i -> ServerSentEvent.<T>builder().comment("keep-alive").build()));
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ The WalkInQueueService class keeps a live walk-in queue for every master of the client table (Client.master_name)
+ and pushes every change to the screens watching it. Queues belong to the location of the request that opened
+ them, so masters of the same name at two shops have queues of their own.
+ Queues live in memory in a ConcurrentHashMap of lock-free MasterQueues; joining, serving, skipping and leaving
+ are compare-and-set updates, so the front desk, the masters and the screens never wait for each other. A queue
+ is lost on restart, like the paper list it replaces.
+ Estimated waits add up the expected length of the service in the chair (less the time it has already taken)
+ and of the services ahead in line. Expected lengths start from barbershop.queue.service-durations and follow
+ a running average of the lengths measured between two calls of the same master.
+ A customer called into the chair is recorded as a visit (an ARRIVED client row) through ClientService, so
+ walk-ins appear in the client table, the analytics and the delta sync like booked visits.
+ Changes are signalled through one Reactor sink; a screen's stream drops the signals it has no time for and
+ renders the current queue for the latest one, so a slow screen only ever skips intermediate states.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.queue;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.client.VisitStatus;
+import com.example.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@EnableConfigurationProperties(QueueProperties.class)
+public class WalkInQueueService {
+    private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private QueueProperties properties;
+
+    private final ConcurrentMap<QueueKey, MasterQueue> queues = new ConcurrentHashMap<>();
+    // running average of the measured length of each service, in minutes
+    private final ConcurrentMap<String, Double> learnedMinutes = new ConcurrentHashMap<>();
+    private final AtomicLong tickets = new AtomicLong();
+    // carries the key of the queue that changed
+    private final Sinks.Many<QueueKey> changes = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * A master's queue at a location.
+     */
+    private record QueueKey(long location, String master) {
+    }
+
+    /**
+     * Returns the names of the masters a queue can be opened for.
+     * @return the master names of the client table
+     */
+    public List<String> masters() {
+        return clientRepository.findMasterNames();
+    }
+
+    /**
+     * Puts a walk-in customer at the end of a master's queue at the current location.
+     * @param master the name of the master
+     * @param name the name of the customer
+     * @param service the service asked for
+     * @return the customer's place in the queue and estimated wait
+     */
+    public QueueView.Entry join(String master, String name, String service) {
+        Ticket ticket = new Ticket(tickets.incrementAndGet(), name, service, Instant.now());
+        QueueKey key = key(master);
+        MasterQueue.Change change = queue(key).join(ticket, properties.getMaxWaiting());
+        if (!change.changed()) {
+            throw new QueueFullException(master, properties.getMaxWaiting());
+        }
+        publish(key);
+        return view(master, change.after(), Instant.now()).waiting().stream()
+                .filter(entry -> entry.ticket() == ticket.id()).findFirst().orElseThrow();
+    }
+
+    /**
+     * Frees a master's chair and calls the next customer in line, who is recorded as a visit.
+     * @param master the name of the master
+     * @return the queue after the call
+     */
+    public QueueView serveNext(String master) {
+        Instant now = Instant.now();
+        QueueKey key = key(master);
+        MasterQueue.Change change = queue(key).serveNext(now);
+        if (change.changed()) {
+            publish(key);
+            MasterQueue.State before = change.before();
+            if (before.inChair() != null) {
+                learn(before.inChair().service(), Duration.between(before.chairSince(), now));
+            }
+            if (change.after().inChair() != null) {
+                recordVisit(master, change.after().inChair());
+            }
+        }
+        return view(master, change.after(), now);
+    }
+
+    /**
+     * Moves a customer who did not answer the call behind the next customer in line.
+     * @param master the name of the master
+     * @param ticket the customer's ticket number
+     * @return the queue after the change
+     */
+    public QueueView skip(String master, long ticket) {
+        QueueKey key = key(master);
+        return apply(key, queue(key).skip(ticket));
+    }
+
+    /**
+     * Removes a customer who left without being served.
+     * @param master the name of the master
+     * @param ticket the customer's ticket number
+     * @return the queue after the change
+     */
+    public QueueView leave(String master, long ticket) {
+        QueueKey key = key(master);
+        return apply(key, queue(key).leave(ticket));
+    }
+
+    /**
+     * Returns the current queue of a master.
+     * @param master the name of the master
+     * @return the queue with estimated waits
+     */
+    public QueueView view(String master) {
+        return view(key(master));
+    }
+
+    /**
+     * Returns the current queues of all masters of the current location that have one, by master name.
+     * @return the queues with estimated waits
+     */
+    public List<QueueView> board() {
+        return board(TenantContext.currentOrDefault());
+    }
+
+    /**
+     * Streams the queue of a master: the current queue at once, then the queue after every change.
+     * @param master the name of the master
+     * @return a stream that never completes
+     */
+    public Flux<QueueView> updates(String master) {
+        QueueKey key = key(master);
+        queue(key);
+        // subscribe to the changes before reading the first view, so that no change falls in between;
+        // views are rendered on the emitting thread, which may belong to another request, hence the captured key
+        return Flux.merge(changes.asFlux().filter(key::equals), Mono.just(key))
+                .onBackpressureLatest()
+                .map(this::view)
+                .distinctUntilChanged(QueueView::version);
+    }
+
+    /**
+     * Streams the queues of all masters: the current board at once, then the board after every change.
+     * @return a stream that never completes
+     */
+    public Flux<List<QueueView>> boardUpdates() {
+        long location = TenantContext.currentOrDefault();
+        return Flux.merge(changes.asFlux().filter(key -> key.location() == location), Mono.just(new QueueKey(location, "")))
+                .onBackpressureLatest()
+                .map(ignored -> board(location));
+    }
+
+    /**
+     * Returns the expected length of a service.
+     * @param service the name of the service
+     * @return the measured average, or the configured length until a visit has been measured
+     */
+    double expectedMinutes(String service) {
+        Double learned = service == null ? null : learnedMinutes.get(service);
+        if (learned != null) {
+            return learned;
+        }
+        Duration configured = service == null ? null : properties.getServiceDurations().get(service);
+        return (configured == null ? properties.getDefaultServiceDuration() : configured).toSeconds() / 60.0;
+    }
+
+    private QueueView apply(QueueKey key, MasterQueue.Change change) {
+        if (change.changed()) {
+            publish(key);
+        }
+        return view(key.master(), change.after(), Instant.now());
+    }
+
+    private static QueueKey key(String master) {
+        return new QueueKey(TenantContext.currentOrDefault(), master);
+    }
+
+    private QueueView view(QueueKey key) {
+        return view(key.master(), queue(key).state(), Instant.now());
+    }
+
+    private List<QueueView> board(long location) {
+        Instant now = Instant.now();
+        return queues.entrySet().stream()
+                .filter(entry -> entry.getKey().location() == location)
+                .map(Map.Entry::getValue)
+                .sorted(Comparator.comparing(MasterQueue::master))
+                .map(queue -> view(queue.master(), queue.state(), now))
+                .toList();
+    }
+
+    /**
+     * Returns the queue of a master, opening it if the master has visits at the current location.
+     */
+    private MasterQueue queue(QueueKey key) {
+        MasterQueue queue = queues.get(key);
+        if (queue != null) {
+            return queue;
+        }
+        if (clientRepository.countByMaster(key.master()) == 0) {
+            throw new UnknownMasterException(key.master());
+        }
+        return queues.computeIfAbsent(key, ignored -> new MasterQueue(key.master()));
+    }
+
+    private QueueView view(String master, MasterQueue.State state, Instant now) {
+        double minutes = 0;
+        QueueView.Entry inChair = null;
+        if (state.inChair() != null) {
+            Ticket ticket = state.inChair();
+            double taken = Duration.between(state.chairSince(), now).toSeconds() / 60.0;
+            minutes = Math.max(0, expectedMinutes(ticket.service()) - taken);
+            inChair = new QueueView.Entry(ticket.id(), ticket.name(), ticket.service(), 0, 0);
+        }
+        List<QueueView.Entry> waiting = new ArrayList<>(state.waiting().size());
+        for (Ticket ticket : state.waiting()) {
+            waiting.add(new QueueView.Entry(ticket.id(), ticket.name(), ticket.service(), waiting.size() + 1, Math.round(minutes)));
+            minutes += expectedMinutes(ticket.service());
+        }
+        return new QueueView(master, state.version(), inChair, waiting);
+    }
+
+    /**
+     * Signals a change of a master's queue to the open streams. Concurrent emitters are not allowed by the sink,
+     * so a caller that runs into another one retries; emitting takes microseconds.
+     */
+    private void publish(QueueKey key) {
+        while (changes.tryEmitNext(key) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Adds a measured service length to the running average, ignoring chairs left occupied for much longer
+     * than expected, e.g. when the master forgot to call the next customer.
+     */
+    private void learn(String service, Duration taken) {
+        if (service == null) {
+            return;
+        }
+        double expected = expectedMinutes(service);
+        double minutes = taken.toSeconds() / 60.0;
+        if (minutes < 1 || minutes > 4 * expected) {
+            return;
+        }
+        double rate = properties.getLearningRate();
+        // the first measurement moves the configured length, later ones the average
+        learnedMinutes.compute(service, (name, average) -> {
+            double current = average == null ? expected : average;
+            return current + rate * (minutes - current);
+        });
+    }
+
+    private void recordVisit(String master, Ticket ticket) {
+        Client visit = new Client();
+        visit.setFull_name(ticket.name());
+        visit.setVisit_date(LocalDateTime.now().format(VISIT_DATE_FORMAT));
+        visit.setService(ticket.service());
+        visit.setMaster_name(master);
+        visit.setVisit_status(VisitStatus.ARRIVED);
+        try {
+            clientService.save(visit);
+        } catch (RuntimeException e) {
+            log.warn("Cannot record the walk-in visit of ticket {} with {}", ticket.id(), master, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ The FileReminderNotifier class appends every reminder and no-show notice to a file, one tab-separated line
+ each: type, client id, full name, visit date, service and master. It is meant for tests and local runs, where
+ the notifications can be checked without a gateway.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@Component
+@ConditionalOnProperty(name = "barbershop.reminders.notifier", havingValue = "file")
+public class FileReminderNotifier implements ReminderNotifier {
+
+    @Value("${barbershop.reminders.file:reminders.log}")
+    private Path file;
+
+    @Override
+    public synchronized void notify(Reminder reminder) {
+        String line = String.join("\t", reminder.type().name(), String.valueOf(reminder.clientId()),
+                reminder.fullName(), reminder.visitDate(), reminder.service(), reminder.masterName()) + System.lineSeparator();
+        try {
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write reminder to " + file, e);
+        }
+    }
+}
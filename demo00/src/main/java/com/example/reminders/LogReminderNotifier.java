@@ -0,0 +1,24 @@
+/**
+ The LogReminderNotifier class writes reminders and no-show notices to the application log. It is the default
+ notifier, used until a real gateway is configured.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "barbershop.reminders.notifier", havingValue = "log", matchIfMissing = true)
+public class LogReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void notify(Reminder reminder) {
+        log.info("{} for client {} ({}): {} at {} with {}", reminder.type(), reminder.clientId(), reminder.fullName(),
+                reminder.service(), reminder.visitDate(), reminder.masterName());
+    }
+}
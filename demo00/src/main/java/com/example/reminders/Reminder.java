@@ -0,0 +1,22 @@
+/**
+ The Reminder record is a notification handed to the ReminderNotifier: a reminder sent ahead of an upcoming
+ visit, or the notice that a visit was marked as a no-show.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import com.example.client.Client;
+
+public record Reminder(Type type, Long clientId, String fullName, String visitDate, String service, String masterName) {
+
+    public enum Type {
+        REMINDER, NO_SHOW
+    }
+
+    static Reminder of(Type type, Client client) {
+        return new Reminder(type, client.getId(), client.getFull_name(), client.getVisit_date(),
+                client.getService(), client.getMaster_name());
+    }
+}
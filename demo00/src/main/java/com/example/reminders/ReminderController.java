@@ -0,0 +1,32 @@
+/**
+ The ReminderController class shows administrators how many booked visits are waiting for a reminder or a
+ no-show check, and how many timers the timing wheel holds for them.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class ReminderController {
+
+    @Autowired
+    private ReminderScheduler scheduler;
+
+    /**
+     * Returns the number of scheduled visits and timers.
+     * @return "visits" and "timers" to their counts
+     */
+    @GetMapping("/admin/reminders")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Map<String, Integer> stats() {
+        return scheduler.stats();
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ The ReminderNotifier interface delivers the reminders and no-show notices of ReminderScheduler. It is called on
+ the scheduler's thread, one notification at a time; an implementation that talks to an SMS or mail gateway
+ should hand the work to its own executor rather than block the timing wheel.
+ The implementation is chosen with barbershop.reminders.notifier: "log" (LogReminderNotifier) or
+ "file" (FileReminderNotifier); any other bean implementing the interface can take their place.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+public interface ReminderNotifier {
+    /**
+     * Delivers a notification.
+     * @param reminder the reminder or no-show notice
+     */
+    void notify(Reminder reminder);
+}
@@ -0,0 +1,265 @@
+/**
+ The ReminderScheduler class sends appointment reminders and marks no-shows without polling the client table.
+ Every booked visit gets two timers in a TimingWheel: a reminder lead before the visit (at once if the visit is
+ booked at shorter notice) and a no-show check no-show-after its start. The wheel is advanced every tick; the
+ timers that fire are checked against the current row, so a visit that was checked in, moved or deleted in the
+ meantime is skipped, and the notifications go to the configured ReminderNotifier.
+ The wheel is built at startup from the visit dates alone, read from the visit date index, starting catch-up
+ before now, so no-shows that fell due while the application was down are still marked; reminders of visits that
+ have already started are not sent late. It is then kept up to date from the committed client changes it
+ receives as a ChangeConsumer, which includes every save, delete, check-in and bulk update of ClientService and
+ the batches of VisitArchiver.
+ Reminders are sent at least once: a reminder sent just before a restart may be sent again after it.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import com.example.cache.TableVersions;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.client.VisitDates;
+import com.example.client.VisitTime;
+import com.example.events.ChangeConsumer;
+import com.example.events.ChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Slf4j
+@Component
+public class ReminderScheduler implements ChangeConsumer {
+    private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // 64 buckets on 4 levels span 64^4 ticks, about 194 days at one tick per second
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ReminderNotifier notifier;
+
+    @Value("${barbershop.reminders.lead:PT2H}")
+    private Duration lead;
+
+    @Value("${barbershop.reminders.no-show-after:PT15M}")
+    private Duration noShowAfter;
+
+    @Value("${barbershop.reminders.catch-up:PT12H}")
+    private Duration catchUp;
+
+    @Value("${barbershop.reminders.tick-millis:1000}")
+    private long tickMillis;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    // guarded by this
+    private TimingWheel<Due> wheel;
+    private final Map<Long, Visit> visits = new HashMap<>();
+
+    /**
+     * A timer task: the notification to send for a client, and the visit date it was scheduled for.
+     */
+    private record Due(Reminder.Type type, Long clientId, String visitDate) {
+    }
+
+    /**
+     * The pending timers of a booked visit.
+     */
+    private static final class Visit {
+        private final String visitDate;
+        private TimingWheel.Timeout<Due> reminder;
+        private TimingWheel.Timeout<Due> noShow;
+
+        private Visit(String visitDate) {
+            this.visitDate = visitDate;
+        }
+    }
+
+    @Override
+    public String consumerName() {
+        return "reminders";
+    }
+
+    @Override
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Builds the timing wheel from the visits booked from catch-up ago onwards, once the application has started.
+     */
+    public void rebuild() {
+        rebuild(System.currentTimeMillis());
+    }
+
+    /**
+     * Builds the timing wheel from the visits booked from catch-up before the given time onwards.
+     * @param now the current time in epoch milliseconds
+     */
+    public void rebuild(long now) {
+        String since = LocalDateTime.ofInstant(Instant.ofEpochMilli(now).minus(catchUp), zone).format(VISIT_DATE_FORMAT);
+        List<VisitTime> upcoming = clientRepository.findVisitTimesFrom(since);
+        synchronized (this) {
+            wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, now);
+            visits.clear();
+            for (VisitTime visit : upcoming) {
+                schedule(visit.id(), visit.visit_date());
+            }
+            log.info("Scheduled {} reminder and no-show timers for {} visits", wheel.size(), visits.size());
+        }
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            for (ChangeEvent event : events) {
+                // bulk updates change masters and services, never visit dates or statuses
+                if (!TableVersions.CLIENT.equals(event.table()) || event.type() == ChangeEvent.Type.BULK_UPDATE) {
+                    continue;
+                }
+                if (event.type() == ChangeEvent.Type.ARCHIVE) {
+                    event.archived().ids().forEach(this::cancel);
+                    continue;
+                }
+                Client after = event.after(Client.class);
+                Visit visit = visits.get(event.entityId());
+                if (after == null || after.getVisit_status() != null) {
+                    cancel(event.entityId());
+                } else if (visit == null || !Objects.equals(visit.visitDate, after.getVisit_date())) {
+                    // a new or moved visit; a visit whose date is unchanged keeps its timers and is not reminded twice
+                    cancel(event.entityId());
+                    schedule(after.getId(), after.getVisit_date());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${barbershop.reminders.tick-millis:1000}")
+    public void tick() {
+        advanceTo(System.currentTimeMillis());
+    }
+
+    /**
+     * Fires the timers due up to the given time and sends their notifications.
+     * @param now the current time in epoch milliseconds
+     * @return the number of notifications sent
+     */
+    public int advanceTo(long now) {
+        List<Due> due = new ArrayList<>();
+        synchronized (this) {
+            if (wheel == null) {
+                return 0;
+            }
+            wheel.advance(now, due::add);
+            for (Due timer : due) {
+                Visit visit = visits.get(timer.clientId());
+                if (visit == null) {
+                    continue;
+                }
+                if (timer.type() == Reminder.Type.REMINDER) {
+                    visit.reminder = null;
+                } else {
+                    visits.remove(timer.clientId());
+                }
+            }
+        }
+        int sent = 0;
+        for (Due timer : due) {
+            try {
+                if (fire(timer)) {
+                    sent++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cannot send {} for client {}", timer.type(), timer.clientId(), e);
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Returns the number of booked visits and pending timers.
+     * @return "visits" and "timers" to their counts
+     */
+    public synchronized Map<String, Integer> stats() {
+        return Map.of("visits", visits.size(), "timers", wheel == null ? 0 : wheel.size());
+    }
+
+    /**
+     * Tells whether a client has a pending reminder or no-show check.
+     * @param clientId the client id
+     * @return true if the visit of the client is scheduled
+     */
+    public synchronized boolean isScheduled(Long clientId) {
+        return visits.containsKey(clientId);
+    }
+
+    /**
+     * Checks a fired timer against the current row and sends its notification.
+     * @param timer the fired timer
+     * @return true if a notification was sent
+     */
+    private boolean fire(Due timer) {
+        Client client = clientRepository.findById(timer.clientId()).orElse(null);
+        if (client == null || client.getVisit_status() != null
+                || !Objects.equals(client.getVisit_date(), timer.visitDate())) {
+            return false;
+        }
+        if (timer.type() == Reminder.Type.NO_SHOW && !clientService.markNoShow(timer.clientId(), timer.visitDate())) {
+            return false;
+        }
+        notifier.notify(Reminder.of(timer.type(), client));
+        return true;
+    }
+
+    /**
+     * Schedules the timers of a booked visit. Visits whose date cannot be parsed are left out.
+     * Must be called while holding the lock.
+     */
+    private void schedule(Long clientId, String visitDate) {
+        LocalDateTime start = VisitDates.parse(visitDate);
+        if (start == null) {
+            return;
+        }
+        long startMillis = start.atZone(zone).toInstant().toEpochMilli();
+        Visit visit = new Visit(visitDate);
+        if (startMillis > wheel.currentMillis()) {
+            visit.reminder = wheel.schedule(startMillis - lead.toMillis(), new Due(Reminder.Type.REMINDER, clientId, visitDate));
+        }
+        visit.noShow = wheel.schedule(startMillis + noShowAfter.toMillis(), new Due(Reminder.Type.NO_SHOW, clientId, visitDate));
+        visits.put(clientId, visit);
+    }
+
+    /**
+     * Cancels the timers of a visit. Must be called while holding the lock.
+     */
+    private void cancel(Long clientId) {
+        Visit visit = visits.remove(clientId);
+        if (visit != null) {
+            wheel.cancel(visit.reminder);
+            wheel.cancel(visit.noShow);
+        }
+    }
+}
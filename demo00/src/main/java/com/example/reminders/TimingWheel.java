@@ -0,0 +1,207 @@
+/**
+ The TimingWheel class keeps timers in a hierarchical timing wheel (Varghese and Lauck), so scheduling and
+ cancelling a timer take constant time and advancing the clock only touches the timers that are due, however
+ many visits are booked ahead.
+ Level 0 has wheelSize buckets of one tick each; every further level has wheelSize buckets that each span a whole
+ turn of the level below. A timer goes into the lowest level whose span covers its delay, and when a lower level
+ completes a turn, the next bucket of the level above is emptied and its timers are scheduled again, now closer to
+ their deadline. Timers beyond the top level wait in an overflow bucket that is re-scheduled on each of its turns.
+ A timer never fires before its deadline and at most one tick after it has been reached by advance.
+ The class is not thread-safe; ReminderScheduler guards it with its own lock.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.reminders;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    // buckets[level][index]; a timer is in exactly one bucket while it is pending
+    private final List<List<Set<Timeout<T>>>> buckets = new ArrayList<>();
+    private final Set<Timeout<T>> overflow = new LinkedHashSet<>();
+    // number of ticks of each level's buckets: 1, wheelSize, wheelSize^2, ...
+    private final long[] spans;
+    private final long startMillis;
+    // the next tick to expire, counted from startMillis
+    private long currentTick;
+    private int size;
+
+    /**
+     * A scheduled timer, used to cancel it.
+     */
+    public static final class Timeout<T> {
+        private final long deadline;
+        private final long tick;
+        private final T task;
+        private Set<Timeout<T>> bucket;
+
+        private Timeout(long deadline, long tick, T task) {
+            this.deadline = deadline;
+            this.tick = tick;
+            this.task = task;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public T task() {
+            return task;
+        }
+
+        public boolean isPending() {
+            return bucket != null;
+        }
+    }
+
+    /**
+     * Creates an empty wheel.
+     * @param tickMillis the length of a tick, the precision of the timers
+     * @param wheelSize the number of buckets per level
+     * @param levels the number of levels; the wheel spans tickMillis * wheelSize^levels before the overflow bucket
+     * @param startMillis the current time in epoch milliseconds
+     */
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive, wheelSize at least 2 and levels at least 1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.startMillis = startMillis;
+        this.spans = new long[levels];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+            List<Set<Timeout<T>>> wheel = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                wheel.add(new LinkedHashSet<>());
+            }
+            buckets.add(wheel);
+        }
+    }
+
+    /**
+     * Schedules a task. A deadline that has already passed fires with the next tick.
+     * @param deadlineMillis the time to fire at, in epoch milliseconds
+     * @param task the task handed back when the timer fires
+     * @return the timer
+     */
+    public Timeout<T> schedule(long deadlineMillis, T task) {
+        // round up, so that a timer never fires before its deadline
+        long tick = Math.max(Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis), currentTick);
+        Timeout<T> timeout = new Timeout<>(deadlineMillis, tick, task);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timer.
+     * @param timeout the timer, may be null
+     * @return true if the timer was pending
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        timeout.bucket = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward and fires the timers whose deadline has been reached, in deadline order per tick.
+     * Going back in time does nothing.
+     * @param nowMillis the current time in epoch milliseconds
+     * @param expired receives the tasks of the fired timers
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick <= target) {
+            if (size == 0) {
+                currentTick = target + 1;
+                return;
+            }
+            cascade();
+            Set<Timeout<T>> bucket = buckets.get(0).get(index(currentTick, 0));
+            if (bucket.isEmpty()) {
+                currentTick++;
+                continue;
+            }
+            List<Timeout<T>> due = new ArrayList<>(bucket);
+            bucket.clear();
+            due.sort((a, b) -> Long.compare(a.deadline, b.deadline));
+            for (Timeout<T> timeout : due) {
+                timeout.bucket = null;
+                size--;
+                expired.accept(timeout.task);
+            }
+            currentTick++;
+        }
+    }
+
+    /**
+     * Returns the number of pending timers.
+     * @return the number of timers scheduled and neither fired nor cancelled
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the time the wheel has been advanced to.
+     * @return the start of the next tick to expire, in epoch milliseconds
+     */
+    public long currentMillis() {
+        return startMillis + currentTick * tickMillis;
+    }
+
+    /**
+     * Re-schedules the timers of the buckets of the upper levels that start at the current tick, top level first.
+     */
+    private void cascade() {
+        int levels = spans.length;
+        if (currentTick % (spans[levels - 1] * wheelSize) == 0 && !overflow.isEmpty()) {
+            reschedule(overflow);
+        }
+        for (int level = levels - 1; level > 0; level--) {
+            if (currentTick % spans[level] == 0) {
+                reschedule(buckets.get(level).get(index(currentTick, level)));
+            }
+        }
+    }
+
+    private void reschedule(Set<Timeout<T>> bucket) {
+        List<Timeout<T>> timeouts = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Timeout<T> timeout : timeouts) {
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delay = timeout.tick - currentTick;
+        Set<Timeout<T>> bucket = overflow;
+        for (int level = 0; level < spans.length; level++) {
+            if (delay < spans[level] * wheelSize) {
+                bucket = buckets.get(level).get(index(timeout.tick, level));
+                break;
+            }
+        }
+        bucket.add(timeout);
+        timeout.bucket = bucket;
+    }
+
+    private int index(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ The AutocompleteController class serves search-box suggestions from the in-memory AutocompleteIndex as JSON,
+ made from the visits of the location of the request only.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import com.example.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class AutocompleteController {
+
+    private final AutocompleteIndex autocompleteIndex;
+
+    /**
+     Returns suggestions for a typed prefix.
+     @param prefix the text typed so far
+     @param field the column to complete (FULL_NAME, MASTER_NAME or SERVICE), all of them if left out
+     @param limit the maximum number of suggestions, from 1 to AutocompleteIndex.MAX_SUGGESTIONS
+     @return the suggested values, most visited first
+     */
+    @GetMapping("/autocomplete")
+    public List<String> autocomplete(@RequestParam String prefix,
+                                     @RequestParam(required = false) AutocompleteIndex.Field field,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, AutocompleteIndex.MAX_SUGGESTIONS));
+        return autocompleteIndex.complete(TenantContext.currentOrDefault(), field, prefix, size).stream()
+                .map(PrefixTrie.Completion::term)
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ The AutocompleteIndex class suggests client names, master names and services for the search box without
+ touching the database. It keeps one PrefixTrie per location and column, weighted by the number of visits with
+ that value at the location, built once when the application is ready and then kept up to date from the committed
+ client changes it receives as a ChangeConsumer. A lookup only reads the tries of one location, so a shop never
+ sees the names of another shop's clients.
+ Changes are applied idempotently: the index remembers, per client, the values it counted and the sequence of the
+ change they came from, and moves the weights from those values to the new ones only for a newer change. A change
+ delivered twice, or an older one arriving after a newer one, leaves the weights as they are. Archived visits
+ (see VisitArchiver) stop counting like deleted ones. A bulk update (see ClientService.renameService) is applied
+ to the counted visits of its location that match its condition and are older than it, in one pass over the
+ index and without reading the client table.
+ Lookups take a read lock and walk at most the length of the prefix, so they finish in microseconds.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeConsumer;
+import com.example.events.ChangeEvent;
+import com.example.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+@Component
+public class AutocompleteIndex implements ChangeConsumer {
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    /**
+     * The client columns that are indexed, with the getter that reads each of them.
+     */
+    public enum Field {
+        FULL_NAME("full_name", Client::getFull_name, Client::setFull_name),
+        MASTER_NAME("master_name", Client::getMaster_name, Client::setMaster_name),
+        SERVICE("service", Client::getService, Client::setService);
+
+        private final String column;
+        private final Function<Client, String> getter;
+        private final BiConsumer<Client, String> setter;
+
+        Field(String column, Function<Client, String> getter, BiConsumer<Client, String> setter) {
+            this.column = column;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private static Field ofColumn(String column) {
+            for (Field field : values()) {
+                if (field.column.equals(column)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // location id -> column -> trie
+    private final Map<Long, Map<Field, PrefixTrie>> tries = new HashMap<>();
+    // client id -> the visit as it is counted in the tries, null once deleted
+    private final Map<Long, Indexed> indexed = new HashMap<>();
+
+    /**
+     * The values of a visit that are counted in the tries, with its visit date for bulk updates that check it,
+     * and the sequence of the change they come from (0 for the rows read by build).
+     */
+    private record Indexed(long sequence, Client visit) {
+    }
+
+    @Override
+    public void initialize() {
+        build();
+    }
+
+    /**
+     * Builds the tries from the client table, page by page, once the application has started.
+     */
+    public void build() {
+        Page<Client> page = clientRepository.findAll(PageRequest.of(0, BUILD_PAGE_SIZE));
+        while (true) {
+            for (Client client : page) {
+                apply(0, client.getId(), client);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = clientRepository.findAll(page.nextPageable());
+        }
+    }
+
+    @Override
+    public String consumerName() {
+        return "autocomplete";
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (!event.table().equals(TableVersions.CLIENT)) {
+                continue;
+            }
+            if (event.type() == ChangeEvent.Type.ARCHIVE) {
+                event.archived().ids().forEach(id -> apply(event.sequence(), id, null));
+            } else if (event.type() == ChangeEvent.Type.BULK_UPDATE) {
+                apply(event.sequence(), event.bulkUpdate());
+            } else {
+                apply(event.sequence(), event.entityId(), event.after(Client.class));
+            }
+        }
+    }
+
+    /**
+     * Moves the weights of one visit from the values counted for it to its values after a change,
+     * unless a change with the same or a later sequence has been applied already.
+     * @param sequence the sequence of the change, 0 for a row read from the table
+     * @param id the client id
+     * @param current the visit after the change, null if it was deleted or archived
+     */
+    public void apply(long sequence, Long id, Client current) {
+        lock.writeLock().lock();
+        try {
+            Indexed previous = indexed.get(id);
+            if (previous != null && previous.sequence() >= sequence) {
+                return;
+            }
+            for (Field field : Field.values()) {
+                if (previous != null && previous.visit() != null) {
+                    triesOf(locationOf(previous.visit())).get(field).adjust(field.getter.apply(previous.visit()), -1);
+                }
+                if (current != null) {
+                    triesOf(locationOf(current)).get(field).adjust(field.getter.apply(current), 1);
+                }
+            }
+            indexed.put(id, new Indexed(sequence, current == null ? null : copyOf(current)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the weights of the visits a bulk update changed from the old value to the new one. Only visits whose
+     * counted values come from an older change are moved, so an update delivered twice moves nothing.
+     * @param sequence the sequence of the update
+     * @param change the condition and new value of the update
+     */
+    public void apply(long sequence, ChangeEvent.BulkUpdate change) {
+        Field field = Field.ofColumn(change.column());
+        if (field == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long moved = 0;
+            for (Map.Entry<Long, Indexed> entry : indexed.entrySet()) {
+                Client visit = entry.getValue().visit();
+                if (entry.getValue().sequence() >= sequence || visit == null || locationOf(visit) != change.location()
+                        || !change.from().equals(field.getter.apply(visit))
+                        || change.since() != null && (visit.getVisit_date() == null
+                        || visit.getVisit_date().compareTo(change.since()) < 0)) {
+                    continue;
+                }
+                Client updated = copyOf(visit);
+                field.setter.accept(updated, change.to());
+                entry.setValue(new Indexed(sequence, updated));
+                moved++;
+            }
+            if (moved > 0) {
+                PrefixTrie trie = triesOf(change.location()).get(field);
+                trie.adjust(change.from(), -moved);
+                trie.adjust(change.to(), moved);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Client copyOf(Client visit) {
+        Client copy = new Client();
+        copy.setFull_name(visit.getFull_name());
+        copy.setVisit_date(visit.getVisit_date());
+        copy.setMaster_name(visit.getMaster_name());
+        copy.setService(visit.getService());
+        copy.setLocation_id(visit.getLocation_id());
+        return copy;
+    }
+
+    private static long locationOf(Client visit) {
+        return visit.getLocation_id() == null ? TenantContext.DEFAULT_LOCATION : visit.getLocation_id();
+    }
+
+    private Map<Field, PrefixTrie> triesOf(long location) {
+        return tries.computeIfAbsent(location, l -> {
+            Map<Field, PrefixTrie> locationTries = new EnumMap<>(Field.class);
+            for (Field field : Field.values()) {
+                locationTries.put(field, new PrefixTrie(MAX_SUGGESTIONS));
+            }
+            return locationTries;
+        });
+    }
+
+    /**
+     * Returns the most visited values of a column at a location that start with a prefix.
+     * @param location the location searched
+     * @param field the column, or null to search all three and merge the results by weight
+     * @param prefix the typed prefix
+     * @param limit the maximum number of suggestions, at most 10
+     * @return the suggestions, most visited first
+     */
+    public List<PrefixTrie.Completion> complete(long location, Field field, String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Field, PrefixTrie> locationTries = tries.get(location);
+            if (locationTries == null) {
+                return List.of();
+            }
+            if (field != null) {
+                return locationTries.get(field).complete(prefix, limit);
+            }
+            List<PrefixTrie.Completion> merged = new ArrayList<>();
+            for (PrefixTrie trie : locationTries.values()) {
+                merged.addAll(trie.complete(prefix, limit));
+            }
+            merged.sort(Comparator.comparingLong(PrefixTrie.Completion::weight).reversed());
+            return merged.subList(0, Math.min(limit, merged.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
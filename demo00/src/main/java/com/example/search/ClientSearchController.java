@@ -0,0 +1,35 @@
+/**
+ The ClientSearchController class serves typo-tolerant client search backed by the TrigramIndex as JSON.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import com.example.client.Client;
+import com.example.client.ClientService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ClientSearchController {
+
+    private final ClientService clientService;
+
+    /**
+     Finds clients whose name is close to the given one, closest first.
+     @param name the name as typed, possibly misspelt
+     @param maxEdits the edit distance cutoff, the configured barbershop.search.max-edits if left out and at most
+     barbershop.search.max-edits-limit
+     @return the matching clients
+     */
+    @GetMapping("/search/clients")
+    public List<Client> searchClients(@RequestParam String name, @RequestParam(required = false) Integer maxEdits) {
+        return clientService.fuzzySearch(name, maxEdits);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ The IntPostings class is a sorted, growable list of primitive int document ids, used as a posting list
+ by TrigramIndex. Keeping ids in an int array instead of a List of boxed Longs makes a posting 4 bytes.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import java.util.Arrays;
+
+class IntPostings {
+    private int[] docs = new int[4];
+    private int size;
+
+    /**
+     * Adds a document id, keeping the list sorted and free of duplicates.
+     * @param doc the document id
+     */
+    void add(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index >= 0) {
+            return;
+        }
+        int insert = -index - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+        }
+        System.arraycopy(docs, insert, docs, insert + 1, size - insert);
+        docs[insert] = doc;
+        size++;
+    }
+
+    /**
+     * Removes a document id if it is present.
+     * @param doc the document id
+     */
+    void remove(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Copies the ids into an array at the given offset.
+     * @param target the array to copy into
+     * @param offset the position of the first id in the array
+     * @return the number of ids copied
+     */
+    int copyTo(int[] target, int offset) {
+        System.arraycopy(docs, 0, target, offset, size);
+        return size;
+    }
+
+    int size() {
+        return size;
+    }
+}
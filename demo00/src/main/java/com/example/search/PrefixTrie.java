@@ -0,0 +1,186 @@
+/**
+ The PrefixTrie class is an in-memory prefix tree of terms with weights that returns the heaviest completions
+ of a prefix. Children are kept in sorted parallel arrays instead of maps to keep nodes small, and every node
+ caches the top completions of its subtree, so a lookup only walks down the prefix and copies a short list.
+ Weights are changed incrementally with {@link #adjust(String, long)}; when a term in a node's cached list loses
+ weight, the list is rebuilt from the node's own term and the cached lists of its children, which are rebuilt
+ first, so a change only reads the children of the nodes on the term's path, never a walk of the subtree.
+ Terms are matched case-insensitively and returned with the spelling they were first added with.
+ The class is not thread-safe; AutocompleteIndex guards it with a read/write lock.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+public class PrefixTrie {
+    private static final Comparator<Node> BY_WEIGHT =
+            Comparator.comparingLong((Node n) -> n.weight).reversed().thenComparing(n -> n.term);
+
+    private final int topK;
+    private final Node root = new Node();
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        // set on the node that ends a term
+        String term;
+        long weight;
+        // heaviest term-ending nodes of this subtree, at most topK, heaviest first
+        Node[] top = new Node[0];
+    }
+
+    /**
+     * Creates an empty trie.
+     * @param topK the number of completions cached per node, the maximum a lookup can return
+     */
+    public PrefixTrie(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Adds a delta to the weight of a term, inserting the term if needed. A term whose weight drops
+     * to zero or below is no longer returned.
+     * @param term the term, e.g. a client or master name
+     * @param delta the weight change, e.g. +1 for a new visit and -1 for a deleted one
+     */
+    public void adjust(String term, long delta) {
+        if (term == null || term.isBlank() || delta == 0) {
+            return;
+        }
+        String key = normalize(term);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = delta > 0 ? childOrCreate(node, key.charAt(i)) : child(node, key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        if (node.term == null) {
+            node.term = term.trim();
+        }
+        node.weight = Math.max(0, node.weight + delta);
+        for (int i = path.length - 1; i >= 0; i--) {
+            if (delta > 0) {
+                offer(path[i], node);
+            } else if (contains(path[i].top, node)) {
+                recompute(path[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the heaviest terms starting with a prefix.
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit the maximum number of terms, capped at the topK the trie was created with
+     * @return the terms, heaviest first
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        String key = normalize(prefix == null ? "" : prefix);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = child(node, key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Completion> completions = new ArrayList<>(Math.max(0, Math.min(limit, node.top.length)));
+        for (int i = 0; i < node.top.length && i < limit; i++) {
+            completions.add(new Completion(node.top[i].term, node.top[i].weight));
+        }
+        return completions;
+    }
+
+    /**
+     * A completion and its weight.
+     * @param term the term as it was first added
+     * @param weight the current weight, e.g. the number of visits
+     */
+    public record Completion(String term, long weight) {
+    }
+
+    private void offer(Node node, Node candidate) {
+        Node[] top = node.top;
+        int index = indexOf(top, candidate);
+        if (index < 0) {
+            if (top.length == topK && BY_WEIGHT.compare(candidate, top[top.length - 1]) >= 0) {
+                return;
+            }
+            top = Arrays.copyOf(top, Math.min(topK, top.length + 1));
+            top[top.length - 1] = candidate;
+        }
+        Arrays.sort(top, BY_WEIGHT);
+        node.top = top;
+    }
+
+    /**
+     * Rebuilds the cached list of a node from its own term and its children's lists: the heaviest terms of a subtree
+     * are always among the heaviest of the child subtree they are in.
+     */
+    private void recompute(Node node) {
+        List<Node> candidates = new ArrayList<>();
+        if (node.term != null && node.weight > 0) {
+            candidates.add(node);
+        }
+        for (Node child : node.children) {
+            for (Node candidate : child.top) {
+                if (candidate.weight > 0) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        candidates.sort(BY_WEIGHT);
+        node.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray(new Node[0]);
+    }
+
+    private static boolean contains(Node[] nodes, Node node) {
+        return indexOf(nodes, node) >= 0;
+    }
+
+    private static int indexOf(Node[] nodes, Node node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Node child(Node node, char key) {
+        int index = Arrays.binarySearch(node.keys, key);
+        return index >= 0 ? node.children[index] : null;
+    }
+
+    private static Node childOrCreate(Node node, char key) {
+        int index = Arrays.binarySearch(node.keys, key);
+        if (index >= 0) {
+            return node.children[index];
+        }
+        int insert = -index - 1;
+        char[] keys = new char[node.keys.length + 1];
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.keys, 0, keys, 0, insert);
+        System.arraycopy(node.children, 0, children, 0, insert);
+        System.arraycopy(node.keys, insert, keys, insert + 1, node.keys.length - insert);
+        System.arraycopy(node.children, insert, children, insert + 1, node.children.length - insert);
+        Node created = new Node();
+        keys[insert] = key;
+        children[insert] = created;
+        node.keys = keys;
+        node.children = children;
+        return created;
+    }
+
+    private static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+}
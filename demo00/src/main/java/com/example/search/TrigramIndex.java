@@ -0,0 +1,389 @@
+/**
+ The TrigramIndex class finds clients by name even when the name is misspelt, which the LIKE '%keyword%' query
+ of ClientRepository cannot do. Every name is split into trigrams (three-character pieces, with each word padded
+ by spaces like PostgreSQL's pg_trgm); a query is answered by counting, for every client, how many trigrams it
+ shares with the query, keeping the clients whose trigram similarity is high enough and checking those with the
+ edit distance, so the result is ranked by edit distance and then by similarity.
+ Names are folded before indexing: lower case, "ё" as "е" and Latin letters that look like Cyrillic ones
+ (a, e, o, p, c, x, y, k, m, t, h, b) as their Cyrillic twins, so names typed with the wrong keyboard layout
+ for some letters still match.
+ The index is partitioned by location: every location has its own posting lists and a search reads only those of
+ the location it is made for, so other shops' clients are never found and a big shop's matches cannot crowd a
+ small shop's out of the result.
+ Posting lists are sorted int arrays of client ids (IntPostings), so the index stays at a few bytes per trigram
+ occurrence. It is built once at startup and then kept up to date from the committed client changes it
+ receives as a ChangeConsumer. A change replaces what is indexed for its client only if it is newer than the
+ change that was indexed, so changes delivered twice or out of order leave the index as it is. Visits moved to the
+ archive by VisitArchiver are removed like deleted ones.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.search;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeConsumer;
+import com.example.events.ChangeEvent;
+import com.example.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class TrigramIndex implements ChangeConsumer {
+    private static final int BUILD_PAGE_SIZE = 1000;
+    private static final String LATIN_LOOKALIKES = "aeopcxykmthb";
+    private static final String CYRILLIC_TWINS = "аеорсхукмтнв";
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Value("${barbershop.search.max-edits:2}")
+    private int defaultMaxEdits;
+
+    @Value("${barbershop.search.max-edits-limit:3}")
+    private int maxEditsLimit;
+
+    @Value("${barbershop.search.max-query-length:64}")
+    private int maxQueryLength;
+
+    @Value("${barbershop.search.min-similarity:0.3}")
+    private double minSimilarity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // location id -> trigram packed into a long (three 16-bit chars) -> sorted ids of the clients whose name has it
+    private final Map<Long, Map<Long, IntPostings>> postings = new HashMap<>();
+    // folded name, trigram count and location per client id, the id is the array index
+    private String[] names = new String[1024];
+    private int[] trigramCounts = new int[1024];
+    private long[] locations = new long[1024];
+    // sequence of the change last indexed per client id (0 for the rows read by build, -1 for none)
+    private long[] sequences = filled(1024);
+
+    /**
+     * A client found by a fuzzy search.
+     * @param id the client id
+     * @param distance the edit distance between the query and the closest part of the name
+     * @param similarity the share of trigrams the query and the name have in common, from 0 to 1
+     */
+    public record Match(long id, int distance, double similarity) {
+    }
+
+    @Override
+    public void initialize() {
+        build();
+    }
+
+    /**
+     * Builds the index from the client table, page by page, once the application has started.
+     */
+    public void build() {
+        Page<Client> page = clientRepository.findAll(PageRequest.of(0, BUILD_PAGE_SIZE));
+        while (true) {
+            for (Client client : page) {
+                update(client);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = clientRepository.findAll(page.nextPageable());
+        }
+    }
+
+    @Override
+    public String consumerName() {
+        return "trigram";
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            // bulk updates change masters and services, never names
+            if (!event.table().equals(TableVersions.CLIENT) || event.type() == ChangeEvent.Type.BULK_UPDATE) {
+                continue;
+            }
+            if (event.type() == ChangeEvent.Type.ARCHIVE) {
+                event.archived().ids().forEach(id -> remove(event.sequence(), id));
+                continue;
+            }
+            Client current = event.after(Client.class);
+            if (current != null) {
+                update(event.sequence(), current);
+            } else {
+                remove(event.sequence(), event.entityId());
+            }
+        }
+    }
+
+    /**
+     * Indexes the current name of a client read from the table, replacing the previously indexed one.
+     * @param client the saved client, it must have an id
+     */
+    public void update(Client client) {
+        update(0, client);
+    }
+
+    /**
+     * Indexes the name of a client after a change, unless a change with the same or a later sequence was indexed.
+     * @param sequence the sequence of the change, 0 for a row read from the table
+     * @param client the saved client, it must have an id
+     */
+    public void update(long sequence, Client client) {
+        int doc = Math.toIntExact(client.getId());
+        lock.writeLock().lock();
+        try {
+            if (!advance(doc, sequence)) {
+                return;
+            }
+            removeDoc(doc);
+            String name = fold(client.getFull_name());
+            if (name.isEmpty()) {
+                return;
+            }
+            long[] trigrams = trigrams(name);
+            long location = client.getLocation_id() == null ? TenantContext.DEFAULT_LOCATION : client.getLocation_id();
+            ensureCapacity(doc);
+            names[doc] = name;
+            trigramCounts[doc] = trigrams.length;
+            locations[doc] = location;
+            Map<Long, IntPostings> partition = postings.computeIfAbsent(location, l -> new HashMap<>());
+            for (long trigram : trigrams) {
+                partition.computeIfAbsent(trigram, t -> new IntPostings()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted or archived client from the index, unless a later change of it was indexed.
+     * @param sequence the sequence of the delete or archive
+     * @param id the id of the client
+     */
+    public void remove(long sequence, Long id) {
+        int doc = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            if (advance(doc, sequence)) {
+                removeDoc(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a change of a client is indexed, if it is newer than the one indexed before.
+     * @return false if the change was indexed already or is older than the indexed one
+     */
+    private boolean advance(int doc, long sequence) {
+        ensureCapacity(doc);
+        if (sequences[doc] >= sequence && sequences[doc] >= 0) {
+            return false;
+        }
+        sequences[doc] = sequence;
+        return true;
+    }
+
+    /**
+     * Finds the clients of a location whose name is close to the query, using the configured edit distance cutoff.
+     * @param location the location searched
+     * @param query the name as typed
+     * @param limit the maximum number of matches
+     * @return the matches, closest first
+     */
+    public List<Match> search(long location, String query, int limit) {
+        return search(location, query, defaultMaxEdits, limit);
+    }
+
+    /**
+     * Finds the clients of a location whose name is close to the query. Every candidate is compared with the query
+     * by edit distance, so the cutoff is capped at max-edits-limit and the query at max-query-length characters.
+     * @param location the location searched
+     * @param query the name as typed
+     * @param maxEdits the largest edit distance between the query and the closest part of a name that still matches
+     * @param limit the maximum number of matches
+     * @return the matches, closest first
+     */
+    public List<Match> search(long location, String query, int maxEdits, int limit) {
+        String folded = fold(query);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (folded.length() > maxQueryLength) {
+            folded = folded.substring(0, maxQueryLength).trim();
+        }
+        maxEdits = Math.max(0, Math.min(maxEdits, maxEditsLimit));
+        long[] queryTrigrams = trigrams(folded);
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, IntPostings> partition = postings.getOrDefault(location, Map.of());
+            int total = 0;
+            IntPostings[] lists = new IntPostings[queryTrigrams.length];
+            for (int i = 0; i < queryTrigrams.length; i++) {
+                lists[i] = partition.get(queryTrigrams[i]);
+                total += lists[i] == null ? 0 : lists[i].size();
+            }
+            // all postings of the query side by side, sorted, so every run of one id counts its shared trigrams
+            int[] candidates = new int[total];
+            int offset = 0;
+            for (IntPostings list : lists) {
+                if (list != null) {
+                    offset += list.copyTo(candidates, offset);
+                }
+            }
+            Arrays.sort(candidates);
+            for (int start = 0; start < candidates.length; ) {
+                int doc = candidates[start];
+                int end = start;
+                while (end < candidates.length && candidates[end] == doc) {
+                    end++;
+                }
+                int shared = end - start;
+                double similarity = (double) shared / (queryTrigrams.length + trigramCounts[doc] - shared);
+                if (similarity >= minSimilarity || shared == queryTrigrams.length) {
+                    int distance = closestDistance(folded, names[doc]);
+                    if (distance <= maxEdits) {
+                        matches.add(new Match(doc, distance, similarity));
+                    }
+                }
+                start = end;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingInt(Match::distance)
+                .thenComparing(Comparator.comparingDouble(Match::similarity).reversed()));
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    private void removeDoc(int doc) {
+        if (doc >= names.length || names[doc] == null) {
+            return;
+        }
+        Map<Long, IntPostings> partition = postings.get(locations[doc]);
+        for (long trigram : trigrams(names[doc])) {
+            IntPostings list = partition.get(trigram);
+            if (list != null) {
+                list.remove(doc);
+                if (list.size() == 0) {
+                    partition.remove(trigram);
+                }
+            }
+        }
+        if (partition.isEmpty()) {
+            postings.remove(locations[doc]);
+        }
+        names[doc] = null;
+        trigramCounts[doc] = 0;
+    }
+
+    private void ensureCapacity(int doc) {
+        if (doc >= names.length) {
+            int capacity = Math.max(doc + 1, names.length * 2);
+            int oldCapacity = names.length;
+            names = Arrays.copyOf(names, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            Arrays.fill(sequences, oldCapacity, capacity, -1);
+        }
+    }
+
+    private static long[] filled(int capacity) {
+        long[] array = new long[capacity];
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    /**
+     * Splits a folded name into its distinct trigrams, each word padded with two spaces in front and one behind.
+     */
+    static long[] trigrams(String folded) {
+        long[] result = new long[folded.length() * 3 + 3];
+        int count = 0;
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        return Arrays.stream(result, 0, count).distinct().toArray();
+    }
+
+    /**
+     * Lower-cases a name, collapses white space and folds "ё" and Latin lookalike letters into Cyrillic.
+     */
+    static String fold(String name) {
+        if (name == null) {
+            return "";
+        }
+        String lower = name.trim().toLowerCase(Locale.ROOT).replace('ё', 'е');
+        StringBuilder folded = new StringBuilder(lower.length());
+        boolean space = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && folded.length() > 0) {
+                folded.append(' ');
+            }
+            space = false;
+            int lookalike = LATIN_LOOKALIKES.indexOf(c);
+            folded.append(lookalike >= 0 ? CYRILLIC_TWINS.charAt(lookalike) : c);
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Edit distance between the query and the whole name or, if smaller, any run of as many words as the query has.
+     */
+    private static int closestDistance(String query, String name) {
+        int best = levenshtein(query, name);
+        String[] words = name.split(" ");
+        int queryWords = query.split(" ").length;
+        for (int i = 0; i + queryWords <= words.length; i++) {
+            best = Math.min(best, levenshtein(query, String.join(" ", Arrays.copyOfRange(words, i, i + queryWords))));
+        }
+        return best;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
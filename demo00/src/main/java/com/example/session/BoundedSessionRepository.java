@@ -0,0 +1,189 @@
+/**
+ The BoundedSessionRepository class keeps the static pages (see EndpointClass.STATIC) from waiting on the session
+ store. about_us needs the logged-in user, so without it the session filter of a static request reads SPRING_SESSION
+ like any other request, and when the database is slow that read waits for a pooled connection and holds the
+ request thread all the same.
+ It wraps the JDBC session repository. Other requests use the store as before. A static request looks its session
+ up on a small pool of its own and waits at most barbershop.session.static-lookup-timeout; if the lookup takes
+ longer, or the pool is full, the request gets the copy of the session this node last read or saved, if it is
+ younger than barbershop.session.fallback-ttl, or else an empty session under the requested id, which shows the
+ login page without replacing the browser's session cookie. These copies are never written back. The changes a
+ static request makes to a session it did read (the last access time) are saved on the pool without waiting.
+ A logout on another node reaches the copies of this node only when they expire, so a static page may still
+ show a logged-out user for up to the fallback TTL while the database is slow; every other page reads the store.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.session;
+
+import com.example.bulkhead.BulkheadFilter;
+import com.example.bulkhead.EndpointClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class BoundedSessionRepository implements FindByIndexNameSessionRepository<Session>, DisposableBean {
+    private final FindByIndexNameSessionRepository<Session> delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long fallbackTtlMillis;
+    private final int maxFallbacks;
+    // session id -> the session as this node last read or saved it
+    private final ConcurrentMap<String, Fallback> fallbacks = new ConcurrentHashMap<>();
+
+    private record Fallback(MapSession session, long readAt) {
+    }
+
+    /**
+     * Wraps a session repository.
+     * @param delegate the repository of the session store
+     * @param threads the threads that look up and save the sessions of static requests
+     * @param queueCapacity how many of those lookups and saves may wait for a thread
+     * @param timeout how long a static request waits for its session
+     * @param fallbackTtl how long a copy of a session may stand in for it
+     * @param maxFallbacks the most sessions a copy is kept of
+     */
+    public BoundedSessionRepository(FindByIndexNameSessionRepository<Session> delegate, int threads, int queueCapacity,
+                                    Duration timeout, Duration fallbackTtl, int maxFallbacks) {
+        this.delegate = delegate;
+        AtomicInteger number = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "static-session-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeout.toMillis();
+        this.fallbackTtlMillis = fallbackTtl.toMillis();
+        this.maxFallbacks = maxFallbacks;
+    }
+
+    @Override
+    public Session createSession() {
+        return delegate.createSession();
+    }
+
+    @Override
+    public void save(Session session) {
+        if (session instanceof MapSession) {
+            // a stand-in handed out by fallback, the stored session stays as it is
+            return;
+        }
+        if (!isStatic()) {
+            delegate.save(session);
+            remember(session.getId(), session);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                delegate.save(session);
+                remember(session.getId(), session);
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Session {} of a static request not saved, the pool is full", session.getId());
+        }
+    }
+
+    @Override
+    public Session findById(String id) {
+        if (!isStatic()) {
+            Session session = delegate.findById(id);
+            remember(id, session);
+            return session;
+        }
+        Future<Session> lookup;
+        try {
+            lookup = executor.submit(() -> {
+                Session session = delegate.findById(id);
+                remember(id, session);
+                return session;
+            });
+        } catch (RejectedExecutionException e) {
+            return fallback(id);
+        }
+        try {
+            return lookup.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the lookup goes on and leaves a fresh copy for the next static request
+            return fallback(id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(id);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        fallbacks.remove(id);
+        if (!isStatic()) {
+            delegate.deleteById(id);
+            return;
+        }
+        try {
+            executor.execute(() -> delegate.deleteById(id));
+        } catch (RejectedExecutionException e) {
+            log.debug("Session {} of a static request not deleted, the pool is full", id);
+        }
+    }
+
+    @Override
+    public Map<String, Session> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        return delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static boolean isStatic() {
+        return BulkheadFilter.current() == EndpointClass.STATIC;
+    }
+
+    private void remember(String id, Session session) {
+        if (session == null) {
+            fallbacks.remove(id);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (fallbacks.size() >= maxFallbacks && !fallbacks.containsKey(id)) {
+            fallbacks.values().removeIf(fallback -> now - fallback.readAt() > fallbackTtlMillis);
+            if (fallbacks.size() >= maxFallbacks) {
+                return;
+            }
+        }
+        fallbacks.put(id, new Fallback(new MapSession(session), now));
+    }
+
+    private Session fallback(String id) {
+        Fallback fallback = fallbacks.get(id);
+        if (fallback == null || System.currentTimeMillis() - fallback.readAt() > fallbackTtlMillis
+                || fallback.session().isExpired()) {
+            log.debug("Session {} of a static request not read in time, serving it without a session", id);
+            return new MapSession(id);
+        }
+        return new MapSession(fallback.session());
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ The CompactSessionCodec class turns session attribute values into bytes for the JDBC session store and back.
+ The values that every session holds are written in a short tagged form instead of Java serialization:
+ strings (the "username" and "roles" set by AppController) as UTF-8, and the Spring Security context as the user
+ name, authorities, login details and home location only. The password hash in UserInfoUserDetails is not written, so it never
+ leaves the user_info table. Any other value falls back to Java serialization.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.session;
+
+import com.example.config.UserInfo;
+import com.example.config.UserInfoUserDetails;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class CompactSessionCodec {
+    private static final byte STRING = 1;
+    private static final byte SECURITY_CONTEXT = 2;
+    private static final byte JAVA = 3;
+
+    private static final SerializingConverter SERIALIZER = new SerializingConverter();
+    private static final DeserializingConverter DESERIALIZER = new DeserializingConverter();
+
+    private CompactSessionCodec() {
+    }
+
+    /**
+     * Encodes an attribute value.
+     * @param value the attribute value
+     * @return the tagged bytes
+     */
+    public static byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof String string) {
+                out.writeByte(STRING);
+                out.write(string.getBytes(StandardCharsets.UTF_8));
+            } else if (isCompactContext(value)) {
+                Authentication authentication = ((SecurityContext) value).getAuthentication();
+                WebAuthenticationDetails details = (WebAuthenticationDetails) authentication.getDetails();
+                out.writeByte(SECURITY_CONTEXT);
+                writeString(out, authentication.getName());
+                writeString(out, authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority).collect(Collectors.joining(",")));
+                writeString(out, details == null ? null : details.getRemoteAddress());
+                writeString(out, details == null ? null : details.getSessionId());
+                Long location = ((UserInfoUserDetails) authentication.getPrincipal()).getLocationId();
+                out.writeLong(location == null ? -1 : location);
+            } else {
+                out.writeByte(JAVA);
+                out.write(SERIALIZER.convert(value));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an attribute value written by encode.
+     * @param bytes the tagged bytes
+     * @return the attribute value
+     */
+    public static Object decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            switch (bytes[0]) {
+                case STRING:
+                    return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+                case SECURITY_CONTEXT: {
+                    String name = readString(in);
+                    String roles = readString(in);
+                    String remoteAddress = readString(in);
+                    String sessionId = readString(in);
+                    // sessions written before locations existed end here
+                    long location = in.available() >= Long.BYTES ? in.readLong() : -1;
+                    List<GrantedAuthority> authorities = roles.isEmpty() ? List.of() : Arrays.stream(roles.split(","))
+                            .<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+                    UserInfoUserDetails principal = new UserInfoUserDetails(new UserInfo(0, name, null, roles,
+                            location < 0 ? null : location));
+                    UsernamePasswordAuthenticationToken authentication =
+                            UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+                    if (remoteAddress != null || sessionId != null) {
+                        authentication.setDetails(new WebAuthenticationDetails(remoteAddress, sessionId));
+                    }
+                    return new SecurityContextImpl(authentication);
+                }
+                case JAVA:
+                    return DESERIALIZER.convert(Arrays.copyOfRange(bytes, 1, bytes.length));
+                default:
+                    throw new IllegalArgumentException("unknown session attribute tag " + bytes[0]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // only the authentication made by the form login is written compactly, anything else keeps all its state
+    private static boolean isCompactContext(Object value) {
+        if (!(value instanceof SecurityContextImpl context)
+                || !(context.getAuthentication() instanceof UsernamePasswordAuthenticationToken authentication)) {
+            return false;
+        }
+        Object details = authentication.getDetails();
+        return authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UserInfoUserDetails
+                && (details == null || details.getClass() == WebAuthenticationDetails.class)
+                && authentication.getAuthorities().stream().allMatch(a -> a.getClass() == SimpleGrantedAuthority.class);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
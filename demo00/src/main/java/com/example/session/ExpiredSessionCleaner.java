@@ -0,0 +1,63 @@
+/**
+ The ExpiredSessionCleaner class deletes expired sessions from the JDBC session store in batches of
+ barbershop.session.cleanup-batch-size instead of one DELETE over the whole table, so that the cleanup never
+ holds locks on many rows while users are logging in.
+ The attributes of a session are removed with it by the ON DELETE CASCADE of the Spring Session schema.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class ExpiredSessionCleaner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.session.jdbc.table-name:SPRING_SESSION}")
+    private String tableName;
+
+    @Value("${barbershop.session.cleanup-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${barbershop.session.cleanup-interval-millis:60000}")
+    public void cleanupExpiredSessions() {
+        int deleted = cleanup(System.currentTimeMillis());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired sessions", deleted);
+        }
+    }
+
+    /**
+     * Deletes the sessions that expired before the given time, one batch at a time.
+     * @param now the current time in epoch milliseconds
+     * @return the number of deleted sessions
+     */
+    public int cleanup(long now) {
+        int deleted = 0;
+        while (true) {
+            List<String> ids = jdbcTemplate.queryForList(
+                    "SELECT PRIMARY_ID FROM " + tableName + " WHERE EXPIRY_TIME < ? LIMIT ?", String.class, now, batchSize);
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM " + tableName + " WHERE PRIMARY_ID = ?", ids, ids.size(),
+                    (statement, id) -> statement.setString(1, id));
+            deleted += ids.size();
+            if (ids.size() < batchSize) {
+                return deleted;
+            }
+        }
+    }
+}
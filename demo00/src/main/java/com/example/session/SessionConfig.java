@@ -0,0 +1,66 @@
+/**
+ The SessionConfig class configures the shared session store. With spring-session-jdbc on the classpath, Spring Boot
+ replaces the in-memory Tomcat sessions by JdbcIndexedSessionRepository, so every node serves every user and
+ logins survive a redeploy; another store (for example Redis) is plugged in by swapping that dependency.
+ The springSessionConversionService bean makes the repository write attributes with CompactSessionCodec.
+ spring.session.jdbc.save-mode=on-set-attribute makes it write only the attributes that changed in a request,
+ and its own cleanup job is switched off in favour of the batched ExpiredSessionCleaner.
+ The repository is wrapped in BoundedSessionRepository, so the static pages do not wait for the session store.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.session;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class SessionConfig {
+    /**
+     * Creates the conversion service that JdbcIndexedSessionRepository uses for attribute values.
+     * @return a conversion service backed by CompactSessionCodec
+     */
+    @Bean
+    public ConversionService springSessionConversionService() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, CompactSessionCodec::encode);
+        conversionService.addConverter(byte[].class, Object.class, CompactSessionCodec::decode);
+        return conversionService;
+    }
+
+    /**
+     * Wraps the session repository in BoundedSessionRepository before the session filter is given it.
+     * @param environment reads the barbershop.session.static-* and fallback-* properties
+     * @return the post-processor
+     */
+    @Bean
+    static BeanPostProcessor boundedSessionRepository(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof FindByIndexNameSessionRepository<?> repository)
+                        || bean instanceof BoundedSessionRepository) {
+                    return bean;
+                }
+                return new BoundedSessionRepository((FindByIndexNameSessionRepository<Session>) repository,
+                        environment.getProperty("barbershop.session.static-threads", Integer.class, 4),
+                        environment.getProperty("barbershop.session.static-queue", Integer.class, 100),
+                        environment.getProperty("barbershop.session.static-lookup-timeout", Duration.class, Duration.ofMillis(100)),
+                        environment.getProperty("barbershop.session.fallback-ttl", Duration.class, Duration.ofMinutes(5)),
+                        environment.getProperty("barbershop.session.fallback-entries", Integer.class, 10000));
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ The SyncBatch record is one response of the delta-sync API: the rows changed and the ids deleted after the
+ watermark the device sent, up to the new watermark it sends next time.
+ A device whose watermark is older than the oldest kept tombstone gets reset = true and no changes; it has to
+ drop its copy and sync again from watermark 0, which returns every row.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import java.util.List;
+
+public record SyncBatch<T>(long watermark, boolean hasMore, boolean reset, List<T> changed, List<Long> deleted) {
+
+    static <T> SyncBatch<T> reset() {
+        return new SyncBatch<>(0, true, true, List.of(), List.of());
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ The SyncConfig class registers the CBOR message converter used by the delta-sync API next to JSON.
+ CBOR carries the same fields as the JSON responses, in a binary encoding that needs no quoting and
+ writes numbers in as few bytes as they need.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+@Configuration
+public class SyncConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter();
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ The SyncController class serves the delta-sync API of the front-desk tablets. A tablet keeps the watermark of
+ its last response and asks for what changed since then, repeating while hasMore is true.
+ Responses are JSON, or CBOR when the request sends "Accept: application/cbor".
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import com.example.cache.TableVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/sync", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * Returns the clients changed or deleted after a watermark.
+     * @param since the watermark of the previous response, 0 for everything
+     * @param limit the preferred batch size
+     * @return the changes and the next watermark
+     */
+    @GetMapping("/clients")
+    public SyncBatch<?> clients(@RequestParam(defaultValue = "0") long since,
+                                @RequestParam(defaultValue = "500") int limit) {
+        return syncService.changes(TableVersions.CLIENT, since, limit);
+    }
+
+    /**
+     * Returns the posts changed or deleted after a watermark.
+     * @param since the watermark of the previous response, 0 for everything
+     * @param limit the preferred batch size
+     * @return the changes and the next watermark
+     */
+    @GetMapping("/posts")
+    public SyncBatch<?> posts(@RequestParam(defaultValue = "0") long since,
+                              @RequestParam(defaultValue = "500") int limit) {
+        return syncService.changes(TableVersions.BLOG, since, limit);
+    }
+}
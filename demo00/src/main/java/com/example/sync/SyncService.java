@@ -0,0 +1,132 @@
+/**
+ The SyncService class answers delta-sync requests: which clients or posts changed and which were deleted
+ after a watermark, a sync version the device got from its previous request (see SyncVersions).
+ Only rows and tombstones above the watermark are read, through the row_version indexes, so a request costs
+ as much as the changes since the last one, not as much as the table. A device syncs the rows of its request's
+ location: rows through the location filter, tombstones by their location_id.
+ A batch ends at a version boundary, so the rows written by one transaction always arrive together.
+ Versions and watermarks are counted per location (see SyncVersions), so a watermark is only ever compared with
+ the versions of its own location. Tombstones are kept for retention-days and then pruned; sync_version remembers
+ up to which version for every location, so devices that have been away longer are told to start over.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import com.example.blog.BlogRepository;
+import com.example.cache.TableVersions;
+import com.example.client.ClientRepository;
+import com.example.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class SyncService {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${barbershop.sync.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${barbershop.sync.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Returns the changes of a table after a watermark.
+     * @param table the table, TableVersions.CLIENT or TableVersions.BLOG
+     * @param since the watermark of the device, 0 for a full download
+     * @param limit the preferred number of changes; a batch may exceed it to end at a version boundary
+     * @return the changes and the next watermark
+     */
+    @Transactional(readOnly = true)
+    public SyncBatch<?> changes(String table, long since, int limit) {
+        int size = Math.max(1, Math.min(limit, maxBatchSize));
+        long location = TenantContext.currentOrDefault();
+        if (since > 0 && since < prunedUpTo(location)) {
+            return SyncBatch.reset();
+        }
+        // one more than the batch size tells whether anything is left after it
+        List<Long> versions = new ArrayList<>(rowVersionsAfter(table, since, size + 1));
+        if (since > 0) {
+            versions.addAll(jdbcTemplate.queryForList("select row_version from sync_tombstone where location_id = ? "
+                    + "and table_name = ? and row_version > ? order by row_version limit ?",
+                    Long.class, location, table, since, size + 1));
+        }
+        if (versions.isEmpty()) {
+            return new SyncBatch<>(since, false, false, List.of(), List.of());
+        }
+        Collections.sort(versions);
+        boolean hasMore = versions.size() > size;
+        long upTo = hasMore ? versions.get(size - 1) : versions.get(versions.size() - 1);
+        List<Long> deleted = since == 0 ? List.of() : jdbcTemplate.queryForList("select entity_id from sync_tombstone "
+                + "where location_id = ? and table_name = ? and row_version > ? and row_version <= ? order by row_version",
+                Long.class, location, table, since, upTo);
+        return new SyncBatch<>(upTo, hasMore, false, rowsChanged(table, since, upTo), deleted);
+    }
+
+    /**
+     * Deletes the tombstones older than the retention period and remembers the last pruned version of every location.
+     */
+    @Scheduled(fixedDelayString = "${barbershop.sync.prune-interval-millis:86400000}")
+    @Transactional
+    public void pruneTombstones() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+        List<Map<String, Object>> locations = jdbcTemplate.queryForList("select location_id, max(row_version) up_to "
+                + "from sync_tombstone where deleted_at < ? group by location_id order by location_id", cutoff);
+        for (Map<String, Object> location : locations) {
+            long locationId = ((Number) location.get("location_id")).longValue();
+            long upTo = ((Number) location.get("up_to")).longValue();
+            int deleted = jdbcTemplate.update("delete from sync_tombstone where location_id = ? and row_version <= ?",
+                    locationId, upTo);
+            jdbcTemplate.update("update sync_version set pruned_up_to = greatest(pruned_up_to, ?) where location_id = ?",
+                    upTo, locationId);
+            log.debug("Pruned {} sync tombstones of location {} up to version {}", deleted, locationId, upTo);
+        }
+    }
+
+    private long prunedUpTo(long location) {
+        List<Long> prunedUpTo = jdbcTemplate.queryForList("select pruned_up_to from sync_version where location_id = ?",
+                Long.class, location);
+        return prunedUpTo.isEmpty() ? 0 : prunedUpTo.get(0);
+    }
+
+    private List<Long> rowVersionsAfter(String table, long since, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return switch (table) {
+            case TableVersions.CLIENT -> clientRepository.findVersionsAfter(since, page);
+            case TableVersions.BLOG -> blogRepository.findVersionsAfter(since, page);
+            default -> throw new IllegalArgumentException("Not a synced table: " + table);
+        };
+    }
+
+    private List<?> rowsChanged(String table, long since, long upTo) {
+        return switch (table) {
+            case TableVersions.CLIENT -> clientRepository.findChanged(since, upTo);
+            case TableVersions.BLOG -> blogRepository.findChanged(since, upTo);
+            default -> throw new IllegalArgumentException("Not a synced table: " + table);
+        };
+    }
+}
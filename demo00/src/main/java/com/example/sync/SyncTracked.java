@@ -0,0 +1,17 @@
+/**
+ The SyncTracked interface is implemented by the entities served through the delta-sync API. SyncVersions
+ stamps them with the sync version of the transaction that writes them and the time of the write.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import java.time.Instant;
+
+public interface SyncTracked {
+
+    void setRow_version(Long row_version);
+
+    void setUpdated_at(Instant updated_at);
+}
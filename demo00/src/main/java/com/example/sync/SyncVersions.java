@@ -0,0 +1,144 @@
+/**
+ The SyncVersions class hands out the sync versions that the delta-sync API uses as watermarks.
+ Versions are counted per location, in the sync_version row of the location: every transaction that writes a
+ client or a post of a location takes the next value of that row, once, and stamps every row of the location it
+ inserts or updates with it; rows it deletes get a tombstone with it. The counter row stays locked until the
+ transaction ends, so the versions of a location become visible in increasing order and a device of the location
+ that has seen version v can never later find a new row at or below v.
+ Writers of one location are serialized by that lock, while the writers of other shops take their own rows and
+ do not wait. They take the version before anything else, so it is always the first lock they hold; the nightly
+ archive, which moves visits of every location, locks all rows in location order.
+ The class is also the JPA entity listener of Client and Blog, which stamps inserts and updates at flush time.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.sync;
+
+import com.example.tenant.LocationScoped;
+import com.example.tenant.TenantContext;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class SyncVersions {
+
+    // key of the versions taken by the current transaction, location id -> version
+    private static final Object TRANSACTION_VERSIONS = SyncVersions.class.getName() + ".versions";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the sync version of the current transaction at the current location, taking and locking the next one
+     * on first use.
+     * @return the version
+     */
+    public long next() {
+        return next(TenantContext.currentOrDefault());
+    }
+
+    /**
+     * Returns the sync version of the current transaction at a location, taking and locking the next one on first use.
+     * @param location the location whose rows the transaction writes
+     * @return the version
+     */
+    public long next(long location) {
+        Map<Long, Long> versions = transactionVersions();
+        Long version = versions == null ? null : versions.get(location);
+        if (version != null) {
+            return version;
+        }
+        if (jdbcTemplate.update("update sync_version set last_version = last_version + 1 where location_id = ?",
+                location) == 0) {
+            // the first write of a new location; of two first writers one inserts and the other waits for its lock
+            jdbcTemplate.update("insert ignore into sync_version (location_id, last_version, pruned_up_to) "
+                    + "values (?, 1, 0)", location);
+            jdbcTemplate.update("update sync_version set last_version = last_version + 1 where location_id = ?",
+                    location);
+        }
+        long next = jdbcTemplate.queryForObject("select last_version from sync_version where location_id = ?",
+                Long.class, location);
+        if (versions != null) {
+            versions.put(location, next);
+        }
+        return next;
+    }
+
+    /**
+     * Locks the sync versions of all locations, in location order, for a writer that moves rows of any location.
+     * Takes no version: the rows are not stamped.
+     */
+    public void lockAll() {
+        jdbcTemplate.queryForList("select location_id from sync_version order by location_id for update", Long.class);
+    }
+
+    private static Map<Long, Long> transactionVersions() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Long> versions = (Map<Long, Long>) TransactionSynchronizationManager.getResource(TRANSACTION_VERSIONS);
+        if (versions == null) {
+            versions = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_VERSIONS, versions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_VERSIONS);
+                }
+            });
+        }
+        return versions;
+    }
+
+    /**
+     * Stamps a client or post with the version of the transaction at its location when it is inserted or updated.
+     * @param entity the entity being flushed
+     */
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        if (entity instanceof SyncTracked tracked) {
+            // a new row gets its location from LocationGuard, which runs after this listener
+            Long location = entity instanceof LocationScoped scoped ? scoped.getLocation_id() : null;
+            tracked.setRow_version(next(location == null ? TenantContext.currentOrDefault() : location));
+            tracked.setUpdated_at(Instant.now());
+        }
+    }
+
+    /**
+     * Records tombstones for deleted rows, so that synced devices learn about the deletes.
+     * @param table the table of the rows, see TableVersions
+     * @param location the location of the rows, whose devices are told about the deletes
+     * @param ids the ids of the deleted rows
+     */
+    public void tombstone(String table, long location, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long version = next(location);
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate("insert into sync_tombstone (table_name, entity_id, row_version, deleted_at, location_id) "
+                        + "values (?, ?, ?, ?, ?)",
+                List.copyOf(ids), ids.size(), (statement, id) -> {
+                    statement.setString(1, table);
+                    statement.setLong(2, id);
+                    statement.setLong(3, version);
+                    statement.setTimestamp(4, now);
+                    statement.setLong(5, location);
+                });
+    }
+}
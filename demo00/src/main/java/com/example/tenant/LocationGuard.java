@@ -0,0 +1,65 @@
+/**
+ The LocationGuard class is the entity listener that keeps the rows of a location to that location.
+ The Hibernate filter enabled by TenantJpaDialect hides the rows of other locations from queries, but not from
+ loads by id, merges or updates; those are checked here. A new row is always stamped with the location of the
+ request, whatever a form posted for it, and a request that loads or updates a row of another location gets
+ UnknownLocationException. An edit form that does not post the location keeps the row where it is. Without a
+ location (background work) rows are loaded freely and new rows go to the row's own location, or the default one.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import java.util.Objects;
+
+public class LocationGuard {
+
+    /**
+     * Stamps a new row with the location of the current request.
+     * @param entity the entity being inserted
+     */
+    @PrePersist
+    public void stamp(Object entity) {
+        if (entity instanceof LocationScoped scoped) {
+            Long location = TenantContext.current();
+            if (location != null) {
+                scoped.setLocation_id(location);
+            } else if (scoped.getLocation_id() == null) {
+                scoped.setLocation_id(TenantContext.DEFAULT_LOCATION);
+            }
+        }
+    }
+
+    /**
+     * Rejects a row of another location than the current request's, loaded by id.
+     * @param entity the loaded entity
+     */
+    @PostLoad
+    public void check(Object entity) {
+        if (entity instanceof LocationScoped scoped) {
+            Long location = TenantContext.current();
+            if (location != null && !Objects.equals(location, scoped.getLocation_id())) {
+                throw new UnknownLocationException("Not found in location " + location);
+            }
+        }
+    }
+
+    /**
+     * Rejects moving a row to another location. A merged row was loaded, and so checked, before the merge copied
+     * the posted values onto it; a location missing from the posted values is put back.
+     * @param entity the entity being updated
+     */
+    @PreUpdate
+    public void keep(Object entity) {
+        if (entity instanceof LocationScoped scoped && scoped.getLocation_id() == null) {
+            stamp(entity);
+        } else {
+            check(entity);
+        }
+    }
+}
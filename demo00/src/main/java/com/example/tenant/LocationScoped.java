@@ -0,0 +1,15 @@
+/**
+ The LocationScoped interface is implemented by the entities whose rows belong to one location (shop).
+ LocationGuard stamps new rows with the location of the current request and keeps rows of other locations out of it.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+public interface LocationScoped {
+
+    Long getLocation_id();
+
+    void setLocation_id(Long location_id);
+}
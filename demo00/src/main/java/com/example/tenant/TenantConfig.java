@@ -0,0 +1,84 @@
+/**
+ The TenantConfig class installs the location partitioning into the JPA and JDBC setup: TenantJpaDialect on the
+ entity manager factory, so transactions enable the location filter, TenantRegionFactory as its cache region
+ factory, so a location only uses its share of the query cache, and TenantDataSource around the data source,
+ so a location only uses its share of the connections. Post-processing leaves the data source and the entity
+ manager factory to Spring Boot and RoutingDataSourceConfig, with or without replicas.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class TenantConfig {
+
+    /**
+     * Sets TenantJpaDialect on the entity manager factory before it is built; the transaction manager takes
+     * its dialect from there.
+     * @return the post-processor
+     */
+    @Bean
+    static BeanPostProcessor tenantJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new TenantJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Sets TenantRegionFactory as the second-level cache region factory of the entity manager factory before it is
+     * built, replacing the plain JCache factory named in application.properties.
+     * @param environment reads barbershop.tenants.query-cache-entries-per-location and query-cache-ttl
+     * @return the post-processor
+     */
+    @Bean
+    static BeanPostProcessor tenantRegionFactory(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.getJpaPropertyMap().put(AvailableSettings.CACHE_REGION_FACTORY, new TenantRegionFactory(
+                            environment.getProperty("barbershop.tenants.query-cache-entries-per-location", Long.class, 200L),
+                            environment.getProperty("barbershop.tenants.query-cache-ttl", Duration.class, Duration.ofMinutes(10))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Wraps the "dataSource" bean in a TenantDataSource.
+     * @param environment reads barbershop.tenants.max-connections-per-location and connection-timeout
+     * @return the post-processor
+     */
+    @Bean
+    static BeanPostProcessor tenantDataSource(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new TenantDataSource(dataSource,
+                        environment.getProperty("barbershop.tenants.max-connections-per-location", Integer.class, 0),
+                        environment.getProperty("barbershop.tenants.connection-timeout", Duration.class, Duration.ofSeconds(5)));
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ The TenantContext class holds the location (shop) the current thread works for. TenantFilter sets it for every
+ web request from TenantResolver; while it is set, transactions only see the clients and posts of that location
+ (see TenantJpaDialect), new rows are stamped with it and rows of other locations cannot be loaded or changed
+ (see LocationGuard), and the thread's connections count against the location's share of the pool (see
+ TenantDataSource). Threads without a location, such as the change event consumers and the reminder scheduler,
+ work on the data of all locations.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import java.util.function.Supplier;
+
+public final class TenantContext {
+    // the location created by the V7 migration, which all rows that existed before it belong to
+    public static final long DEFAULT_LOCATION = 1L;
+    // the name of the Hibernate filter declared on Client
+    public static final String FILTER = "location";
+    public static final String FILTER_PARAMETER = "location";
+
+    private static final ThreadLocal<Long> LOCATION = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * Returns the location of the current thread.
+     * @return the location id, or null outside of a request
+     */
+    public static Long current() {
+        return LOCATION.get();
+    }
+
+    /**
+     * Returns the location of the current thread, or the default location outside of a request.
+     * Used where a query needs the location as a parameter.
+     * @return the location id
+     */
+    public static long currentOrDefault() {
+        Long location = LOCATION.get();
+        return location == null ? DEFAULT_LOCATION : location;
+    }
+
+    /**
+     * Runs an action for a location, restoring the previous location afterwards.
+     * @param location the location id, null for all locations
+     * @param action the action to run
+     * @return the result of the action
+     */
+    public static <T> T callAt(Long location, Supplier<T> action) {
+        Long previous = LOCATION.get();
+        set(location);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    static void set(Long location) {
+        if (location == null) {
+            LOCATION.remove();
+        } else {
+            LOCATION.set(location);
+        }
+    }
+}
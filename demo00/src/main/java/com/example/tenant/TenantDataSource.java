@@ -0,0 +1,132 @@
+/**
+ The TenantDataSource class shares the connection pool between the locations (shops) so that a busy location
+ cannot take all of it: a request holds at most maxConnectionsPerLocation connections at once for its location,
+ and waits up to acquireTimeout for one of them before the pool itself is asked. The rest of the pool stays free
+ for the other locations and for the background work, which runs without a location and is not limited.
+ The locations share one database, as the change outbox, the sync versions and the migrations are common to
+ all of them; this is the routing that decides which location may use the pool.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TenantDataSource extends DelegatingDataSource {
+    private final int maxConnectionsPerLocation;
+    private final Duration acquireTimeout;
+    private final ConcurrentMap<Long, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps a data source.
+     * @param target the pooled data source
+     * @param maxConnectionsPerLocation the most connections a location may hold at once, 0 for no limit
+     * @param acquireTimeout how long a request waits for one of its location's connections
+     */
+    public TenantDataSource(DataSource target, int maxConnectionsPerLocation, Duration acquireTimeout) {
+        super(target);
+        this.maxConnectionsPerLocation = maxConnectionsPerLocation;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Semaphore semaphore = acquire();
+        return semaphore == null ? super.getConnection() : released(semaphore, () -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Semaphore semaphore = acquire();
+        return semaphore == null ? super.getConnection(username, password)
+                : released(semaphore, () -> super.getConnection(username, password));
+    }
+
+    /**
+     * Returns the number of connections a location holds.
+     * @param location the location id
+     * @return the number of open connections taken for the location
+     */
+    public int connectionsInUse(long location) {
+        Semaphore semaphore = permits.get(location);
+        return semaphore == null ? 0 : maxConnectionsPerLocation - semaphore.availablePermits();
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Takes a connection permit of the current location.
+     * @return the location's semaphore, or null if the connection is not limited
+     */
+    private Semaphore acquire() throws SQLException {
+        Long location = TenantContext.current();
+        if (location == null || maxConnectionsPerLocation <= 0) {
+            return null;
+        }
+        Semaphore semaphore = permits.computeIfAbsent(location, key -> new Semaphore(maxConnectionsPerLocation, true));
+        try {
+            if (!semaphore.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Location " + location + " holds all of its "
+                        + maxConnectionsPerLocation + " connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+        return semaphore;
+    }
+
+    /**
+     * Opens a connection whose close gives the permit back once.
+     */
+    private static Connection released(Semaphore semaphore, ConnectionSupplier open) throws SQLException {
+        Connection connection;
+        try {
+            connection = open.get();
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            semaphore.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ The TenantFilter class sets the location of every request (see TenantResolver) in TenantContext for as long as
+ the request runs, and clears it afterwards. It is ordered after the Spring Security filter chain, so that the
+ location can follow the logged-in user. A request for a location that does not exist is answered with 404.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class TenantFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private TenantResolver resolver;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long location;
+        try {
+            location = resolver.resolve(request);
+        } catch (UnknownLocationException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        }
+        Long previous = TenantContext.current();
+        TenantContext.set(location);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.set(previous);
+        }
+    }
+}
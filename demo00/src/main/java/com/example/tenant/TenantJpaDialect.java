@@ -0,0 +1,38 @@
+/**
+ The TenantJpaDialect class partitions the client and blog tables by location: every transaction started for a
+ request enables the "location" Hibernate filter of Client and Blog with the request's location, so all their
+ queries (repositories, Spring Data REST, GraphQL, the JSON and sync APIs) get "location_id = ?" added and run on
+ the indexes that lead with location_id. Transactions of threads without a location see all locations.
+ The filter does not apply to loads by id and bulk updates, see LocationGuard and ClientRepository.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+public class TenantJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        // the EntityManager may be kept open for the whole request, so the filter is set again for each transaction
+        Session session = entityManager.unwrap(Session.class);
+        Long location = TenantContext.current();
+        if (location == null) {
+            session.disableFilter(TenantContext.FILTER);
+        } else {
+            session.enableFilter(TenantContext.FILTER).setParameter(TenantContext.FILTER_PARAMETER, location);
+        }
+        return transactionData;
+    }
+}
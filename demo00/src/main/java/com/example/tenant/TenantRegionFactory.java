@@ -0,0 +1,117 @@
+/**
+ The TenantRegionFactory class shares the Hibernate query cache between the locations (shops) so that a busy
+ location cannot evict the cached listings of a quiet one: the query results cached by a request are kept in a
+ cache of the request's location, created on first use with room for entriesPerLocation results that live for
+ timeToLive. Background work runs without a location and uses the shared region sized in ehcache.xml.
+ Cached results are still checked against the update timestamps, which every location shares, and evicting the
+ query regions clears the caches of all locations.
+ The entity regions stay shared: entities are cached by id and are changed by threads of any location or none,
+ so a per-location copy could go stale. A row evicted by a busy location costs its owner a primary key read.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import javax.cache.Cache;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class TenantRegionFactory extends JCacheRegionFactory {
+    public static final String QUERY_RESULTS_PREFIX = "query-results-location-";
+
+    private final long entriesPerLocation;
+    private final Duration timeToLive;
+    private final ConcurrentMap<Long, Cache<Object, Object>> queryResults = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the region factory.
+     * @param entriesPerLocation the most query results cached per location
+     * @param timeToLive how long a cached query result is kept
+     */
+    public TenantRegionFactory(long entriesPerLocation, Duration timeToLive) {
+        this.entriesPerLocation = entriesPerLocation;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new LocationStorageAccess(super.createQueryResultsRegionStorageAccess(regionName, sessionFactory));
+    }
+
+    /**
+     * Returns the query results cache of a location, creating it on first use.
+     * @param location the location id
+     * @return the cache
+     */
+    public Cache<Object, Object> queryResultsOf(long location) {
+        return queryResults.computeIfAbsent(location, l -> {
+            String name = QUERY_RESULTS_PREFIX + l;
+            Cache<Object, Object> existing = getCacheManager().getCache(name);
+            return existing != null ? existing : getCacheManager().createCache(name,
+                    Eh107Configuration.fromEhcacheCacheConfiguration(CacheConfigurationBuilder
+                            .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entriesPerLocation))
+                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))));
+        });
+    }
+
+    /**
+     * Keeps the query results of a request in its location's cache and those of background work in the shared one.
+     */
+    private class LocationStorageAccess implements StorageAccess {
+        private final StorageAccess shared;
+
+        LocationStorageAccess(StorageAccess shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            Long location = TenantContext.current();
+            return location == null ? shared.getFromCache(key, session) : queryResultsOf(location).get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            Long location = TenantContext.current();
+            if (location == null) {
+                shared.putIntoCache(key, value, session);
+            } else {
+                queryResultsOf(location).put(key, value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            Long location = TenantContext.current();
+            return location == null ? shared.contains(key) : queryResultsOf(location).containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            shared.evictData();
+            queryResults.values().forEach(Cache::clear);
+        }
+
+        @Override
+        public void evictData(Object key) {
+            shared.evictData(key);
+            queryResults.values().forEach(cache -> cache.remove(key));
+        }
+
+        @Override
+        public void release() {
+            shared.release();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ The TenantResolver class decides which location (shop) a request works for.
+ Users are kept to the location they registered at (UserInfo.location_id). Admins and anonymous visitors may pick
+ one: with the X-Location header for API clients, or the "location" parameter, which the browser session then
+ remembers; without a choice they get their home location or the default one. Location ids are checked against
+ the location table once and remembered.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import com.example.config.UserInfoUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TenantResolver {
+    public static final String HEADER = "X-Location";
+    public static final String PARAMETER = "location";
+    public static final String SESSION_ATTRIBUTE = "location";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Set<Long> known = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Resolves the location of a request.
+     * @param request the request
+     * @return the location id
+     * @throws UnknownLocationException if the request picks a location that does not exist
+     */
+    public long resolve(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long home = authentication != null && authentication.getPrincipal() instanceof UserInfoUserDetails user
+                ? user.getLocationId() : null;
+        if (!mayChoose(authentication)) {
+            return home == null ? TenantContext.DEFAULT_LOCATION : home;
+        }
+        String chosen = request.getHeader(HEADER);
+        if (chosen == null && request.getParameter(PARAMETER) != null) {
+            chosen = request.getParameter(PARAMETER);
+            request.getSession().setAttribute(SESSION_ATTRIBUTE, checked(parse(chosen)));
+        }
+        if (chosen != null) {
+            return checked(parse(chosen));
+        }
+        HttpSession session = request.getSession(false);
+        Object remembered = session == null ? null : session.getAttribute(SESSION_ATTRIBUTE);
+        if (remembered instanceof Long location) {
+            return location;
+        }
+        return home == null ? TenantContext.DEFAULT_LOCATION : home;
+    }
+
+    /**
+     * Tells whether a location exists.
+     * @param location the location id
+     * @return true if the location table has it
+     */
+    public boolean exists(long location) {
+        if (known.contains(location)) {
+            return true;
+        }
+        Integer count = jdbcTemplate.queryForObject("select count(*) from location where id = ?", Integer.class, location);
+        if (count == null || count == 0) {
+            return false;
+        }
+        known.add(location);
+        return true;
+    }
+
+    private static boolean mayChoose(Authentication authentication) {
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+
+    private long checked(long location) {
+        if (!exists(location)) {
+            throw new UnknownLocationException("Unknown location " + location);
+        }
+        return location;
+    }
+
+    private static long parse(String location) {
+        try {
+            return Long.parseLong(location.trim());
+        } catch (NumberFormatException e) {
+            throw new UnknownLocationException("Unknown location " + location);
+        }
+    }
+}
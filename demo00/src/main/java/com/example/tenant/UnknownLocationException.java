@@ -0,0 +1,19 @@
+/**
+ The UnknownLocationException class is thrown when a request names a location that does not exist, or touches a
+ row of another location than its own; both are answered with 404 Not Found, so ids of other shops are not revealed.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UnknownLocationException extends RuntimeException {
+
+    public UnknownLocationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ The WarmupController class reports whether this instance takes traffic, for load balancers and deploy scripts:
+ /ready answers 200 once the application is ready (after the warm-up, see WarmupRunner) and 503 before that,
+ or while it shuts down. Administrators can see what the warm-up did at /admin/warmup.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.warmup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class WarmupController {
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private WarmupRunner warmupRunner;
+
+    /**
+     * Tells whether the instance takes traffic. It is open to anonymous requests, so probes need no login.
+     * @return 200 with ACCEPTING_TRAFFIC, or 503 with REFUSING_TRAFFIC
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<String> ready() {
+        ReadinessState state = availability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(state.name());
+    }
+
+    /**
+     * Returns what the warm-up did.
+     * @return the report, or 503 while the warm-up is still running
+     */
+    @GetMapping("/admin/warmup")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<WarmupReport> report() {
+        WarmupReport report = warmupRunner.report();
+        return report == null ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build() : ResponseEntity.ok(report);
+    }
+}
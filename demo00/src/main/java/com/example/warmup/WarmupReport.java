@@ -0,0 +1,17 @@
+/**
+ The WarmupReport record is what the warm-up did: the rounds it completed, its wall-clock and CPU time, why it
+ stopped ("completed", "time budget" or "cpu budget") and, per step in the order the steps first ran, how often
+ the step ran and failed and how long its runs took. It is logged when the warm-up ends and shown at /admin/warmup.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.warmup;
+
+import java.util.Map;
+
+public record WarmupReport(int rounds, long elapsedMillis, long cpuMillis, String stoppedBy, Map<String, Step> steps) {
+
+    public record Step(long runs, long failures, long totalMillis, String lastError) {
+    }
+}
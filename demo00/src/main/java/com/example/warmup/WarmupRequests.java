@@ -0,0 +1,115 @@
+/**
+ The WarmupRequests class makes the stand-in GET request and response that the warm-up renders pages with.
+ Pages are rendered in-process, through AppController and FragmentRenderer, so the warm-up needs no user, password
+ or open port; the request has no parameters, headers, cookies or session and the response discards what is
+ written to it. Both are dynamic proxies: the few methods the controller, Thymeleaf and the Spring Security
+ dialect call are answered below, every other method returns the empty value of its return type.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.warmup;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class WarmupRequests {
+
+    private WarmupRequests() {
+    }
+
+    /**
+     * Makes a GET request for a path, and its response.
+     * @param servletContext the servlet context of the application
+     * @param path the path, e.g. "/blog"
+     * @return the request and response, wrapped for controller methods that take a NativeWebRequest
+     */
+    static ServletWebRequest get(ServletContext servletContext, String path) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(WarmupRequests.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMethod" -> "GET";
+                    case "getRequestURI", "getServletPath" -> path;
+                    case "getRequestURL" -> new StringBuffer("http://localhost").append(path);
+                    case "getContextPath" -> "";
+                    case "getScheme" -> "http";
+                    case "getServerName", "getLocalName" -> "localhost";
+                    case "getRemoteAddr", "getLocalAddr" -> "127.0.0.1";
+                    case "getServerPort", "getLocalPort" -> 80;
+                    case "getProtocol" -> "HTTP/1.1";
+                    case "getCharacterEncoding" -> StandardCharsets.UTF_8.name();
+                    case "getLocale" -> Locale.getDefault();
+                    case "getLocales" -> Collections.enumeration(List.of(Locale.getDefault()));
+                    case "getServletContext" -> servletContext;
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    case "getDateHeader" -> -1L;
+                    case "getIntHeader" -> -1;
+                    case "getAttribute" -> attributes.get((String) args[0]);
+                    case "setAttribute" -> {
+                        if (args[1] == null) {
+                            attributes.remove((String) args[0]);
+                        } else {
+                            attributes.put((String) args[0], args[1]);
+                        }
+                        yield null;
+                    }
+                    case "removeAttribute" -> attributes.remove((String) args[0]);
+                    case "getAttributeNames" -> Collections.enumeration(attributes.keySet());
+                    case "toString" -> "warm-up GET " + path;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> empty(method.getReturnType());
+                });
+        PrintWriter discarded = new PrintWriter(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(WarmupRequests.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getStatus" -> HttpServletResponse.SC_OK;
+                    case "encodeURL", "encodeRedirectURL" -> args[0];
+                    case "getCharacterEncoding" -> StandardCharsets.UTF_8.name();
+                    case "getLocale" -> Locale.getDefault();
+                    case "getWriter" -> discarded;
+                    case "toString" -> "warm-up response to " + path;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> empty(method.getReturnType());
+                });
+        return new ServletWebRequest(request, response);
+    }
+
+    private static Object empty(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == Enumeration.class) {
+            return Collections.emptyEnumeration();
+        }
+        if (type == Collection.class || type == List.class) {
+            return List.of();
+        }
+        if (type == Map.class) {
+            return Map.of();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ The WarmupRunner class warms the application up after a deploy, before it takes traffic.
+ It runs as an ApplicationRunner, and Spring Boot reports the application ready (ReadinessState.ACCEPTING_TRAFFIC,
+ see /ready) only after the runners have returned, so a load balancer that follows /ready sends no requests to an
+ instance that is still cold. The warm-up:
+ - holds barbershop.warmup.connections pooled connections at once, so the pool has them open;
+ - runs rounds of the listing and search queries of ClientService and BlogService at the first max-locations
+ locations, searching for values taken from the rows the listings return, which fills the Hibernate query plan
+ cache, the query cache and the second-level cache;
+ - renders index.html and blog.html through AppController for each of the warm-up roles, which parses the
+ templates and fills the FragmentCache with the rows the first users of each role will see.
+ The repetitions give the JIT compiler the hot paths to compile. Rounds run on barbershop.warmup.threads threads
+ (by default half the cores), and no new round starts once max-time has passed or the threads have used cpu-budget
+ of CPU time. A step that fails is counted and logged, never fails the startup. The report is logged and shown at
+ /admin/warmup.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package com.example.warmup;
+
+import com.example.AppController;
+import com.example.blog.Blog;
+import com.example.blog.BlogService;
+import com.example.cache.FragmentRenderer;
+import com.example.client.Client;
+import com.example.client.ClientService;
+import com.example.tenant.TenantContext;
+import jakarta.servlet.ServletContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+    private static final String WARMUP_USER = "warmup";
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private AppController appController;
+
+    @Autowired
+    private FragmentRenderer fragmentRenderer;
+
+    @Autowired
+    private ServletContext servletContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${barbershop.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${barbershop.warmup.rounds:30}")
+    private int rounds;
+
+    @Value("${barbershop.warmup.max-time:60s}")
+    private Duration maxTime;
+
+    @Value("${barbershop.warmup.cpu-budget:30s}")
+    private Duration cpuBudget;
+
+    @Value("${barbershop.warmup.threads:0}")
+    private int threads;
+
+    @Value("${barbershop.warmup.connections:5}")
+    private int connections;
+
+    @Value("${barbershop.warmup.max-locations:5}")
+    private int maxLocations;
+
+    @Value("${barbershop.warmup.roles:ROLE_ADMIN,ROLE_USER}")
+    private List<String> roles;
+
+    private volatile WarmupReport report;
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class StepStats {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private volatile String lastError;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            report = new WarmupReport(0, 0, 0, "disabled", Map.of());
+            return;
+        }
+        report = warmUp();
+        log.info("Warm-up {} after {} rounds in {} ms, {} ms of CPU: {}", report.stoppedBy(), report.rounds(),
+                report.elapsedMillis(), report.cpuMillis(), report.steps());
+    }
+
+    /**
+     * Returns the report of the warm-up.
+     * @return the report, or null while the warm-up is running
+     */
+    public WarmupReport report() {
+        return report;
+    }
+
+    /**
+     * Warms the application up within the time and CPU budgets.
+     * @return what was warmed
+     */
+    WarmupReport warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + maxTime.toNanos();
+        Map<String, StepStats> steps = Collections.synchronizedMap(new LinkedHashMap<>());
+        step(steps, "connections", this::primeConnections);
+        List<Long> locations = jdbcTemplate.queryForList("select id from location order by id limit ?", Long.class, maxLocations);
+
+        int workers = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicLong cpuNanos = new AtomicLong();
+        AtomicReference<String> stoppedBy = new AtomicReference<>("completed");
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                ThreadMXBean cpu = ManagementFactory.getThreadMXBean();
+                while (started.getAndIncrement() < rounds) {
+                    if (System.nanoTime() - deadline > 0) {
+                        stoppedBy.compareAndSet("completed", "time budget");
+                        return;
+                    }
+                    if (cpuNanos.get() > cpuBudget.toNanos()) {
+                        stoppedBy.compareAndSet("completed", "cpu budget");
+                        return;
+                    }
+                    long before = threadCpuTime(cpu);
+                    round(steps, locations);
+                    cpuNanos.addAndGet(threadCpuTime(cpu) - before);
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            // a round that has started is waited for, up to one more max-time
+            if (!pool.awaitTermination(maxTime.toNanos() * 2, TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+                stoppedBy.compareAndSet("completed", "time budget");
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        Map<String, WarmupReport.Step> result = new LinkedHashMap<>();
+        synchronized (steps) {
+            steps.forEach((name, stats) -> result.put(name, new WarmupReport.Step(stats.runs.sum(), stats.failures.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.nanos.sum()), stats.lastError)));
+        }
+        return new WarmupReport(completed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                TimeUnit.NANOSECONDS.toMillis(cpuNanos.get()), stoppedBy.get(), result);
+    }
+
+    /**
+     * Runs every query and renders every page once at each location.
+     */
+    private void round(Map<String, StepStats> steps, List<Long> locations) {
+        for (Long location : locations) {
+            TenantContext.callAt(location, () -> {
+                step(steps, "clients", this::queryClients);
+                step(steps, "posts", this::queryPosts);
+                for (String role : roles) {
+                    step(steps, "index.html " + role, () -> as(role, this::renderHomePage));
+                    step(steps, "blog.html " + role, () -> as(role, this::renderBlogPage));
+                }
+                return null;
+            });
+        }
+    }
+
+    private void primeConnections() throws Exception {
+        List<Connection> held = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    private void queryClients() {
+        List<Client> clients = clientService.listAll(null);
+        if (!clients.isEmpty()) {
+            clientService.listAll(clients.get(0).getService());
+        }
+    }
+
+    private void queryPosts() {
+        List<Blog> posts = blogService.listByPostCriteria(null, null, null, null, null, null);
+        if (!posts.isEmpty()) {
+            blogService.listByPostCriteria(null, null, null, null, posts.get(0).getClient_name(), null);
+        }
+    }
+
+    private void renderHomePage() {
+        ServletWebRequest request = WarmupRequests.get(servletContext, "/");
+        ExtendedModelMap model = new ExtendedModelMap();
+        String view = appController.viewHomePage(model, null, false, request);
+        if (view != null) {
+            fragmentRenderer.renderPage(view, model, request.getRequest(), request.getResponse());
+        }
+    }
+
+    private void renderBlogPage() {
+        ServletWebRequest request = WarmupRequests.get(servletContext, "/blog");
+        ExtendedModelMap model = new ExtendedModelMap();
+        String view = appController.searchBlog(model, null, null, null, null, null, null, request);
+        if (view != null) {
+            fragmentRenderer.renderPage(view, model, request.getRequest(), request.getResponse());
+        }
+    }
+
+    /**
+     * Runs an action as the warm-up user with one role, the way a logged-in request with that role would.
+     */
+    private static void as(String role, Action action) throws Exception {
+        UserDetails user = User.withUsername(WARMUP_USER).password("").authorities(role).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        try {
+            action.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void step(Map<String, StepStats> steps, String name, Action action) {
+        StepStats stats = steps.computeIfAbsent(name, key -> new StepStats());
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (Exception e) {
+            stats.failures.increment();
+            if (stats.lastError == null) {
+                log.warn("Warm-up step {} failed", name, e);
+            }
+            stats.lastError = e.toString();
+        } finally {
+            stats.runs.increment();
+            stats.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static long threadCpuTime(ThreadMXBean cpu) {
+        return cpu.isCurrentThreadCpuTimeSupported() ? cpu.getCurrentThreadCpuTime() : 0;
+    }
+}
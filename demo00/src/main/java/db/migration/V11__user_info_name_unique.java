@@ -0,0 +1,69 @@
+/**
+ The V11 migration makes user_info.name unique on every database. V1 declares uk_user_info_name, but databases
+ created by ddl-auto=update before the migrations existed were baselined as V1 and never got it, while UserService
+ relies on the unique index to refuse a name registered twice at the same time or on another instance.
+ The index is only created where no unique index on the name exists yet. If some names already belong to several
+ users, the migration stops and lists them: which of those accounts to keep is for an administrator to decide,
+ so the duplicates have to be renamed or deleted before the application is started again.
+ It is a Java migration because MySQL has no CREATE INDEX IF NOT EXISTS.
+ @author Matthew Suprunov
+ @version 1.0
+ @since 19/10/2026
+ */
+package db.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class V11__user_info_name_unique extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        if (hasUniqueNameIndex(connection)) {
+            return;
+        }
+        List<String> duplicates = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet names = statement.executeQuery("SELECT name, COUNT(*) FROM user_info WHERE name IS NOT NULL "
+                     + "GROUP BY name HAVING COUNT(*) > 1 ORDER BY name")) {
+            while (names.next()) {
+                duplicates.add(names.getString(1) + " (" + names.getLong(2) + " users)");
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw new FlywayException("user_info.name cannot be made unique, these names belong to several users: "
+                    + String.join(", ", duplicates) + ". Rename or delete the extra users and start the application again.");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX uk_user_info_name ON user_info (name)");
+        }
+    }
+
+    private static boolean hasUniqueNameIndex(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? "USER_INFO" : "user_info";
+        // index name -> its columns, a unique index over more columns than the name does not count
+        Map<String, List<String>> columns = new HashMap<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+            while (indexes.next()) {
+                if (indexes.getString("COLUMN_NAME") != null) {
+                    columns.computeIfAbsent(indexes.getString("INDEX_NAME"), name -> new ArrayList<>())
+                            .add(indexes.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return columns.values().stream().anyMatch(list -> list.size() == 1 && list.get(0).equalsIgnoreCase("name"));
+    }
+}
@@ -0,0 +1,18 @@
+-- Sync versions are counted per location (see SyncVersions): the writers of one shop lock only their shop's row,
+-- so shops no longer wait for each other. Every location continues from the last version handed out so far, so
+-- the watermarks devices already hold stay valid. pruned_up_to is the highest version of the location whose
+-- tombstones have been pruned. Rows of locations created later are added by the first writer.
+
+CREATE TABLE sync_version (
+    location_id BIGINT NOT NULL,
+    last_version BIGINT NOT NULL,
+    pruned_up_to BIGINT NOT NULL,
+    PRIMARY KEY (location_id)
+);
+
+INSERT INTO sync_version (location_id, last_version, pruned_up_to)
+SELECT l.id, v.state_value, p.state_value
+FROM location l, sync_state v, sync_state p
+WHERE v.name = 'version' AND p.name = 'tombstones_pruned_up_to';
+
+DROP TABLE sync_state;
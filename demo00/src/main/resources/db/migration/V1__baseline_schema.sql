@@ -0,0 +1,32 @@
+-- The client, blog and user_info tables as spring.jpa.hibernate.ddl-auto=update created them.
+-- Databases that were created that way are baselined at this version (spring.flyway.baseline-version=1)
+-- and start with V2.
+
+CREATE TABLE client (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    full_name VARCHAR(255),
+    visit_date VARCHAR(255),
+    service VARCHAR(255),
+    master_name VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE blog (
+    post_id BIGINT NOT NULL AUTO_INCREMENT,
+    post_name VARCHAR(255),
+    publish_date VARCHAR(255),
+    text VARCHAR(255),
+    client_name VARCHAR(255),
+    vk_link VARCHAR(255),
+    link VARCHAR(255),
+    PRIMARY KEY (post_id)
+);
+
+CREATE TABLE user_info (
+    id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    password VARCHAR(255),
+    roles VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_info_name UNIQUE (name)
+);
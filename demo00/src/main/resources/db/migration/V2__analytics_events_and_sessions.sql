@@ -0,0 +1,55 @@
+-- Tables added after the baseline. Older databases may already have them from ddl-auto=update
+-- or spring.session.jdbc.initialize-schema, so they are only created when missing.
+
+CREATE TABLE IF NOT EXISTS visit_sketch (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    master_name VARCHAR(255),
+    period VARCHAR(255),
+    clients LONGBLOB,
+    services LONGBLOB,
+    visit_times LONGBLOB,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_visit_sketch_master_period (master_name, period),
+    KEY idx_visit_sketch_period (period)
+);
+
+CREATE TABLE IF NOT EXISTS change_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    table_name VARCHAR(255),
+    change_type VARCHAR(255),
+    entity_id BIGINT,
+    before_state LONGTEXT,
+    after_state LONGTEXT,
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS change_consumer_offset (
+    consumer_name VARCHAR(255) NOT NULL,
+    last_sequence BIGINT NOT NULL,
+    PRIMARY KEY (consumer_name)
+);
+
+-- spring-session-jdbc tables, see org/springframework/session/jdbc/schema-mysql.sql
+CREATE TABLE IF NOT EXISTS SPRING_SESSION (
+    PRIMARY_ID CHAR(36) NOT NULL,
+    SESSION_ID CHAR(36) NOT NULL,
+    CREATION_TIME BIGINT NOT NULL,
+    LAST_ACCESS_TIME BIGINT NOT NULL,
+    MAX_INACTIVE_INTERVAL INT NOT NULL,
+    EXPIRY_TIME BIGINT NOT NULL,
+    PRINCIPAL_NAME VARCHAR(100),
+    CONSTRAINT SPRING_SESSION_PK PRIMARY KEY (PRIMARY_ID),
+    UNIQUE KEY SPRING_SESSION_IX1 (SESSION_ID),
+    KEY SPRING_SESSION_IX2 (EXPIRY_TIME),
+    KEY SPRING_SESSION_IX3 (PRINCIPAL_NAME)
+);
+
+CREATE TABLE IF NOT EXISTS SPRING_SESSION_ATTRIBUTES (
+    SESSION_PRIMARY_ID CHAR(36) NOT NULL,
+    ATTRIBUTE_NAME VARCHAR(200) NOT NULL,
+    ATTRIBUTE_BYTES BLOB NOT NULL,
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_PK PRIMARY KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME),
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_FK FOREIGN KEY (SESSION_PRIMARY_ID)
+        REFERENCES SPRING_SESSION (PRIMARY_ID) ON DELETE CASCADE
+);
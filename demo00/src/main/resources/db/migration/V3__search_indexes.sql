@@ -0,0 +1,11 @@
+-- Indexes for the lookups of ClientRepository and BlogRepository; QueryPlanTest checks that they are used.
+
+-- visits of a master from a given time (reassignMaster, findByMasterSince)
+CREATE INDEX idx_client_master_visit ON client (master_name, visit_date);
+-- visits in a date range
+CREATE INDEX idx_client_visit_date ON client (visit_date);
+-- visits booked for a service (renameService, findByServiceName)
+CREATE INDEX idx_client_service ON client (service);
+-- posts by publish date and by author prefix (searchPostByDate, searchPostByClient_name)
+CREATE INDEX idx_blog_publish_date ON blog (publish_date);
+CREATE INDEX idx_blog_client_name ON blog (client_name);
@@ -0,0 +1,2 @@
+-- visits of the authors of blog posts (GraphQL Client.visits), looked up by the client's full name
+CREATE INDEX idx_client_full_name ON client (full_name);
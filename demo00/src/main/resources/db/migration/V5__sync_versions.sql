@@ -0,0 +1,31 @@
+-- Delta sync (SyncService): every client and post carries the sync version of the transaction that last wrote
+-- it; deleted rows leave a tombstone with the version of the delete. Existing rows start at version 1.
+
+ALTER TABLE client ADD COLUMN updated_at DATETIME(6);
+ALTER TABLE client ADD COLUMN row_version BIGINT DEFAULT 1 NOT NULL;
+ALTER TABLE blog ADD COLUMN updated_at DATETIME(6);
+ALTER TABLE blog ADD COLUMN row_version BIGINT DEFAULT 1 NOT NULL;
+
+CREATE INDEX idx_client_row_version ON client (row_version);
+CREATE INDEX idx_blog_row_version ON blog (row_version);
+
+CREATE TABLE sync_tombstone (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    table_name VARCHAR(64) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    row_version BIGINT NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_sync_tombstone_table_version (table_name, row_version),
+    KEY idx_sync_tombstone_version (row_version)
+);
+
+-- "version" is the last sync version handed out (SyncVersions locks this row while a writer runs),
+-- "tombstones_pruned_up_to" the highest version whose tombstones have been pruned
+CREATE TABLE sync_state (
+    name VARCHAR(64) NOT NULL,
+    state_value BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO sync_state (name, state_value) VALUES ('version', 1), ('tombstones_pruned_up_to', 0);
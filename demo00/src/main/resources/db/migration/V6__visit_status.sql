@@ -0,0 +1,4 @@
+-- Appointment reminders (ReminderScheduler): a visit is ARRIVED once the client is checked in and NO_SHOW when
+-- nobody checked in shortly after its start; visits without a status are still booked.
+
+ALTER TABLE client ADD COLUMN visit_status VARCHAR(16);
@@ -0,0 +1,38 @@
+-- Several shops (locations) in one database: every client, post, user and sync tombstone belongs to a location,
+-- and rows that existed before belong to the first one. Requests only read their own location's rows (see
+-- TenantJpaDialect), so the indexes they use lead with location_id; QueryPlanTest checks that they are used.
+
+CREATE TABLE location (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO location (id, name) VALUES (1, 'Main');
+
+ALTER TABLE client ADD COLUMN location_id BIGINT DEFAULT 1 NOT NULL;
+ALTER TABLE blog ADD COLUMN location_id BIGINT DEFAULT 1 NOT NULL;
+ALTER TABLE user_info ADD COLUMN location_id BIGINT DEFAULT 1 NOT NULL;
+ALTER TABLE sync_tombstone ADD COLUMN location_id BIGINT DEFAULT 1 NOT NULL;
+
+DROP INDEX idx_client_master_visit ON client;
+DROP INDEX idx_client_service ON client;
+DROP INDEX idx_client_full_name ON client;
+DROP INDEX idx_client_row_version ON client;
+DROP INDEX idx_blog_publish_date ON blog;
+DROP INDEX idx_blog_client_name ON blog;
+DROP INDEX idx_blog_row_version ON blog;
+DROP INDEX idx_sync_tombstone_table_version ON sync_tombstone;
+
+-- the listing of a location, and the keyset pages of its posts
+CREATE INDEX idx_client_location ON client (location_id, id);
+CREATE INDEX idx_blog_location ON blog (location_id, post_id);
+CREATE INDEX idx_client_master_visit ON client (location_id, master_name, visit_date);
+CREATE INDEX idx_client_service ON client (location_id, service);
+CREATE INDEX idx_client_full_name ON client (location_id, full_name);
+CREATE INDEX idx_client_row_version ON client (location_id, row_version);
+CREATE INDEX idx_blog_publish_date ON blog (location_id, publish_date);
+CREATE INDEX idx_blog_client_name ON blog (location_id, client_name);
+CREATE INDEX idx_blog_row_version ON blog (location_id, row_version);
+CREATE INDEX idx_sync_tombstone_table_version ON sync_tombstone (location_id, table_name, row_version);
+-- idx_client_visit_date stays as it is: the reminder scheduler reads the visits of all locations
@@ -0,0 +1,20 @@
+-- Cold storage for old visits (VisitArchiver): visits older than barbershop.archive.horizon are moved here in
+-- batches at night, so that the client table, its indexes and its cached queries only hold recent visits.
+-- A row keeps the id, location and sync version it had in the client table.
+
+CREATE TABLE client_archive (
+    id BIGINT NOT NULL,
+    full_name VARCHAR(255),
+    visit_date VARCHAR(255),
+    service VARCHAR(255),
+    master_name VARCHAR(255),
+    visit_status VARCHAR(16),
+    updated_at DATETIME(6),
+    row_version BIGINT,
+    location_id BIGINT DEFAULT 1 NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- the history of a location, newest visits first
+CREATE INDEX idx_client_archive_location_visit ON client_archive (location_id, visit_date);
@@ -0,0 +1,7 @@
+-- The in-memory change consumers (search indexes, reminders, caches) run on every node, and each node stores how
+-- far its own ones have read the change outbox under "consumer@node", refreshed every heartbeat. The outbox is
+-- only pruned below the lowest position of the durable consumers and of the nodes heard from recently
+-- (see ChangeEventDispatcher). Durable consumers keep one row with no node.
+
+ALTER TABLE change_consumer_offset ADD COLUMN node_id VARCHAR(64);
+ALTER TABLE change_consumer_offset ADD COLUMN updated_at DATETIME(6);
@@ -0,0 +1,246 @@
+package com.example;
+
+import com.example.archive.ArchivedVisitRepository;
+import com.example.blog.BlogRepository;
+import com.example.client.ClientRepository;
+import com.example.config.UserInfoRepository;
+import com.example.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the statements of the ClientRepository, BlogRepository, UserInfoRepository and
+ * ArchivedVisitRepository queries against the schema built by the migrations, and fails when a query that should use an index reads the whole table.
+ * The bound parameters are written into the explained statement, as the MySQL driver sends them.
+ * Searches matching anywhere in a value (LIKE '%keyword%') cannot use an index and are expected to scan.
+ * Requests query with the location filter enabled (see TenantJpaDialect), so the queries are explained with it.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+	private static final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+	@Autowired
+	private ClientRepository clients;
+
+	@Autowired
+	private BlogRepository blogs;
+
+	@Autowired
+	private UserInfoRepository users;
+
+	@Autowired
+	private ArchivedVisitRepository archive;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private final List<String> failures = new ArrayList<>();
+
+	private final Map<String, List<String>> scans = new TreeMap<>();
+
+	@Test
+	void indexedQueriesDoNotScanTheTable() {
+		// read by the reminder scheduler, which works for all locations
+		expectIndex("ClientRepository.findVisitTimesFrom", "IDX_CLIENT_VISIT_DATE",
+				() -> clients.findVisitTimesFrom("2023-04-15 00:00"));
+		// read by the visit archiver, which also works for all locations
+		expectIndex("ArchivedVisitRepository.findArchivableIds", "IDX_CLIENT_VISIT_DATE",
+				() -> archive.findArchivableIds("2022-04-15 00:00", PageRequest.of(0, 500)));
+
+		entityManager.unwrap(Session.class).enableFilter(TenantContext.FILTER)
+				.setParameter(TenantContext.FILTER_PARAMETER, TenantContext.DEFAULT_LOCATION);
+		expectIndex("ClientRepository.findById", "PRIMARY_KEY", () -> clients.findById(1L));
+		expectIndex("ClientRepository.reassignMaster", "IDX_CLIENT_MASTER_VISIT",
+				() -> clients.reassignMaster(1L, "Master 1", "Master 2", "2023-04-15 00:00", 2L, Instant.now()));
+		expectIndex("ClientRepository.renameService", "IDX_CLIENT_SERVICE",
+				() -> clients.renameService(1L, "Haircut", "Fade", 2L, Instant.now()));
+		expectIndex("ClientRepository.findVersionsAfter", "IDX_CLIENT_ROW_VERSION",
+				() -> clients.findVersionsAfter(5, PageRequest.of(0, 100)));
+		expectIndex("ClientRepository.findChanged", "IDX_CLIENT_ROW_VERSION", () -> clients.findChanged(5, 10));
+		expectIndex("ClientRepository.findByFullNames", "IDX_CLIENT_FULL_NAME",
+				() -> clients.findByFullNames(List.of("Anna", "Boris")));
+		expectIndex("ClientRepository.findVisitsOfMaster", "IDX_CLIENT_MASTER_VISIT",
+				() -> clients.findVisitsOfMaster("Master 1", "2023-04-15 00:00", PageRequest.of(0, 20)));
+		expectIndex("ClientRepository.countByMaster", "IDX_CLIENT_MASTER_VISIT", () -> clients.countByMaster("Master 1"));
+		expectScan("ClientRepository.findMasterNames", () -> clients.findMasterNames());
+		expectScan("ClientRepository.search", () -> clients.search(1L, "Haircut"));
+		expectIndex("ClientRepository.findAllAt", "IDX_CLIENT_LOCATION", () -> clients.findAllAt(1L));
+		expectIndex("ArchivedVisitRepository.findLatestAt", "IDX_CLIENT_ARCHIVE_LOCATION_VISIT",
+				() -> archive.findLatestAt(1L, PageRequest.of(0, 500)));
+
+		expectIndex("BlogRepository.findByClientNames", "IDX_BLOG_CLIENT_NAME",
+				() -> blogs.findByClientNames(List.of("Anna", "Boris")));
+		expectIndex("BlogRepository.findPageAfter", "IDX_BLOG_LOCATION", () -> blogs.findPageAfter(10, PageRequest.of(0, 20)));
+		expectIndex("BlogRepository.findVersionsAfter", "IDX_BLOG_ROW_VERSION",
+				() -> blogs.findVersionsAfter(5, PageRequest.of(0, 100)));
+		expectIndex("BlogRepository.findChanged", "IDX_BLOG_ROW_VERSION", () -> blogs.findChanged(5, 10));
+		expectScan("BlogRepository.searchPostById", () -> blogs.searchPostById(1L, "1"));
+		expectScan("BlogRepository.searchPostByName", () -> blogs.searchPostByName(1L, "review"));
+		expectScan("BlogRepository.searchPostByText", () -> blogs.searchPostByText(1L, "review"));
+		expectScan("BlogRepository.searchPostByDate", () -> blogs.searchPostByDate(1L, "04-15"));
+		expectScan("BlogRepository.searchPostByClient_name", () -> blogs.searchPostByClient_name(1L, "Anna"));
+		expectScan("BlogRepository.searchPostByKeyword", () -> blogs.searchPostByKeyword(1L, "review"));
+		expectIndex("BlogRepository.findAllAt", "IDX_BLOG_LOCATION", () -> blogs.findAllAt(1L));
+
+		expectIndex("UserInfoRepository.findByName", "UK_USER_INFO_NAME", () -> users.findByName("anna"));
+		expectIndex("UserInfoRepository.existsByName", "UK_USER_INFO_NAME", () -> users.existsByName("anna"));
+
+		assertThat(failures).as("scanning queries: %s", scans).isEmpty();
+	}
+
+	private void expectIndex(String query, String index, Runnable call) {
+		List<String> plans = explain(call);
+		if (plans.isEmpty()) {
+			failures.add(query + ": no statement was executed");
+		}
+		for (String plan : plans) {
+			if (plan.contains("tableScan") || !plan.toUpperCase().contains(index)) {
+				failures.add(query + ": expected " + index + " in " + plan);
+			}
+		}
+	}
+
+	/**
+	 * Records the plans of a query that is allowed to read the whole table, so that they are reported with any failure.
+	 */
+	private void expectScan(String query, Runnable call) {
+		List<String> plans = explain(call);
+		if (plans.isEmpty()) {
+			failures.add(query + ": no statement was executed");
+		}
+		scans.put(query, plans);
+	}
+
+	/**
+	 * Runs a repository call with empty caches and returns the plans of the statements it executed.
+	 */
+	private List<String> explain(Runnable call) {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		statements.clear();
+		call.run();
+		List<String> plans = new ArrayList<>();
+		for (RecordedStatement statement : statements) {
+			String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement.withParameters(), String.class);
+			plans.add(plan);
+		}
+		return plans;
+	}
+
+	/**
+	 * A prepared statement and the values bound to it.
+	 */
+	record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+
+		String withParameters() {
+			StringBuilder sql = new StringBuilder();
+			int index = 0;
+			for (char c : this.sql.toCharArray()) {
+				if (c == '?') {
+					sql.append(literal(parameters.get(++index)));
+				} else {
+					sql.append(c);
+				}
+			}
+			return sql.toString();
+		}
+
+		private static String literal(Object value) {
+			if (value == null) {
+				return "NULL";
+			}
+			if (value instanceof Number || value instanceof Boolean) {
+				return value.toString();
+			}
+			return "'" + value.toString().replace("'", "''") + "'";
+		}
+	}
+
+	@TestConfiguration
+	static class RecordingDataSourceConfig {
+
+		/**
+		 * Wraps the data source so that every SELECT, UPDATE and DELETE the repositories prepare is recorded.
+		 */
+		@Bean
+		static BeanPostProcessor recordingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, T target) {
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+				Object result = invoke(method, target, args);
+				if (result instanceof Connection connection) {
+					return proxy(Connection.class, connection);
+				}
+				if (result instanceof PreparedStatement preparedStatement && args[0] instanceof String sql
+						&& sql.trim().toLowerCase().matches("(?s)(select|update|delete)\\b.*")) {
+					return recording(preparedStatement, sql);
+				}
+				return result;
+			});
+		}
+
+		private static PreparedStatement recording(PreparedStatement target, String sql) {
+			RecordedStatement statement = new RecordedStatement(sql, new TreeMap<>());
+			statements.add(statement);
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+						if (method.getName().startsWith("set") && args != null && args.length >= 2
+								&& args[0] instanceof Integer index) {
+							statement.parameters().put(index, method.getName().equals("setNull") ? null : args[1]);
+						}
+						return invoke(method, target, args);
+					});
+		}
+
+		private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts a skewed stream of service names and checks the Count-Min guarantees: no value is ever under-counted,
+ * and over-counts stay within epsilon * N (epsilon = e / WIDTH, about 1%) for all but a delta = e^-DEPTH share
+ * of the values. The heavy hitters are the real most popular services, also after a merge.
+ */
+class CountMinSketchTest {
+
+	private static final double EPSILON = Math.E / CountMinSketch.WIDTH;
+	private static final double DELTA = Math.exp(-CountMinSketch.DEPTH);
+
+	@Test
+	void neverUnderCountsAndOverCountsByAtMostEpsilonN() {
+		CountMinSketch sketch = new CountMinSketch();
+		Map<String, Long> exact = new HashMap<>();
+		Random random = new Random(7);
+		int n = 100_000;
+		for (int i = 0; i < n; i++) {
+			// a Zipf-like mix: a few services make up most visits, many are rare
+			String service = "service " + (int) Math.floor(Math.pow(2000, random.nextDouble()));
+			sketch.add(service);
+			exact.merge(service, 1L, Long::sum);
+		}
+		assertThat(sketch.total()).isEqualTo(n);
+
+		int outsideBound = 0;
+		for (Map.Entry<String, Long> entry : exact.entrySet()) {
+			long estimate = sketch.estimate(entry.getKey());
+			assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+			if (estimate - entry.getValue() > EPSILON * n) {
+				outsideBound++;
+			}
+		}
+		assertThat(outsideBound).isLessThanOrEqualTo((int) Math.ceil(DELTA * exact.size()));
+	}
+
+	@Test
+	void topReturnsTheMostPopularServicesAfterAMerge() {
+		CountMinSketch january = new CountMinSketch();
+		CountMinSketch february = new CountMinSketch();
+		for (int i = 0; i < 500; i++) {
+			january.add("Haircut");
+			february.add(i % 2 == 0 ? "Beard trim" : "Haircut");
+			january.add("rare " + i);
+			february.add("rare " + (i + 500));
+		}
+		for (int i = 0; i < 300; i++) {
+			february.add("Shave");
+		}
+		january.merge(CountMinSketch.fromBytes(february.toBytes()));
+
+		assertThat(january.top(3)).extracting(Map.Entry::getKey).containsExactly("Haircut", "Shave", "Beard trim");
+		assertThat(january.estimate("Haircut")).isBetween(750L, (long) (750 + EPSILON * january.total()));
+	}
+}
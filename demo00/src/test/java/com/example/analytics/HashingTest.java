@@ -0,0 +1,46 @@
+package com.example.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hash the sketches rely on is stable and well mixed: a one-character change flips about half
+ * of the output bits, and similar names spread evenly over the buckets of a small table.
+ */
+class HashingTest {
+
+	@Test
+	void isStableAndTreatsNullAsEmpty() {
+		assertThat(Hashing.hash64("Haircut")).isEqualTo(Hashing.hash64("Haircut"));
+		assertThat(Hashing.hash64(null)).isEqualTo(Hashing.hash64(""));
+		assertThat(Hashing.hash64("Haircut")).isNotEqualTo(Hashing.hash64("haircut"));
+	}
+
+	@Test
+	void oneCharacterChangeFlipsAboutHalfTheBits() {
+		long flipped = 0;
+		int pairs = 10_000;
+		for (int i = 0; i < pairs; i++) {
+			flipped += Long.bitCount(Hashing.hash64("client " + i + 'a') ^ Hashing.hash64("client " + i + 'b'));
+		}
+		assertThat(flipped / (double) pairs).isBetween(30.0, 34.0);
+	}
+
+	@Test
+	void similarNamesSpreadEvenlyOverBuckets() {
+		int buckets = 64;
+		int names = 64_000;
+		int[] counts = new int[buckets];
+		for (int i = 0; i < names; i++) {
+			counts[(int) (Hashing.hash64("Master " + i) >>> 58)]++;
+		}
+		double expected = names / (double) buckets;
+		double chiSquare = 0;
+		for (int count : counts) {
+			chiSquare += (count - expected) * (count - expected) / expected;
+		}
+		// 63 degrees of freedom, the 99.9th percentile is about 103
+		assertThat(chiSquare).isLessThan(103.0);
+	}
+}
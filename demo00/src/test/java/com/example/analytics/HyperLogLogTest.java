@@ -0,0 +1,59 @@
+package com.example.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the distinct client names of sets of different sizes and checks the estimates against the standard
+ * error of 2^12 registers (1.04 / sqrt(4096), about 1.6%), and that merging sketches counts shared names once.
+ */
+class HyperLogLogTest {
+
+	@Test
+	void estimatesAreWithinTheStandardErrorOfTwelveBitPrecision() {
+		double totalError = 0;
+		int runs = 0;
+		for (int distinct : new int[]{1_000, 10_000, 50_000, 200_000}) {
+			for (int run = 0; run < 5; run++) {
+				HyperLogLog sketch = new HyperLogLog();
+				for (int i = 0; i < distinct; i++) {
+					String name = "client " + run + '-' + i;
+					sketch.add(name);
+					// repeated visits of the same client are not counted again
+					sketch.add(name);
+				}
+				double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+				// three standard errors for a single estimate
+				assertThat(error).isLessThan(0.05);
+				totalError += error;
+				runs++;
+			}
+		}
+		assertThat(totalError / runs).isLessThan(0.02);
+	}
+
+	@Test
+	void smallSetsAreCountedAlmostExactly() {
+		HyperLogLog sketch = new HyperLogLog();
+		assertThat(sketch.estimate()).isZero();
+		for (int i = 0; i < 100; i++) {
+			sketch.add("client " + i);
+		}
+		assertThat(sketch.estimate()).isBetween(98L, 102L);
+	}
+
+	@Test
+	void mergedSketchesCountSharedValuesOnce() {
+		HyperLogLog january = new HyperLogLog();
+		HyperLogLog february = new HyperLogLog();
+		for (int i = 0; i < 30_000; i++) {
+			january.add("client " + i);
+		}
+		for (int i = 20_000; i < 50_000; i++) {
+			february.add("client " + i);
+		}
+		january.merge(HyperLogLog.fromBytes(february.toBytes()));
+		assertThat(Math.abs(january.estimate() - 50_000) / 50_000.0).isLessThan(0.05);
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the percentiles of a day of visit times with the exact ones: each answer is the middle of the
+ * five-minute bin holding the exact percentile, so it is never more than half a bin away from it.
+ */
+class TimeOfDaySketchTest {
+
+	@Test
+	void percentilesAreWithinHalfABinOfTheExactOnes() {
+		TimeOfDaySketch sketch = new TimeOfDaySketch();
+		List<LocalTime> times = new ArrayList<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 20_000; i++) {
+			// most visits between 10:00 and 19:00, peaking in the afternoon
+			int minute = (int) Math.min(24 * 60 - 1, Math.max(0, 15 * 60 + random.nextGaussian() * 150));
+			LocalTime time = LocalTime.of(minute / 60, minute % 60);
+			sketch.add(time);
+			times.add(time);
+		}
+		Collections.sort(times);
+
+		for (double quantile : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+			LocalTime exact = times.get((int) Math.ceil(quantile * times.size()) - 1);
+			LocalTime estimate = sketch.quantile(quantile);
+			long minutes = Math.abs(Duration.between(exact, estimate).toMinutes());
+			assertThat(minutes).isLessThanOrEqualTo(TimeOfDaySketch.BIN_MINUTES / 2);
+		}
+	}
+
+	@Test
+	void mergedSketchesAddTheirBins() {
+		TimeOfDaySketch morning = new TimeOfDaySketch();
+		TimeOfDaySketch evening = new TimeOfDaySketch();
+		assertThat(morning.quantile(0.5)).isNull();
+		for (int i = 0; i < 100; i++) {
+			morning.add(LocalTime.of(9, 0));
+			evening.add(LocalTime.of(18, 0));
+		}
+		morning.merge(TimeOfDaySketch.fromBytes(evening.toBytes()));
+
+		assertThat(morning.count()).isEqualTo(200);
+		assertThat(morning.quantile(0.25)).isEqualTo(LocalTime.of(9, 2));
+		assertThat(morning.quantile(0.75)).isEqualTo(LocalTime.of(18, 2));
+	}
+}
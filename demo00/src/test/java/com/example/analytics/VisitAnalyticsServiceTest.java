@@ -0,0 +1,75 @@
+package com.example.analytics;
+
+import com.example.client.Client;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records the visits of one master and month from several threads at once: every visit ends up in the one
+ * sketch row, none is lost to a concurrent update and no thread fails on the unique key.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VisitAnalyticsServiceTest {
+
+	@Autowired
+	private VisitAnalyticsService analyticsService;
+
+	@Autowired
+	private VisitSketchRepository sketchRepository;
+
+	@Test
+	void concurrentVisitsOfOneMasterAndMonthAreAllRecorded() throws Exception {
+		String master = "Master " + UUID.randomUUID();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> writers = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				int first = thread * 25;
+				writers.add(pool.submit(() -> {
+					start.await();
+					for (int i = first; i < first + 25; i++) {
+						analyticsService.record(visit(master, "Client " + i));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		YearMonth month = YearMonth.of(2023, 6);
+		// 200 distinct clients, which a 2^12 register HyperLogLog counts almost exactly
+		assertThat(analyticsService.uniqueClients(master, month, month)).isBetween(196L, 204L);
+		assertThat(analyticsService.topServices(master, month, month, 1).get(0).getValue()).isGreaterThanOrEqualTo(200L);
+		assertThat(sketchRepository.findInRangeByMaster(master, month.toString(), month.toString())).hasSize(1);
+		sketchRepository.deleteAll(sketchRepository.findInRangeByMaster(master, month.toString(), month.toString()));
+	}
+
+	private static Client visit(String master, String name) {
+		Client client = new Client();
+		client.setFull_name(name);
+		client.setVisit_date("2023-06-01 10:00");
+		client.setService("Haircut");
+		client.setMaster_name(master);
+		return client;
+	}
+}
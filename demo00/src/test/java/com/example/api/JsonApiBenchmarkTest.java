@@ -0,0 +1,139 @@
+package com.example.api;
+
+import com.example.blog.Blog;
+import com.example.blog.BlogRepository;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares the /api endpoints with the HAL documents Spring Data REST exports for the same repositories:
+ * payload size and time to serve the full list of clients and of posts.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+@Transactional
+class JsonApiBenchmarkTest {
+
+	private static final int ROWS = 500;
+	private static final int RUNS = 20;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@BeforeEach
+	void seed() {
+		List<Client> clients = new ArrayList<>();
+		List<Blog> posts = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			Client client = new Client();
+			client.setFull_name("Client " + i);
+			client.setVisit_date("2023-04-" + (10 + i % 20) + " 1" + (i % 10) + ":00");
+			client.setService(i % 2 == 0 ? "Haircut" : "Beard trim");
+			client.setMaster_name("Master " + (i % 3));
+			clients.add(client);
+
+			Blog post = new Blog();
+			post.setPost_name("Post " + i);
+			post.setClient_name("Client " + i);
+			post.setPublish_date("2023-04-20 12:00");
+			post.setText(("Review number " + i + ". ").repeat(12));
+			posts.add(post);
+		}
+		clientRepository.saveAll(clients);
+		blogRepository.saveAll(posts);
+	}
+
+	@Test
+	void leanListsAreSmallerThanHal() throws Exception {
+		// all rows fit into one HAL page, so both responses hold the same rows
+		Result halClients = measure("/clients?size=1000");
+		Result apiClients = measure("/api/clients");
+		Result halPosts = measure("/blogs?size=1000");
+		Result apiPosts = measure("/api/posts");
+		System.out.printf("clients: HAL %d bytes in %.2f ms, /api %d bytes in %.2f ms%n",
+				halClients.bytes, halClients.millis, apiClients.bytes, apiClients.millis);
+		System.out.printf("posts: HAL %d bytes in %.2f ms, /api %d bytes in %.2f ms%n",
+				halPosts.bytes, halPosts.millis, apiPosts.bytes, apiPosts.millis);
+
+		assertThat(objectMapper.readValue(apiClients.body, ClientSummary[].class).length)
+				.isEqualTo(objectMapper.readTree(halClients.body).at("/_embedded/clients").size());
+		assertThat(objectMapper.readValue(apiPosts.body, PostSummary[].class).length)
+				.isEqualTo(objectMapper.readTree(halPosts.body).at("/_embedded/blogs").size());
+		assertThat(apiClients.bytes).isLessThan(halClients.bytes);
+		// the post text is left out of the list
+		assertThat(apiPosts.bytes * 2).isLessThan(halPosts.bytes);
+	}
+
+	@Test
+	void returnsOnlyTheRequestedFields() throws Exception {
+		byte[] body = mockMvc.perform(get("/api/posts").param("fields", "post_id,text"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+		JsonNode first = objectMapper.readTree(body).get(0);
+		List<String> names = new ArrayList<>();
+		first.fieldNames().forEachRemaining(names::add);
+		assertThat(names).containsExactly("post_id", "text");
+		assertThat(first.get("text").asText()).startsWith("Review number");
+
+		long id = first.get("post_id").asLong();
+		JsonNode one = objectMapper.readTree(mockMvc.perform(get("/api/posts/" + id).param("fields", "post_name"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray());
+		assertThat(one.get("post_name").asText()).startsWith("Post ");
+		assertThat(one.size()).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsUnknownFieldsAndIds() throws Exception {
+		mockMvc.perform(get("/api/clients").param("fields", "id,password")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/clients/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+	}
+
+	private Result measure(String url) throws Exception {
+		byte[] body = null;
+		double[] millis = new double[RUNS];
+		for (int i = -5; i < RUNS; i++) {
+			long start = System.nanoTime();
+			body = mockMvc.perform(get(url)).andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsByteArray();
+			if (i >= 0) {
+				millis[i] = (System.nanoTime() - start) / 1e6;
+			}
+		}
+		Arrays.sort(millis);
+		return new Result(body, body.length, millis[RUNS / 2]);
+	}
+
+	private record Result(byte[] body, int bytes, double millis) {
+	}
+}
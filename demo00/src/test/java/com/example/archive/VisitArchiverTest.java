@@ -0,0 +1,135 @@
+package com.example.archive;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.search.AutocompleteIndex;
+import com.example.search.PrefixTrie;
+import com.example.search.TrigramIndex;
+import com.example.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archives two old visits one batch at a time, and checks that the current listing no longer shows them, also when
+ * it was cached before, while "include history" still finds them. The search indexes drop archived visits once
+ * the batch's change event reaches them.
+ */
+@SpringBootTest(properties = {"barbershop.archive.batch-size=1", "barbershop.archive.enabled=false"})
+@ActiveProfiles("test")
+class VisitArchiverTest {
+	private static final String HORIZON = "2001-01-01 00:00";
+
+	@Autowired
+	private VisitArchiver archiver;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private ArchivedVisitRepository archive;
+
+	@Autowired
+	private TrigramIndex trigramIndex;
+
+	@Autowired
+	private AutocompleteIndex autocompleteIndex;
+
+	private final String service = "Archive " + UUID.randomUUID();
+	private final List<Long> ids = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		clientRepository.deleteAllById(clientRepository.findAllById(ids).stream().map(Client::getId).toList());
+		archive.deleteAllById(archive.findAllById(ids).stream().map(ArchivedVisit::getId).toList());
+	}
+
+	@Test
+	void movesOldVisitsInResumableBatches() {
+		Client oldest = save("2000-01-01 10:00");
+		Client old = save("2000-06-01 10:00");
+		Client recent = save("2030-01-01 10:00");
+		assertThat(clientService.listAll(service)).hasSize(3); // now in the query cache
+
+		// a run whose time is up still moves one batch, and stops there
+		assertThat(archiver.archive(HORIZON, Instant.now())).isEqualTo(1);
+		assertThat(clientRepository.findById(oldest.getId())).isEmpty();
+		assertThat(clientRepository.findById(old.getId())).isPresent();
+
+		// the next run starts from the oldest visit left
+		assertThat(archiver.archive(HORIZON, Instant.now().plusSeconds(60))).isEqualTo(1);
+		assertThat(archiver.archive(HORIZON, Instant.now().plusSeconds(60))).isZero();
+
+		assertThat(clientService.listAll(service)).extracting(Client::getId).containsExactly(recent.getId());
+		List<Client> withHistory = clientService.listAll(service, true);
+		assertThat(withHistory).extracting(Client::getId).containsExactly(recent.getId(), old.getId(), oldest.getId());
+		assertThat(withHistory.get(0).getArchived_at()).isNull();
+		assertThat(withHistory.get(1).getArchived_at()).isNotNull();
+		assertThat(withHistory.get(2).getFull_name()).isEqualTo(oldest.getFull_name());
+		assertThat(withHistory.get(2).getLocation_id()).isEqualTo(oldest.getLocation_id());
+	}
+
+	@Test
+	void archivedVisitsLeaveTheSearchIndexes() {
+		String name = "Archived " + UUID.randomUUID();
+		Client old = save(name, "2000-01-01 10:00");
+		await(() -> indexed(name).contains(old.getId()) && !suggested(name).isEmpty());
+		assertThat(clientService.fuzzySearch(name, 0)).extracting(Client::getId).containsExactly(old.getId());
+
+		assertThat(archiver.archive(HORIZON, Instant.now().plusSeconds(60))).isPositive();
+
+		await(() -> indexed(name).isEmpty() && suggested(name).isEmpty());
+		assertThat(clientService.fuzzySearch(name, 0)).isEmpty();
+	}
+
+	private List<Long> indexed(String name) {
+		return trigramIndex.search(TenantContext.DEFAULT_LOCATION, name, 0, 10).stream()
+				.map(TrigramIndex.Match::id).toList();
+	}
+
+	private List<PrefixTrie.Completion> suggested(String name) {
+		return autocompleteIndex.complete(TenantContext.DEFAULT_LOCATION, AutocompleteIndex.Field.FULL_NAME, name, 10);
+	}
+
+	private Client save(String visitDate) {
+		return save("Client " + visitDate, visitDate);
+	}
+
+	private Client save(String fullName, String visitDate) {
+		Client client = new Client();
+		client.setFull_name(fullName);
+		client.setVisit_date(visitDate);
+		client.setService(service);
+		client.setMaster_name("Master 1");
+		clientService.save(client);
+		ids.add(client.getId());
+		return client;
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
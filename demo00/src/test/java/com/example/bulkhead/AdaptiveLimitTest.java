@@ -0,0 +1,86 @@
+package com.example.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives an adaptive limit with windows of fast and slow requests and checks that it grows only under load, backs
+ * off when the latency rises and never leaves its bounds.
+ */
+class AdaptiveLimitTest {
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+	@Test
+	void rejectsAboveTheLimitWithoutWaiting() {
+		AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 2.0, 0.5, 10);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isFalse();
+		assertThat(limit.rejected()).isEqualTo(1);
+
+		limit.release(FAST);
+		assertThat(limit.inFlight()).isEqualTo(1);
+		assertThat(limit.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void growsWhileTheLatencyHoldsAndShrinksWhenItRises() {
+		AdaptiveLimit limit = new AdaptiveLimit(4, 2, 6, 2.0, 0.5, 4);
+
+		runWindows(limit, 4, FAST);
+		assertThat(limit.limit()).isEqualTo(6);
+
+		runWindows(limit, 1, SLOW);
+		assertThat(limit.limit()).isEqualTo(3);
+		runWindows(limit, 3, SLOW);
+		assertThat(limit.limit()).isEqualTo(2);
+		assertThat(limit.lastAverageNanos()).isEqualTo(SLOW);
+
+		runWindows(limit, 2, FAST);
+		assertThat(limit.limit()).isEqualTo(4);
+	}
+
+	@Test
+	void doesNotGrowWithoutDemand() {
+		AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20, 2.0, 0.5, 4);
+
+		for (int i = 0; i < 40; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(FAST);
+		}
+
+		assertThat(limit.limit()).isEqualTo(10);
+	}
+
+	@Test
+	void rejectsInvalidSettings() {
+		assertThatThrownBy(() -> new AdaptiveLimit(4, 0, 6, 2.0, 0.5, 4)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new AdaptiveLimit(4, 2, 6, 1.0, 0.5, 4)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new AdaptiveLimit(4, 2, 6, 2.0, 1.0, 4)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Completes windows of requests that all run at once, up to the window size or the limit.
+	 */
+	private static void runWindows(AdaptiveLimit limit, int windows, long latencyNanos) {
+		for (int w = 0; w < windows; w++) {
+			int completed = 0;
+			while (completed < 4) {
+				int running = 0;
+				while (running < 4 - completed && limit.tryAcquire()) {
+					running++;
+				}
+				for (int i = 0; i < running; i++) {
+					limit.release(latencyNanos);
+				}
+				completed += running;
+			}
+		}
+	}
+}
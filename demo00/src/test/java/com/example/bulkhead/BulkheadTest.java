@@ -0,0 +1,126 @@
+package com.example.bulkhead;
+
+import com.example.config.UserInfo;
+import com.example.config.UserInfoRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Slows the database down (see SlowDatabase) until the read bulkhead is full, and checks that further reads are
+ * turned away at once with 503 and Retry-After while a static page is still served. The requests carry the session
+ * cookie of a real form login, so the session is read from the slow session store as in production.
+ */
+@SpringBootTest(properties = {"barbershop.bulkheads.reads.initial=2", "barbershop.bulkheads.reads.min=1",
+		"barbershop.bulkheads.reads.max=2", "barbershop.password.target-millis=1",
+		"barbershop.session.static-lookup-timeout=100ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SlowDatabase.class)
+class BulkheadTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BulkheadFilter bulkheadFilter;
+
+	@Autowired
+	private UserInfoRepository users;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@AfterEach
+	void speedUp() {
+		SlowDatabase.setLatency(Duration.ZERO);
+	}
+
+	@Test
+	void fullReadBulkheadShedsReadsButServesStaticPages() throws Exception {
+		String name = "anna-" + UUID.randomUUID();
+		Cookie session = login(name);
+		// the page of this user is rendered, and the session read, while the database is fast
+		assertThat(aboutUs(session).getContentAsString()).contains(name);
+
+		SlowDatabase.setLatency(Duration.ofMillis(500));
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<MvcResult>> slowReads = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				// a keyword of its own, so that the page is not served from the caches
+				String keyword = "slow " + UUID.randomUUID();
+				slowReads.add(pool.submit(() -> mockMvc.perform(get("/").param("keyword", keyword).cookie(session))
+						.andReturn()));
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (inFlight(EndpointClass.READS) < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(inFlight(EndpointClass.READS)).isEqualTo(2);
+
+			long start = System.nanoTime();
+			mockMvc.perform(get("/blog").cookie(session))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+			// reading the session alone would take 500 ms, the static page does not wait for it
+			start = System.nanoTime();
+			MockHttpServletResponse about = aboutUs(session);
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+			assertThat(about.getStatus()).isEqualTo(200);
+			assertThat(about.getContentAsString()).contains(name);
+			assertThat(about.getCookie("SESSION")).isNull();
+
+			for (Future<MvcResult> read : slowReads) {
+				assertThat(read.get().getResponse().getStatus()).isEqualTo(200);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(bulkheadFilter.stats().get(EndpointClass.READS.name()).get("rejected")).isEqualTo(1);
+		assertThat(inFlight(EndpointClass.READS)).isZero();
+	}
+
+	private Cookie login(String name) throws Exception {
+		users.save(new UserInfo(0, name, passwordEncoder.encode("secret"), "ROLE_ADMIN", 1L));
+		Cookie session = mockMvc.perform(formLogin("/login_page").user(name).password("secret"))
+				.andReturn().getResponse().getCookie("SESSION");
+		assertThat(session).isNotNull();
+		return session;
+	}
+
+	// the dispatcher servlet is mapped to "/", so the servlet path is the whole path, as StaticPageFilter expects
+	private MockHttpServletResponse aboutUs(Cookie session) throws Exception {
+		return mockMvc.perform(get("/about_us").servletPath("/about_us").cookie(session)).andReturn().getResponse();
+	}
+
+	private long inFlight(EndpointClass endpointClass) {
+		return bulkheadFilter.stats().get(endpointClass.name()).get("inFlight");
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.bulkhead;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Test harness that makes the local database stand-in (H2) as slow as a struggling MySQL: imported into a test
+ * context, it wraps the data source so that every statement waits for the configured latency before it executes.
+ * The latency is shared by all threads and can be changed while requests are running.
+ */
+@TestConfiguration
+public class SlowDatabase {
+
+	private static volatile Duration latency = Duration.ZERO;
+
+	/**
+	 * Sets the latency added to every statement from now on.
+	 * @param latency the latency, zero for none
+	 */
+	public static void setLatency(Duration latency) {
+		SlowDatabase.latency = latency;
+	}
+
+	@Bean
+	static BeanPostProcessor slowDataSource() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+			}
+		};
+	}
+
+	private static Object proxy(Class<?> type, Object target) {
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			if (target instanceof Statement && method.getName().startsWith("execute")) {
+				pause();
+			}
+			Object result = invoke(method, target, args);
+			if (result instanceof Connection connection) {
+				return proxy(Connection.class, connection);
+			}
+			if (result instanceof Statement statement && type == Connection.class) {
+				return proxy(statementType(statement), statement);
+			}
+			return result;
+		});
+	}
+
+	private static Class<?> statementType(Statement statement) {
+		if (statement instanceof CallableStatement) {
+			return CallableStatement.class;
+		}
+		if (statement instanceof PreparedStatement) {
+			return PreparedStatement.class;
+		}
+		return Statement.class;
+	}
+
+	private static void pause() throws InterruptedException {
+		Duration current = latency;
+		if (!current.isZero()) {
+			Thread.sleep(current.toMillis());
+		}
+	}
+
+	private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
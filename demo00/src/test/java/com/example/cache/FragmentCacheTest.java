@@ -0,0 +1,101 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills a fragment cache bounded to 100 bytes per location with 40-byte fragments: the least recently used one
+ * is evicted, other locations keep theirs, and a render during which the table was written to is returned but
+ * not stored.
+ */
+class FragmentCacheTest {
+
+	private final TableVersions tableVersions = new TableVersions();
+	private final FragmentCache cache = new FragmentCache();
+	private final AtomicInteger renders = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(cache, "tableVersions", tableVersions);
+		ReflectionTestUtils.setField(cache, "maxBytes", 100L);
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedFragmentsAboveTheByteLimit() {
+		cache.getOrRender(key(1, "a"), html(20));
+		cache.getOrRender(key(1, "b"), html(20));
+		cache.getOrRender(key(1, "a"), html(20));
+		cache.getOrRender(key(1, "c"), html(20));
+
+		assertThat(renders.get()).isEqualTo(3);
+		assertThat(cache.usedBytes(1)).isEqualTo(80);
+		cache.getOrRender(key(1, "a"), html(20));
+		assertThat(renders.get()).isEqualTo(3);
+		cache.getOrRender(key(1, "b"), html(20));
+		assertThat(renders.get()).isEqualTo(4);
+	}
+
+	@Test
+	void locationsAreBoundedSeparately() {
+		cache.getOrRender(key(1, "a"), html(20));
+		for (String keyword : new String[]{"a", "b", "c", "d"}) {
+			cache.getOrRender(key(2, keyword), html(20));
+		}
+
+		assertThat(cache.usedBytes(1)).isEqualTo(40);
+		assertThat(cache.usedBytes(2)).isEqualTo(80);
+		assertThat(cache.usedBytes()).isEqualTo(120);
+	}
+
+	@Test
+	void fragmentsLargerThanTheLimitAreNotStored() {
+		cache.getOrRender(key(1, "a"), html(51));
+
+		assertThat(cache.usedBytes(1)).isZero();
+	}
+
+	@Test
+	void aRenderThatRacedWithAWriteIsNotStored() {
+		Map<String, String> rendered = cache.getOrRender(key(1, "a"), () -> {
+			tableVersions.bump(TableVersions.CLIENT, 1);
+			return Map.of("rows", "stale rows");
+		});
+
+		assertThat(rendered).containsEntry("rows", "stale rows");
+		assertThat(cache.usedBytes(1)).isZero();
+		cache.getOrRender(key(1, "a"), html(20));
+		cache.getOrRender(key(1, "a"), html(20));
+		assertThat(renders.get()).isEqualTo(1);
+	}
+
+	@Test
+	void invalidationRemovesTheListingAndTheAffectedSearchesOnly() {
+		cache.getOrRender(new FragmentKey(TableVersions.CLIENT, 1, null, null, "ROLE_USER"), html(5));
+		cache.getOrRender(key(1, "anna"), html(5));
+		cache.getOrRender(key(1, "oleg"), html(5));
+
+		cache.invalidate(TableVersions.CLIENT, 1, (criterion, keyword) -> keyword.equals("anna"));
+
+		assertThat(cache.usedBytes(1)).isEqualTo(10);
+		cache.getOrRender(key(1, "oleg"), html(5));
+		assertThat(renders.get()).isEqualTo(3);
+	}
+
+	private static FragmentKey key(long location, String keyword) {
+		return new FragmentKey(TableVersions.CLIENT, location, "keyword", keyword, "ROLE_USER");
+	}
+
+	private Supplier<Map<String, String>> html(int length) {
+		return () -> {
+			renders.incrementAndGet();
+			return Map.of("rows", "x".repeat(length));
+		};
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.cache;
+
+import com.example.client.Client;
+import com.example.events.ChangeEvent;
+import com.example.events.ChangeEventPublisher;
+import com.example.events.ChangeOutboxEntry;
+import com.example.events.ChangeOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes a client change straight into the outbox, as another node would, without publishing it on this one:
+ * the dispatcher's catch-up brings it to this node, which bumps the client table version of the row's location
+ * and drops its cached fragments there.
+ */
+@SpringBootTest(properties = "barbershop.events.catch-up-interval-millis=100")
+@ActiveProfiles("test")
+class RemoteChangeInvalidatorTest {
+
+	@Autowired
+	private ChangeOutboxRepository outbox;
+
+	@Autowired
+	private ChangeEventPublisher publisher;
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Autowired
+	private FragmentCache fragmentCache;
+
+	@Test
+	void changesOfOtherNodesInvalidateThisNodesCaches() throws InterruptedException {
+		long location = 2;
+		FragmentKey listing = new FragmentKey(TableVersions.CLIENT, location, null, null, "ROLE_USER");
+		fragmentCache.getOrRender(listing, () -> Map.of("rows", "<tr></tr>"));
+		long version = tableVersions.version(TableVersions.CLIENT, location);
+		assertThat(fragmentCache.usedBytes(location)).isPositive();
+
+		Client client = new Client();
+		client.setId(1_000_001L);
+		client.setFull_name("Remote Client");
+		client.setLocation_id(location);
+		outbox.save(new ChangeOutboxEntry(null, TableVersions.CLIENT, ChangeEvent.Type.INSERT.name(), client.getId(),
+				null, publisher.snapshot(client), Instant.now()));
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (tableVersions.version(TableVersions.CLIENT, location) == version && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(tableVersions.version(TableVersions.CLIENT, location)).isGreaterThan(version);
+		assertThat(fragmentCache.usedBytes(location)).isZero();
+	}
+}
@@ -0,0 +1,102 @@
+package com.example.cache;
+
+import com.example.bulkhead.SlowDatabase;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slows the database down (see SlowDatabase) and lets four requests ask for the same listing at once: one query
+ * runs and the other three get its result. A listing asked for after a write sees the write.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SlowDatabase.class)
+class SingleFlightTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private SingleFlight singleFlight;
+
+	private final String service = "Shift change " + UUID.randomUUID();
+	private final List<Long> ids = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		SlowDatabase.setLatency(Duration.ZERO);
+		clientRepository.deleteAllById(ids);
+	}
+
+	@Test
+	void concurrentIdenticalListingsShareOneQuery() throws Exception {
+		Client first = save("First " + UUID.randomUUID());
+		long calls = counter("calls");
+		long coalesced = counter("coalesced");
+
+		SlowDatabase.setLatency(Duration.ofMillis(300));
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<List<Client>>> listings = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				listings.add(pool.submit(() -> {
+					start.await();
+					return clientService.listAll(service);
+				}));
+			}
+			start.countDown();
+			for (Future<List<Client>> listing : listings) {
+				assertThat(listing.get()).extracting(Client::getId).containsExactly(first.getId());
+			}
+		} finally {
+			pool.shutdownNow();
+			SlowDatabase.setLatency(Duration.ZERO);
+		}
+		assertThat(counter("calls") - calls).isEqualTo(4);
+		assertThat(counter("coalesced") - coalesced).isEqualTo(3);
+		assertThat(singleFlight.stats().get(TableVersions.CLIENT).get("in_flight")).isZero();
+
+		// nothing is kept once the query has finished
+		Client second = save("Second " + UUID.randomUUID());
+		assertThat(clientService.listAll(service)).extracting(Client::getId)
+				.containsExactlyInAnyOrder(first.getId(), second.getId());
+	}
+
+	private long counter(String name) {
+		return singleFlight.stats().getOrDefault(TableVersions.CLIENT, Map.of()).getOrDefault(name, 0L);
+	}
+
+	private Client save(String name) {
+		Client client = new Client();
+		client.setFull_name(name);
+		client.setVisit_date("2023-06-01 10:00");
+		client.setService(service);
+		client.setMaster_name("Master 1");
+		clientService.save(client);
+		ids.add(client.getId());
+		return client;
+	}
+}
@@ -0,0 +1,121 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Requests the prerendered pages: gzip is sent only to clients that accept it and both encodings answer their
+ * own ETag with 304, a user whose roles changed gets a page of the new roles, and past the variant cap the
+ * about_us of further users is rendered by the controller while the shared pages are still served from memory.
+ */
+@SpringBootTest(properties = "barbershop.static-pages.max-variants=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StaticPageFilterTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StaticPageFilter filter;
+
+	@BeforeEach
+	void forgetPages() {
+		((Map<?, ?>) ReflectionTestUtils.getField(filter, "pages")).clear();
+	}
+
+	@Test
+	void gzipIsNegotiatedAndEachEncodingHasItsOwnETag() throws Exception {
+		MockHttpServletResponse identity = mockMvc.perform(page("/login_page")).andReturn().getResponse();
+		MockHttpServletResponse gzip = mockMvc.perform(page("/login_page")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")).andReturn().getResponse();
+
+		assertThat(identity.getStatus()).isEqualTo(200);
+		assertThat(identity.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(gzip.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(gzip.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(gunzip(gzip.getContentAsByteArray())).isEqualTo(identity.getContentAsByteArray());
+		assertThat(gzip.getContentAsByteArray().length).isLessThan(identity.getContentAsByteArray().length);
+
+		String etag = identity.getHeader(HttpHeaders.ETAG);
+		String gzipEtag = gzip.getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotNull().isNotEqualTo(gzipEtag);
+		assertThat(mockMvc.perform(page("/login_page").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andReturn().getResponse().getStatus()).isEqualTo(304);
+		assertThat(mockMvc.perform(page("/login_page").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.header(HttpHeaders.IF_NONE_MATCH, gzipEtag)).andReturn().getResponse().getStatus()).isEqualTo(304);
+		// the identity bytes do not match what a gzip client has stored
+		assertThat(mockMvc.perform(page("/login_page").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse().getStatus()).isEqualTo(200);
+
+		MockHttpServletResponse error = mockMvc.perform(page("/login_page").param("error", ""))
+				.andReturn().getResponse();
+		assertThat(error.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+	}
+
+	@Test
+	void aUserWhoseRolesChangedGetsTheNewPage() throws Exception {
+		MockHttpServletResponse asUser = mockMvc.perform(page("/about_us").with(user("anna").roles("USER")))
+				.andReturn().getResponse();
+		String etag = asUser.getHeader(HttpHeaders.ETAG);
+		assertThat(asUser.getContentAsString()).contains("anna").contains("<span>USER</span>");
+
+		MockHttpServletResponse asAdmin = mockMvc.perform(page("/about_us").with(user("anna").roles("ADMIN"))
+				.header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+		assertThat(asAdmin.getStatus()).isEqualTo(200);
+		assertThat(asAdmin.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+		assertThat(asAdmin.getContentAsString()).contains("<span>ADMIN</span>");
+
+		MockHttpServletResponse otherUser = mockMvc.perform(page("/about_us").with(user("boris").roles("USER")))
+				.andReturn().getResponse();
+		assertThat(otherUser.getContentAsString()).contains("boris").doesNotContain("anna");
+	}
+
+	@Test
+	void usersBeyondTheVariantCapAreRenderedByTheController() throws Exception {
+		for (String name : new String[]{"anna", "boris"}) {
+			assertThat(mockMvc.perform(page("/about_us").with(user(name).roles("USER"))).andReturn().getResponse()
+					.getHeader(HttpHeaders.ETAG)).isNotNull();
+		}
+
+		MockHttpServletResponse third = mockMvc.perform(page("/about_us").with(user("clara").roles("USER")))
+				.andReturn().getResponse();
+		assertThat(third.getStatus()).isEqualTo(200);
+		assertThat(third.getHeader(HttpHeaders.ETAG)).isNull();
+		assertThat(third.getContentAsString()).contains("clara");
+
+		assertThat(mockMvc.perform(page("/about_us").with(user("anna").roles("USER"))).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG)).isNotNull();
+		assertThat(mockMvc.perform(page("/403").with(user("anna").roles("USER"))).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG)).isNotNull();
+	}
+
+	// the dispatcher servlet is mapped to "/", so the servlet path is the whole path, as the filter expects
+	private static MockHttpServletRequestBuilder page(String path) {
+		return get(path).servletPath(path);
+	}
+
+	private static byte[] gunzip(byte[] compressed) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return in.readAllBytes();
+		}
+	}
+}
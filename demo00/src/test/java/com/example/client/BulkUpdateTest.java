@@ -0,0 +1,149 @@
+package com.example.client;
+
+import com.example.cache.TableVersions;
+import com.example.events.ChangeEvent;
+import com.example.events.ChangeOutboxEntry;
+import com.example.events.ChangeOutboxRepository;
+import com.example.tenant.TenantContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reassigns a master and renames a service with one statement each: only the matching visits change (for a
+ * master, only the future ones), the outbox gets one bulk update event for the change instead of one event per
+ * row, and only administrators may run either change.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BulkUpdateTest {
+	private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ChangeOutboxRepository outbox;
+
+	@Test
+	void reassigningAMasterMovesOnlyTheFutureVisits() {
+		String from = "Master " + UUID.randomUUID();
+		String to = "Master " + UUID.randomUUID();
+		Client past = save(from, "Haircut", -30);
+		Client soon = save(from, "Haircut", 1);
+		Client later = save(from, "Beard trim", 30);
+		Client other = save("Master " + UUID.randomUUID(), "Haircut", 1);
+		long last = lastSequence();
+
+		assertThat(clientService.reassignMaster(from, to)).isEqualTo(2);
+
+		assertThat(clientService.get(past.getId()).getMaster_name()).isEqualTo(from);
+		assertThat(clientService.get(soon.getId()).getMaster_name()).isEqualTo(to);
+		assertThat(clientService.get(later.getId()).getMaster_name()).isEqualTo(to);
+		assertThat(clientService.get(other.getId()).getMaster_name()).isNotEqualTo(to);
+		assertThat(eventsAfter(last, Set.of(past.getId(), soon.getId(), later.getId(), other.getId()),
+				Client::getMaster_name)).isEmpty();
+		List<ChangeEvent.BulkUpdate> updates = bulkUpdatesAfter(last, from);
+		assertThat(updates).hasSize(1);
+		ChangeEvent.BulkUpdate update = updates.get(0);
+		assertThat(update.location()).isEqualTo(TenantContext.DEFAULT_LOCATION);
+		assertThat(update.column()).isEqualTo("master_name");
+		assertThat(update.to()).isEqualTo(to);
+		assertThat(update.since().compareTo(past.getVisit_date())).isPositive();
+		assertThat(update.since().compareTo(soon.getVisit_date())).isNegative();
+	}
+
+	@Test
+	void renamingAServiceChangesEveryVisitOfIt() {
+		String from = "Service " + UUID.randomUUID();
+		String to = "Service " + UUID.randomUUID();
+		Client past = save("Master 1", from, -30);
+		Client future = save("Master 2", from, 30);
+		Client other = save("Master 1", "Haircut", 30);
+		long last = lastSequence();
+
+		assertThat(clientService.renameService(from, to)).isEqualTo(2);
+		assertThat(clientService.renameService(from, to)).isZero();
+
+		assertThat(clientService.get(past.getId()).getService()).isEqualTo(to);
+		assertThat(clientService.get(future.getId()).getService()).isEqualTo(to);
+		assertThat(clientService.get(other.getId()).getService()).isEqualTo("Haircut");
+		assertThat(eventsAfter(last, Set.of(past.getId(), future.getId(), other.getId()), Client::getService)).isEmpty();
+		// the second rename changed nothing and recorded nothing
+		assertThat(bulkUpdatesAfter(last, from))
+				.containsExactly(new ChangeEvent.BulkUpdate(TenantContext.DEFAULT_LOCATION, "service", from, to, null));
+	}
+
+	@Test
+	void onlyAdministratorsRunBulkChanges() throws Exception {
+		String from = "Service " + UUID.randomUUID();
+		String to = "Service " + UUID.randomUUID();
+		Client client = save("Master 1", from, 30);
+
+		mockMvc.perform(post("/rename_service").param("from", from).param("to", to)
+				.with(user("anna").roles("USER"))).andExpect(status().isForbidden());
+		mockMvc.perform(post("/reassign_master").param("from", "Master 1").param("to", "Master 9")
+				.with(user("anna").roles("USER"))).andExpect(status().isForbidden());
+		assertThat(clientService.get(client.getId()).getService()).isEqualTo(from);
+		assertThat(clientService.get(client.getId()).getMaster_name()).isEqualTo("Master 1");
+
+		mockMvc.perform(post("/rename_service").param("from", from).param("to", to)
+				.with(user("anna").roles("ADMIN"))).andExpect(status().is3xxRedirection());
+		assertThat(clientService.get(client.getId()).getService()).isEqualTo(to);
+	}
+
+	private Client save(String master, String service, int daysFromNow) {
+		Client client = new Client();
+		client.setFull_name("Bulk client " + UUID.randomUUID());
+		client.setVisit_date(LocalDateTime.now().plusDays(daysFromNow).format(VISIT_DATE_FORMAT));
+		client.setService(service);
+		client.setMaster_name(master);
+		clientService.save(client);
+		return client;
+	}
+
+	private long lastSequence() {
+		return Objects.requireNonNullElse(outbox.findLastSequence(), 0L);
+	}
+
+	// the row events of the given clients that changed a field; the past visits also get their no-show marked meanwhile
+	private List<ChangeEvent> eventsAfter(long sequence, Set<Long> ids, Function<Client, String> field) {
+		return outbox.findAfter(sequence, PageRequest.of(0, 1000)).stream()
+				.map(ChangeOutboxEntry::toEvent)
+				.filter(event -> event.table().equals(TableVersions.CLIENT) && event.entityId() != null
+						&& ids.contains(event.entityId()))
+				.filter(event -> event.before(Client.class) == null || event.after(Client.class) == null
+						|| !field.apply(event.before(Client.class)).equals(field.apply(event.after(Client.class))))
+				.toList();
+	}
+
+	private List<ChangeEvent.BulkUpdate> bulkUpdatesAfter(long sequence, String from) {
+		return outbox.findAfter(sequence, PageRequest.of(0, 1000)).stream()
+				.map(ChangeOutboxEntry::toEvent)
+				.filter(event -> event.table().equals(TableVersions.CLIENT) && event.type() == ChangeEvent.Type.BULK_UPDATE)
+				.map(ChangeEvent::bulkUpdate)
+				.filter(update -> update.from().equals(from))
+				.toList();
+	}
+}
@@ -0,0 +1,22 @@
+package com.example.client;
+
+import com.example.blog.BlogService;
+import com.example.cache.FragmentCache;
+import com.example.cache.SingleFlight;
+import com.example.cache.TableVersions;
+import com.example.events.ChangeEventPublisher;
+import com.example.search.TrigramIndex;
+import com.example.sync.SyncVersions;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Test harness for @DataJpaTest slices that go through ClientService and BlogService: imported into a test context,
+ * it adds the two services and the beans that their reads and writes call, without the schedulers and consumers
+ * a full application context starts. A new collaborator of the services is added here, not to every test.
+ */
+@TestConfiguration
+@Import({ClientService.class, BlogService.class, TableVersions.class, FragmentCache.class, SingleFlight.class,
+		TrigramIndex.class, ChangeEventPublisher.class, SyncVersions.class})
+public class DataServices {
+}
@@ -0,0 +1,116 @@
+package com.example.client;
+
+import com.example.blog.Blog;
+import com.example.blog.BlogService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the database round trips needed to build the data of the home page and the blog page,
+ * with the second-level and query caches cold (as before they existed) and warm.
+ * Every call runs in its own session, like separate page requests.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(DataServices.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheBenchmarkTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private BlogService blogService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private SessionFactory sessionFactory;
+
+	@BeforeEach
+	void seed() {
+		sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		if (clientService.listAll(null).isEmpty()) {
+			for (int i = 0; i < 50; i++) {
+				Client client = new Client();
+				client.setFull_name("Client " + i);
+				client.setVisit_date("2023-04-" + (10 + i % 20) + " 1" + (i % 10) + ":00");
+				client.setService(i % 2 == 0 ? "Haircut" : "Beard trim");
+				client.setMaster_name("Master " + (i % 3));
+				clientService.save(client);
+
+				Blog blog = new Blog();
+				blog.setPost_name("Post " + i);
+				blog.setClient_name("Client " + i);
+				blog.setPublish_date("2023-04-20 12:00");
+				blog.setText("Review number " + i);
+				blogService.save(blog);
+			}
+		}
+		sessionFactory.getCache().evictAllRegions();
+	}
+
+	@Test
+	void homePageIsServedFromCacheUntilAClientIsSaved() {
+		long cold = roundTrips(() -> clientService.listAll(null));
+		long warm = roundTrips(() -> clientService.listAll(null));
+		long search = roundTrips(() -> clientService.listAll("Haircut"));
+		long searchWarm = roundTrips(() -> clientService.listAll("Haircut"));
+		System.out.printf("home page: %d round trips uncached, %d cached; search: %d uncached, %d cached%n",
+				cold, warm, search, searchWarm);
+		assertThat(cold).isEqualTo(1);
+		assertThat(warm).isZero();
+		assertThat(searchWarm).isZero();
+
+		Client client = new Client();
+		client.setFull_name("Walk-in");
+		client.setVisit_date("2023-05-01 10:00");
+		client.setService("Haircut");
+		client.setMaster_name("Master 1");
+		clientService.save(client);
+
+		List<Client> afterSave = clientService.listAll(null);
+		assertThat(afterSave).extracting(Client::getFull_name).contains("Walk-in");
+		assertThat(clientService.listAll("Walk-in")).hasSize(1);
+
+		clientService.delete(client.getId());
+		assertThat(clientService.listAll(null)).extracting(Client::getFull_name).doesNotContain("Walk-in");
+	}
+
+	@Test
+	void blogPageIsServedFromCacheUntilAPostIsDeleted() {
+		long cold = roundTrips(() -> blogService.listByPostCriteria(null, null, null, null, null, null));
+		long warm = roundTrips(() -> blogService.listByPostCriteria(null, null, null, null, null, null));
+		System.out.printf("blog page: %d round trips uncached, %d cached%n", cold, warm);
+		assertThat(cold).isEqualTo(1);
+		assertThat(warm).isZero();
+
+		List<Blog> posts = blogService.listByPostCriteria(null, null, null, null, null, null);
+		Long deleted = posts.get(0).getPost_id();
+		blogService.delete(deleted);
+		assertThat(blogService.listByPostCriteria(null, null, null, null, null, null))
+				.extracting(Blog::getPost_id).doesNotContain(deleted);
+	}
+
+	private long roundTrips(Runnable page) {
+		Statistics statistics = sessionFactory.getStatistics();
+		statistics.clear();
+		page.run();
+		return statistics.getPrepareStatementCount();
+	}
+}
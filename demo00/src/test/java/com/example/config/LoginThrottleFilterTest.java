@@ -0,0 +1,74 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Posts failed logins until a username's bucket is empty and checks the 429 with Retry-After, that the bucket
+ * ignores the case of the name and leaves other names alone, and that one address trying many names is stopped
+ * by its own bucket, on the register form as well.
+ */
+@SpringBootTest(properties = {"barbershop.throttle.ip.capacity=5", "barbershop.throttle.ip.refill-tokens=5",
+		"barbershop.throttle.username.capacity=2", "barbershop.throttle.username.refill-tokens=2",
+		"barbershop.throttle.refill-period=PT1M"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginThrottleFilterTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void aUsernameIsThrottledWhateverItsCase() throws Exception {
+		String name = "throttled-" + UUID.randomUUID();
+
+		assertThat(login(name, "10.1.0.1").getStatus()).isNotEqualTo(429);
+		assertThat(login(name.toUpperCase(), "10.1.0.2").getStatus()).isNotEqualTo(429);
+
+		MockHttpServletResponse throttled = login(name, "10.1.0.3");
+		assertThat(throttled.getStatus()).isEqualTo(429);
+		// two tokens a minute, one every 30 seconds
+		assertThat(Long.parseLong(throttled.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(1L, 31L);
+		assertThat(login("other-" + UUID.randomUUID(), "10.1.0.3").getStatus()).isNotEqualTo(429);
+	}
+
+	@Test
+	void anAddressTryingManyNamesIsThrottled() throws Exception {
+		String address = "10.2.0.1";
+		for (int i = 0; i < 5; i++) {
+			assertThat(login("guess-" + UUID.randomUUID(), address).getStatus()).isNotEqualTo(429);
+		}
+
+		assertThat(login("guess-" + UUID.randomUUID(), address).getStatus()).isEqualTo(429);
+		MockHttpServletResponse register = mockMvc.perform(form("/auth/register", address)
+				.param("name", "new-" + UUID.randomUUID()).param("password", "secret")).andReturn().getResponse();
+		assertThat(register.getStatus()).isEqualTo(429);
+		assertThat(register.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+		assertThat(login("guess-" + UUID.randomUUID(), "10.2.0.2").getStatus()).isNotEqualTo(429);
+	}
+
+	private MockHttpServletResponse login(String username, String address) throws Exception {
+		return mockMvc.perform(form("/login_page", address).param("username", username).param("password", "wrong"))
+				.andReturn().getResponse();
+	}
+
+	// the dispatcher servlet is mapped to "/", so the servlet path is the whole path, as the filter expects
+	private static MockHttpServletRequestBuilder form(String path, String address) {
+		return post(path).servletPath(path).with(request -> {
+			request.setRemoteAddr(address);
+			return request;
+		});
+	}
+}
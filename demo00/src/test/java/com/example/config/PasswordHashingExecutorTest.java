@@ -0,0 +1,109 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fills a hashing pool of one thread and a queue of one: the next hash is refused at once instead of waiting,
+ * a hash that takes longer than the timeout is given up, and a refused password check fails the login as an
+ * authentication service error rather than as a wrong password.
+ */
+class PasswordHashingExecutorTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		callers.shutdownNow();
+	}
+
+	@Test
+	void aFullQueueRejectsFurtherHashes() throws Exception {
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5000);
+		CountDownLatch started = new CountDownLatch(1);
+		Future<String> running = callers.submit(() -> executor.run(() -> {
+			started.countDown();
+			release.await();
+			return "first";
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		Future<String> queued = callers.submit(() -> executor.run(() -> "second"));
+		awaitQueueDepth(executor, 1);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> executor.run(() -> "third")).isInstanceOf(HashingOverloadedException.class);
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+		assertThat(executor.stats()).containsEntry("rejected", 1L);
+
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+		assertThat(executor.stats()).containsEntry("completed", 2L);
+		executor.shutdown();
+	}
+
+	@Test
+	void aHashSlowerThanTheTimeoutIsGivenUp() {
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 100);
+
+		assertThatThrownBy(() -> executor.run(() -> {
+			release.await();
+			return "never";
+		})).isInstanceOf(HashingOverloadedException.class);
+		assertThat(executor.stats()).containsEntry("timedOut", 1L);
+		executor.shutdown();
+	}
+
+	@Test
+	void aRefusedPasswordCheckIsAnAuthenticationServiceError() throws Exception {
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5000);
+		CountDownLatch started = new CountDownLatch(1);
+		PasswordEncoder slow = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return rawPassword.toString();
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return rawPassword.toString().equals(encodedPassword);
+			}
+		};
+		PasswordEncoder bounded = new BoundedPasswordEncoder(slow, executor);
+		callers.submit(() -> bounded.encode("secret"));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		callers.submit(() -> bounded.encode("secret"));
+		awaitQueueDepth(executor, 1);
+
+		assertThatThrownBy(() -> bounded.matches("secret", "secret")).isInstanceOf(AuthenticationServiceException.class);
+		assertThatThrownBy(() -> bounded.encode("secret")).isInstanceOf(HashingOverloadedException.class);
+		executor.shutdown();
+	}
+
+	private static void awaitQueueDepth(PasswordHashingExecutor executor, long depth) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (executor.stats().get("queueDepth") < depth && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(executor.stats()).containsEntry("queueDepth", depth);
+	}
+}
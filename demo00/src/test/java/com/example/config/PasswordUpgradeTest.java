@@ -0,0 +1,68 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+
+/**
+ * Logs in a user whose password was stored as a plain BCrypt hash, from before the hashes carried an algorithm id:
+ * the login succeeds and replaces the hash with an Argon2 one, which the next login accepts. A failed login leaves
+ * the stored hash alone.
+ */
+@SpringBootTest(properties = {"barbershop.password.algorithm=argon2", "barbershop.password.target-millis=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordUpgradeTest {
+	private static final String PASSWORD = "secret-password";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserInfoRepository repository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void aLegacyBcryptHashIsRehashedWithArgon2OnLogin() throws Exception {
+		String name = legacyUser();
+
+		mockMvc.perform(formLogin("/login_page").user(name).password(PASSWORD)).andExpect(authenticated());
+
+		String upgraded = repository.findByName(name).orElseThrow().getPassword();
+		assertThat(upgraded).startsWith("{argon2}");
+		assertThat(passwordEncoder.matches(PASSWORD, upgraded)).isTrue();
+		assertThat(passwordEncoder.upgradeEncoding(upgraded)).isFalse();
+		mockMvc.perform(formLogin("/login_page").user(name).password(PASSWORD)).andExpect(authenticated());
+		assertThat(repository.findByName(name).orElseThrow().getPassword()).isEqualTo(upgraded);
+	}
+
+	@Test
+	void aFailedLoginKeepsTheLegacyHash() throws Exception {
+		String name = legacyUser();
+		String legacy = repository.findByName(name).orElseThrow().getPassword();
+
+		mockMvc.perform(formLogin("/login_page").user(name).password("wrong-password")).andExpect(unauthenticated());
+
+		assertThat(repository.findByName(name).orElseThrow().getPassword()).isEqualTo(legacy);
+	}
+
+	private String legacyUser() {
+		String name = "legacy-" + UUID.randomUUID();
+		repository.save(new UserInfo(0, name, new BCryptPasswordEncoder(4).encode(PASSWORD), "ROLE_USER", 1L));
+		return name;
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Spends the burst of a bucket, waits for as long as the limiter says and gets the next attempt, and checks that
+ * keys have buckets of their own, that idle buckets are dropped and that the number of buckets kept is bounded.
+ */
+class TokenBucketLimiterTest {
+
+	@Test
+	void aSpentBucketAllowsTheNextAttemptAfterTheReportedWait() throws InterruptedException {
+		// one token every 100 ms
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 3, Duration.ofMillis(300), 100, 4);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("anna")).isZero();
+		}
+		long wait = limiter.tryAcquire("anna");
+		assertThat(wait).isBetween(TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100));
+		assertThat(limiter.tryAcquire("boris")).isZero();
+
+		TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(10));
+		assertThat(limiter.tryAcquire("anna")).isZero();
+		assertThat(limiter.tryAcquire("anna")).isPositive();
+	}
+
+	@Test
+	void bucketsThatAreFullAgainAreDropped() throws InterruptedException {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, Duration.ofMillis(50), 100, 1);
+		limiter.tryAcquire("anna");
+		assertThat(limiter.size()).isEqualTo(1);
+
+		Thread.sleep(60);
+		limiter.tryAcquire("boris");
+		assertThat(limiter.size()).isEqualTo(1);
+		assertThat(limiter.tryAcquire("anna")).isZero();
+	}
+
+	@Test
+	void theNumberOfBucketsIsBounded() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(5, 5, Duration.ofMinutes(1), 8, 2);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire("10.0.0." + i);
+		}
+		assertThat(limiter.size()).isLessThanOrEqualTo(8);
+	}
+}
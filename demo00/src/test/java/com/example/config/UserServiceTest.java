@@ -0,0 +1,57 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Registers names through UserService: a new name is taken as soon as it is registered, and a name stored
+ * behind the back of this instance's filter, as another instance would, is still refused by the unique index
+ * and is known to the filter afterwards.
+ */
+@SpringBootTest(properties = {"barbershop.password.algorithm=argon2", "barbershop.password.target-millis=1"})
+@ActiveProfiles("test")
+class UserServiceTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserInfoRepository repository;
+
+	@Autowired
+	private UsernameBloomFilter usernameFilter;
+
+	@Test
+	void aRegisteredNameIsTaken() {
+		String name = "new-" + UUID.randomUUID();
+
+		userService.addUser(new UserInfo(0, name, "secret", "ROLE_USER", null));
+
+		assertThat(userService.isNameTaken(name)).isTrue();
+		assertThatThrownBy(() -> userService.addUser(new UserInfo(0, name, "secret", "ROLE_USER", null)))
+				.isInstanceOf(UsernameTakenException.class);
+	}
+
+	@Test
+	void aNameTheFilterMissedIsRefusedByTheUniqueIndex() {
+		String name = "elsewhere-" + UUID.randomUUID();
+		while (usernameFilter.mightContain(name)) {
+			name = "elsewhere-" + UUID.randomUUID();
+		}
+		repository.saveAndFlush(new UserInfo(0, name, "hash", "ROLE_USER", 1L));
+		assertThat(userService.isNameTaken(name)).isFalse();
+
+		String taken = name;
+		assertThatThrownBy(() -> userService.addUser(new UserInfo(0, taken, "secret", "ROLE_USER", null)))
+				.isInstanceOf(UsernameTakenException.class);
+		assertThat(userService.isNameTaken(name)).isTrue();
+		assertThat(repository.findAllNames()).filteredOn(taken::equals).hasSize(1);
+	}
+}
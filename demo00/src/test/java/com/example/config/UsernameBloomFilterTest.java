@@ -0,0 +1,40 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills a filter sized for a thousand names: every added name is reported, names never added are mostly not,
+ * and before the stored names are loaded every name is reported as possibly taken.
+ */
+class UsernameBloomFilterTest {
+
+	@Test
+	void addedNamesAreAlwaysReportedAndFewOthersAre() {
+		UsernameBloomFilter filter = new UsernameBloomFilter(1000, 0.01);
+		ReflectionTestUtils.setField(filter, "ready", true);
+		for (int i = 0; i < 1000; i++) {
+			filter.add("user" + i);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(filter.mightContain("user" + i)).isTrue();
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (filter.mightContain("stranger" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(300);
+	}
+
+	@Test
+	void everyNameMayBeTakenUntilTheFilterIsBuilt() {
+		UsernameBloomFilter filter = new UsernameBloomFilter(1000, 0.01);
+
+		assertThat(filter.mightContain("anyone")).isTrue();
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes transactions over three embedded databases standing in for the primary and two replicas.
+ * Each database holds its own name in the table "node", so a query tells where it was sent.
+ */
+class ReplicaRoutingDataSourceTest {
+
+	private final Map<String, EmbeddedDatabase> databases = new LinkedHashMap<>();
+
+	private ReplicaRoutingDataSource routing;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate writes;
+
+	private TransactionTemplate reads;
+
+	@BeforeEach
+	void createDatabases() {
+		for (String name : List.of("primary", "replica-0", "replica-1")) {
+			EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+					.setName(name + "-" + System.nanoTime()).build();
+			JdbcTemplate template = new JdbcTemplate(database);
+			template.execute("CREATE TABLE node (name VARCHAR(20))");
+			template.update("INSERT INTO node VALUES (?)", name);
+			template.execute("CREATE TABLE replica_lag (lag_seconds INT)");
+			template.update("INSERT INTO replica_lag VALUES (0)");
+			databases.put(name, database);
+		}
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-0", databases.get("replica-0"));
+		replicas.put("replica-1", databases.get("replica-1"));
+		routing = new ReplicaRoutingDataSource(databases.get("primary"), replicas,
+				"SELECT lag_seconds FROM replica_lag", "LAG_SECONDS", Duration.ofSeconds(5));
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		writes = new TransactionTemplate(transactionManager);
+		reads = new TransactionTemplate(transactionManager);
+		reads.setReadOnly(true);
+	}
+
+	@AfterEach
+	void shutdown() {
+		databases.values().forEach(EmbeddedDatabase::shutdown);
+	}
+
+	private String node(TransactionTemplate transaction) {
+		return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+	}
+
+	@Test
+	void writesGoToPrimary() {
+		assertThat(node(writes)).isEqualTo("primary");
+		assertThat(jdbcTemplate.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+	}
+
+	@Test
+	void readOnlyTransactionsAreBalancedOverReplicas() {
+		Set<String> nodes = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(node(reads));
+		}
+		assertThat(nodes).containsExactlyInAnyOrder("replica-0", "replica-1");
+	}
+
+	@Test
+	void laggingReplicaIsSkipped() {
+		new JdbcTemplate(databases.get("replica-0")).update("UPDATE replica_lag SET lag_seconds = 30");
+		routing.refreshReplicaLag();
+
+		assertThat(routing.laggingReplicas()).containsExactly("replica-0");
+		for (int i = 0; i < 4; i++) {
+			assertThat(node(reads)).isEqualTo("replica-1");
+		}
+
+		new JdbcTemplate(databases.get("replica-0")).update("UPDATE replica_lag SET lag_seconds = 1");
+		routing.refreshReplicaLag();
+		assertThat(routing.laggingReplicas()).isEmpty();
+	}
+
+	@Test
+	void readsFallBackToPrimaryWhenEveryReplicaLags() {
+		new JdbcTemplate(databases.get("replica-0")).update("UPDATE replica_lag SET lag_seconds = 30");
+		new JdbcTemplate(databases.get("replica-1")).execute("DROP TABLE replica_lag");
+		routing.refreshReplicaLag();
+
+		assertThat(node(reads)).isEqualTo("primary");
+	}
+
+	@Test
+	void pinnedReadsGoToPrimary() {
+		assertThat(DataSourceRouting.onPrimary(() -> node(reads))).isEqualTo("primary");
+		assertThat(node(reads)).startsWith("replica");
+	}
+}
@@ -0,0 +1,250 @@
+package com.example.events;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the dispatcher with a short grace period against a durable and an in-memory test consumer, and checks
+ * that a failed batch is delivered again (the durable consumer's attempt is rolled back, so it applies every
+ * event once), that an id lost to a rollback is skipped only once the grace period is over, that a durable
+ * consumer never repeats the events another node has delivered, and that pruning keeps every event a live node
+ * has not read yet.
+ */
+@SpringBootTest(properties = {"barbershop.events.grace-millis=500", "barbershop.events.catch-up-interval-millis=100"})
+@ActiveProfiles("test")
+class ChangeEventDispatcherTest {
+	private static final String TABLE = "dispatcher_test";
+	private static final long FAILING_ENTITY = 42L;
+
+	@Autowired
+	private ChangeEventDispatcher dispatcher;
+
+	@Autowired
+	private ChangeEventPublisher publisher;
+
+	@Autowired
+	private ChangeOutboxRepository outbox;
+
+	@Autowired
+	private ChangeConsumerOffsetRepository offsets;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestConsumers consumers;
+
+	@Test
+	void failedBatchesAreDeliveredAgainAndAppliedOnce() throws Exception {
+		consumers.durable.failures.set(1);
+		consumers.inMemory.failures.set(1);
+
+		long sequence = publish(FAILING_ENTITY);
+
+		await(() -> consumers.durable.applied.contains(sequence) && consumers.inMemory.applied.contains(sequence));
+		assertThat(consumers.durable.attempts.get(sequence)).isGreaterThanOrEqualTo(2);
+		assertThat(consumers.inMemory.attempts.get(sequence)).isGreaterThanOrEqualTo(2);
+		Thread.sleep(300);
+		assertThat(consumers.durable.applied.stream().filter(applied -> applied == sequence)).hasSize(1);
+		assertThat(consumers.inMemory.applied.stream().filter(applied -> applied == sequence)).hasSize(1);
+	}
+
+	@Test
+	void idsOfRolledBackTransactionsAreSkippedAfterTheGracePeriod() throws Exception {
+		long first = publish();
+		long lost = rolledBack();
+		long after = publish();
+		assertThat(after).isGreaterThan(lost);
+		Instant committed = outbox.findById(after).orElseThrow().getCreated_at();
+
+		await(() -> consumers.durable.applied.contains(after));
+		// the durable consumer only passes the gap once it can no longer be filled
+		assertThat(consumers.durable.appliedAt.get(after)).isAfterOrEqualTo(committed.plusMillis(500));
+		assertThat(consumers.durable.applied).containsSubsequence(first, after);
+		// the in-memory consumer got the later event from its queue at once, and its position moves past the gap
+		assertThat(consumers.inMemory.applied).contains(first, after);
+		await(() -> dispatcher.stats().get(consumers.inMemory.consumerName()).get("position") >= after);
+	}
+
+	@Test
+	void durableConsumersDoNotRepeatWhatAnotherNodeDelivered() throws Exception {
+		long before = publish();
+		await(() -> consumers.durable.applied.contains(before));
+
+		// another node delivers two events and stores its position in the same transaction
+		long[] delivered = new TransactionTemplate(transactionManager).execute(status -> {
+			ChangeConsumerOffset offset = offsets.findForUpdate(consumers.durable.consumerName()).orElseThrow();
+			long one = outbox.save(entry(Instant.now())).getId();
+			long two = outbox.save(entry(Instant.now())).getId();
+			offset.setLast_sequence(two);
+			return new long[]{one, two};
+		});
+		long next = publish();
+
+		await(() -> consumers.durable.applied.contains(next));
+		assertThat(consumers.durable.applied).doesNotContain(delivered[0], delivered[1]);
+	}
+
+	@Test
+	void pruningKeepsWhatLiveNodesHaveNotRead() throws Exception {
+		Instant old = Instant.now().minus(1, ChronoUnit.HOURS);
+		long first = outbox.save(entry(old)).getId();
+		long second = outbox.save(entry(old)).getId();
+		long young = publish();
+		await(() -> consumers.durable.applied.contains(young) && consumers.inMemory.applied.contains(young)
+				&& dispatcher.stats().values().stream().allMatch(stats -> stats.get("position") >= young));
+
+		// a live node that has not read the old events yet holds them back; a node gone for a day does not
+		offsets.save(new ChangeConsumerOffset("test@live-node", first - 1, "live-node", Instant.now()));
+		offsets.save(new ChangeConsumerOffset("test@gone-node", 0, "gone-node", old.minus(1, ChronoUnit.DAYS)));
+		dispatcher.prune();
+		assertThat(offsets.findById("test@gone-node")).isEmpty();
+		assertThat(outbox.findAllById(List.of(first, second, young))).hasSize(3);
+
+		// once nobody needs them the old events go, while the newest one stays for nodes that start later
+		jdbcTemplate.update("delete from change_consumer_offset where node_id is not null");
+		dispatcher.prune();
+		assertThat(outbox.findById(first)).isEmpty();
+		assertThat(outbox.findById(second)).isEmpty();
+		assertThat(outbox.findById(young)).isPresent();
+	}
+
+	private long publish() {
+		return publish(1L);
+	}
+
+	private long publish(long entityId) {
+		return new TransactionTemplate(transactionManager).execute(status ->
+				publisher.publish(TABLE, entityId, null, Map.of("name", "event")).sequence());
+	}
+
+	private long rolledBack() {
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			long id = outbox.save(entry(Instant.now())).getId();
+			status.setRollbackOnly();
+			return id;
+		});
+	}
+
+	private static ChangeOutboxEntry entry(Instant createdAt) {
+		return new ChangeOutboxEntry(null, TABLE, ChangeEvent.Type.INSERT.name(), 1L, null, "{}", createdAt);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	/**
+	 * A consumer that records the test events it applied, and can be told to fail its next batches holding an
+	 * event of FAILING_ENTITY.
+	 * A durable one records them only when its transaction commits.
+	 */
+	static class RecordingConsumer implements ChangeConsumer {
+		private final String name;
+		private final boolean durable;
+		final List<Long> applied = new CopyOnWriteArrayList<>();
+		final Map<Long, Instant> appliedAt = new ConcurrentHashMap<>();
+		final Map<Long, Integer> attempts = new ConcurrentHashMap<>();
+		final AtomicInteger failures = new AtomicInteger();
+
+		RecordingConsumer(String name, boolean durable) {
+			this.name = name;
+			this.durable = durable;
+		}
+
+		@Override
+		public String consumerName() {
+			return name;
+		}
+
+		@Override
+		public boolean durable() {
+			return durable;
+		}
+
+		@Override
+		public void accept(List<ChangeEvent> events) {
+			List<Long> sequences = events.stream().filter(event -> event.table().equals(TABLE))
+					.map(ChangeEvent::sequence).toList();
+			if (sequences.isEmpty()) {
+				return;
+			}
+			sequences.forEach(sequence -> attempts.merge(sequence, 1, Integer::sum));
+			boolean failing = events.stream().anyMatch(event -> event.table().equals(TABLE)
+					&& Objects.equals(event.entityId(), FAILING_ENTITY));
+			if (failing && failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+				throw new IllegalStateException("failing on purpose");
+			}
+			if (!durable) {
+				record(sequences);
+				return;
+			}
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					record(sequences);
+				}
+			});
+		}
+
+		private void record(List<Long> sequences) {
+			Instant now = Instant.now();
+			for (Long sequence : sequences) {
+				applied.add(sequence);
+				appliedAt.put(sequence, now);
+			}
+		}
+	}
+
+	static class TestConsumers {
+		final RecordingConsumer durable = new RecordingConsumer("dispatcher-test-durable", true);
+		final RecordingConsumer inMemory = new RecordingConsumer("dispatcher-test-memory", false);
+	}
+
+	@TestConfiguration
+	static class TestConsumerConfig {
+
+		@Bean
+		TestConsumers testConsumers() {
+			return new TestConsumers();
+		}
+
+		@Bean
+		ChangeConsumer durableTestConsumer(TestConsumers consumers) {
+			return consumers.durable;
+		}
+
+		@Bean
+		ChangeConsumer inMemoryTestConsumer(TestConsumers consumers) {
+			return consumers.inMemory;
+		}
+	}
+}
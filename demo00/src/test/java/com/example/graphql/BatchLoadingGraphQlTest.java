@@ -0,0 +1,129 @@
+package com.example.graphql;
+
+import com.example.blog.Blog;
+import com.example.blog.BlogRepository;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs GraphQL queries for posts with their authors and the authors' visits and counts the SQL statements:
+ * the count must not depend on the number of posts. Also checks that too deep and too complex queries are
+ * refused before they reach the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchLoadingGraphQlTest {
+
+	private static final String POSTS_WITH_VISITS = """
+			query($first: Int, $after: ID) {
+			  posts(first: $first, after: $after) {
+			    post_name
+			    author { name visits { visit_date service } }
+			  }
+			}""";
+
+	@Autowired
+	private ExecutionGraphQlService graphQlService;
+
+	@Autowired
+	private BlogRepository blogRepository;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private GraphQlTester tester;
+	private Statistics statistics;
+	private long after;
+	private final List<Blog> posts = new ArrayList<>();
+	private final List<Client> visits = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		tester = ExecutionGraphQlServiceTester.create(graphQlService);
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		statistics = sessionFactory.getStatistics();
+		after = blogRepository.findAll().stream().mapToLong(Blog::getPost_id).max().orElse(0);
+		for (int i = 0; i < 30; i++) {
+			Blog post = new Blog();
+			post.setPost_name("GraphQL post " + i);
+			post.setClient_name("GraphQL author " + i);
+			post.setPublish_date("2023-05-01 12:00");
+			posts.add(post);
+			for (int v = 0; v < 3; v++) {
+				Client visit = new Client();
+				visit.setFull_name("GraphQL author " + i);
+				visit.setVisit_date("2023-05-0" + (v + 1) + " 10:00");
+				visit.setService("Haircut");
+				visit.setMaster_name("Master " + v);
+				visits.add(visit);
+			}
+		}
+		blogRepository.saveAll(posts);
+		clientRepository.saveAll(visits);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		blogRepository.deleteAll(posts);
+		clientRepository.deleteAll(visits);
+	}
+
+	@Test
+	void statementCountDoesNotDependOnResultSize() {
+		long few = statementsFor(5);
+		long many = statementsFor(25);
+		System.out.printf("posts with authors and visits: %d statements for 5 posts, %d for 25%n", few, many);
+		// one for the page of posts, one for the visits of all their authors
+		assertThat(few).isEqualTo(2);
+		assertThat(many).isEqualTo(few);
+	}
+
+	@Test
+	void refusesTooDeepQueries() {
+		assertRefused("{ posts(first: 1) { author { posts { author { posts { author { name } } } } } } }");
+	}
+
+	@Test
+	void refusesTooComplexQueries() {
+		assertRefused("{ posts(first: 100) { author { visits { visit_date } } } }");
+	}
+
+	private long statementsFor(int first) {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		statistics.clear();
+		List<Map> result = tester.document(POSTS_WITH_VISITS)
+				.variable("first", first)
+				.variable("after", after)
+				.execute()
+				.path("posts").entityList(Map.class).hasSize(first).get();
+		assertThat(result.get(0).toString()).contains("visit_date=2023-05-01 10:00");
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void assertRefused(String document) {
+		statistics.clear();
+		tester.document(document).execute().errors().satisfy(errors -> assertThat(errors).isNotEmpty());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+}
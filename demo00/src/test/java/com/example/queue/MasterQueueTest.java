@@ -0,0 +1,86 @@
+package com.example.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Joins, serves and skips from many threads at once and checks that no ticket is lost or served twice and that
+ * every change produced exactly one new version.
+ */
+class MasterQueueTest {
+
+	@Test
+	void concurrentChangesAreNeitherLostNorDuplicated() throws Exception {
+		MasterQueue queue = new MasterQueue("Master 1");
+		AtomicLong ids = new AtomicLong();
+		AtomicLong changes = new AtomicLong();
+		ConcurrentLinkedQueue<Long> served = new ConcurrentLinkedQueue<>();
+		int threads = 8;
+		int joinsPerThread = 2000;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+		for (int t = 0; t < threads; t++) {
+			executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < joinsPerThread; i++) {
+					long id = ids.incrementAndGet();
+					if (queue.join(new Ticket(id, "Customer " + id, "Haircut", Instant.now()), Integer.MAX_VALUE).changed()) {
+						changes.incrementAndGet();
+					}
+					if (queue.skip(id - 1).changed()) {
+						changes.incrementAndGet();
+					}
+				}
+				return null;
+			});
+			executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < joinsPerThread; i++) {
+					MasterQueue.Change change = queue.serveNext(Instant.now());
+					if (change.changed()) {
+						changes.incrementAndGet();
+						if (change.after().inChair() != null) {
+							served.add(change.after().inChair().id());
+						}
+					}
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		List<Long> everyone = new ArrayList<>(served);
+		queue.state().waiting().forEach(ticket -> everyone.add(ticket.id()));
+		Set<Long> unique = new HashSet<>(everyone);
+		// the last one in the chair is also in served
+		assertThat(unique).hasSize(everyone.size()).hasSize(threads * joinsPerThread);
+		assertThat(queue.state().version()).isEqualTo(changes.get());
+	}
+
+	@Test
+	void skipMovesACustomerBehindTheNextOne() {
+		MasterQueue queue = new MasterQueue("Master 1");
+		for (long id = 1; id <= 3; id++) {
+			queue.join(new Ticket(id, "Customer " + id, "Haircut", Instant.now()), 10);
+		}
+		queue.skip(1);
+		assertThat(queue.state().waiting()).extracting(Ticket::id).containsExactly(2L, 1L, 3L);
+		assertThat(queue.skip(3).changed()).isFalse();
+		assertThat(queue.join(new Ticket(4, "Customer 4", "Haircut", Instant.now()), 3).changed()).isFalse();
+	}
+}
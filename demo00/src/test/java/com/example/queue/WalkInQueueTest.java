@@ -0,0 +1,117 @@
+package com.example.queue;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.VisitStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Follows the walk-in queue of a master the way a waiting-room screen does: the current queue first, then every
+ * change with estimated waits from the service durations, over an event stream that runs as an asynchronous
+ * request instead of holding a servlet thread.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class WalkInQueueTest {
+
+	@Autowired
+	private WalkInQueueService queueService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private final String master = "Queue master " + UUID.randomUUID();
+
+	@BeforeEach
+	void seed() {
+		Client visit = new Client();
+		visit.setFull_name("Booked client");
+		visit.setVisit_date("2023-06-01 10:00");
+		visit.setService("Haircut");
+		visit.setMaster_name(master);
+		clientRepository.save(visit);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		clientRepository.deleteAll(visits());
+	}
+
+	@Test
+	void streamsEveryChangeWithEstimatedWaits() {
+		StepVerifier.create(queueService.updates(master).take(4))
+				.assertNext(view -> assertThat(view.waiting()).isEmpty())
+				.then(() -> queueService.join(master, "Anna", "Haircut"))
+				.assertNext(view -> assertThat(view.waiting()).extracting(QueueView.Entry::name, QueueView.Entry::waitMinutes)
+						.containsExactly(tuple("Anna", 0L)))
+				.then(() -> queueService.join(master, "Boris", "Beard trim"))
+				.assertNext(view -> assertThat(view.waiting()).extracting(QueueView.Entry::waitMinutes).containsExactly(0L, 30L))
+				.then(() -> queueService.serveNext(master))
+				.assertNext(view -> {
+					assertThat(view.inChair().name()).isEqualTo("Anna");
+					// Anna's haircut has just started
+					assertThat(view.waiting()).extracting(QueueView.Entry::name, QueueView.Entry::position, QueueView.Entry::waitMinutes)
+							.containsExactly(tuple("Boris", 1, 30L));
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(10));
+
+		assertThat(visits()).anySatisfy(visit -> {
+			assertThat(visit.getFull_name()).isEqualTo("Anna");
+			assertThat(visit.getVisit_status()).isEqualTo(VisitStatus.ARRIVED);
+		});
+	}
+
+	@Test
+	void screensAreServedAsynchronously() throws Exception {
+		MvcResult result = mockMvc.perform(get("/queue/{master}/events", master))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(post("/queue/{master}/join", master).param("name", "Carl").param("service", "Haircut"))
+				.andExpect(status().isOk());
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!result.getResponse().getContentAsString().contains("Carl")) {
+			assertThat(System.currentTimeMillis()).as("event not pushed in time").isLessThan(deadline);
+			Thread.sleep(20);
+		}
+		assertThat(result.getResponse().getContentAsString()).contains("event:queue").contains("\"master\":\"" + master + "\"");
+	}
+
+	@Test
+	void rejectsUnknownMasters() throws Exception {
+		mockMvc.perform(post("/queue/{master}/join", "Nobody " + UUID.randomUUID()).param("name", "Dan").param("service", "Haircut"))
+				.andExpect(status().isNotFound());
+	}
+
+	private List<Client> visits() {
+		return clientRepository.findVisitsOfMaster(master, "", PageRequest.of(0, 100));
+	}
+}
@@ -0,0 +1,172 @@
+package com.example.reminders;
+
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.client.VisitStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Books visits around the current time and moves the scheduler's clock forward by hand: reminders and no-shows
+ * go to the file notifier when they are due, visits loaded at startup and visits changed through ClientService
+ * alike, and visits that were moved, deleted or checked in are left alone.
+ */
+@SpringBootTest(properties = {
+		"barbershop.reminders.notifier=file",
+		"barbershop.reminders.file=build/reminders-test.log",
+		"barbershop.reminders.lead=PT2H",
+		"barbershop.reminders.no-show-after=PT15M"})
+@ActiveProfiles("test")
+class ReminderSchedulerTest {
+
+	private static final Path FILE = Path.of("build/reminders-test.log");
+	private static final DateTimeFormatter VISIT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+	private static final long MINUTE = 60_000;
+
+	@Autowired
+	private ReminderScheduler scheduler;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	private final List<Long> ids = new ArrayList<>();
+	private long now;
+	private LocalDateTime base;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.createDirectories(FILE.getParent());
+		Files.deleteIfExists(FILE);
+		now = System.currentTimeMillis();
+		base = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		clientService.deleteAll(ids);
+	}
+
+	@Test
+	void rebuildSchedulesBookedVisitsAndMarksMissedOnes() {
+		Client soon = visit("Soon", base.plusMinutes(30), null);
+		Client later = visit("Later", base.plusHours(3), null);
+		Client missed = visit("Missed", base.minusHours(1), null);
+		Client arrived = visit("Arrived", base.minusHours(1), VisitStatus.ARRIVED);
+		// written past ClientService, so only the rebuild can know about them
+		clientRepository.saveAll(List.of(soon, later, missed, arrived));
+		List.of(soon, later, missed, arrived).forEach(client -> ids.add(client.getId()));
+
+		scheduler.rebuild(now);
+		scheduler.advanceTo(now + 1000);
+		// booked at shorter notice than the lead, so reminded at once
+		awaitNotified("REMINDER", soon.getId());
+		awaitNotified("NO_SHOW", missed.getId());
+		assertThat(clientRepository.findById(missed.getId()).orElseThrow().getVisit_status()).isEqualTo(VisitStatus.NO_SHOW);
+		assertThat(clientRepository.findById(arrived.getId()).orElseThrow().getVisit_status()).isEqualTo(VisitStatus.ARRIVED);
+
+		scheduler.advanceTo(now + 61 * MINUTE);
+		awaitNotified("REMINDER", soon.getId(), later.getId());
+		awaitNotified("NO_SHOW", missed.getId(), soon.getId());
+	}
+
+	@Test
+	void keepsInSyncWithClientService() {
+		scheduler.rebuild(now);
+		Client moved = save(visit("Moved", base.plusHours(3), null));
+		Client deleted = save(visit("Deleted", base.plusHours(3), null));
+		Client checkedIn = save(visit("Checked in", base.plusHours(3), null));
+
+		moved.setVisit_date(base.plusHours(5).format(VISIT_DATE_FORMAT));
+		clientService.save(moved);
+		clientService.delete(deleted.getId());
+		clientService.checkIn(checkedIn.getId());
+		// events reach the scheduler in commit order, so the others have been applied once this one is
+		Client marker = save(visit("Marker", base.plusHours(3), null));
+		await(() -> !scheduler.isScheduled(checkedIn.getId()) && !scheduler.isScheduled(deleted.getId()));
+
+		scheduler.advanceTo(now + 61 * MINUTE);
+		awaitNotified("REMINDER", marker.getId());
+		assertThat(scheduler.isScheduled(moved.getId())).isTrue();
+		scheduler.advanceTo(now + 3 * 60 * MINUTE + 16 * MINUTE);
+		awaitNotified("REMINDER", marker.getId(), moved.getId());
+		awaitNotified("NO_SHOW", marker.getId());
+	}
+
+	private Client visit(String name, LocalDateTime visitDate, VisitStatus status) {
+		Client client = new Client();
+		client.setFull_name("Reminder " + name);
+		client.setVisit_date(visitDate.format(VISIT_DATE_FORMAT));
+		client.setService("Haircut");
+		client.setMaster_name("Master 1");
+		client.setVisit_status(status);
+		return client;
+	}
+
+	private Client save(Client client) {
+		clientService.save(client);
+		ids.add(client.getId());
+		await(() -> scheduler.isScheduled(client.getId()));
+		return client;
+	}
+
+	/**
+	 * Waits until the file notifier has been told about exactly the given clients of this test, as the scheduler's
+	 * own tick may be sending some of them on its thread.
+	 */
+	private void awaitNotified(String type, Long... expected) {
+		await(() -> notified(type).size() >= expected.length);
+		assertThat(notified(type)).containsExactlyInAnyOrder(expected);
+	}
+
+	private List<Long> notified(String type) {
+		if (!Files.exists(FILE)) {
+			return List.of();
+		}
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(FILE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return lines.stream()
+				.map(line -> line.split("\t"))
+				.filter(fields -> fields[0].equals(type))
+				.map(fields -> Long.valueOf(fields[1]))
+				.filter(ids::contains)
+				.toList();
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.reminders;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schedules timers across every level of a small wheel and its overflow bucket, cancels some of them and checks
+ * that each of the others fires exactly once, never early and at most one tick late.
+ */
+class TimingWheelTest {
+
+	private static final long TICK = 1000;
+	private static final long START = 1_700_000_000_123L;
+
+	@Test
+	void firesEveryTimerOnceWithinATickOfItsDeadline() {
+		// 8 buckets on 3 levels span 512 ticks, later timers wait in the overflow bucket
+		TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 8, 3, START);
+		Random random = new Random(42);
+		Map<Integer, Long> deadlines = new HashMap<>();
+		List<TimingWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			long deadline = START + (long) (random.nextDouble() * 2000 * TICK);
+			deadlines.put(i, deadline);
+			timeouts.add(wheel.schedule(deadline, i));
+		}
+		Set<Integer> cancelled = new HashSet<>();
+		for (int i = 0; i < 5000; i += 7) {
+			assertThat(wheel.cancel(timeouts.get(i))).isTrue();
+			cancelled.add(i);
+		}
+		assertThat(wheel.cancel(timeouts.get(0))).isFalse();
+		assertThat(wheel.size()).isEqualTo(5000 - cancelled.size());
+
+		Set<Integer> fired = new HashSet<>();
+		for (long now = START; now <= START + 2001 * TICK; now += 250) {
+			long time = now;
+			wheel.advance(now, task -> {
+				assertThat(fired.add(task)).isTrue();
+				assertThat(deadlines.get(task)).isLessThanOrEqualTo(time).isGreaterThan(time - 2 * TICK);
+			});
+		}
+		assertThat(fired).hasSize(5000 - cancelled.size()).doesNotContainAnyElementsOf(cancelled);
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void pastDeadlinesFireWithTheNextTick() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 64, 4, START);
+		wheel.advance(START + 10 * TICK, task -> {
+		});
+		wheel.schedule(START, "late");
+		List<String> fired = new ArrayList<>();
+		wheel.advance(START + 10 * TICK, fired::add);
+		assertThat(fired).isEmpty();
+		wheel.advance(START + 11 * TICK, fired::add);
+		assertThat(fired).containsExactly("late");
+	}
+
+	@Test
+	void advancingAnEmptyWheelSkipsAhead() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 64, 4, START);
+		wheel.advance(START + 365L * 24 * 3600 * TICK, task -> {
+		});
+		assertThat(wheel.currentMillis()).isGreaterThan(START + 365L * 24 * 3600 * TICK);
+		wheel.schedule(wheel.currentMillis() + 90L * 24 * 3600 * TICK, "in 90 days");
+		List<String> fired = new ArrayList<>();
+		wheel.advance(wheel.currentMillis() + 90L * 24 * 3600 * TICK, fired::add);
+		assertThat(fired).containsExactly("in 90 days");
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.search;
+
+import com.example.client.Client;
+import com.example.events.ChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Applies client changes to the index the way the dispatcher may deliver them: twice after a failed batch,
+ * and out of order. Every visit is counted once, with the values of its newest change, at its own location.
+ * A bulk update moves only the visits it matches and that are older than it.
+ */
+class AutocompleteIndexTest {
+
+	private final AutocompleteIndex index = new AutocompleteIndex();
+
+	@Test
+	void aChangeDeliveredTwiceIsCountedOnce() {
+		index.apply(5, 1L, visit("Anna Smith", "Oleg"));
+		index.apply(5, 1L, visit("Anna Smith", "Oleg"));
+		index.apply(6, 2L, visit("Anna Smith", "Oleg"));
+
+		assertThat(index.complete(1, AutocompleteIndex.Field.FULL_NAME, "ann", 10))
+				.extracting(PrefixTrie.Completion::weight).containsExactly(2L);
+	}
+
+	@Test
+	void anOlderChangeArrivingLateIsIgnored() {
+		index.apply(7, 1L, visit("Anna Smith", "Igor"));
+		index.apply(5, 1L, visit("Anna Smith", "Oleg"));
+
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "oleg", 10)).isEmpty();
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "igor", 10))
+				.extracting(PrefixTrie.Completion::weight).containsExactly(1L);
+	}
+
+	@Test
+	void aDeletedVisitStaysDeleted() {
+		index.apply(0, 1L, visit("Anna Smith", "Oleg"));
+		index.apply(8, 1L, null);
+		index.apply(8, 1L, null);
+		index.apply(6, 1L, visit("Anna Smith", "Oleg"));
+
+		assertThat(index.complete(1, AutocompleteIndex.Field.FULL_NAME, "anna", 10)).isEmpty();
+	}
+
+	@Test
+	void aReplayedChangeAlreadyReadByTheBuildMovesNothing() {
+		// the build read the row after the change, the replay then delivers the change itself
+		index.apply(0, 1L, visit("Anna Smith", "Igor"));
+		index.apply(4, 1L, visit("Anna Smith", "Igor"));
+
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "igor", 10))
+				.extracting(PrefixTrie.Completion::weight).containsExactly(1L);
+	}
+
+	@Test
+	void suggestionsComeFromTheLocationsOwnVisits() {
+		Client elsewhere = visit("Anna Smith", "Oleg");
+		elsewhere.setLocation_id(2L);
+		index.apply(3, 1L, visit("Anna Smith", "Igor"));
+		index.apply(4, 2L, elsewhere);
+
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "", 10))
+				.extracting(PrefixTrie.Completion::term).containsExactly("Igor");
+		assertThat(index.complete(2, AutocompleteIndex.Field.MASTER_NAME, "", 10))
+				.extracting(PrefixTrie.Completion::term).containsExactly("Oleg");
+		assertThat(index.complete(3, null, "anna", 10)).isEmpty();
+	}
+
+	@Test
+	void aBulkUpdateMovesTheMatchingVisitsOnce() {
+		Client past = visit("Anna Smith", "Oleg");
+		past.setVisit_date("2023-01-01 10:00");
+		Client elsewhere = visit("Boris Smith", "Oleg");
+		elsewhere.setLocation_id(2L);
+		index.apply(0, 1L, past);
+		index.apply(0, 2L, visit("Anna Smith", "Oleg"));
+		index.apply(0, 3L, visit("Vera Smith", "Oleg"));
+		index.apply(9, 3L, visit("Vera Smith", "Igor"));
+		index.apply(0, 4L, elsewhere);
+
+		ChangeEvent.BulkUpdate reassign = new ChangeEvent.BulkUpdate(1, "master_name", "Oleg", "Pavel", "2023-04-15 00:00");
+		index.apply(8, reassign);
+		index.apply(8, reassign);
+
+		// the past visit, the visit changed after the update and the other location keep their masters
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "", 10))
+				.extracting(PrefixTrie.Completion::term, PrefixTrie.Completion::weight)
+				.containsExactlyInAnyOrder(tuple("Oleg", 1L), tuple("Pavel", 1L), tuple("Igor", 1L));
+		assertThat(index.complete(2, AutocompleteIndex.Field.MASTER_NAME, "", 10))
+				.extracting(PrefixTrie.Completion::term).containsExactly("Oleg");
+
+		// a later change of the moved visit is counted from its new master
+		index.apply(10, 2L, visit("Anna Smith", "Igor"));
+		assertThat(index.complete(1, AutocompleteIndex.Field.MASTER_NAME, "pavel", 10)).isEmpty();
+	}
+
+	private static Client visit(String fullName, String masterName) {
+		Client client = new Client();
+		client.setFull_name(fullName);
+		client.setMaster_name(masterName);
+		client.setService("Haircut");
+		client.setLocation_id(1L);
+		client.setVisit_date("2030-01-01 10:00");
+		return client;
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the cached completions of a trie holding three of them per node: after inserts, after the heaviest
+ * term loses weight and after a term is removed, and against a brute-force ranking over a random mix of all three.
+ */
+class PrefixTrieTest {
+
+	private final PrefixTrie trie = new PrefixTrie(3);
+
+	@Test
+	void returnsTheHeaviestCompletionsOfAPrefix() {
+		trie.adjust("Anna", 5);
+		trie.adjust("Andrew", 3);
+		trie.adjust("Anton", 4);
+		trie.adjust("Alice", 9);
+		trie.adjust("Boris", 7);
+
+		assertThat(trie.complete("an", 10)).extracting(PrefixTrie.Completion::term)
+				.containsExactly("Anna", "Anton", "Andrew");
+		assertThat(trie.complete("A", 10)).extracting(PrefixTrie.Completion::term)
+				.containsExactly("Alice", "Anna", "Anton");
+		assertThat(trie.complete("a", 1)).extracting(PrefixTrie.Completion::term).containsExactly("Alice");
+		assertThat(trie.complete("z", 10)).isEmpty();
+	}
+
+	@Test
+	void aTermThatLosesWeightMakesRoomForTheNextOne() {
+		trie.adjust("Alice", 9);
+		trie.adjust("Anna", 5);
+		trie.adjust("Anton", 4);
+		trie.adjust("Andrew", 3);
+
+		trie.adjust("Alice", -8);
+
+		assertThat(trie.complete("a", 10)).extracting(PrefixTrie.Completion::term)
+				.containsExactly("Anna", "Anton", "Andrew");
+		assertThat(trie.complete("al", 10)).extracting(PrefixTrie.Completion::weight).containsExactly(1L);
+	}
+
+	@Test
+	void aTermWhoseWeightDropsToZeroIsRemoved() {
+		trie.adjust("Anna", 2);
+		trie.adjust("Ann", 1);
+
+		trie.adjust("Anna", -2);
+
+		assertThat(trie.complete("ann", 10)).extracting(PrefixTrie.Completion::term).containsExactly("Ann");
+		trie.adjust("Ann", -5);
+		assertThat(trie.complete("a", 10)).isEmpty();
+	}
+
+	@Test
+	void matchesABruteForceRankingAfterRandomChanges() {
+		String[] terms = {"a", "ab", "abc", "abd", "ac", "b", "ba", "bab", "bb", "bbc", "c", "ca", "cab"};
+		Map<String, Long> weights = new HashMap<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; i++) {
+			String term = terms[random.nextInt(terms.length)];
+			long delta = random.nextInt(3) == 0 ? -random.nextInt(4) : random.nextInt(4);
+			trie.adjust(term, delta);
+			weights.put(term, Math.max(0, weights.getOrDefault(term, 0L) + delta));
+
+			for (String prefix : new String[]{"", "a", "ab", "b", "bb", "c"}) {
+				assertThat(trie.complete(prefix, 3)).containsExactlyElementsOf(expected(weights, prefix));
+			}
+		}
+	}
+
+	private static List<PrefixTrie.Completion> expected(Map<String, Long> weights, String prefix) {
+		List<PrefixTrie.Completion> completions = new ArrayList<>();
+		weights.forEach((term, weight) -> {
+			if (term.startsWith(prefix) && weight > 0) {
+				completions.add(new PrefixTrie.Completion(term, weight));
+			}
+		});
+		completions.sort(Comparator.comparingLong(PrefixTrie.Completion::weight).reversed()
+				.thenComparing(PrefixTrie.Completion::term));
+		return completions.subList(0, Math.min(3, completions.size()));
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.search;
+
+import com.example.client.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Folds and splits names, then searches a small index: misspelt names and names typed with Latin lookalike
+ * letters are found, closest first, deleted clients and other locations' clients are not, and a request cannot
+ * raise the edit distance cutoff above the configured limit.
+ */
+class TrigramIndexTest {
+
+	private static final long LOCATION = 1L;
+
+	private final TrigramIndex index = new TrigramIndex();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(index, "defaultMaxEdits", 2);
+		ReflectionTestUtils.setField(index, "maxEditsLimit", 3);
+		ReflectionTestUtils.setField(index, "maxQueryLength", 64);
+		ReflectionTestUtils.setField(index, "minSimilarity", 0.3);
+	}
+
+	@Test
+	void foldsCaseWhiteSpaceYoAndLatinLookalikes() {
+		assertThat(TrigramIndex.fold("  Алёна   ПЕТРОВА ")).isEqualTo("алена петрова");
+		// K, o, p and a typed on the Latin layout
+		assertThat(TrigramIndex.fold("Kopa")).isEqualTo(TrigramIndex.fold("Кора"));
+		assertThat(TrigramIndex.fold(null)).isEmpty();
+	}
+
+	@Test
+	void splitsEveryWordIntoPaddedDistinctTrigrams() {
+		// "  а", " ан", "анн", "нна", "на "
+		assertThat(TrigramIndex.trigrams("анна")).hasSize(5);
+		assertThat(TrigramIndex.trigrams("анна анна")).hasSize(5);
+		assertThat(TrigramIndex.trigrams("ан на")).hasSize(6);
+	}
+
+	@Test
+	void ranksByEditDistanceThenSimilarity() {
+		index.update(client(1, "Анна Смирнова", LOCATION));
+		index.update(client(2, "Анна Смирнов", LOCATION));
+		index.update(client(3, "Иван Петров", LOCATION));
+
+		assertThat(index.search(LOCATION, "Смирнова", 10)).extracting(TrigramIndex.Match::id).containsExactly(1L, 2L);
+		assertThat(index.search(LOCATION, "Смирнов", 10)).extracting(TrigramIndex.Match::id).containsExactly(2L, 1L);
+		// one edit from both, the shorter name shares more of its trigrams
+		assertThat(index.search(LOCATION, "Смирновв", 10)).extracting(TrigramIndex.Match::id).containsExactly(2L, 1L);
+		assertThat(index.search(LOCATION, "Смирновв", 10)).extracting(TrigramIndex.Match::distance)
+				.containsExactly(1, 1);
+		assertThat(index.search(LOCATION, "Смирнова", 1)).extracting(TrigramIndex.Match::id).containsExactly(1L);
+		assertThat(index.search(LOCATION, "Смирнова", 0)).isEmpty();
+	}
+
+	@Test
+	void findsNamesTypedWithLatinLookalikes() {
+		index.update(client(1, "Кора Петрова", LOCATION));
+
+		assertThat(index.search(LOCATION, "Kopa", 10)).extracting(TrigramIndex.Match::id).containsExactly(1L);
+	}
+
+	@Test
+	void removedClientsAreNotFoundAgain() {
+		index.update(5, client(1, "Анна Смирнова", LOCATION));
+		index.remove(6, 1L);
+		index.update(5, client(1, "Анна Смирнова", LOCATION));
+
+		assertThat(index.search(LOCATION, "Смирнова", 10)).isEmpty();
+	}
+
+	@Test
+	void searchesOnlyTheGivenLocation() {
+		index.update(client(1, "Анна Смирнова", 2L));
+
+		assertThat(index.search(LOCATION, "Смирнова", 10)).isEmpty();
+		assertThat(index.search(2L, "Смирнова", 10)).extracting(TrigramIndex.Match::id).containsExactly(1L);
+	}
+
+	@Test
+	void theEditDistanceCutoffIsCappedAtTheLimit() {
+		index.update(client(1, "Смирнова", LOCATION));
+
+		assertThat(index.search(LOCATION, "Смирноваааа", 100, 10)).extracting(TrigramIndex.Match::distance)
+				.containsExactly(3);
+		assertThat(index.search(LOCATION, "Смирновааааа", 100, 10)).isEmpty();
+	}
+
+	private static Client client(long id, String name, long location) {
+		Client client = new Client();
+		client.setId(id);
+		client.setFull_name(name);
+		client.setLocation_id(location);
+		return client;
+	}
+}
@@ -0,0 +1,170 @@
+package com.example.session;
+
+import com.example.config.UserInfo;
+import com.example.config.UserInfoUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JDBC session store against an embedded database: compact attribute values,
+ * writes of changed attributes only, and batched cleanup of expired sessions.
+ */
+@JdbcTest(properties = "barbershop.session.cleanup-batch-size=10")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ExpiredSessionCleaner.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcSessionStoreTest {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ExpiredSessionCleaner cleaner;
+
+	private final List<String> attributeWrites = new ArrayList<>();
+
+	private SessionRepository<Session> repository;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void createSchema() {
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+		populator.setContinueOnError(true);
+		populator.addScript(new ClassPathResource("org/springframework/session/jdbc/schema-drop-h2.sql"));
+		populator.addScript(new ClassPathResource("org/springframework/session/jdbc/schema-h2.sql"));
+		populator.execute(dataSource);
+
+		// records the statements that write session attributes
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+			@Override
+			public int update(String sql, PreparedStatementSetter setter) {
+				record(sql);
+				return super.update(sql, setter);
+			}
+
+			@Override
+			public int[] batchUpdate(String sql, BatchPreparedStatementSetter setter) {
+				record(sql);
+				return super.batchUpdate(sql, setter);
+			}
+		};
+		JdbcIndexedSessionRepository jdbcRepository =
+				new JdbcIndexedSessionRepository(jdbcTemplate, new TransactionTemplate(transactionManager));
+		jdbcRepository.setConversionService(new SessionConfig().springSessionConversionService());
+		// Session is not public, the tests use the repository through the Session interface
+		repository = (SessionRepository<Session>) (SessionRepository<?>) jdbcRepository;
+	}
+
+	private void record(String sql) {
+		if (sql.contains("SPRING_SESSION_ATTRIBUTES")) {
+			attributeWrites.add(sql.trim().split("\\s+")[0]);
+		}
+	}
+
+	@Test
+	void restoresAttributesAndSecurityContext() {
+		Session session = repository.createSession();
+		session.setAttribute("username", "anna");
+		session.setAttribute("roles", "ROLE_ADMIN");
+		session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext());
+		repository.save(session);
+
+		Session loaded = repository.findById(session.getId());
+		assertThat(loaded.<String>getAttribute("username")).isEqualTo("anna");
+		assertThat(loaded.<String>getAttribute("roles")).isEqualTo("ROLE_ADMIN");
+		SecurityContext context = loaded.getAttribute("SPRING_SECURITY_CONTEXT");
+		assertThat(context.getAuthentication().getName()).isEqualTo("anna");
+		assertThat(context.getAuthentication().isAuthenticated()).isTrue();
+		assertThat(context.getAuthentication().getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+		assertThat(((WebAuthenticationDetails) context.getAuthentication().getDetails()).getRemoteAddress()).isEqualTo("10.0.0.1");
+		// the password hash is not written to the session store
+		assertThat(((UserInfoUserDetails) context.getAuthentication().getPrincipal()).getPassword()).isNull();
+		assertThat(((UserInfoUserDetails) context.getAuthentication().getPrincipal()).getLocationId()).isEqualTo(1L);
+	}
+
+	@Test
+	void securityContextIsSmallerThanJavaSerialization() {
+		SecurityContext context = securityContext();
+		byte[] compact = CompactSessionCodec.encode(context);
+		byte[] serialized = new SerializingConverter().convert(context);
+		System.out.printf("security context: %d bytes compact, %d bytes serialized%n", compact.length, serialized.length);
+		assertThat(compact.length * 5).isLessThan(serialized.length);
+	}
+
+	@Test
+	void writesOnlyChangedAttributes() {
+		Session session = repository.createSession();
+		session.setAttribute("username", "anna");
+		session.setAttribute("roles", "ROLE_USER");
+		session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext());
+		repository.save(session);
+
+		attributeWrites.clear();
+		Session loaded = repository.findById(session.getId());
+		loaded.setAttribute("roles", "ROLE_ADMIN");
+		repository.save(loaded);
+
+		assertThat(attributeWrites).containsExactly("UPDATE");
+		assertThat(repository.findById(session.getId()).<String>getAttribute("roles")).isEqualTo("ROLE_ADMIN");
+	}
+
+	@Test
+	void deletesExpiredSessionsInBatches() {
+		List<String> expired = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			Session session = repository.createSession();
+			session.setAttribute("username", "user" + i);
+			session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(2)));
+			repository.save(session);
+			expired.add(session.getId());
+		}
+		Session live = repository.createSession();
+		repository.save(live);
+
+		assertThat(cleaner.cleanup(System.currentTimeMillis())).isEqualTo(25);
+		assertThat(expired).allMatch(id -> repository.findById(id) == null);
+		assertThat(repository.findById(live.getId())).isNotNull();
+	}
+
+	private static SecurityContext securityContext() {
+		UserInfoUserDetails user = new UserInfoUserDetails(new UserInfo(1, "anna", "{argon2}$argon2id$v=19$m=19456,t=2,p=1$c2FsdHNhbHRzYWx0$aGFzaGhhc2hoYXNoaGFzaGhhc2hoYXNoaGFzaA", "ROLE_ADMIN", 1L));
+		UsernamePasswordAuthenticationToken authentication =
+				UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+		authentication.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-1"));
+		return new SecurityContextImpl(authentication);
+	}
+}
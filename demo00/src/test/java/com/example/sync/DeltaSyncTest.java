@@ -0,0 +1,112 @@
+package com.example.sync;
+
+import com.example.cache.TableVersions;
+import com.example.client.Client;
+import com.example.client.ClientService;
+import com.example.client.DataServices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Syncs the client table the way a front-desk tablet does: a full download, then deltas holding only the rows
+ * changed and deleted since the watermark, whatever the size of the table.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({DataServices.class, SyncService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeltaSyncTest {
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private SyncService syncService;
+
+	private final String service = "Sync " + UUID.randomUUID();
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < 200; i++) {
+			Client client = new Client();
+			client.setFull_name("Sync client " + i);
+			client.setVisit_date("2023-06-01 1" + (i % 10) + ":00");
+			client.setService(service);
+			client.setMaster_name("Master " + (i % 3));
+			clientService.save(client);
+			ids.add(client.getId());
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		clientService.deleteAll(ids);
+	}
+
+	@Test
+	void deltaHoldsOnlyChangedAndDeletedRows() throws Exception {
+		SyncBatch<?> full = syncService.changes(TableVersions.CLIENT, 0, 1000);
+		long watermark = drain(full.watermark(), full.hasMore());
+
+		List<Long> changed = ids.subList(0, 3);
+		for (Long id : changed) {
+			Client client = clientService.get(id);
+			client.setMaster_name("Master 9");
+			clientService.save(client);
+		}
+		List<Long> deleted = List.copyOf(ids.subList(3, 5));
+		clientService.deleteAll(deleted);
+
+		SyncBatch<?> delta = syncService.changes(TableVersions.CLIENT, watermark, 1000);
+		assertThat(delta.hasMore()).isFalse();
+		assertThat(delta.changed()).extracting("id").containsExactlyInAnyOrderElementsOf(changed);
+		assertThat(delta.deleted()).containsExactlyInAnyOrderElementsOf(deleted);
+		assertThat(syncService.changes(TableVersions.CLIENT, delta.watermark(), 1000).changed()).isEmpty();
+
+		ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+		ObjectMapper cbor = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+		System.out.printf("full download: %d rows, %d bytes JSON, %d bytes CBOR; delta: %d bytes JSON, %d bytes CBOR%n",
+				full.changed().size(), json.writeValueAsBytes(full).length, cbor.writeValueAsBytes(full).length,
+				json.writeValueAsBytes(delta).length, cbor.writeValueAsBytes(delta).length);
+		assertThat(cbor.writeValueAsBytes(full).length).isLessThan(json.writeValueAsBytes(full).length);
+	}
+
+	@Test
+	void batchEndsAtAVersionBoundary() {
+		long watermark = drain(0, true);
+		clientService.renameService(service, service + " renamed");
+
+		// the 200 rows renamed by one transaction arrive together although the batch asks for 5
+		SyncBatch<?> batch = syncService.changes(TableVersions.CLIENT, watermark, 5);
+		assertThat(batch.changed()).hasSize(200);
+		assertThat(syncService.changes(TableVersions.CLIENT, batch.watermark(), 5).changed()).isEmpty();
+	}
+
+	private long drain(long watermark, boolean hasMore) {
+		while (hasMore) {
+			SyncBatch<?> batch = syncService.changes(TableVersions.CLIENT, watermark, 1000);
+			watermark = batch.watermark();
+			hasMore = batch.hasMore();
+		}
+		return watermark;
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.tenant;
+
+import com.example.cache.TableVersions;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.sync.SyncBatch;
+import com.example.sync.SyncService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs two shops side by side: the same master and service at both, and every read, write, sync version, cached
+ * page, search suggestion and connection of one location kept apart from the other.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LocationIsolationTest {
+	private static final long MAIN = TenantContext.DEFAULT_LOCATION;
+	private static final long SECOND = 2L;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Autowired
+	private SyncService syncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private final String service = "Location " + UUID.randomUUID();
+	private final List<Long> ids = new ArrayList<>();
+	private Client atMain;
+	private Client atSecond;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("insert into location (id, name) select ?, 'Second' from dual "
+				+ "where not exists (select 1 from location where id = ?)", SECOND, SECOND);
+		atMain = TenantContext.callAt(MAIN, () -> save("Main client " + UUID.randomUUID()));
+		atSecond = TenantContext.callAt(SECOND, () -> save("Second client " + UUID.randomUUID()));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		clientRepository.deleteAllById(ids);
+	}
+
+	@Test
+	void requestsOnlySeeTheirOwnLocation() {
+		assertThat(atMain.getLocation_id()).isEqualTo(MAIN);
+		assertThat(atSecond.getLocation_id()).isEqualTo(SECOND);
+		assertThat(TenantContext.callAt(MAIN, () -> clientService.listAll(service)))
+				.extracting(Client::getId).containsExactly(atMain.getId());
+		assertThat(TenantContext.callAt(SECOND, () -> clientService.listAll(service)))
+				.extracting(Client::getId).containsExactly(atSecond.getId());
+		assertThatThrownBy(() -> TenantContext.callAt(MAIN, () -> clientService.get(atSecond.getId())))
+				.isInstanceOf(UnknownLocationException.class);
+	}
+
+	@Test
+	void writesStayInTheirLocation() {
+		long secondVersion = tableVersions.version(TableVersions.CLIENT, SECOND);
+
+		assertThat(TenantContext.callAt(MAIN, () -> clientService.renameService(service, service + " renamed"))).isEqualTo(1);
+
+		assertThat(clientRepository.findById(atSecond.getId()).orElseThrow().getService()).isEqualTo(service);
+		// the second shop's cached pages stay current
+		assertThat(tableVersions.version(TableVersions.CLIENT, SECOND)).isEqualTo(secondVersion);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminPicksTheLocationOfARequest() throws Exception {
+		mockMvc.perform(get("/").param("keyword", service).header(TenantResolver.HEADER, SECOND))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(atSecond.getFull_name())))
+				.andExpect(content().string(not(containsString(atMain.getFull_name()))));
+		mockMvc.perform(get("/").header(TenantResolver.HEADER, 999))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void syncVersionsAreCountedPerLocation() {
+		long secondVersion = lastSyncVersion(SECOND);
+		long watermark = TenantContext.callAt(SECOND, () -> syncService.changes(TableVersions.CLIENT, 0, 1000)).watermark();
+
+		TenantContext.callAt(MAIN, () -> save("Main client " + UUID.randomUUID()));
+
+		// the main shop's write neither waited for nor moved the second shop's counter and watermark
+		assertThat(lastSyncVersion(SECOND)).isEqualTo(secondVersion);
+		SyncBatch<?> delta = TenantContext.callAt(SECOND, () -> syncService.changes(TableVersions.CLIENT, watermark, 1000));
+		assertThat(delta.changed()).isEmpty();
+		assertThat(delta.watermark()).isEqualTo(watermark);
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void searchIndexesOnlySuggestTheLocationsOwnClients() throws Exception {
+		String secondName = atSecond.getFull_name();
+		// the indexes are updated from the change events in the background
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!(getAt(SECOND, "/autocomplete", "prefix", secondName).contains(secondName)
+				&& getAt(SECOND, "/search/clients", "name", secondName).contains(secondName))
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(getAt(SECOND, "/autocomplete", "prefix", secondName)).contains(secondName);
+		assertThat(getAt(SECOND, "/search/clients", "name", secondName)).contains(secondName);
+
+		assertThat(getAt(MAIN, "/autocomplete", "prefix", secondName)).doesNotContain(secondName);
+		assertThat(getAt(MAIN, "/autocomplete", "prefix", "Second client")).doesNotContain(secondName);
+		assertThat(getAt(MAIN, "/search/clients", "name", secondName)).doesNotContain(secondName);
+	}
+
+	@Test
+	void aBusyLocationLeavesConnectionsForTheOthers() throws Exception {
+		TenantDataSource limited = new TenantDataSource(dataSource, 1, Duration.ofMillis(100));
+		try (Connection held = TenantContext.callAt(SECOND, () -> open(limited))) {
+			assertThatThrownBy(() -> TenantContext.callAt(SECOND, () -> open(limited)))
+					.hasCauseInstanceOf(SQLTransientConnectionException.class);
+			try (Connection other = TenantContext.callAt(MAIN, () -> open(limited))) {
+				assertThat(other.isValid(1)).isTrue();
+			}
+			assertThat(limited.connectionsInUse(SECOND)).isEqualTo(1);
+		}
+		assertThat(limited.connectionsInUse(SECOND)).isZero();
+	}
+
+	private Client save(String name) {
+		Client client = new Client();
+		client.setFull_name(name);
+		client.setVisit_date("2023-06-01 10:00");
+		client.setService(service);
+		client.setMaster_name("Master 1");
+		clientService.save(client);
+		ids.add(client.getId());
+		return client;
+	}
+
+	private long lastSyncVersion(long location) {
+		return jdbcTemplate.queryForObject("select last_version from sync_version where location_id = ?", Long.class,
+				location);
+	}
+
+	private String getAt(long location, String path, String parameter, String value) throws Exception {
+		return mockMvc.perform(get(path).param(parameter, value).header(TenantResolver.HEADER, location))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	private static Connection open(DataSource dataSource) {
+		try {
+			return dataSource.getConnection();
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.tenant;
+
+import com.example.client.ClientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caches one listing of a quiet location and more listings of a busy one than a location may keep: the busy
+ * location's results only evict each other, the quiet location's listing stays cached.
+ */
+@SpringBootTest(properties = "barbershop.tenants.query-cache-entries-per-location=2")
+@ActiveProfiles("test")
+class TenantRegionFactoryTest {
+	private static final long QUIET = TenantContext.DEFAULT_LOCATION;
+	private static final long BUSY = 2L;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void aBusyLocationOnlyEvictsItsOwnQueryResults() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		TenantRegionFactory regionFactory = (TenantRegionFactory) sessionFactory.getCache().getRegionFactory();
+		sessionFactory.getCache().evictQueryRegions();
+
+		TenantContext.callAt(QUIET, () -> clientService.listAll(null));
+		for (int i = 0; i < 5; i++) {
+			String keyword = "busy " + i;
+			TenantContext.callAt(BUSY, () -> clientService.listAll(keyword));
+		}
+
+		assertThat(size(regionFactory.queryResultsOf(QUIET))).isEqualTo(1);
+		assertThat(size(regionFactory.queryResultsOf(BUSY))).isEqualTo(2);
+	}
+
+	private static int size(Cache<Object, Object> cache) {
+		int size = 0;
+		for (Cache.Entry<Object, Object> ignored : cache) {
+			size++;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.warmup;
+
+import com.example.cache.FragmentCache;
+import com.example.client.Client;
+import com.example.client.ClientRepository;
+import com.example.client.ClientService;
+import com.example.tenant.TenantContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Starts the application with the warm-up on, and checks that it reported ready only after warming up, that the
+ * warm-up ran every step without failures and that it left the first page of the client table in the FragmentCache.
+ */
+@SpringBootTest(properties = {"barbershop.warmup.enabled=true", "barbershop.warmup.rounds=3",
+		"barbershop.warmup.threads=1", "barbershop.warmup.max-locations=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WarmupTest {
+
+	@Autowired
+	private WarmupRunner warmupRunner;
+
+	@Autowired
+	private ApplicationAvailability availability;
+
+	@Autowired
+	private FragmentCache fragmentCache;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void reportsReadyAfterTheWarmUp() throws Exception {
+		assertThat(warmupRunner.report()).isNotNull();
+		assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+		mockMvc.perform(get("/ready"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("ACCEPTING_TRAFFIC"));
+	}
+
+	@Test
+	void warmsQueriesPagesAndCaches() {
+		Client client = new Client();
+		client.setFull_name("Warm-up client");
+		client.setVisit_date("2030-01-01 10:00");
+		client.setService("Warm-up service");
+		client.setMaster_name("Master 1");
+		clientService.save(client);
+		try {
+			WarmupReport report = warmupRunner.warmUp();
+
+			assertThat(report.stoppedBy()).isEqualTo("completed");
+			assertThat(report.rounds()).isEqualTo(3);
+			assertThat(report.steps()).containsKeys("connections", "clients", "posts",
+					"index.html ROLE_ADMIN", "blog.html ROLE_ADMIN", "index.html ROLE_USER", "blog.html ROLE_USER");
+			report.steps().forEach((name, step) -> assertThat(step.failures()).as(name + ": " + step.lastError()).isZero());
+			assertThat(report.steps().get("clients").runs()).isEqualTo(3);
+			assertThat(fragmentCache.usedBytes(TenantContext.DEFAULT_LOCATION)).isPositive();
+		} finally {
+			clientRepository.deleteAllById(List.of(client.getId()));
+		}
+	}
+}
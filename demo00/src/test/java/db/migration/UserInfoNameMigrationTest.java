@@ -0,0 +1,80 @@
+package db.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the V11 migration on a user_info table as ddl-auto=update created it, without a unique name: duplicate
+ * names stop it with their list, once they are gone it adds the index, and on a table that has one it does nothing.
+ */
+class UserInfoNameMigrationTest {
+
+	private Connection connection;
+
+	@BeforeEach
+	void createTable() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:v11;MODE=MySQL", "sa", "");
+		execute("CREATE TABLE user_info (id INT NOT NULL AUTO_INCREMENT, name VARCHAR(255), password VARCHAR(255), "
+				+ "roles VARCHAR(255), PRIMARY KEY (id))");
+	}
+
+	@AfterEach
+	void dropTable() throws SQLException {
+		execute("DROP TABLE user_info");
+		connection.close();
+	}
+
+	@Test
+	void duplicateNamesStopTheMigrationUntilTheyAreRemoved() throws SQLException {
+		execute("INSERT INTO user_info (name) VALUES ('anna'), ('anna'), ('boris'), (NULL), (NULL)");
+
+		assertThatThrownBy(() -> migrate()).isInstanceOf(FlywayException.class)
+				.hasMessageContaining("anna (2 users)");
+
+		execute("DELETE FROM user_info WHERE name = 'anna' AND id > 1");
+		migrate();
+		assertThatThrownBy(() -> execute("INSERT INTO user_info (name) VALUES ('boris')")).isInstanceOf(SQLException.class);
+	}
+
+	@Test
+	void anExistingUniqueIndexIsKept() throws SQLException {
+		execute("ALTER TABLE user_info ADD CONSTRAINT uk_user_info_name UNIQUE (name)");
+
+		migrate();
+		migrate();
+		assertThatThrownBy(() -> execute("INSERT INTO user_info (name) VALUES ('anna'), ('anna')"))
+				.isInstanceOf(SQLException.class);
+	}
+
+	private void migrate() throws SQLException {
+		new V11__user_info_name_unique().migrate(new Context() {
+			@Override
+			public Configuration getConfiguration() {
+				return null;
+			}
+
+			@Override
+			public Connection getConnection() {
+				return connection;
+			}
+		});
+	}
+
+	private void execute(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+}